@@ -196,6 +196,26 @@ public class CompressedSchema
    */
   public final Attribute decodeAttribute(final ByteSequenceReader reader)
       throws DirectoryException
+  {
+    return decodeAttribute(reader, null);
+  }
+
+  /**
+   * Decodes the contents of the provided array as an attribute at the current
+   * position, unless its type is not one of the provided attribute types, in
+   * which case its values are skipped without being decoded.
+   *
+   * @param reader
+   *          The byte string reader containing the encoded entry.
+   * @param attributeTypes
+   *          The types of the attributes to decode, or {@code null} if all the
+   *          attributes must be decoded.
+   * @return The decoded attribute, or {@code null} if it was skipped.
+   * @throws DirectoryException
+   *           If the attribute could not be decoded properly for some reason.
+   */
+  public final Attribute decodeAttribute(final ByteSequenceReader reader, final Set<AttributeType> attributeTypes)
+      throws DirectoryException
   {
     // First decode the encoded attribute description id.
     final int adId = decodeId(reader);
@@ -214,6 +234,15 @@ public class CompressedSchema
     // Determine the number of values for the attribute.
     final int numValues = reader.readBERLength();
 
+    if (attributeTypes != null && !attributeTypes.contains(attrType))
+    {
+      for (int i = 0; i < numValues; i++)
+      {
+        reader.skip(reader.readBERLength());
+      }
+      return null;
+    }
+
     // For the common case of a single value with no options, generate less garbage.
     if (numValues == 1 && !ad.hasOptions())
     {
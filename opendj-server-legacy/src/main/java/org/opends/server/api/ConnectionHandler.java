@@ -13,6 +13,7 @@
  *
  * Copyright 2006-2009 Sun Microsystems, Inc.
  * Portions Copyright 2012-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.api;
 
@@ -32,6 +33,7 @@ import org.opends.server.monitors.ConnectionHandlerMonitor;
 import org.forgerock.opendj.ldap.DN;
 import org.opends.server.types.HostPort;
 import org.opends.server.types.InitializationException;
+import org.opends.server.util.DirectBufferPool;
 
 /**
  * This class defines the set of methods and structures that must be
@@ -134,6 +136,20 @@ public abstract class ConnectionHandler
 
 
 
+  /**
+   * Retrieves the pool of the direct buffers which the client connections of
+   * this connection handler lease for their I/O, if applicable.
+   *
+   * @return The pool of the I/O buffers of this connection handler, or
+   *         {@code null} if its client connections do not use a pool.
+   */
+  public DirectBufferPool getBufferPool()
+  {
+    return null;
+  }
+
+
+
    /**
    * Retrieves the DN of the configuration entry with which this alert
    * generator is associated.
@@ -40,9 +40,11 @@ import org.opends.server.core.ModifyDNOperation;
 import org.opends.server.core.ModifyOperation;
 import org.opends.server.core.PersistentSearch;
 import org.opends.server.core.PersistentSearch.CancellationCallback;
+import org.opends.server.core.PersistentSearchIndex;
 import org.opends.server.core.SearchOperation;
 import org.opends.server.core.ServerContext;
 import org.opends.server.monitors.LocalBackendMonitor;
+import org.opends.server.monitors.OperationLatencyMonitor;
 import org.opends.server.types.BackupConfig;
 import org.opends.server.types.BackupDirectory;
 import org.opends.server.types.CanceledOperationException;
@@ -79,10 +81,15 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
 
   /** The set of persistent searches registered with this backend. */
   private final ConcurrentLinkedQueue<PersistentSearch> persistentSearches = new ConcurrentLinkedQueue<>();
+  /** The persistent searches registered with this backend, indexed to quickly find those interested in a change. */
+  private final PersistentSearchIndex persistentSearchIndex = new PersistentSearchIndex();
 
   /** The backend monitor associated with this backend. */
   private LocalBackendMonitor backendMonitor;
 
+  /** The operation latencies measured for this backend. */
+  private OperationLatencyMonitor latencyMonitor;
+
   /**
    * Opens this backend based on the information provided when the backend was configured.
    * It also should open any underlying storage and register all suffixes with the server.
@@ -668,6 +675,7 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
   public void registerPersistentSearch(PersistentSearch persistentSearch) throws DirectoryException
   {
     persistentSearches.add(persistentSearch);
+    persistentSearchIndex.add(persistentSearch);
 
     persistentSearch.registerCancellationCallback(new CancellationCallback()
     {
@@ -675,6 +683,7 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
       public void persistentSearchCancelled(PersistentSearch psearch)
       {
         persistentSearches.remove(psearch);
+        persistentSearchIndex.remove(psearch);
       }
     });
   }
@@ -691,6 +700,18 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
     return persistentSearches;
   }
 
+  /**
+   * Returns the index of the persistent searches currently active against this
+   * local backend, which notifies them of the changes they may be interested in.
+   *
+   * @return the index of the persistent searches currently active against this
+   *         local backend
+   */
+  public PersistentSearchIndex getPersistentSearchIndex()
+  {
+    return persistentSearchIndex;
+  }
+
   /**
    * Retrieves the total number of entries contained in this backend,
    * if that information is available.
@@ -739,6 +760,28 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
     this.backendMonitor = backendMonitor;
   }
 
+  /**
+   * Retrieves the monitor of the latencies of the operations processed by this
+   * backend.
+   *
+   * @return  The latency monitor associated with this backend, or
+   *          {@code null} if none has been assigned.
+   */
+  public final OperationLatencyMonitor getLatencyMonitor()
+  {
+    return latencyMonitor;
+  }
+
+  /**
+   * Sets the latency monitor for this backend.
+   *
+   * @param  latencyMonitor  The latency monitor for this backend.
+   */
+  public final void setLatencyMonitor(OperationLatencyMonitor latencyMonitor)
+  {
+    this.latencyMonitor = latencyMonitor;
+  }
+
   /**
    * Indicates whether this backend supports the specified control.
    *
@@ -344,8 +344,7 @@ public class Aci implements Comparable<Aci>
         //If an ACI has extOp or targetControl targets skip it because the
         //matchCtx right does not contain either ACI_EXT_OP or ACI_CONTROL at
         //this point.
-        return hasNoExtOpOrTargetControl(aci.getTargets())
-            && haveSimilarRights(aci, matchCtx)
+        return isApplicableToRights(aci, matchCtx.getRights())
             && AciTargets.isTargetApplicable(aci, matchCtx)
             && AciTargets.isTargetFilterApplicable(aci, matchCtx)
             && AciTargets.isTargAttrFiltersApplicable(aci, matchCtx)
@@ -353,20 +352,29 @@ public class Aci implements Comparable<Aci>
       }
     }
 
+    /**
+     * Check if an ACI may be applicable to the rights specified, other than
+     * the extended operation and control rights, whatever the entry and
+     * attribute being evaluated.
+     *
+     * @param aci The ACI to check.
+     * @param rights Bit mask representing the rights being evaluated.
+     * @return True if the ACI has no extop or targetcontrol target, and has
+     *         rights similar to the rights specified.
+     */
+    static boolean isApplicableToRights(Aci aci, int rights) {
+      return hasNoExtOpOrTargetControl(aci.getTargets())
+          && (aci.hasRights(rights)
+              || (aci.hasRights(ACI_SEARCH | ACI_READ)
+                  && (rights & (ACI_SEARCH | ACI_READ)) != 0));
+    }
+
     private static boolean hasNoExtOpOrTargetControl(AciTargets aciTargets)
     {
       return aciTargets.getExtOp() == null
           && aciTargets.getTargetControl() == null;
     }
 
-    private static boolean haveSimilarRights(Aci aci,
-        AciTargetMatchContext matchCtx)
-    {
-      return aci.hasRights(matchCtx.getRights())
-            || (aci.hasRights(ACI_SEARCH| ACI_READ)
-                  && matchCtx.hasRights(ACI_SEARCH | ACI_READ));
-    }
-
     /**
      * Check if the body of the ACI matches the rights specified.
      * @param rights Bit mask representing the rights to match.
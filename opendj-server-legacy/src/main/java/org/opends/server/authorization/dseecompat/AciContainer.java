@@ -25,6 +25,7 @@ import java.security.cert.Certificate;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.DN;
@@ -138,6 +139,22 @@ abstract class AciContainer implements AciTargetMatchContext, AciEvalContext {
      */
     private int targAttrMatch;
 
+    /**
+     * True if the authentication information is the one of the client
+     * connection, in which case the bind rule results can be shared with the
+     * other evaluations of the operation.
+     */
+    private final boolean isConnectionAuthInfo;
+
+    /** The results of the client only bind rules, shared by the operation. */
+    private Map<BindRule, EnumEvalResult> bindRuleResults;
+
+    /** The resource DN the candidate ACIs were gathered for. */
+    private DN candidateAcisDN;
+
+    /** The candidate ACIs, reused by the access checks of each attribute. */
+    private CandidateAcis candidateAcis;
+
     /** The ACI that decided the last evaluation. Used in geteffectiverights loginfo processing. */
     private Aci decidingAci;
 
@@ -188,6 +205,7 @@ abstract class AciContainer implements AciTargetMatchContext, AciEvalContext {
       final Entry origAuthorizationEntry = (Entry) operation.getAttachment(ORIG_AUTH_ENTRY);
       this.proxiedAuthorization = origAuthorizationEntry != null;
       this.authorizationEntry=operation.getAuthorizationEntry();
+      this.isConnectionAuthInfo = true;
 
       //The ACI_READ right at constructor time can only be the result of the
       //AciHandler.filterEntry method. This method processes the
@@ -258,6 +276,7 @@ abstract class AciContainer implements AciTargetMatchContext, AciEvalContext {
         this.clientConnection=operation.getClientConnection();
         this.authInfo = authInfo;
         this.authorizationEntry = authInfo.getAuthorizationEntry();
+        this.isConnectionAuthInfo = false;
         this.rightsMask = rights;
         proxiedAuthorization = false;
         hasGetEffectiveRightsControl = false;
@@ -796,6 +815,42 @@ abstract class AciContainer implements AciTargetMatchContext, AciEvalContext {
       return clientConnection.getSSF();
   }
 
+  @Override
+  public Map<BindRule, EnumEvalResult> getBindRuleResults() {
+    if (!isConnectionAuthInfo || hasGetEffectiveRightsControl) {
+      // geteffectiverights evaluates the bind rules against other clients
+      return null;
+    }
+    if (bindRuleResults == null) {
+      bindRuleResults = BindRuleResults.getResults(operation, getClientDN());
+    }
+    return bindRuleResults;
+  }
+
+  /**
+   * Returns the candidate ACIs previously gathered for the provided resource
+   * DN.
+   *
+   * @param dn The resource DN.
+   * @return The candidate ACIs, or {@code null} if they were not gathered
+   * for this DN yet.
+   */
+  CandidateAcis getCandidateAcis(DN dn) {
+    return dn.equals(candidateAcisDN) ? candidateAcis : null;
+  }
+
+  /**
+   * Saves the candidate ACIs gathered for the provided resource DN, so that
+   * they are reused by the next access checks of this container.
+   *
+   * @param dn The resource DN.
+   * @param acis The candidate ACIs of the resource DN.
+   */
+  void setCandidateAcis(DN dn, CandidateAcis acis) {
+    this.candidateAcisDN = dn;
+    this.candidateAcis = acis;
+  }
+
   @Override
   public String toString()
   {
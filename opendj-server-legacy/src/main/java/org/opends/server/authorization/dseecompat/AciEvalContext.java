@@ -23,6 +23,7 @@ import org.opends.server.api.Group;
 
 import java.net.InetAddress;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface that provides a view of the AciContainer that is
@@ -296,4 +297,14 @@ public interface AciEvalContext
      * @return The current SSF of the connection.
      */
     int getCurrentSSF();
+
+    /**
+     * Returns the results of the bind rules which only depend on the client,
+     * so that they are evaluated once per operation rather than once per
+     * access check.
+     *
+     * @return The results of the bind rules already evaluated for the client
+     * of the operation, or {@code null} if they must not be reused.
+     */
+    Map<BindRule, EnumEvalResult> getBindRuleResults();
 }
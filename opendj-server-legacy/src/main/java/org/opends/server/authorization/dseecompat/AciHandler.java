@@ -17,7 +17,7 @@
  */
 package org.opends.server.authorization.dseecompat;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -512,13 +512,20 @@ public final class AciHandler extends
       }
     }
 
-    // First get all allowed candidate ACIs.
-    List<Aci> candidates = aciList.getCandidateAcis(dn);
+    // First get all allowed candidate ACIs. They do not depend on the
+    // attribute being checked, so they are gathered once per entry.
+    CandidateAcis candidates = container.getCandidateAcis(dn);
+    if (candidates == null)
+    {
+      candidates = aciList.getCandidateAcis(dn);
+      container.setCandidateAcis(dn, candidates);
+    }
     /*
      * Create an applicable list of ACIs by target matching each
-     * candidate ACI against the container's target match view.
+     * candidate ACI which may apply to the rights being evaluated against
+     * the container's target match view.
      */
-    createApplicableList(candidates, container);
+    createApplicableList(candidates.getAcis(container.getRights()), container);
     // Evaluate the applicable list.
     final boolean ret = testApplicableLists(container);
     // Build summary string if doing geteffectiverights eval.
@@ -872,8 +879,8 @@ public final class AciHandler extends
   private void createApplicableList(List<Aci> candidates,
       AciTargetMatchContext targetMatchCtx)
   {
-    List<Aci> denys = new LinkedList<>();
-    List<Aci> allows = new LinkedList<>();
+    List<Aci> denys = new ArrayList<>();
+    List<Aci> allows = new ArrayList<>(candidates.size());
     for (Aci aci : candidates)
     {
       if (Aci.isApplicable(aci, targetMatchCtx))
@@ -907,7 +914,8 @@ public final class AciHandler extends
    */
   private List<AttributeType> getAllAttrs(Entry e)
   {
-    List<AttributeType> typeList = new LinkedList<>();
+    List<AttributeType> typeList = new ArrayList<>(
+        1 + e.getUserAttributes().size() + e.getOperationalAttributes().size());
     /*
      * When a search is not all attributes returned, the "objectclass"
      * attribute type is missing from the entry.
@@ -26,6 +26,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.forgerock.i18n.LocalizableMessage;
@@ -52,6 +54,13 @@ public class AciList {
    */
   private volatile DITCacheMap<List<Aci>> aciList = new DITCacheMap<>();
 
+  /**
+   * The candidate ACIs compiled for the entries, cleared whenever the ACIs
+   * change, while holding the write lock.
+   */
+  private final ConcurrentMap<CandidateAcis.Key, CandidateAcis>
+      compiledCandidates = new ConcurrentHashMap<>();
+
   /**
    * Lock to protect internal data structures.
    */
@@ -77,49 +86,64 @@ public class AciList {
    * "target" keyword rules, or if the target keyword rule matches for
    * the specified base DN.
    *
+   * <p>
+   * The candidate ACIs are compiled once for all the entries having the same
+   * closest entry holding ACIs and the same applicable global ACIs, until the
+   * ACIs change.
+   *
    * @param baseDN  The DN to check.
-   * @return A list of candidate ACIs that might be applicable.
+   * @return The candidate ACIs that might be applicable.
    */
-  public List<Aci> getCandidateAcis(DN baseDN) {
-    List<Aci> candidates = new LinkedList<>();
+  public CandidateAcis getCandidateAcis(DN baseDN) {
     if(baseDN == null)
     {
-      return candidates;
+      return CandidateAcis.EMPTY;
     }
 
     lock.readLock().lock();
     try
     {
-      //Save the baseDN in case we need to evaluate a global ACI.
-      DN entryDN=baseDN;
-      while (baseDN != null) {
-        List<Aci> acis = aciList.get(baseDN);
-        if (acis != null) {
-          //Check if there are global ACIs. Global ACI has a NULL DN.
-          if (baseDN.isRootDN()) {
-            for (Aci aci : acis) {
-              AciTargets targets = aci.getTargets();
-              //If there is a target, evaluate it to see if this ACI should
-              //be included in the candidate set.
-              if (targets != null
-                  && AciTargets.isTargetApplicable(aci, targets, entryDN))
-              {
-                  candidates.add(aci);  //Add this ACI to the candidates.
-              }
-            }
-          } else {
-            candidates.addAll(acis);
+      //Find the closest entry holding ACIs, the candidate ACIs of the
+      //entries below it only differ by the global ACIs applicable to them.
+      DN aciEntryDN = baseDN;
+      while (!aciEntryDN.isRootDN() && !aciList.containsKey(aciEntryDN)) {
+        aciEntryDN = getParentOrRootDN(aciEntryDN);
+      }
+      if (aciEntryDN.isRootDN()) {
+        aciEntryDN = null;
+      }
+
+      //Check if there are global ACIs. Global ACI has a NULL DN.
+      List<Aci> globalAcis = new ArrayList<>();
+      List<Aci> rootAcis = aciList.get(DN.rootDN());
+      if (rootAcis != null) {
+        for (Aci aci : rootAcis) {
+          AciTargets targets = aci.getTargets();
+          //If there is a target, evaluate it to see if this ACI should
+          //be included in the candidate set.
+          if (targets != null
+              && AciTargets.isTargetApplicable(aci, targets, baseDN))
+          {
+            globalAcis.add(aci);
           }
         }
-        if(baseDN.isRootDN()) {
-          break;
-        }
-        DN parentDN=baseDN.parent();
-        if(parentDN == null) {
-          baseDN=DN.rootDN();
-        } else {
-          baseDN=parentDN;
+      }
+
+      CandidateAcis.Key key = new CandidateAcis.Key(aciEntryDN, globalAcis);
+      CandidateAcis candidates = compiledCandidates.get(key);
+      if (candidates == null) {
+        List<Aci> acis = new ArrayList<>();
+        for (DN dn = aciEntryDN; dn != null && !dn.isRootDN();
+             dn = getParentOrRootDN(dn)) {
+          List<Aci> entryAcis = aciList.get(dn);
+          if (entryAcis != null) {
+            acis.addAll(entryAcis);
+          }
         }
+        acis.addAll(globalAcis);
+        candidates = new CandidateAcis(acis);
+        // The ACIs cannot change while holding the read lock
+        compiledCandidates.put(key, candidates);
       }
       return candidates;
     }
@@ -129,6 +153,11 @@ public class AciList {
     }
   }
 
+  private static DN getParentOrRootDN(DN dn) {
+    DN parentDN = dn.parent();
+    return parentDN != null ? parentDN : DN.rootDN();
+  }
+
   /**
    * Add all the ACI from a set of entries to the ACI list. There is no need
    * to check for global ACIs since they are processe by the AciHandler at
@@ -144,6 +173,7 @@ public class AciList {
     lock.writeLock().lock();
     try
     {
+      compiledCandidates.clear();
       int validAcis = 0;
       for (Entry entry : entries) {
         DN dn=entry.getName();
@@ -173,6 +203,7 @@ public class AciList {
     lock.writeLock().lock();
     try
     {
+      compiledCandidates.clear();
       aciList.put(dn, new LinkedList<>(acis));
     }
     finally
@@ -198,6 +229,7 @@ public class AciList {
     lock.writeLock().lock();
     try
     {
+      compiledCandidates.clear();
       int validAcis = 0;
       //Process global "ds-cfg-global-aci" attribute type. The oldentry
       //DN is checked to verify it is equal to the config DN. If not those
@@ -285,6 +317,7 @@ public class AciList {
     lock.writeLock().lock();
     try
     {
+      compiledCandidates.clear();
       List<LocalizableMessage> failedACIMsgs=new LinkedList<>();
       //Process "aci" attribute types.
       if(hasAci) {
@@ -346,6 +379,7 @@ public class AciList {
     lock.writeLock().lock();
     try
     {
+      compiledCandidates.clear();
       DN entryDN = entry.getName();
       if (hasGlobalAci && entryDN.equals(configDN) &&
           aciList.remove(DN.rootDN()) == null)
@@ -374,6 +408,7 @@ public class AciList {
     lock.writeLock().lock();
     try
     {
+      compiledCandidates.clear();
       Iterator<Map.Entry<DN,List<Aci>>> iterator =
               aciList.entrySet().iterator();
       while (iterator.hasNext())
@@ -402,6 +437,7 @@ public class AciList {
     lock.writeLock().lock();
     try
     {
+      compiledCandidates.clear();
       Map<DN,List<Aci>> tempAciList = new HashMap<>();
       Iterator<Map.Entry<DN,List<Aci>>> iterator =
               aciList.entrySet().iterator();
@@ -42,6 +42,14 @@ public class BindRule {
     private final EnumBooleanTypes booleanType;
     /** The keyword of a simple bind rule. */
     private final EnumBindRuleKeyword keyword;
+    /** The keyword rule of a simple bind rule. */
+    private final KeywordBindRule rule;
+
+    /**
+     * True if the result of this bind rule only depends on the client, and
+     * not on the entry being accessed nor on the time of the evaluation.
+     */
+    private final boolean isClientOnly;
 
     /** Regular expression group position of a bind rule keyword. */
     private static final int keywordPos = 1;
@@ -86,7 +94,9 @@ public class BindRule {
      */
     private BindRule(EnumBindRuleKeyword keyword, KeywordBindRule rule) {
         this.keyword=keyword;
+        this.rule = rule;
         this.keywordRuleMap.put(keyword.toString(), rule);
+        this.isClientOnly = isClientOnly(keyword, rule);
         this.booleanType = null;
         this.left = null;
         this.right = null;
@@ -127,9 +137,27 @@ public class BindRule {
      */
     private BindRule(BindRule left, BindRule right, EnumBooleanTypes booleanType) {
         this.keyword = null;
+        this.rule = null;
         this.booleanType = booleanType;
         this.left = left;
         this.right = right;
+        this.isClientOnly = left.isClientOnly && right.isClientOnly;
+    }
+
+    private static boolean isClientOnly(EnumBindRuleKeyword keyword, KeywordBindRule rule) {
+        switch (keyword) {
+        case GROUPDN:
+        case IP:
+        case DNS:
+        case AUTHMETHOD:
+        case SSF:
+            return true;
+        case USERDN:
+            return ((UserDN) rule).isClientOnly();
+        default:
+            // userattr depends on the entry, dayofweek and timeofday on the time
+            return false;
+        }
     }
 
     /*
@@ -452,18 +480,34 @@ public class BindRule {
 
     /**
      * Evaluate an bind rule against an evaluation context. If it is a simple
-     * bind rule (no boolean type) then grab the keyword rule from the map
-     * table and call the corresponding evaluate function. If it is a
-     * complex rule call the routine above "evalComplex()".
+     * bind rule (no boolean type) then call the evaluate function of its
+     * keyword rule. If it is a complex rule call the routine above
+     * "evalComplex()". The result of a bind rule which only depends on the
+     * client is reused by the next evaluations of the same operation.
      * @param evalCtx The evaluation context to pass to the keyword
      * evaluation function.
      * @return An result enumeration containing the result of the evaluation.
      */
     public EnumEvalResult evaluate(AciEvalContext evalCtx) {
+        final Map<BindRule, EnumEvalResult> results = isClientOnly ? evalCtx.getBindRuleResults() : null;
+        if (results == null) {
+            return evaluate0(evalCtx);
+        }
+        EnumEvalResult ret = results.get(this);
+        if (ret == null) {
+            ret = evaluate0(evalCtx);
+            // Errors may be transient (DNS lookups for example), retry them
+            if (ret == EnumEvalResult.TRUE || ret == EnumEvalResult.FALSE) {
+                results.put(this, ret);
+            }
+        }
+        return ret;
+    }
+
+    private EnumEvalResult evaluate0(AciEvalContext evalCtx) {
         EnumEvalResult ret;
         //Simple bind rules have a null booleanType enumeration.
         if(this.booleanType == null) {
-            KeywordBindRule rule=keywordRuleMap.get(keyword.toString());
             ret = rule.evaluate(evalCtx);
         } else {
             ret = evalComplex(left.evaluate(evalCtx),right.evaluate(evalCtx));
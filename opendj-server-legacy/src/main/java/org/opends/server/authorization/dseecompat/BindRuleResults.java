@@ -0,0 +1,113 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.opends.server.util.ServerConstants.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Control;
+import org.opends.server.types.Operation;
+
+/**
+ * The results of the bind rules which only depend on the client of an
+ * operation, such as "groupdn", "ip" or "authmethod".
+ * <p>
+ * They are kept as an attachment of the operation, so that a search returning
+ * many entries evaluates each of these bind rules once, rather than once per
+ * returned entry and attribute. The results are dropped as soon as a group is
+ * changed, because group membership may then have changed too.
+ * <p>
+ * The results are not kept for persistent searches: they last as long as
+ * their client wants, while the results of rules such as "userdn" with an LDAP
+ * URL filter or "groupdn" of a dynamic group depend on the client entry, which
+ * may be changed meanwhile.
+ */
+final class BindRuleResults
+{
+  /** The name of the operation attachment holding the results. */
+  private static final String ATTACHMENT_NAME = BindRuleResults.class.getName();
+
+  /** The group manager refresh token at the time the results were created. */
+  private final long groupRefreshToken;
+  /** The results, by client DN: proxied authorization evaluates bind rules against two clients. */
+  private final ConcurrentMap<DN, Map<BindRule, EnumEvalResult>> resultsByClientDN = new ConcurrentHashMap<>();
+
+  private BindRuleResults(long groupRefreshToken)
+  {
+    this.groupRefreshToken = groupRefreshToken;
+  }
+
+  /**
+   * Returns the bind rule results of the provided client for the provided
+   * operation.
+   *
+   * @param operation
+   *          The operation being evaluated.
+   * @param clientDN
+   *          The DN of the client the bind rules are evaluated against.
+   * @return The thread safe map of the bind rule results, or {@code null} if
+   *         the results must not be kept for this operation.
+   */
+  static Map<BindRule, EnumEvalResult> getResults(Operation operation, DN clientDN)
+  {
+    if (isPersistentSearch(operation))
+    {
+      return null;
+    }
+
+    final long groupRefreshToken = DirectoryServer.getGroupManager().refreshToken();
+    BindRuleResults bindRuleResults;
+    // persistent searches may be evaluated by several threads
+    synchronized (operation)
+    {
+      bindRuleResults = operation.getAttachment(ATTACHMENT_NAME);
+      if (bindRuleResults == null || bindRuleResults.groupRefreshToken != groupRefreshToken)
+      {
+        bindRuleResults = new BindRuleResults(groupRefreshToken);
+        operation.setAttachment(ATTACHMENT_NAME, bindRuleResults);
+      }
+    }
+
+    Map<BindRule, EnumEvalResult> results = bindRuleResults.resultsByClientDN.get(clientDN);
+    if (results == null)
+    {
+      results = new ConcurrentHashMap<>();
+      final Map<BindRule, EnumEvalResult> existing = bindRuleResults.resultsByClientDN.putIfAbsent(clientDN, results);
+      if (existing != null)
+      {
+        results = existing;
+      }
+    }
+    return results;
+  }
+
+  private static boolean isPersistentSearch(Operation operation)
+  {
+    for (Control control : operation.getRequestControls())
+    {
+      if (OID_PERSISTENT_SEARCH.equals(control.getOID()))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+}
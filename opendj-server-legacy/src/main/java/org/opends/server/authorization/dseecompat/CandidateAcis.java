@@ -0,0 +1,131 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.opends.server.authorization.dseecompat.Aci.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.forgerock.opendj.ldap.DN;
+
+/**
+ * The candidate ACIs of the entries sharing the same closest entry holding
+ * ACIs and the same applicable global ACIs, indexed by the rights being
+ * evaluated.
+ * <p>
+ * The ACI list compiles them once for all these entries, until the ACIs
+ * change. The ACIs which cannot apply to the rights being evaluated, whatever
+ * the entry and attribute, are filtered out once per combination of rights,
+ * so that building the applicable lists of an entry only walks the ACIs which
+ * may apply to it.
+ */
+final class CandidateAcis
+{
+  /** The candidate ACIs of the entries having no ACIs nor ancestors with ACIs. */
+  static final CandidateAcis EMPTY = new CandidateAcis(Collections.<Aci> emptyList());
+
+  /** All the candidate ACIs, from the closest entry holding ACIs to the global ACIs. */
+  private final List<Aci> acis;
+  /** The ACIs which may apply to each combination of rights, excluding extended operation and control rights. */
+  private final ConcurrentMap<Integer, List<Aci>> acisByRights = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the candidate ACIs.
+   *
+   * @param acis All the candidate ACIs.
+   */
+  CandidateAcis(List<Aci> acis)
+  {
+    this.acis = acis;
+  }
+
+  /**
+   * Returns the candidate ACIs which may apply to the rights specified.
+   *
+   * @param rights Bit mask representing the rights being evaluated.
+   * @return The candidate ACIs which may apply to the rights specified, in
+   *         the order of all the candidate ACIs.
+   */
+  List<Aci> getAcis(int rights)
+  {
+    if ((rights & (ACI_EXT_OP | ACI_CONTROL)) != 0)
+    {
+      // Rarely evaluated: the extop and targetcontrol targets are checked with the entry
+      return acis;
+    }
+    List<Aci> applicableAcis = acisByRights.get(rights);
+    if (applicableAcis == null)
+    {
+      applicableAcis = new ArrayList<>();
+      for (Aci aci : acis)
+      {
+        if (isApplicableToRights(aci, rights))
+        {
+          applicableAcis.add(aci);
+        }
+      }
+      acisByRights.putIfAbsent(rights, applicableAcis);
+    }
+    return applicableAcis;
+  }
+
+  /** The key of candidate ACIs: entries with the same key have the same candidate ACIs. */
+  static final class Key
+  {
+    /** The closest entry holding ACIs, or {@code null} if none. */
+    private final DN aciEntryDN;
+    /** The global ACIs applicable to the entries. */
+    private final List<Aci> globalAcis;
+
+    /**
+     * Creates the key of the candidate ACIs of an entry.
+     *
+     * @param aciEntryDN The DN of the closest entry holding ACIs, or {@code null} if none.
+     * @param globalAcis The global ACIs applicable to the entry.
+     */
+    Key(DN aciEntryDN, List<Aci> globalAcis)
+    {
+      this.aciEntryDN = aciEntryDN;
+      this.globalAcis = globalAcis;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (this == obj)
+      {
+        return true;
+      }
+      if (!(obj instanceof Key))
+      {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return Objects.equals(aciEntryDN, other.aciEntryDN) && globalAcis.equals(other.globalAcis);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hashCode(aciEntryDN) * 31 + globalAcis.hashCode();
+    }
+  }
+}
@@ -149,6 +149,22 @@ public class UserDN implements KeywordBindRule {
         }
     }
 
+    /**
+     * Returns whether the evaluation of this userdn bind rule only depends on
+     * the client, which is the case unless it contains a "self" or "parent"
+     * URL.
+     * @return True if the evaluation does not depend on the resource entry.
+     */
+    boolean isClientOnly() {
+        for (UserDNTypeURL dnTypeURL : urlList) {
+            EnumUserDNType type = dnTypeURL.getUserDNType();
+            if (type == EnumUserDNType.SELF || type == EnumUserDNType.PARENT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Performs the evaluation of a userdn bind rule based on the
      * evaluation context passed to it. The evaluation stops when there
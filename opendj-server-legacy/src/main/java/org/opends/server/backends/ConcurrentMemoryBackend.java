@@ -0,0 +1,993 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends;
+
+import static org.forgerock.util.Reject.*;
+import static org.opends.messages.BackendMessages.*;
+import static org.opends.server.util.ServerConstants.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.ldap.ConditionResult;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.schema.AttributeType;
+import org.forgerock.opendj.server.config.server.ConcurrentMemoryBackendCfg;
+import org.opends.server.api.LocalBackend;
+import org.opends.server.controls.SubtreeDeleteControl;
+import org.opends.server.core.AddOperation;
+import org.opends.server.core.DeleteOperation;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.ModifyDNOperation;
+import org.opends.server.core.ModifyOperation;
+import org.opends.server.core.SearchOperation;
+import org.opends.server.core.ServerContext;
+import org.opends.server.types.BackupConfig;
+import org.opends.server.types.BackupDirectory;
+import org.opends.server.types.Control;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Entry;
+import org.opends.server.types.IndexType;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.LDIFExportConfig;
+import org.opends.server.types.LDIFImportConfig;
+import org.opends.server.types.LDIFImportResult;
+import org.opends.server.types.RestoreConfig;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.types.VirtualAttributeRule;
+import org.opends.server.util.CollectionUtils;
+import org.opends.server.util.LDIFException;
+import org.opends.server.util.LDIFReader;
+import org.opends.server.util.LDIFWriter;
+
+/**
+ * This class defines a backend that stores its information in memory, like the
+ * {@link MemoryBackend}, but which is designed for small suffixes under heavy
+ * concurrent load, such as the session and token suffixes which need low
+ * latency but no persistence.
+ * <BR><BR>
+ * Entries are held in concurrent maps and are never modified once stored: a
+ * modification replaces the stored entry with a new one. Reads and searches
+ * therefore never lock, and each of them sees a consistent version of every
+ * entry it reads. Writes lock the entry they change and its parent, using a
+ * fixed set of lock stripes, so that unrelated writes proceed in parallel.
+ * Subtree deletes, renames, imports and clears, which change many entries at
+ * once, exclude all the other writes.
+ * <BR><BR>
+ * Searches walk the tree of entries below their base DN, so that the parent
+ * entries are always returned before their children. When the filter targets
+ * one of the configured indexed attributes, the search only checks the
+ * candidate entries selected by the {@link MemoryAttributeIndex} instead.
+ */
+public class ConcurrentMemoryBackend
+       extends LocalBackend<ConcurrentMemoryBackendCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The set of supported controls for this backend. */
+  private static final Set<String> supportedControls = Collections.singleton(OID_SUBTREE_DELETE_CONTROL);
+
+  /** The number of locks which the writes of the entries are spread across. */
+  private static final int NB_LOCK_STRIPES = 64;
+
+  /** The base DNs for this backend. */
+  private Set<DN> baseDNs;
+  /** The mapping between parent DNs and their immediate children. */
+  private final Map<DN, Set<DN>> childDNs = new ConcurrentHashMap<>();
+  /** The mapping between entry DNs and the corresponding entries. */
+  private final Map<DN, Entry> entryMap = new ConcurrentHashMap<>();
+  /** The indexes of the indexed attributes, unmodified once the backend is opened. */
+  private Map<AttributeType, MemoryAttributeIndex> indexes = Collections.emptyMap();
+  /**
+   * Taken for read by the writes of a single entry, which then lock their own stripes,
+   * and for write by the operations changing many entries at once.
+   */
+  private final ReadWriteLock treeLock = new ReentrantReadWriteLock();
+  /** The locks protecting the writes of the entries, an entry being protected by the lock of its stripe. */
+  private final Lock[] lockStripes = new Lock[NB_LOCK_STRIPES];
+  /** The server context. */
+  private ServerContext serverContext;
+  /** The attribute types to index. */
+  private Set<AttributeType> indexedAttributes = Collections.emptySet();
+  /** The attribute types having virtual attribute rules, computed for the current virtual attribute rules. */
+  private volatile VirtualAttributeTypes virtualAttributeTypes;
+
+  /** The attribute types having virtual attribute rules, for a given collection of virtual attribute rules. */
+  private static final class VirtualAttributeTypes
+  {
+    private final Collection<VirtualAttributeRule> rules;
+    private final Set<AttributeType> attributeTypes = new HashSet<>();
+
+    private VirtualAttributeTypes(Collection<VirtualAttributeRule> rules)
+    {
+      this.rules = rules;
+      for (VirtualAttributeRule rule : rules)
+      {
+        attributeTypes.add(rule.getAttributeType());
+      }
+    }
+  }
+
+  /**
+   * Creates a new backend with the provided information.  All backend
+   * implementations must implement a default constructor that use
+   * <CODE>super()</CODE> to invoke this constructor.
+   */
+  public ConcurrentMemoryBackend()
+  {
+    super();
+
+    for (int i = 0; i < lockStripes.length; i++)
+    {
+      lockStripes[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Set the base DNs for this backend.  This is used by the unit tests
+   * to set the base DNs without having to provide a configuration
+   * object when initializing the backend.
+   * @param baseDNs The set of base DNs to be served by this memory backend.
+   */
+  public void setBaseDNs(DN... baseDNs)
+  {
+    this.baseDNs = CollectionUtils.newHashSet(baseDNs);
+  }
+
+  /**
+   * Set the attribute types indexed by this backend.  This is used by the
+   * unit tests to set the indexes without having to provide a configuration
+   * object when initializing the backend.
+   * @param attributeTypes The attribute types to index.
+   */
+  public void setIndexedAttributes(AttributeType... attributeTypes)
+  {
+    this.indexedAttributes = CollectionUtils.newHashSet(attributeTypes);
+  }
+
+  @Override
+  public void configureBackend(ConcurrentMemoryBackendCfg config, ServerContext serverContext)
+      throws ConfigException
+  {
+    this.serverContext = serverContext;
+    if (config != null)
+    {
+      this.baseDNs = config.getBaseDN();
+      this.indexedAttributes = config.getIndexedAttribute();
+    }
+  }
+
+  @Override
+  public void openBackend()
+       throws ConfigException, InitializationException
+  {
+    // We won't support anything other than exactly one base DN in this implementation,
+    // for consistency with the memory backend.
+    if (baseDNs == null || baseDNs.size() != 1)
+    {
+      throw new ConfigException(ERR_MEMORYBACKEND_REQUIRE_EXACTLY_ONE_BASE.get());
+    }
+
+    final Map<AttributeType, MemoryAttributeIndex> newIndexes = new HashMap<>();
+    for (AttributeType attributeType : indexedAttributes)
+    {
+      newIndexes.put(attributeType, new MemoryAttributeIndex(attributeType, serverContext));
+    }
+    indexes = newIndexes;
+
+    for (DN dn : baseDNs)
+    {
+      try
+      {
+        serverContext.getBackendConfigManager().registerBaseDN(dn, this, false);
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+
+        LocalizableMessage message = ERR_BACKEND_CANNOT_REGISTER_BASEDN.get(
+            dn, getExceptionMessage(e));
+        throw new InitializationException(message, e);
+      }
+    }
+  }
+
+  /** Removes any data that may have been stored in this backend. */
+  public void clearMemoryBackend()
+  {
+    treeLock.writeLock().lock();
+    try
+    {
+      entryMap.clear();
+      childDNs.clear();
+      for (MemoryAttributeIndex index : indexes.values())
+      {
+        index.clear();
+      }
+    }
+    finally
+    {
+      treeLock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void closeBackend()
+  {
+    clearMemoryBackend();
+
+    for (DN dn : baseDNs)
+    {
+      try
+      {
+        serverContext.getBackendConfigManager().deregisterBaseDN(dn);
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+      }
+    }
+  }
+
+  @Override
+  public Set<DN> getBaseDNs()
+  {
+    return baseDNs;
+  }
+
+  @Override
+  public long getEntryCount()
+  {
+    return entryMap.size();
+  }
+
+  @Override
+  public boolean isIndexed(AttributeType attributeType, IndexType indexType)
+  {
+    return indexes.containsKey(attributeType);
+  }
+
+  @Override
+  public ConditionResult hasSubordinates(DN entryDN)
+         throws DirectoryException
+  {
+    long ret = getNumberOfSubordinates(entryDN, false);
+    if(ret < 0)
+    {
+      return ConditionResult.UNDEFINED;
+    }
+    return ConditionResult.valueOf(ret != 0);
+  }
+
+  @Override
+  public long getNumberOfEntriesInBaseDN(DN baseDN) throws DirectoryException {
+    checkNotNull(baseDN, "baseDN must not be null");
+    return getNumberOfSubordinates(baseDN, true) + 1;
+  }
+
+  @Override
+  public long getNumberOfChildren(DN parentDN) throws DirectoryException {
+    checkNotNull(parentDN, "parentDN must not be null");
+    return getNumberOfSubordinates(parentDN, false);
+  }
+
+  private long getNumberOfSubordinates(DN entryDN, boolean includeSubtree) throws DirectoryException
+  {
+    // Try to look up the immediate children for the DN
+    final Set<DN> children = childDNs.get(entryDN);
+    if (children == null)
+    {
+      if(entryMap.containsKey(entryDN))
+      {
+        // The entry does exist but just no children.
+        return 0;
+      }
+      return -1;
+    }
+
+    if(!includeSubtree)
+    {
+      return children.size();
+    }
+    long count = 0;
+    for (DN child : children)
+    {
+      count += Math.max(getNumberOfSubordinates(child, true), 0);
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public Entry getEntry(DN entryDN)
+  {
+    Entry entry = entryMap.get(entryDN);
+    if (entry != null)
+    {
+      entry = entry.duplicate(true);
+    }
+
+    return entry;
+  }
+
+  @Override
+  public boolean entryExists(DN entryDN)
+  {
+    return entryMap.containsKey(entryDN);
+  }
+
+  private int getLockStripe(DN dn)
+  {
+    final int hash = dn.hashCode();
+    // spread the high bits, DN hash codes are not always well distributed
+    return Math.abs((hash ^ (hash >>> 16)) % lockStripes.length);
+  }
+
+  /** Locks a single entry write, taking the stripes in increasing order to avoid dead locks. */
+  private void lock(DN entryDN, DN parentDN)
+  {
+    treeLock.readLock().lock();
+    final int entryStripe = getLockStripe(entryDN);
+    final int parentStripe = parentDN != null ? getLockStripe(parentDN) : entryStripe;
+    lockStripes[Math.min(entryStripe, parentStripe)].lock();
+    if (entryStripe != parentStripe)
+    {
+      lockStripes[Math.max(entryStripe, parentStripe)].lock();
+    }
+  }
+
+  private void unlock(DN entryDN, DN parentDN)
+  {
+    final int entryStripe = getLockStripe(entryDN);
+    final int parentStripe = parentDN != null ? getLockStripe(parentDN) : entryStripe;
+    lockStripes[entryStripe].unlock();
+    if (entryStripe != parentStripe)
+    {
+      lockStripes[parentStripe].unlock();
+    }
+    treeLock.readLock().unlock();
+  }
+
+  @Override
+  public void addEntry(Entry entry, AddOperation addOperation)
+         throws DirectoryException
+  {
+    final DN entryDN = entry.getName();
+    final DN parentDN = getParentDN(entryDN);
+    lock(entryDN, parentDN);
+    try
+    {
+      addEntry0(entry.duplicate(false), parentDN);
+    }
+    finally
+    {
+      unlock(entryDN, parentDN);
+    }
+  }
+
+  /** Adds an entry, the caller holding the locks of the entry and its parent. */
+  private void addEntry0(Entry e, DN parentDN) throws DirectoryException
+  {
+    // See if the target entry already exists.  If so, then fail.
+    DN entryDN = e.getName();
+    if (entryMap.containsKey(entryDN))
+    {
+      throw new DirectoryException(ResultCode.ENTRY_ALREADY_EXISTS,
+          ERR_MEMORYBACKEND_ENTRY_ALREADY_EXISTS.get(entryDN));
+    }
+
+    // If the entry is not one of the base DNs, ensure that its parent exists in the backend.
+    if (!baseDNs.contains(entryDN))
+    {
+      if (parentDN == null)
+      {
+        throw new DirectoryException(ResultCode.NO_SUCH_OBJECT,
+            ERR_MEMORYBACKEND_ENTRY_DOESNT_BELONG.get(entryDN));
+      }
+      else if (! entryMap.containsKey(parentDN))
+      {
+        throw new DirectoryException(ResultCode.NO_SUCH_OBJECT,
+            ERR_MEMORYBACKEND_PARENT_DOESNT_EXIST.get(entryDN, parentDN));
+      }
+    }
+
+    // Index the entry before publishing it, so that any search finding it can also find it through the indexes
+    for (MemoryAttributeIndex index : indexes.values())
+    {
+      index.addEntry(e);
+    }
+    if (parentDN != null)
+    {
+      Set<DN> children = childDNs.get(parentDN);
+      if (children == null)
+      {
+        children = Collections.newSetFromMap(new ConcurrentHashMap<DN, Boolean>());
+        childDNs.put(parentDN, children);
+      }
+      children.add(entryDN);
+    }
+    entryMap.put(entryDN, e);
+  }
+
+  @Override
+  public void deleteEntry(DN entryDN, DeleteOperation deleteOperation)
+         throws DirectoryException
+  {
+    // Check to see if the entry contains a subtree delete control.
+    boolean subtreeDelete = deleteOperation != null
+        && deleteOperation.getRequestControl(SubtreeDeleteControl.DECODER) != null;
+    if (subtreeDelete)
+    {
+      treeLock.writeLock().lock();
+      try
+      {
+        deleteEntry0(entryDN, getParentDN(entryDN), true);
+      }
+      finally
+      {
+        treeLock.writeLock().unlock();
+      }
+      return;
+    }
+
+    final DN parentDN = getParentDN(entryDN);
+    lock(entryDN, parentDN);
+    try
+    {
+      deleteEntry0(entryDN, parentDN, false);
+    }
+    finally
+    {
+      unlock(entryDN, parentDN);
+    }
+  }
+
+  private DN getParentDN(DN entryDN)
+  {
+    return baseDNs.contains(entryDN) ? null : serverContext.getBackendConfigManager().getParentDNInSuffix(entryDN);
+  }
+
+  /**
+   * Deletes an entry, the caller holding the locks of the entry and its parent,
+   * or the write lock of the tree for a subtree delete.
+   */
+  private void deleteEntry0(DN entryDN, DN parentDN, boolean subtreeDelete) throws DirectoryException
+  {
+    // Make sure the entry exists.  If not, then throw an exception.
+    final Entry entry = entryMap.get(entryDN);
+    if (entry == null)
+    {
+      throw new DirectoryException(ResultCode.NO_SUCH_OBJECT,
+          ERR_BACKEND_ENTRY_DOESNT_EXIST.get(entryDN, getBackendID()));
+    }
+
+    Set<DN> children = childDNs.get(entryDN);
+    if (children != null && !children.isEmpty())
+    {
+      // children exist
+      if (!subtreeDelete)
+      {
+        throw new DirectoryException(ResultCode.NOT_ALLOWED_ON_NONLEAF,
+            ERR_MEMORYBACKEND_CANNOT_DELETE_ENTRY_WITH_CHILDREN.get(entryDN));
+      }
+
+      for (DN childDN : children.toArray(new DN[children.size()]))
+      {
+        try
+        {
+          deleteEntry0(childDN, entryDN, true);
+        }
+        catch (Exception ignore)
+        {
+          // This shouldn't happen, but we want the delete to continue anyway
+          // so just ignore it if it does for some reason.
+          logger.traceException(ignore);
+        }
+      }
+    }
+
+    // Remove the entry from the backend.  Also remove the reference to it from
+    // its parent, if applicable.
+    entryMap.remove(entryDN);
+    childDNs.remove(entryDN);
+    if (parentDN != null)
+    {
+      Set<DN> parentsChildren = childDNs.get(parentDN);
+      if (parentsChildren != null)
+      {
+        parentsChildren.remove(entryDN);
+        if (parentsChildren.isEmpty())
+        {
+          childDNs.remove(parentDN);
+        }
+      }
+    }
+    for (MemoryAttributeIndex index : indexes.values())
+    {
+      index.removeEntry(entry);
+    }
+  }
+
+  @Override
+  public void replaceEntry(Entry oldEntry, Entry newEntry,
+      ModifyOperation modifyOperation) throws DirectoryException
+  {
+    Entry e = newEntry.duplicate(false);
+
+    DN entryDN = e.getName();
+    lock(entryDN, null);
+    try
+    {
+      // Make sure the entry exists.  If not, then throw an exception.
+      final Entry storedEntry = entryMap.get(entryDN);
+      if (storedEntry == null)
+      {
+        throw new DirectoryException(ResultCode.NO_SUCH_OBJECT,
+            ERR_BACKEND_ENTRY_DOESNT_EXIST.get(entryDN, getBackendID()));
+      }
+
+      // Replace the old entry with the new one.
+      for (MemoryAttributeIndex index : indexes.values())
+      {
+        index.replaceEntry(storedEntry, e);
+      }
+      entryMap.put(entryDN, e);
+    }
+    finally
+    {
+      unlock(entryDN, null);
+    }
+  }
+
+  @Override
+  public void renameEntry(DN currentDN, Entry entry,
+                          ModifyDNOperation modifyDNOperation)
+         throws DirectoryException
+  {
+    Entry e = entry.duplicate(false);
+
+    treeLock.writeLock().lock();
+    try
+    {
+      // Make sure that the target entry exists.
+      if (! entryMap.containsKey(currentDN))
+      {
+        throw new DirectoryException(ResultCode.NO_SUCH_OBJECT,
+            ERR_BACKEND_ENTRY_DOESNT_EXIST.get(currentDN, getBackendID()));
+      }
+
+      // Make sure that the target entry doesn't have any children.
+      Set<DN> children = childDNs.get(currentDN);
+      if (children != null && !children.isEmpty())
+      {
+        throw new DirectoryException(ResultCode.NOT_ALLOWED_ON_NONLEAF,
+            ERR_MEMORYBACKEND_CANNOT_RENAME_ENRY_WITH_CHILDREN.get(currentDN));
+      }
+
+      // Make sure that no entry exists with the new DN.
+      if (entryMap.containsKey(e.getName()))
+      {
+        throw new DirectoryException(ResultCode.ENTRY_ALREADY_EXISTS,
+            ERR_MEMORYBACKEND_ENTRY_ALREADY_EXISTS.get(e.getName()));
+      }
+
+      // Make sure that the new DN is in this backend.
+      if (!superiorExistsInBackend(e.getName()))
+      {
+        throw new DirectoryException(ResultCode.UNWILLING_TO_PERFORM,
+            ERR_MEMORYBACKEND_CANNOT_RENAME_TO_ANOTHER_BACKEND.get(currentDN));
+      }
+
+      // Make sure that the parent of the new entry exists.
+      DN parentDN = serverContext.getBackendConfigManager().getParentDNInSuffix(e.getName());
+      if (parentDN == null || !entryMap.containsKey(parentDN))
+      {
+        throw new DirectoryException(ResultCode.NO_SUCH_OBJECT,
+            ERR_MEMORYBACKEND_RENAME_PARENT_DOESNT_EXIST.get(currentDN, parentDN));
+      }
+
+      // Delete the current entry and add the new one.
+      deleteEntry0(currentDN, getParentDN(currentDN), false);
+      addEntry0(e, parentDN);
+    }
+    finally
+    {
+      treeLock.writeLock().unlock();
+    }
+  }
+
+  private boolean superiorExistsInBackend(DN dnToFind)
+  {
+    for (DN dn : baseDNs)
+    {
+      if (dn.isSuperiorOrEqualTo(dnToFind))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void search(SearchOperation searchOperation)
+         throws DirectoryException
+  {
+    // Get the base DN, scope, and filter for the search.
+    DN           baseDN = searchOperation.getBaseDN();
+    SearchScope  scope  = searchOperation.getScope();
+    SearchFilter filter = searchOperation.getFilter();
+
+    // Make sure the base entry exists if it's supposed to be in this backend.
+    Entry baseEntry = entryMap.get(baseDN);
+    if (baseEntry == null && handlesEntry(baseDN))
+    {
+      DN matchedDN = serverContext.getBackendConfigManager().getParentDNInSuffix(baseDN);
+      while (matchedDN != null)
+      {
+        if (entryMap.containsKey(matchedDN))
+        {
+          break;
+        }
+
+        matchedDN = serverContext.getBackendConfigManager().getParentDNInSuffix(matchedDN);
+      }
+
+      LocalizableMessage message =
+          ERR_BACKEND_ENTRY_DOESNT_EXIST.get(baseDN, getBackendID());
+      throw new DirectoryException(
+              ResultCode.NO_SUCH_OBJECT, message, matchedDN, null);
+    }
+    if (baseEntry == null)
+    {
+      return;
+    }
+
+    // If it's a base-level search, then just get that entry and return it if it
+    // matches the filter.
+    if (scope == SearchScope.BASE_OBJECT)
+    {
+      baseEntry = baseEntry.duplicate(true);
+      if (filter.matchesEntry(baseEntry))
+      {
+        searchOperation.returnEntry(baseEntry, new LinkedList<Control>());
+      }
+      return;
+    }
+
+    final Set<DN> candidates = getCandidates(filter);
+    if (candidates != null)
+    {
+      // Only check the entries which may match according to the indexes
+      for (DN dn : candidates)
+      {
+        final Entry e = entryMap.get(dn);
+        if (e != null && !returnIfMatches(searchOperation, e, baseDN, scope, filter))
+        {
+          return;
+        }
+      }
+      return;
+    }
+
+    // Walk through the entries below the base entry, parents first, and send the ones that match.
+    final Deque<DN> dnsToVisit = new ArrayDeque<>();
+    dnsToVisit.push(baseDN);
+    while (!dnsToVisit.isEmpty())
+    {
+      final DN dn = dnsToVisit.pop();
+      final Entry e = entryMap.get(dn);
+      if (e == null)
+      {
+        // deleted in the meantime
+        continue;
+      }
+      if (!returnIfMatches(searchOperation, e, baseDN, scope, filter))
+      {
+        return;
+      }
+      if (scope != SearchScope.SINGLE_LEVEL || dn.equals(baseDN))
+      {
+        final Set<DN> children = childDNs.get(dn);
+        if (children != null)
+        {
+          for (DN child : children)
+          {
+            dnsToVisit.push(child);
+          }
+        }
+      }
+    }
+  }
+
+  private boolean returnIfMatches(SearchOperation searchOperation, Entry e, DN baseDN, SearchScope scope,
+      SearchFilter filter) throws DirectoryException
+  {
+    if (e.matchesBaseAndScope(baseDN, scope))
+    {
+      final Entry entry = e.duplicate(true);
+      if (filter.matchesEntry(entry))
+      {
+        return searchOperation.returnEntry(entry, new LinkedList<Control>());
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the DNs of the entries which may match the provided filter according to the indexes.
+   *
+   * @return the DNs of the candidate entries, or {@code null} if the indexes cannot evaluate the filter
+   */
+  private Set<DN> getCandidates(SearchFilter filter)
+  {
+    switch (filter.getFilterType())
+    {
+    case AND:
+      Set<DN> intersection = null;
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        final Set<DN> candidates = getCandidates(component);
+        if (candidates != null)
+        {
+          if (intersection == null)
+          {
+            intersection = candidates;
+          }
+          else
+          {
+            intersection.retainAll(candidates);
+          }
+        }
+      }
+      return intersection;
+
+    case OR:
+      Set<DN> union = null;
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        final Set<DN> candidates = getCandidates(component);
+        if (candidates == null)
+        {
+          return null;
+        }
+        if (union == null)
+        {
+          union = candidates;
+        }
+        else
+        {
+          union.addAll(candidates);
+        }
+      }
+      return union;
+
+    case NOT:
+    case EXTENSIBLE_MATCH:
+      return null;
+
+    default:
+      final MemoryAttributeIndex index = indexes.get(filter.getAttributeType());
+      return index != null && !hasVirtualAttributes(index.getAttributeType()) ? index.evaluate(filter) : null;
+    }
+  }
+
+  /** Virtual attribute values are not stored, hence not indexed. */
+  private boolean hasVirtualAttributes(AttributeType attributeType)
+  {
+    // the collection of rules is replaced when the rules change
+    final Collection<VirtualAttributeRule> rules = DirectoryServer.getVirtualAttributes();
+    VirtualAttributeTypes types = virtualAttributeTypes;
+    if (types == null || types.rules != rules)
+    {
+      types = new VirtualAttributeTypes(rules);
+      virtualAttributeTypes = types;
+    }
+    return types.attributeTypes.contains(attributeType);
+  }
+
+  @Override
+  public Set<String> getSupportedControls()
+  {
+    return supportedControls;
+  }
+
+  @Override
+  public Set<String> getSupportedFeatures()
+  {
+    return Collections.emptySet();
+  }
+
+  @Override
+  public boolean supports(BackendOperation backendOperation)
+  {
+    switch (backendOperation)
+    {
+    case LDIF_EXPORT:
+    case LDIF_IMPORT:
+      return true;
+
+    default:
+      return false;
+    }
+  }
+
+  @Override
+  public void exportLDIF(LDIFExportConfig exportConfig)
+         throws DirectoryException
+  {
+    // Create the LDIF writer.
+    LDIFWriter ldifWriter;
+    try
+    {
+      ldifWriter = new LDIFWriter(exportConfig);
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          ERR_MEMORYBACKEND_CANNOT_CREATE_LDIF_WRITER.get(e), e);
+    }
+
+    // Walk through all the entries, parents first, and write them to LDIF.
+    DN entryDN = null;
+    try
+    {
+      final Deque<DN> dnsToVisit = new ArrayDeque<>(baseDNs);
+      while (!dnsToVisit.isEmpty())
+      {
+        entryDN = dnsToVisit.pop();
+        final Entry entry = entryMap.get(entryDN);
+        if (entry != null)
+        {
+          ldifWriter.writeEntry(entry);
+          final Set<DN> children = childDNs.get(entryDN);
+          if (children != null)
+          {
+            for (DN child : children)
+            {
+              dnsToVisit.push(child);
+            }
+          }
+        }
+      }
+    }
+    catch (Exception e)
+    {
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          ERR_MEMORYBACKEND_CANNOT_WRITE_ENTRY_TO_LDIF.get(entryDN, e), e);
+    }
+    finally
+    {
+      close(ldifWriter);
+    }
+  }
+
+  @Override
+  public LDIFImportResult importLDIF(LDIFImportConfig importConfig, ServerContext serverContext)
+      throws DirectoryException
+  {
+    treeLock.writeLock().lock();
+    try (LDIFReader reader = newLDIFReader(importConfig))
+    {
+      clearMemoryBackend();
+
+      while (true)
+      {
+        Entry e = null;
+        try
+        {
+          e = reader.readEntry();
+          if (e == null)
+          {
+            break;
+          }
+        }
+        catch (LDIFException le)
+        {
+          if (! le.canContinueReading())
+          {
+            throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+                ERR_MEMORYBACKEND_ERROR_READING_LDIF.get(e), le);
+          }
+          continue;
+        }
+
+        try
+        {
+          addEntry0(e, getParentDN(e.getName()));
+        }
+        catch (DirectoryException de)
+        {
+          reader.rejectLastEntry(de.getMessageObject());
+        }
+      }
+
+      return new LDIFImportResult(reader.getEntriesRead(),
+                                  reader.getEntriesRejected(),
+                                  reader.getEntriesIgnored());
+    }
+    catch (DirectoryException de)
+    {
+      throw de;
+    }
+    catch (Exception e)
+    {
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          ERR_MEMORYBACKEND_ERROR_DURING_IMPORT.get(e), e);
+    }
+    finally
+    {
+      treeLock.writeLock().unlock();
+    }
+  }
+
+  private LDIFReader newLDIFReader(LDIFImportConfig importConfig) throws DirectoryException
+  {
+    try
+    {
+      return new LDIFReader(importConfig);
+    }
+    catch (Exception e)
+    {
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          ERR_MEMORYBACKEND_CANNOT_CREATE_LDIF_READER.get(e), e);
+    }
+  }
+
+  @Override
+  public void createBackup(BackupConfig backupConfig)
+         throws DirectoryException
+  {
+    LocalizableMessage message = ERR_MEMORYBACKEND_BACKUP_RESTORE_NOT_SUPPORTED.get();
+    throw new DirectoryException(ResultCode.UNWILLING_TO_PERFORM, message);
+  }
+
+  @Override
+  public void removeBackup(BackupDirectory backupDirectory,
+                           String backupID)
+         throws DirectoryException
+  {
+    LocalizableMessage message = ERR_MEMORYBACKEND_BACKUP_RESTORE_NOT_SUPPORTED.get();
+    throw new DirectoryException(ResultCode.UNWILLING_TO_PERFORM, message);
+  }
+
+  @Override
+  public void restoreBackup(RestoreConfig restoreConfig)
+         throws DirectoryException
+  {
+    LocalizableMessage message = ERR_MEMORYBACKEND_BACKUP_RESTORE_NOT_SUPPORTED.get();
+    throw new DirectoryException(ResultCode.UNWILLING_TO_PERFORM, message);
+  }
+}
@@ -0,0 +1,486 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.ByteSequence;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.schema.AttributeType;
+import org.forgerock.opendj.ldap.schema.MatchingRule;
+import org.forgerock.opendj.ldap.schema.Schema;
+import org.forgerock.opendj.ldap.spi.IndexQueryFactory;
+import org.forgerock.opendj.ldap.spi.Indexer;
+import org.forgerock.opendj.ldap.spi.IndexingOptions;
+import org.opends.server.core.ServerContext;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchFilter;
+
+/**
+ * An in-memory index of the values of an attribute type, maintained by the
+ * {@link ConcurrentMemoryBackend}.
+ * <p>
+ * Keys are produced by the indexers of the equality, ordering, substring and approximate matching
+ * rules of the attribute type, and filters are turned into index queries by the assertions of
+ * these matching rules, exactly like the attribute indexes of the pluggable backends. Keys are
+ * kept sorted so that ordering assertions can be answered with range queries.
+ * <p>
+ * Reads do not lock: they see the sets of DNs as they are being updated, which is fine since the
+ * candidate entries are always checked against the complete filter. Updates compute the keys of
+ * the entries without locking, and then only lock the sets of DNs of the keys they change, so
+ * that a key is never removed from its index while another entry is being added to it. The
+ * updates of a given entry are serialized by the backend.
+ */
+final class MemoryAttributeIndex
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The length of the substring keys, the default of the pluggable backend indexes. */
+  private static final int SUBSTRING_KEY_SIZE = 6;
+
+  private static final IndexingOptions INDEXING_OPTIONS = new IndexingOptions()
+  {
+    @Override
+    public int substringKeySize()
+    {
+      return SUBSTRING_KEY_SIZE;
+    }
+  };
+
+  private static final Function<ByteString, KeyEntries> NEW_KEY_ENTRIES = new Function<ByteString, KeyEntries>()
+  {
+    @Override
+    public KeyEntries apply(ByteString key)
+    {
+      return new KeyEntries();
+    }
+  };
+
+  /**
+   * The DNs of the entries having a key. Readers use the set of DNs without locking, whereas
+   * writers lock it, so that no DN is added to a set which has been removed from its index.
+   */
+  private static final class KeyEntries
+  {
+    private final Set<DN> dns = Collections.newSetFromMap(new ConcurrentHashMap<DN, Boolean>());
+    /** Whether this set has been removed from its index, because it became empty. */
+    @GuardedBy("this")
+    private boolean isRemoved;
+  }
+
+  /**
+   * Evaluates the index queries created by the matching rule assertions. A {@code null} set of DNs
+   * means the query cannot be answered by this index.
+   */
+  private final IndexQueryFactory<Set<DN>> indexQueryFactory = new IndexQueryFactory<Set<DN>>()
+  {
+    @Override
+    public Set<DN> createExactMatchQuery(String indexID, ByteSequence key)
+    {
+      final NavigableMap<ByteString, KeyEntries> index = indexes.get(indexID);
+      if (index == null)
+      {
+        return null;
+      }
+      final KeyEntries entries = index.get(key.toByteString());
+      return entries != null ? new HashSet<>(entries.dns) : new HashSet<DN>();
+    }
+
+    @Override
+    public Set<DN> createMatchAllQuery()
+    {
+      return new HashSet<>(presence);
+    }
+
+    @Override
+    public Set<DN> createRangeMatchQuery(String indexID, ByteSequence lower, ByteSequence upper,
+        boolean lowerIncluded, boolean upperIncluded)
+    {
+      ConcurrentNavigableMap<ByteString, KeyEntries> index = indexes.get(indexID);
+      if (index == null)
+      {
+        return null;
+      }
+      // an empty bound means the range is not bounded on this side
+      if (lower.length() > 0)
+      {
+        index = index.tailMap(lower.toByteString(), lowerIncluded);
+      }
+      if (upper.length() > 0)
+      {
+        index = index.headMap(upper.toByteString(), upperIncluded);
+      }
+      final Set<DN> dns = new HashSet<>();
+      for (KeyEntries entries : index.values())
+      {
+        dns.addAll(entries.dns);
+      }
+      return dns;
+    }
+
+    @Override
+    public Set<DN> createIntersectionQuery(Collection<Set<DN>> subqueries)
+    {
+      Set<DN> dns = null;
+      for (Set<DN> subquery : subqueries)
+      {
+        if (subquery != null)
+        {
+          if (dns == null)
+          {
+            dns = subquery;
+          }
+          else
+          {
+            dns.retainAll(subquery);
+          }
+        }
+      }
+      return dns;
+    }
+
+    @Override
+    public Set<DN> createUnionQuery(Collection<Set<DN>> subqueries)
+    {
+      final Set<DN> dns = new HashSet<>();
+      for (Set<DN> subquery : subqueries)
+      {
+        if (subquery == null)
+        {
+          return null;
+        }
+        dns.addAll(subquery);
+      }
+      return dns;
+    }
+
+    @Override
+    public IndexingOptions getIndexingOptions()
+    {
+      return INDEXING_OPTIONS;
+    }
+  };
+
+  private final AttributeType attributeType;
+  /** The server context, providing the schema used to create the keys. */
+  private final ServerContext serverContext;
+  /** The indexers of the matching rules of the attribute type, keyed by index ID. */
+  private final Map<String, Indexer> indexers = new LinkedHashMap<>();
+  /** The indexes keyed by index ID, mapping each key to the DNs of the entries having it. */
+  private final Map<String, ConcurrentNavigableMap<ByteString, KeyEntries>> indexes = new LinkedHashMap<>();
+  /** The DNs of the entries having the attribute type. */
+  private final Set<DN> presence = Collections.newSetFromMap(new ConcurrentHashMap<DN, Boolean>());
+
+  /**
+   * Creates an index of the values of the provided attribute type.
+   *
+   * @param attributeType
+   *          the attribute type to index
+   * @param serverContext
+   *          the server context
+   */
+  MemoryAttributeIndex(AttributeType attributeType, ServerContext serverContext)
+  {
+    this.attributeType = attributeType;
+    this.serverContext = serverContext;
+    addIndexers(attributeType.getEqualityMatchingRule());
+    addIndexers(attributeType.getOrderingMatchingRule());
+    addIndexers(attributeType.getSubstringMatchingRule());
+    addIndexers(attributeType.getApproximateMatchingRule());
+  }
+
+  private void addIndexers(MatchingRule matchingRule)
+  {
+    if (matchingRule != null)
+    {
+      for (Indexer indexer : matchingRule.createIndexers(INDEXING_OPTIONS))
+      {
+        if (!indexers.containsKey(indexer.getIndexID()))
+        {
+          indexers.put(indexer.getIndexID(), indexer);
+          indexes.put(indexer.getIndexID(), new ConcurrentSkipListMap<ByteString, KeyEntries>());
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the attribute type indexed by this index.
+   *
+   * @return the attribute type indexed by this index
+   */
+  AttributeType getAttributeType()
+  {
+    return attributeType;
+  }
+
+  /**
+   * Indexes the values of an entry.
+   *
+   * @param entry
+   *          the entry to index
+   */
+  void addEntry(Entry entry)
+  {
+    final DN dn = entry.getName();
+    for (Map.Entry<String, Set<ByteString>> keys : getKeys(entry).entrySet())
+    {
+      final ConcurrentNavigableMap<ByteString, KeyEntries> index = indexes.get(keys.getKey());
+      for (ByteString key : keys.getValue())
+      {
+        addKey(index, key, dn);
+      }
+    }
+    if (entry.hasAttribute(attributeType))
+    {
+      presence.add(dn);
+    }
+  }
+
+  /**
+   * Removes the values of an entry from this index.
+   *
+   * @param entry
+   *          the entry to remove, as it was indexed
+   */
+  void removeEntry(Entry entry)
+  {
+    final DN dn = entry.getName();
+    for (Map.Entry<String, Set<ByteString>> keys : getKeys(entry).entrySet())
+    {
+      final ConcurrentNavigableMap<ByteString, KeyEntries> index = indexes.get(keys.getKey());
+      for (ByteString key : keys.getValue())
+      {
+        removeKey(index, key, dn);
+      }
+    }
+    presence.remove(dn);
+  }
+
+  /**
+   * Replaces the values of an entry by the values of its new version. The keys of the new version
+   * are added before the keys which are gone are removed, and the keys which did not change are
+   * left untouched, so that the entry can always be found through them.
+   *
+   * @param oldEntry
+   *          the entry to replace, as it was indexed
+   * @param newEntry
+   *          the new version of the entry, having the same DN
+   */
+  void replaceEntry(Entry oldEntry, Entry newEntry)
+  {
+    final DN dn = newEntry.getName();
+    final Map<String, Set<ByteString>> oldKeys = getKeys(oldEntry);
+    final Map<String, Set<ByteString>> newKeys = getKeys(newEntry);
+    for (Map.Entry<String, Set<ByteString>> keys : newKeys.entrySet())
+    {
+      final ConcurrentNavigableMap<ByteString, KeyEntries> index = indexes.get(keys.getKey());
+      for (ByteString key : keys.getValue())
+      {
+        if (!containsKey(oldKeys, keys.getKey(), key))
+        {
+          addKey(index, key, dn);
+        }
+      }
+    }
+    final boolean hasAttribute = newEntry.hasAttribute(attributeType);
+    if (hasAttribute)
+    {
+      presence.add(dn);
+    }
+    for (Map.Entry<String, Set<ByteString>> keys : oldKeys.entrySet())
+    {
+      final ConcurrentNavigableMap<ByteString, KeyEntries> index = indexes.get(keys.getKey());
+      for (ByteString key : keys.getValue())
+      {
+        if (!containsKey(newKeys, keys.getKey(), key))
+        {
+          removeKey(index, key, dn);
+        }
+      }
+    }
+    if (!hasAttribute)
+    {
+      presence.remove(dn);
+    }
+  }
+
+  private static boolean containsKey(Map<String, Set<ByteString>> keys, String indexID, ByteString key)
+  {
+    final Set<ByteString> indexKeys = keys.get(indexID);
+    return indexKeys != null && indexKeys.contains(key);
+  }
+
+  private static void addKey(ConcurrentNavigableMap<ByteString, KeyEntries> index, ByteString key, DN dn)
+  {
+    while (true)
+    {
+      final KeyEntries entries = index.computeIfAbsent(key, NEW_KEY_ENTRIES);
+      synchronized (entries)
+      {
+        if (!entries.isRemoved)
+        {
+          entries.dns.add(dn);
+          return;
+        }
+      }
+      // the set became empty and was removed in the meantime: add a new one
+    }
+  }
+
+  private static void removeKey(ConcurrentNavigableMap<ByteString, KeyEntries> index, ByteString key, DN dn)
+  {
+    final KeyEntries entries = index.get(key);
+    if (entries != null)
+    {
+      synchronized (entries)
+      {
+        if (entries.dns.remove(dn) && entries.dns.isEmpty())
+        {
+          entries.isRemoved = true;
+          index.remove(key, entries);
+        }
+      }
+    }
+  }
+
+  /** Removes all the entries from this index, which must not be updated concurrently. */
+  void clear()
+  {
+    for (ConcurrentNavigableMap<ByteString, KeyEntries> index : indexes.values())
+    {
+      index.clear();
+    }
+    presence.clear();
+  }
+
+  private Map<String, Set<ByteString>> getKeys(Entry entry)
+  {
+    final Map<String, Set<ByteString>> keys = new LinkedHashMap<>();
+    final Schema schema = serverContext.getSchema();
+    for (Attribute attribute : entry.getAllAttributes(attributeType))
+    {
+      if (attribute.isVirtual())
+      {
+        continue;
+      }
+      for (Map.Entry<String, Indexer> indexer : indexers.entrySet())
+      {
+        Set<ByteString> indexKeys = keys.get(indexer.getKey());
+        if (indexKeys == null)
+        {
+          indexKeys = new TreeSet<>();
+          keys.put(indexer.getKey(), indexKeys);
+        }
+        for (ByteString value : attribute)
+        {
+          try
+          {
+            indexer.getValue().createKeys(schema, value, indexKeys);
+          }
+          catch (DecodeException e)
+          {
+            logger.traceException(e);
+          }
+        }
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the DNs of the entries which may match a filter component targeting the attribute
+   * type of this index.
+   *
+   * @param filter
+   *          the filter component
+   * @return the DNs of the candidate entries, or {@code null} if this index cannot evaluate the
+   *         filter component
+   */
+  Set<DN> evaluate(SearchFilter filter)
+  {
+    try
+    {
+      MatchingRule rule;
+      switch (filter.getFilterType())
+      {
+      case EQUALITY:
+        rule = attributeType.getEqualityMatchingRule();
+        return rule != null ? rule.getAssertion(filter.getAssertionValue()).createIndexQuery(indexQueryFactory) : null;
+
+      case PRESENT:
+        return indexQueryFactory.createMatchAllQuery();
+
+      case GREATER_OR_EQUAL:
+        rule = attributeType.getOrderingMatchingRule();
+        return rule != null
+            ? rule.getGreaterOrEqualAssertion(filter.getAssertionValue()).createIndexQuery(indexQueryFactory)
+            : null;
+
+      case LESS_OR_EQUAL:
+        rule = attributeType.getOrderingMatchingRule();
+        return rule != null
+            ? rule.getLessOrEqualAssertion(filter.getAssertionValue()).createIndexQuery(indexQueryFactory)
+            : null;
+
+      case SUBSTRING:
+        rule = attributeType.getSubstringMatchingRule();
+        return rule != null
+            ? rule.getSubstringAssertion(filter.getSubInitialElement(), filter.getSubAnyElements(),
+                filter.getSubFinalElement()).createIndexQuery(indexQueryFactory)
+            : null;
+
+      case APPROXIMATE_MATCH:
+        rule = attributeType.getApproximateMatchingRule();
+        return rule != null ? rule.getAssertion(filter.getAssertionValue()).createIndexQuery(indexQueryFactory) : null;
+
+      default:
+        return null;
+      }
+    }
+    catch (DecodeException e)
+    {
+      // the assertion value is invalid: no entry can match it
+      logger.traceException(e);
+      return new HashSet<>();
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return getClass().getSimpleName() + "(" + attributeType.getNameOrOID() + ", " + new ArrayList<>(indexes.keySet())
+        + ")";
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.opends.server.util.ServerConstants.*;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.schema.AttributeType;
+import org.forgerock.opendj.ldap.schema.Schema;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.SubentryManager;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.types.VirtualAttributeRule;
+
+/**
+ * Matches the candidate entries of a search against the search filter after
+ * only decoding the attributes referenced by the filter, so that the
+ * candidates which do not match are never fully decoded.
+ * <p>
+ * The partially decoded entries have neither virtual nor collective
+ * attributes, so this only applies to the filters which cannot depend on them.
+ * It also stops as soon as it rejects too few candidates to pay for decoding
+ * the matching entries twice, which happens when the indexes alone resolve the
+ * filter.
+ */
+final class CandidateEntryFilter
+{
+  /** The number of candidates examined before deciding whether the filtering is worth it. */
+  private static final int SAMPLE_SIZE = 128;
+  /** The filtering is kept if it rejects at least one candidate out of this number. */
+  private static final int MIN_REJECTION_RATIO = 4;
+  /** The maximum number of combinations of filter attribute types whose attribute types to decode are cached. */
+  private static final int MAX_CACHED_ATTRIBUTE_TYPES = 1000;
+  /** The attribute types to decode, for the current schema and virtual attribute rules. */
+  private static volatile AttributeTypesCache attributeTypesCache;
+
+  private final ID2Entry id2entry;
+  private final SearchFilter filter;
+  /** The types of the attributes to decode: the filter attribute types and their subtypes. */
+  private final Set<AttributeType> attributeTypes;
+  private boolean isEnabled = true;
+  private int nbExamined;
+  private int nbRejected;
+
+  private CandidateEntryFilter(ID2Entry id2entry, SearchFilter filter, Set<AttributeType> attributeTypes)
+  {
+    this.id2entry = id2entry;
+    this.filter = filter;
+    this.attributeTypes = attributeTypes;
+  }
+
+  /**
+   * Returns a filter of the candidate entries for the provided search filter.
+   *
+   * @param id2entry
+   *          the entry tree holding the candidate entries
+   * @param filter
+   *          the search filter
+   * @param schema
+   *          the schema of the server
+   * @return the filter of the candidate entries, or {@code null} if the search
+   *         filter may depend on attributes which are not stored in the entries
+   */
+  static CandidateEntryFilter newInstance(ID2Entry id2entry, SearchFilter filter, Schema schema)
+  {
+    final Set<AttributeType> filterTypes = new HashSet<>();
+    if (!addAttributeTypes(filter, filterTypes, 0))
+    {
+      return null;
+    }
+
+    final SubentryManager subentryManager = DirectoryServer.getSubentryManager();
+    if (subentryManager != null && subentryManager.hasCollectiveSubentries())
+    {
+      return null;
+    }
+    final Set<AttributeType> attributeTypes = getAttributeTypes(filterTypes, schema);
+    return attributeTypes != null ? new CandidateEntryFilter(id2entry, filter, attributeTypes) : null;
+  }
+
+  /**
+   * Returns the types of the attributes to decode for the provided filter attribute types, computing
+   * them only once per schema and set of virtual attribute rules, which are both replaced when they change.
+   *
+   * @return the filter attribute types and their subtypes, or {@code null} if a virtual attribute may
+   *         have one of the filter attribute types
+   */
+  private static Set<AttributeType> getAttributeTypes(Set<AttributeType> filterTypes, Schema schema)
+  {
+    final Collection<VirtualAttributeRule> rules = DirectoryServer.getVirtualAttributes();
+    AttributeTypesCache cache = attributeTypesCache;
+    if (cache == null || cache.schema != schema || cache.rules != rules)
+    {
+      cache = new AttributeTypesCache(schema, rules);
+      attributeTypesCache = cache;
+    }
+
+    Set<AttributeType> attributeTypes = cache.attributeTypes.get(filterTypes);
+    if (attributeTypes == null)
+    {
+      attributeTypes = computeAttributeTypes(filterTypes, schema, rules);
+      if (cache.attributeTypes.size() < MAX_CACHED_ATTRIBUTE_TYPES)
+      {
+        cache.attributeTypes.putIfAbsent(filterTypes, attributeTypes);
+      }
+    }
+    // The filter attribute types are never empty
+    return !attributeTypes.isEmpty() ? attributeTypes : null;
+  }
+
+  private static Set<AttributeType> computeAttributeTypes(Set<AttributeType> filterTypes, Schema schema,
+      Collection<VirtualAttributeRule> rules)
+  {
+    for (VirtualAttributeRule rule : rules)
+    {
+      if (isSubTypeOfAny(rule.getAttributeType(), filterTypes))
+      {
+        return Collections.emptySet();
+      }
+    }
+
+    final Set<AttributeType> attributeTypes = new HashSet<>(filterTypes);
+    for (AttributeType attributeType : schema.getAttributeTypes())
+    {
+      if (isSubTypeOfAny(attributeType, filterTypes))
+      {
+        attributeTypes.add(attributeType);
+      }
+    }
+    return Collections.unmodifiableSet(attributeTypes);
+  }
+
+  private static boolean addAttributeTypes(SearchFilter filter, Set<AttributeType> attributeTypes, int depth)
+  {
+    if (depth >= MAX_NESTED_FILTER_DEPTH)
+    {
+      return false;
+    }
+
+    switch (filter.getFilterType())
+    {
+    case AND:
+    case OR:
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        if (!addAttributeTypes(component, attributeTypes, depth + 1))
+        {
+          return false;
+        }
+      }
+      return true;
+
+    case NOT:
+      return addAttributeTypes(filter.getNotComponent(), attributeTypes, depth + 1);
+
+    default:
+      final AttributeType attributeType = filter.getAttributeType();
+      if (attributeType == null)
+      {
+        // An extensible match without attribute type matches all the attributes
+        return false;
+      }
+      attributeTypes.add(attributeType);
+      return true;
+    }
+  }
+
+  private static boolean isSubTypeOfAny(AttributeType attributeType, Set<AttributeType> superTypes)
+  {
+    for (AttributeType superType : superTypes)
+    {
+      if (attributeType.isSubTypeOf(superType))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The attribute types to decode for each combination of filter attribute types, for a schema and rule set. */
+  private static final class AttributeTypesCache
+  {
+    private final Schema schema;
+    private final Collection<VirtualAttributeRule> rules;
+    /** Maps the filter attribute types to the attribute types to decode, empty if they may be virtual. */
+    private final ConcurrentMap<Set<AttributeType>, Set<AttributeType>> attributeTypes = new ConcurrentHashMap<>();
+
+    private AttributeTypesCache(Schema schema, Collection<VirtualAttributeRule> rules)
+    {
+      this.schema = schema;
+      this.rules = rules;
+    }
+  }
+
+  /**
+   * Indicates whether the provided candidate entry may match the search
+   * filter. Once the filtering is not worth it anymore, every candidate may
+   * match.
+   *
+   * @param entryID
+   *          the entry ID of the candidate
+   * @param encodedEntry
+   *          the record of the candidate
+   * @return {@code null} if the candidate may match the search filter,
+   *         otherwise its partially decoded entry, which the search filter does
+   *         not match
+   * @throws DirectoryException
+   *           if the candidate cannot be decoded or matched
+   */
+  Entry getRejectedEntry(EntryID entryID, ByteString encodedEntry) throws DirectoryException
+  {
+    if (!isEnabled)
+    {
+      return null;
+    }
+
+    final Entry partialEntry = id2entry.decodePartially(entryID, encodedEntry, attributeTypes);
+    final boolean isRejected = partialEntry != null && !filter.matchesEntry(partialEntry);
+    if (isRejected)
+    {
+      nbRejected++;
+    }
+    if (++nbExamined == SAMPLE_SIZE && nbRejected * MIN_REJECTION_RATIO < SAMPLE_SIZE)
+    {
+      isEnabled = false;
+    }
+    return isRejected ? partialEntry : null;
+  }
+}
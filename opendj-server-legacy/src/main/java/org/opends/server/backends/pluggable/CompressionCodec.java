@@ -0,0 +1,83 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.io.IOException;
+
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+
+/**
+ * Block compression algorithm used to compress the entries stored in the entry tree.
+ * <p>
+ * Each algorithm has an identifier recorded in the format flags of every entry it compressed, so that entries remain
+ * readable after the configured algorithm has been changed. Implementations must be thread safe.
+ */
+interface CompressionCodec
+{
+  /** Identifier of the deflate algorithm, which is the only one used by previous versions. */
+  int DEFLATE_ID = 0;
+  /** Identifier of the LZ4 block algorithm. */
+  int LZ4_ID = 1;
+  /** Largest identifier which can be recorded in the format flags of an entry. */
+  int MAX_ID = 7;
+
+  /**
+   * Returns the identifier of this algorithm.
+   *
+   * @return the identifier of this algorithm, between 0 and {@link #MAX_ID}
+   */
+  int getId();
+
+  /**
+   * Compresses the provided data.
+   *
+   * @param data
+   *          the array holding the data to compress
+   * @param offset
+   *          the offset of the data in the array
+   * @param length
+   *          the length of the data
+   * @param dictionary
+   *          the shared dictionary to use, or {@code null} if none
+   * @param output
+   *          the builder where the compressed data is appended
+   * @throws IOException
+   *           if the data cannot be compressed
+   */
+  void compress(byte[] data, int offset, int length, CompressionDictionary dictionary, ByteStringBuilder output)
+      throws IOException;
+
+  /**
+   * Decompresses the provided data.
+   *
+   * @param compressed
+   *          the array holding the compressed data
+   * @param offset
+   *          the offset of the compressed data in the array
+   * @param length
+   *          the length of the compressed data
+   * @param dictionary
+   *          the shared dictionary used for compressing the data, or {@code null} if none
+   * @param uncompressedLength
+   *          the length of the data before compression
+   * @param output
+   *          the builder where the decompressed data is appended
+   * @throws IOException
+   *           if the compressed data is corrupted
+   */
+  void decompress(byte[] compressed, int offset, int length, CompressionDictionary dictionary,
+      int uncompressedLength, ByteStringBuilder output) throws IOException;
+}
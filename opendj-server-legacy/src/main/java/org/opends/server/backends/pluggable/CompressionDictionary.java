@@ -0,0 +1,78 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import org.forgerock.util.Reject;
+
+/**
+ * A shared dictionary used to compress entries. Compressors are primed with the content of the dictionary, so that
+ * the attribute names and values shared by most entries are compressed even in small entries.
+ * <p>
+ * Dictionaries are immutable once created: their identifier is recorded in each entry they helped compressing.
+ */
+final class CompressionDictionary
+{
+  private final int id;
+  private final byte[] content;
+  /** Match finder state of the LZ4 codec after having processed the dictionary, computed on first use. */
+  private volatile int[] lz4HashTable;
+
+  /**
+   * Creates a new compression dictionary.
+   *
+   * @param id
+   *          the identifier of the dictionary
+   * @param content
+   *          the content of the dictionary
+   */
+  CompressionDictionary(int id, byte[] content)
+  {
+    Reject.ifNull(content, "content must not be null");
+    this.id = id;
+    this.content = content;
+  }
+
+  int getId()
+  {
+    return id;
+  }
+
+  /**
+   * Returns the content of this dictionary, which must not be modified.
+   *
+   * @return the content of this dictionary
+   */
+  byte[] getContent()
+  {
+    return content;
+  }
+
+  int[] getLZ4HashTable()
+  {
+    return lz4HashTable;
+  }
+
+  void setLZ4HashTable(int[] hashTable)
+  {
+    this.lz4HashTable = hashTable;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "CompressionDictionary(id=" + id + ", size=" + content.length + ")";
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Builds a compression dictionary out of a sample of encoded entries.
+ * <p>
+ * The dictionary is made of the fragments of the samples holding the byte sequences found in the largest number of
+ * samples. Each sample is cut into fixed size segments, scored by the number of samples sharing each of their k-mers.
+ * The best segments are then greedily selected, ignoring the k-mers already covered by previously selected segments.
+ * The most valuable segments are placed at the end of the dictionary, where matches are the cheapest to encode.
+ * <p>
+ * This class is thread safe.
+ */
+final class CompressionDictionaryTrainer
+{
+  /** Maximum number of samples used for training a dictionary. */
+  static final int MAX_SAMPLES = 2048;
+  /** Maximum cumulated size of the samples used for training a dictionary. */
+  static final int MAX_SAMPLES_SIZE = 4 * 1024 * 1024;
+  /** Largest supported dictionary: deflate cannot refer to more than 32KB back anyway. */
+  static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+  private static final int KMER_LENGTH = 8;
+  private static final int SEGMENT_LENGTH = 32;
+  private static final int TABLE_LOG = 20;
+  private static final int TABLE_MASK = (1 << TABLE_LOG) - 1;
+
+  /** A candidate segment of a sample. */
+  private static final class Segment
+  {
+    private final byte[] sample;
+    private final int offset;
+    private final int score;
+
+    private Segment(byte[] sample, int offset, int score)
+    {
+      this.sample = sample;
+      this.offset = offset;
+      this.score = score;
+    }
+  }
+
+  private final int dictionarySize;
+  private final List<byte[]> samples = new ArrayList<>();
+  private int samplesSize;
+  private boolean complete;
+
+  /**
+   * Creates a new trainer.
+   *
+   * @param dictionarySize
+   *          the requested size of the dictionary, capped to {@link #MAX_DICTIONARY_SIZE}
+   */
+  CompressionDictionaryTrainer(int dictionarySize)
+  {
+    this.dictionarySize = Math.min(dictionarySize, MAX_DICTIONARY_SIZE);
+  }
+
+  /**
+   * Adds a sample to the training set.
+   *
+   * @param data
+   *          the array holding the sample
+   * @param offset
+   *          the offset of the sample in the array
+   * @param length
+   *          the length of the sample
+   * @return {@code true} if enough samples have been collected, in which case the caller is expected to call
+   *         {@link #train()}. Only one caller ever gets {@code true}.
+   */
+  synchronized boolean addSample(byte[] data, int offset, int length)
+  {
+    if (complete)
+    {
+      return false;
+    }
+    if (length >= SEGMENT_LENGTH)
+    {
+      samples.add(Arrays.copyOfRange(data, offset, offset + length));
+      samplesSize += length;
+    }
+    complete = samples.size() >= MAX_SAMPLES || samplesSize >= MAX_SAMPLES_SIZE;
+    return complete;
+  }
+
+  /**
+   * Trains a dictionary from the collected samples and releases them.
+   *
+   * @return the content of the dictionary, which may be shorter than requested, or empty if the samples do not
+   *         share enough content
+   */
+  synchronized byte[] train()
+  {
+    try
+    {
+      return train(samples, dictionarySize);
+    }
+    finally
+    {
+      samples.clear();
+      samplesSize = 0;
+    }
+  }
+
+  /**
+   * Trains a dictionary from the provided samples.
+   *
+   * @param samples
+   *          the samples representative of the data to compress
+   * @param dictionarySize
+   *          the maximum size of the dictionary
+   * @return the content of the dictionary
+   */
+  static byte[] train(List<byte[]> samples, int dictionarySize)
+  {
+    // Count the number of samples where each k-mer appears
+    final int[] frequencies = new int[1 << TABLE_LOG];
+    final int[] lastSample = new int[1 << TABLE_LOG];
+    Arrays.fill(lastSample, -1);
+    for (int i = 0; i < samples.size(); i++)
+    {
+      final byte[] sample = samples.get(i);
+      for (int pos = 0; pos + KMER_LENGTH <= sample.length; pos++)
+      {
+        final int h = hash(sample, pos);
+        if (lastSample[h] != i)
+        {
+          lastSample[h] = i;
+          frequencies[h]++;
+        }
+      }
+    }
+
+    // Score the segments: only the k-mers shared by several samples are worth being in the dictionary
+    final List<Segment> candidates = new ArrayList<>();
+    for (byte[] sample : samples)
+    {
+      for (int offset = 0; offset + SEGMENT_LENGTH <= sample.length; offset += SEGMENT_LENGTH / 2)
+      {
+        final int score = score(sample, offset, frequencies);
+        if (score > 0)
+        {
+          candidates.add(new Segment(sample, offset, score));
+        }
+      }
+    }
+    Collections.sort(candidates, new Comparator<Segment>()
+    {
+      @Override
+      public int compare(Segment s1, Segment s2)
+      {
+        return Integer.compare(s2.score, s1.score);
+      }
+    });
+
+    // Greedily select the segments, forgetting the k-mers already covered by the dictionary
+    final List<Segment> selected = new ArrayList<>();
+    int size = 0;
+    for (Segment candidate : candidates)
+    {
+      if (size + SEGMENT_LENGTH > dictionarySize)
+      {
+        break;
+      }
+      if (score(candidate.sample, candidate.offset, frequencies) * 2 < candidate.score)
+      {
+        continue;
+      }
+      for (int pos = candidate.offset; pos + KMER_LENGTH <= candidate.offset + SEGMENT_LENGTH; pos++)
+      {
+        frequencies[hash(candidate.sample, pos)] = 0;
+      }
+      selected.add(candidate);
+      size += SEGMENT_LENGTH;
+    }
+
+    final byte[] dictionary = new byte[size];
+    int pos = size;
+    for (Segment segment : selected)
+    {
+      pos -= SEGMENT_LENGTH;
+      System.arraycopy(segment.sample, segment.offset, dictionary, pos, SEGMENT_LENGTH);
+    }
+    return dictionary;
+  }
+
+  private static int score(byte[] sample, int offset, int[] frequencies)
+  {
+    int score = 0;
+    for (int pos = offset; pos + KMER_LENGTH <= offset + SEGMENT_LENGTH; pos++)
+    {
+      final int frequency = frequencies[hash(sample, pos)];
+      if (frequency > 1)
+      {
+        score += frequency;
+      }
+    }
+    return score;
+  }
+
+  private static int hash(byte[] buffer, int offset)
+  {
+    long value = 0;
+    for (int i = 0; i < KMER_LENGTH; i++)
+    {
+      value = (value << 8) | (buffer[offset + i] & 0xFF);
+    }
+    return (int) ((value * 0x9E3779B97F4A7C15L) >>> (64 - TABLE_LOG)) & TABLE_MASK;
+  }
+}
@@ -37,6 +37,9 @@ final class DataConfig
     private boolean compactEncoding;
     private CompressedSchema compressedSchema;
     private CryptoSuite cryptoSuite;
+    private CompressionCodec compressionCodec = DeflateCompressionCodec.INSTANCE;
+    private int compressionDictionarySize;
+    private PersistentCompressedSchema compressionDictionaries;
 
     Builder()
     {
@@ -73,6 +76,26 @@ final class DataConfig
       return this;
     }
 
+    public Builder compressionCodec(CompressionCodec codec)
+    {
+      this.compressionCodec = codec;
+      return this;
+    }
+
+    /**
+     * Sets the size of the dictionary used for compressing entries, {@code 0} meaning no dictionary.
+     *
+     * @param size the size of the dictionary
+     * @param dictionaries where the dictionaries are persisted, may only be {@code null} if size is {@code 0}
+     * @return this builder
+     */
+    public Builder compressionDictionary(int size, PersistentCompressedSchema dictionaries)
+    {
+      this.compressionDictionarySize = size;
+      this.compressionDictionaries = dictionaries;
+      return this;
+    }
+
     public DataConfig build()
     {
       return new DataConfig(this);
@@ -87,6 +110,12 @@ final class DataConfig
   private final boolean encrypted;
 
   private final CryptoSuite cryptoSuite;
+
+  /** The algorithm used for compressing new entries. */
+  private final CompressionCodec compressionCodec;
+  private final int compressionDictionarySize;
+  /** Where the compression dictionaries are persisted, also needed for decompressing entries. */
+  private final PersistentCompressedSchema compressionDictionaries;
   /**
    * Construct a new DataConfig object with the specified settings.
    *
@@ -97,6 +126,10 @@ final class DataConfig
     this.compressed = builder.compressed;
     this.encrypted = builder.encrypted;
     this.cryptoSuite = builder.cryptoSuite;
+    this.compressionCodec = builder.compressionCodec;
+    this.compressionDictionarySize = builder.compressionDictionarySize;
+    this.compressionDictionaries = builder.compressionDictionaries;
+    Reject.ifTrue(compressionDictionarySize > 0 && compressionDictionaries == null);
 
     if (builder.compressedSchema == null)
     {
@@ -130,12 +163,39 @@ final class DataConfig
     return cryptoSuite;
   }
 
+  CompressionCodec getCompressionCodec()
+  {
+    return compressionCodec;
+  }
+
+  boolean isCompressionDictionaryEnabled()
+  {
+    return compressionDictionarySize > 0;
+  }
+
+  int getCompressionDictionarySize()
+  {
+    return compressionDictionarySize;
+  }
+
+  PersistentCompressedSchema getCompressionDictionaries()
+  {
+    return compressionDictionaries;
+  }
+
   @Override
   public String toString()
   {
     final StringBuilder builder = new StringBuilder();
     builder.append("DataConfig(compressed=");
     builder.append(compressed);
+    if (compressed)
+    {
+      builder.append(", compressionCodec=");
+      builder.append(compressionCodec.getId());
+      builder.append(", compressionDictionarySize=");
+      builder.append(compressionDictionarySize);
+    }
     builder.append(", encrypted=");
     builder.append(encrypted);
     builder.append(", ");
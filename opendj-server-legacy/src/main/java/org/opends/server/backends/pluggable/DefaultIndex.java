@@ -97,6 +97,8 @@ class DefaultIndex extends AbstractTree implements Index
   {
     final EnumSet<IndexFlag> flags = state.getIndexFlags(txn, getName());
     codec = flags.contains(COMPACTED) ? CODEC_V2 : CODEC_V1;
+    // Bitmap encoded values must remain readable once the bitmap encoding is disabled
+    codec = newEntryIDSetCodecV4(codec, entryContainer.isBitmapIndexEncoding());
     if (cryptoSuite.isEncrypted())
     {
       codec = new EntryIDSet.EntryIDSetCodecV3(codec, cryptoSuite);
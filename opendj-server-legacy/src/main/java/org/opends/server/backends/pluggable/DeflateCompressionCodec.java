@@ -0,0 +1,122 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+
+/**
+ * Deflate compression, producing the same zlib stream as the {@code DeflaterOutputStream} used by previous versions.
+ * Deflaters and inflaters are cached per thread instead of being created for each entry.
+ */
+final class DeflateCompressionCodec implements CompressionCodec
+{
+  /** The single instance of this codec. */
+  static final CompressionCodec INSTANCE = new DeflateCompressionCodec();
+
+  private static final int BUFFER_SIZE = 512;
+
+  private static final ThreadLocal<Deflater> DEFLATERS = new ThreadLocal<Deflater>()
+  {
+    @Override
+    protected Deflater initialValue()
+    {
+      return new Deflater();
+    }
+  };
+
+  private static final ThreadLocal<Inflater> INFLATERS = new ThreadLocal<Inflater>()
+  {
+    @Override
+    protected Inflater initialValue()
+    {
+      return new Inflater();
+    }
+  };
+
+  private DeflateCompressionCodec()
+  {
+    // Singleton
+  }
+
+  @Override
+  public int getId()
+  {
+    return DEFLATE_ID;
+  }
+
+  @Override
+  public void compress(byte[] data, int offset, int length, CompressionDictionary dictionary,
+      ByteStringBuilder output)
+  {
+    final Deflater deflater = DEFLATERS.get();
+    deflater.reset();
+    if (dictionary != null)
+    {
+      deflater.setDictionary(dictionary.getContent());
+    }
+    deflater.setInput(data, offset, length);
+    deflater.finish();
+    while (!deflater.finished())
+    {
+      // Grow before writing: growing the builder afterwards would overwrite the written bytes with zeros
+      final int start = output.length();
+      output.setLength(start + BUFFER_SIZE);
+      final int written = deflater.deflate(output.getBackingArray(), start, BUFFER_SIZE);
+      output.setLength(start + written);
+    }
+  }
+
+  @Override
+  public void decompress(byte[] compressed, int offset, int length, CompressionDictionary dictionary,
+      int uncompressedLength, ByteStringBuilder output) throws IOException
+  {
+    final Inflater inflater = INFLATERS.get();
+    inflater.reset();
+    inflater.setInput(compressed, offset, length);
+    final int start = output.length();
+    output.setLength(start + uncompressedLength);
+    int position = start;
+    final int end = start + uncompressedLength;
+    try
+    {
+      while (position < end)
+      {
+        final int read = inflater.inflate(output.getBackingArray(), position, end - position);
+        if (read == 0)
+        {
+          if (inflater.needsDictionary() && dictionary != null)
+          {
+            inflater.setDictionary(dictionary.getContent());
+          }
+          else if (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())
+          {
+            throw new IOException("Truncated or corrupted compressed entry");
+          }
+        }
+        position += read;
+      }
+    }
+    catch (DataFormatException e)
+    {
+      throw new IOException(e);
+    }
+  }
+}
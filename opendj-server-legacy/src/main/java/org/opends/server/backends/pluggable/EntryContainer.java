@@ -27,6 +27,7 @@ import static org.opends.server.protocols.ldap.LDAPResultCode.*;
 import static org.opends.server.types.AdditionalLogItem.*;
 import static org.opends.server.util.StaticUtils.*;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -36,7 +37,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.TreeMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -56,6 +56,8 @@ import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.opendj.ldap.SortKey;
 import org.forgerock.opendj.ldap.schema.AttributeType;
+import org.forgerock.opendj.server.config.meta.PluggableBackendCfgDefn.EntriesCompressionAlgorithm;
+import org.forgerock.opendj.server.config.meta.PluggableBackendCfgDefn.IndexIdSetEncoding;
 import org.forgerock.opendj.server.config.server.BackendIndexCfg;
 import org.forgerock.opendj.server.config.server.BackendVLVIndexCfg;
 import org.forgerock.opendj.server.config.server.PluggableBackendCfg;
@@ -124,6 +126,8 @@ public class EntryContainer
   private static final String REFERRAL_TREE_NAME = REFERRAL_INDEX_NAME;
   /** The name of the state tree. */
   private static final String STATE_TREE_NAME = STATE_INDEX_NAME;
+  /** The number of search candidates whose entries are read together. */
+  private static final int CANDIDATE_BATCH_SIZE = 128;
 
   /** The attribute index configuration manager. */
   private final AttributeIndexCfgManager attributeIndexCfgManager;
@@ -393,6 +397,10 @@ public class EntryContainer
         .cryptoSuite(serverContext.getCryptoManager().newCryptoSuite(config.getCipherTransformation(),
             config.getCipherKeyLength(),config.isConfidentialityEnabled()))
         .schema(rootContainer.getCompressedSchema())
+        .compressionCodec(config.getEntriesCompressionAlgorithm() == EntriesCompressionAlgorithm.LZ4
+            ? LZ4CompressionCodec.INSTANCE : DeflateCompressionCodec.INSTANCE)
+        .compressionDictionary((int) config.getEntriesCompressionDictionarySize(),
+            rootContainer.getCompressionDictionaries())
         .build();
   }
 
@@ -1142,6 +1150,8 @@ public class EntryContainer
 
     int lookthroughCount = 0;
     int lookthroughLimit = searchOperation.getClientConnection().getLookthroughLimit();
+    final CandidateEntryFilter candidateFilter =
+        CandidateEntryFilter.newInstance(id2entry, searchOperation.getFilter(), serverContext.getSchema());
 
     try (final Cursor<ByteString, ByteString> cursor = txn.openCursor(dn2id.getName()))
     {
@@ -1168,7 +1178,7 @@ public class EntryContainer
         if (isInScope)
         {
           // Process the candidate entry.
-          final Entry entry = getEntry(txn, entryID);
+          final Entry entry = getCandidateEntry(txn, entryID, candidateFilter);
           if (entry != null)
           {
             lookthroughCount++;
@@ -1251,14 +1261,62 @@ public class EntryContainer
     return entry;
   }
 
+  /**
+   * Returns the entry corresponding to the provided search candidate, only decoding it fully if it may match the
+   * search filter.
+   *
+   * @param txn a non null transaction
+   * @param entryID
+   *          the id of the candidate
+   * @param candidateFilter
+   *          the filter of the candidates, or null if the candidates must be fully decoded
+   * @return the entry corresponding to the provided entryID, or a partially decoded entry which does not match the
+   *         search filter, or null if there is no such entry
+   * @throws DirectoryException
+   *           If an error occurs retrieving the entry
+   */
+  private Entry getCandidateEntry(ReadableTransaction txn, EntryID entryID, CandidateEntryFilter candidateFilter)
+      throws DirectoryException
+  {
+    if (candidateFilter == null)
+    {
+      return getEntry(txn, entryID);
+    }
+
+    final EntryCache<?> entryCache = getEntryCache();
+    final Entry cacheEntry = entryCache.getEntry(backendID, entryID.longValue());
+    if (cacheEntry != null)
+    {
+      return cacheEntry;
+    }
+
+    final ByteString encodedEntry = txn.read(id2entry.getName(), entryID.toByteString());
+    final Entry rejectedEntry = candidateFilter.getRejectedEntry(entryID, encodedEntry);
+    if (rejectedEntry != null)
+    {
+      // Not worth caching
+      return rejectedEntry;
+    }
+
+    final Entry entry = id2entry.decode(entryID, encodedEntry);
+    if (entry != null)
+    {
+      // Put the entry in the cache making sure not to overwrite a newer copy
+      // that may have been inserted since the time we read the cache.
+      entryCache.putEntryIfAbsent(entry, backendID, entryID.longValue());
+    }
+    return entry;
+  }
+
   /**
    * We were able to obtain a set of candidate entry IDs for the search from the indexes.
    * <p>
    * Here we are relying on ID order to ensure children are returned after their parents.
    * <ul>
    * <li>Iterate through the candidate IDs
-   * <li>fetch entry by ID from cache or id2entry
-   * <li>put the entry in the cache if not present
+   * <li>fetch entries by batches of IDs from cache or id2entry
+   * <li>discard entries whose filter attributes do not match the filter before fully decoding them
+   * <li>put the entries in the cache if not present
    * <li>discard entries that are not in scope
    * <li>return entry if it matches the filter
    * </ul>
@@ -1319,13 +1377,14 @@ public class EntryContainer
     if (continueSearch)
     {
       final SearchFilter filter = searchOperation.getFilter();
+      final CandidateEntryReader entryReader = new CandidateEntryReader(txn, entryIDReorderedSet,
+          CandidateEntryFilter.newInstance(id2entry, filter, serverContext.getSchema()));
       for (int i = findStartIndex(beginEntryID, entryIDReorderedSet); i < entryIDReorderedSet.length; i++)
       {
-        EntryID entryID = new EntryID(entryIDReorderedSet[i]);
         Entry entry;
         try
         {
-          entry = getEntry(txn, entryID);
+          entry = entryReader.getEntry(i);
         }
         catch (Exception e)
         {
@@ -1342,7 +1401,7 @@ public class EntryContainer
             if (isPageFull(searchOperation, pageRequest))
             {
               // Set the cookie to remember where we were.
-              addPagedResultsControl(searchOperation, pageRequest, entryID.toByteString());
+              addPagedResultsControl(searchOperation, pageRequest, ByteString.valueOfLong(entryIDReorderedSet[i]));
               return;
             }
 
@@ -1374,6 +1433,128 @@ public class EntryContainer
     addPagedResultsControl(searchOperation, pageRequest, null);
   }
 
+  /**
+   * Reads the entries of search candidates in batches. For each batch, the entry cache is looked up first, then the
+   * missing entries are fetched from id2entry with a single cursor walk. Entries are only decoded when they are read,
+   * so that the search can stop at any time without having decoded a whole batch, and only fully decoded when they may
+   * match the search filter.
+   */
+  private final class CandidateEntryReader
+  {
+    private final ReadableTransaction txn;
+    private final long[] entryIDs;
+    /** The filter of the candidates, or null if they must be fully decoded. */
+    private final CandidateEntryFilter candidateFilter;
+    /** The entries of the current batch found in the entry cache. */
+    private final Entry[] cachedEntries = new Entry[CANDIDATE_BATCH_SIZE];
+    /** The records of the current batch read from id2entry. */
+    private final ByteString[] encodedEntries = new ByteString[CANDIDATE_BATCH_SIZE];
+    private final long[] missingEntryIDs = new long[CANDIDATE_BATCH_SIZE];
+    private final ByteString[] missingEncodedEntries = new ByteString[CANDIDATE_BATCH_SIZE];
+    /** The position of the first entry of the current batch in the candidates. */
+    private int batchStart;
+    /** The position following the last entry of the current batch in the candidates. */
+    private int batchEnd;
+
+    CandidateEntryReader(ReadableTransaction txn, long[] entryIDs, CandidateEntryFilter candidateFilter)
+    {
+      this.txn = txn;
+      this.entryIDs = entryIDs;
+      this.candidateFilter = candidateFilter;
+    }
+
+    /**
+     * Returns the entry of a candidate. Candidates must be read in ascending order of their positions.
+     *
+     * @param index
+     *          the position of the candidate
+     * @return the entry, or a partially decoded entry which does not match the search filter, or null if it does not
+     *         exist anymore
+     * @throws DirectoryException
+     *           if the entry cannot be decoded
+     */
+    Entry getEntry(int index) throws DirectoryException
+    {
+      if (index >= batchEnd)
+      {
+        readBatch(index);
+      }
+
+      final int i = index - batchStart;
+      final Entry cachedEntry = cachedEntries[i];
+      if (cachedEntry != null)
+      {
+        cachedEntries[i] = null;
+        return cachedEntry;
+      }
+      final ByteString encodedEntry = encodedEntries[i];
+      if (encodedEntry == null)
+      {
+        return null;
+      }
+      encodedEntries[i] = null;
+
+      final long entryID = entryIDs[index];
+      if (candidateFilter != null)
+      {
+        final Entry rejectedEntry = candidateFilter.getRejectedEntry(new EntryID(entryID), encodedEntry);
+        if (rejectedEntry != null)
+        {
+          // Not worth caching
+          return rejectedEntry;
+        }
+      }
+      final Entry entry = id2entry.decode(new EntryID(entryID), encodedEntry);
+      if (entry != null)
+      {
+        // Put the entry in the cache making sure not to overwrite a newer copy
+        // that may have been inserted since the time we read the cache.
+        getEntryCache().putEntryIfAbsent(entry, backendID, entryID);
+      }
+      return entry;
+    }
+
+    private void readBatch(int from)
+    {
+      batchStart = from;
+      batchEnd = Math.min(from + CANDIDATE_BATCH_SIZE, entryIDs.length);
+      Arrays.fill(cachedEntries, null);
+      Arrays.fill(encodedEntries, null);
+
+      final EntryCache<?> entryCache = getEntryCache();
+      int nbMissing = 0;
+      for (int i = batchStart; i < batchEnd; i++)
+      {
+        final Entry cachedEntry = entryCache.getEntry(backendID, entryIDs[i]);
+        if (cachedEntry != null)
+        {
+          cachedEntries[i - batchStart] = cachedEntry;
+        }
+        else
+        {
+          missingEntryIDs[nbMissing++] = entryIDs[i];
+        }
+      }
+      if (nbMissing == 0)
+      {
+        return;
+      }
+
+      // Sorted candidates are not in entry ID order
+      Arrays.sort(missingEntryIDs, 0, nbMissing);
+      id2entry.getEncodedEntries(txn, missingEntryIDs, nbMissing, missingEncodedEntries);
+      for (int i = batchStart; i < batchEnd; i++)
+      {
+        if (cachedEntries[i - batchStart] == null)
+        {
+          final int missingIndex = Arrays.binarySearch(missingEntryIDs, 0, nbMissing, entryIDs[i]);
+          encodedEntries[i - batchStart] = missingEncodedEntries[missingIndex];
+        }
+      }
+      Arrays.fill(missingEncodedEntries, 0, nbMissing, null);
+    }
+  }
+
   private int findStartIndex(Long beginEntryID, long[] entryIDReorderedSet)
   {
     if (beginEntryID == null)
@@ -2514,6 +2695,11 @@ public class EntryContainer
     return config.isConfidentialityEnabled();
   }
 
+  boolean isBitmapIndexEncoding()
+  {
+    return config.getIndexIdSetEncoding() == IndexIdSetEncoding.BITMAP;
+  }
+
   /**
    * Fetch the base Entry of the EntryContainer.
    * @param searchBaseDN the DN for the base entry
@@ -2548,123 +2734,109 @@ public class EntryContainer
     final SearchScope scope = searchOperation.getScope();
     final SearchFilter filter = searchOperation.getFilter();
 
-    final TreeMap<ByteString, EntryID> sortMap = new TreeMap<>();
-    for (EntryID id : entryIDSet)
+    try (final EntryIDSorter sorter = newEntryIDSorter(searchOperation, sortKeys, vlvRequest, entryIDSet.size()))
     {
-      try
+      for (EntryID id : entryIDSet)
       {
-        Entry e = getEntry(txn, id);
-        if (e.matchesBaseAndScope(baseDN, scope) && filter.matchesEntry(e))
+        try
+        {
+          Entry e = getEntry(txn, id);
+          if (e.matchesBaseAndScope(baseDN, scope) && filter.matchesEntry(e))
+          {
+            sorter.add(encodeVLVKey(sortKeys, e, id.longValue()));
+          }
+        }
+        catch (Exception e)
         {
-          sortMap.put(encodeVLVKey(sortKeys, e, id.longValue()), id);
+          LocalizableMessage message = ERR_ENTRYIDSORTER_CANNOT_EXAMINE_ENTRY.get(id, getExceptionMessage(e));
+          throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), message, e);
         }
       }
-      catch (Exception e)
+
+      // See if there is a VLV request to further pare down the set of results, and if there is where it should be
+      // processed by offset or assertion value.
+      if (vlvRequest == null)
       {
-        LocalizableMessage message = ERR_ENTRYIDSORTER_CANNOT_EXAMINE_ENTRY.get(id, getExceptionMessage(e));
-        throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), message, e);
+        return sorter.getEntryIDs(0, sorter.size());
       }
+
+      if (vlvRequest.getTargetType() == VLVRequestControl.TYPE_TARGET_BYOFFSET)
+      {
+        return sortByOffset(searchOperation, vlvRequest, sorter);
+      }
+      return sortByGreaterThanOrEqualAssertion(searchOperation, vlvRequest, sorter);
     }
+  }
 
-    // See if there is a VLV request to further pare down the set of results, and if there is where it should be
-    // processed by offset or assertion value.
+  /**
+   * Returns a sorter keeping only the keys of the entries which may be returned. Invalid VLV requests are rejected
+   * before reading any entry, so the content count they report is the number of candidates.
+   */
+  private static EntryIDSorter newEntryIDSorter(SearchOperation searchOperation, List<SortKey> sortKeys,
+      VLVRequestControl vlvRequest, long candidateCount) throws DirectoryException
+  {
+    final File tempDir = getFileForPath(OnDiskMergeImporter.DEFAULT_TMP_DIR);
+    final int contentCount = (int) Math.min(candidateCount, Integer.MAX_VALUE);
     if (vlvRequest == null)
     {
-      return toArray(sortMap.values());
+      return EntryIDSorter.newFullSorter(tempDir);
     }
 
     if (vlvRequest.getTargetType() == VLVRequestControl.TYPE_TARGET_BYOFFSET)
     {
-      return sortByOffset(searchOperation, vlvRequest, sortMap);
-    }
-    return sortByGreaterThanOrEqualAssertion(searchOperation, vlvRequest, sortKeys, sortMap);
-  }
+      final int targetOffset = vlvRequest.getOffset();
+      if (targetOffset < 0)
+      {
+        // The client specified a negative target offset. This should never be allowed.
+        addVLVResponseControl(searchOperation, targetOffset, contentCount, OFFSET_RANGE_ERROR);
 
-  private static final long[] toArray(Collection<EntryID> entryIDs)
-  {
-    final long[] array = new long[entryIDs.size()];
-    int i = 0;
-    for (EntryID entryID : entryIDs)
-    {
-      array[i++] = entryID.longValue();
+        LocalizableMessage message = ERR_ENTRYIDSORTER_NEGATIVE_START_POS.get();
+        throw new DirectoryException(ResultCode.VIRTUAL_LIST_VIEW_ERROR, message);
+      }
+      // Entries after the page are never returned.
+      final long listOffset = Math.max(targetOffset, 1) - 1;
+      return EntryIDSorter.newSmallestKeysSorter(listOffset + vlvRequest.getAfterCount() + 1, tempDir);
     }
-    return array;
+
+    final ByteSequence encodedTargetAssertion = encodeTargetAssertion(
+        sortKeys, vlvRequest.getGreaterThanOrEqualAssertion(), searchOperation, contentCount);
+    // The target is followed by at least one entry, see sortByGreaterThanOrEqualAssertion().
+    return EntryIDSorter.newAssertionSorter(encodedTargetAssertion, vlvRequest.getBeforeCount(),
+        1L + Math.max(vlvRequest.getAfterCount(), 1), tempDir);
   }
 
   private static final long[] sortByGreaterThanOrEqualAssertion(SearchOperation searchOperation,
-      VLVRequestControl vlvRequest, List<SortKey> sortKeys, final TreeMap<ByteString, EntryID> sortMap)
-      throws DirectoryException
+      VLVRequestControl vlvRequest, EntryIDSorter sorter)
   {
-    ByteString assertionValue = vlvRequest.getGreaterThanOrEqualAssertion();
-    ByteSequence encodedTargetAssertion =
-        encodeTargetAssertion(sortKeys, assertionValue, searchOperation, sortMap.size());
-
-    boolean targetFound = false;
-    int index = 0;
-    int targetIndex = 0;
-    int startIndex = 0;
-    int includedAfterCount = 0;
-    long[] idSet = new long[sortMap.size()];
-    for (Map.Entry<ByteString, EntryID> entry : sortMap.entrySet())
-    {
-      ByteString vlvKey = entry.getKey();
-      EntryID id = entry.getValue();
-      idSet[index++] = id.longValue();
-
-      if (targetFound)
-      {
-        includedAfterCount++;
-        if (includedAfterCount >= vlvRequest.getAfterCount())
-        {
-          break;
-        }
-      }
-      else
-      {
-        targetFound = vlvKey.compareTo(encodedTargetAssertion) >= 0;
-        if (targetFound)
-        {
-          startIndex = Math.max(0, targetIndex - vlvRequest.getBeforeCount());
-        }
-        targetIndex++;
-      }
-    }
-
-    final long[] result;
-    if (targetFound)
-    {
-      final long[] array = new long[index - startIndex];
-      System.arraycopy(idSet, startIndex, array, 0, array.length);
-      result = array;
-    }
-    else
+    final int contentCount = sorter.size();
+    final int targetIndex = sorter.getLowerKeyCount();
+    if (targetIndex >= contentCount)
     {
       /*
        * No entry was found to be greater than or equal to the sort key, so the target offset will
        * be one greater than the content count.
        */
-      targetIndex = sortMap.size() + 1;
-      result = new long[0];
+      addVLVResponseControl(searchOperation, contentCount + 1, contentCount, SUCCESS);
+      return new long[0];
     }
-    addVLVResponseControl(searchOperation, targetIndex, sortMap.size(), SUCCESS);
+
+    // The entry following the target is returned even when the after count is 0.
+    final int startIndex = Math.max(0, targetIndex - vlvRequest.getBeforeCount());
+    final long afterCount = Math.max(vlvRequest.getAfterCount(), 1);
+    final int count = (int) Math.min(targetIndex - startIndex + 1 + afterCount, contentCount - startIndex);
+    final long[] result = sorter.getEntryIDs(startIndex, count);
+    addVLVResponseControl(searchOperation, targetIndex + 1, contentCount, SUCCESS);
     return result;
   }
 
   private static final long[] sortByOffset(SearchOperation searchOperation, VLVRequestControl vlvRequest,
-      TreeMap<ByteString, EntryID> sortMap) throws DirectoryException
+      EntryIDSorter sorter)
   {
-    int targetOffset = vlvRequest.getOffset();
-    if (targetOffset < 0)
-    {
-      // The client specified a negative target offset. This should never be allowed.
-      addVLVResponseControl(searchOperation, targetOffset, sortMap.size(), OFFSET_RANGE_ERROR);
-
-      LocalizableMessage message = ERR_ENTRYIDSORTER_NEGATIVE_START_POS.get();
-      throw new DirectoryException(ResultCode.VIRTUAL_LIST_VIEW_ERROR, message);
-    }
+    final int contentCount = sorter.size();
 
     // This is an easy mistake to make, since VLV offsets start at 1 instead of 0. We'll assume the client meant
     // to use 1.
+    int targetOffset = vlvRequest.getOffset();
     targetOffset = (targetOffset == 0) ? 1 : targetOffset;
 
     int beforeCount = vlvRequest.getBeforeCount();
@@ -2678,41 +2850,20 @@ public class EntryContainer
       startPos = 0;
       beforeCount = listOffset;
     }
-    else if (startPos >= sortMap.size())
+    else if (startPos >= contentCount)
     {
       // The start position is beyond the end of the list. In this case, we'll assume that the start position was
       // one greater than the size of the list and will only return the beforeCount entries.
-      targetOffset = sortMap.size() + 1;
-      listOffset = sortMap.size();
-      startPos = listOffset - beforeCount;
+      targetOffset = contentCount + 1;
+      listOffset = contentCount;
+      startPos = Math.max(0, listOffset - beforeCount);
       afterCount = 0;
     }
 
-    int count = 1 + beforeCount + afterCount;
-    long[] sortedIDs = new long[count];
-    int treePos = 0;
-    int arrayPos = 0;
-    for (EntryID id : sortMap.values())
-    {
-      if (treePos++ < startPos)
-      {
-        continue;
-      }
-
-      sortedIDs[arrayPos++] = id.longValue();
-      if (arrayPos >= count)
-      {
-        break;
-      }
-    }
-
-    if (arrayPos < count)
-    {
-      // We don't have enough entries in the set to meet the requested page size, so we'll need to shorten the array.
-      sortedIDs = Arrays.copyOf(sortedIDs, arrayPos);
-    }
-
-    addVLVResponseControl(searchOperation, targetOffset, sortMap.size(), SUCCESS);
+    // We may not have enough entries in the set to meet the requested page size, so we may shorten the page.
+    final long count = Math.min(1L + beforeCount + afterCount, contentCount - startPos);
+    final long[] sortedIDs = sorter.getEntryIDs(startPos, (int) count);
+    addVLVResponseControl(searchOperation, targetOffset, contentCount, SUCCESS);
     return sortedIDs;
   }
 
@@ -0,0 +1,1173 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.forgerock.opendj.ldap.ByteSequenceReader;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+
+/**
+ * Compressed bitmap of entry IDs, organized like a Roaring bitmap.
+ * <p>
+ * Entry IDs are split into a 48 bits high part, used as a container key, and a 16 bits low part stored in the
+ * container. Sparse containers hold a sorted array of their low parts while dense containers hold a 65536 bits
+ * bitmap, so that intersections, unions and differences of large sets run one 64 bits word at a time.
+ * <p>
+ * Instances are mutable and not thread safe. Binary operations never modify their operands.
+ */
+final class EntryIDBitmap
+{
+  /** Maximum cardinality of an array container. Above, a bitmap container is smaller. */
+  private static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+  /** Number of 64 bits words in a bitmap container. */
+  private static final int BITMAP_CONTAINER_WORDS = 1024;
+  /** Size, in bytes, of an encoded bitmap container. */
+  private static final int BITMAP_CONTAINER_ENCODED_SIZE = BITMAP_CONTAINER_WORDS * 8;
+
+  private static final byte ARRAY_CONTAINER = 0x00;
+  private static final byte BITMAP_CONTAINER = 0x01;
+  private static final byte RUN_CONTAINER = 0x02;
+
+  private static final long[] NO_KEYS = new long[0];
+  private static final Container[] NO_CONTAINERS = new Container[0];
+
+  /** High parts of the entry IDs, in ascending order. */
+  private long[] keys;
+  /** The containers holding the low parts, at the same position as their key. */
+  private Container[] containers;
+  /** Number of containers in use. */
+  private int size;
+
+  /** Creates an empty bitmap. */
+  EntryIDBitmap()
+  {
+    this(NO_KEYS, NO_CONTAINERS, 0);
+  }
+
+  private EntryIDBitmap(long[] keys, Container[] containers, int size)
+  {
+    this.keys = keys;
+    this.containers = containers;
+    this.size = size;
+  }
+
+  /**
+   * Creates a bitmap containing the provided entry IDs.
+   *
+   * @param entryIDs
+   *          the entry IDs, sorted in ascending order
+   * @return a new bitmap containing the provided entry IDs
+   */
+  static EntryIDBitmap valueOf(long[] entryIDs)
+  {
+    final EntryIDBitmap bitmap = new EntryIDBitmap();
+    int start = 0;
+    while (start < entryIDs.length)
+    {
+      final long key = highBits(entryIDs[start]);
+      int end = start + 1;
+      while (end < entryIDs.length && highBits(entryIDs[end]) == key)
+      {
+        end++;
+      }
+      final int cardinality = end - start;
+      final Container container;
+      if (cardinality <= ARRAY_CONTAINER_MAX_SIZE)
+      {
+        final char[] values = new char[cardinality];
+        for (int i = 0; i < cardinality; i++)
+        {
+          values[i] = lowBits(entryIDs[start + i]);
+        }
+        container = new ArrayContainer(values, cardinality);
+      }
+      else
+      {
+        final BitmapContainer bitmapContainer = new BitmapContainer();
+        for (int i = start; i < end; i++)
+        {
+          bitmapContainer.set(lowBits(entryIDs[i]));
+        }
+        container = bitmapContainer;
+      }
+      bitmap.append(key, container);
+      start = end;
+    }
+    return bitmap;
+  }
+
+  /**
+   * Returns the number of entry IDs in this bitmap.
+   *
+   * @return the number of entry IDs in this bitmap
+   */
+  long cardinality()
+  {
+    long cardinality = 0;
+    for (int i = 0; i < size; i++)
+    {
+      cardinality += containers[i].cardinality();
+    }
+    return cardinality;
+  }
+
+  boolean isEmpty()
+  {
+    return size == 0;
+  }
+
+  /**
+   * Returns the smallest entry ID of this non empty bitmap.
+   *
+   * @return the smallest entry ID of this bitmap
+   */
+  long first()
+  {
+    return toEntryID(keys[0], containers[0].first());
+  }
+
+  /**
+   * Returns the largest entry ID of this non empty bitmap.
+   *
+   * @return the largest entry ID of this bitmap
+   */
+  long last()
+  {
+    return toEntryID(keys[size - 1], containers[size - 1].last());
+  }
+
+  boolean contains(long entryID)
+  {
+    final int pos = indexOf(highBits(entryID));
+    return pos >= 0 && containers[pos].contains(lowBits(entryID));
+  }
+
+  boolean add(long entryID)
+  {
+    final long key = highBits(entryID);
+    final int pos = indexOf(key);
+    if (pos >= 0)
+    {
+      final Container container = containers[pos];
+      final int before = container.cardinality();
+      containers[pos] = container.add(lowBits(entryID));
+      return containers[pos].cardinality() != before;
+    }
+    insertAt(-(pos + 1), key, new ArrayContainer(new char[] { lowBits(entryID) }, 1));
+    return true;
+  }
+
+  boolean remove(long entryID)
+  {
+    final int pos = indexOf(highBits(entryID));
+    if (pos < 0)
+    {
+      return false;
+    }
+    final Container container = containers[pos];
+    final int before = container.cardinality();
+    final Container updated = container.remove(lowBits(entryID));
+    if (updated == null)
+    {
+      removeAt(pos);
+      return true;
+    }
+    containers[pos] = updated;
+    return updated.cardinality() != before;
+  }
+
+  /**
+   * Returns a new bitmap holding the entry IDs present in both this bitmap and the provided one.
+   *
+   * @param that
+   *          the other bitmap
+   * @return the intersection of the two bitmaps
+   */
+  EntryIDBitmap and(EntryIDBitmap that)
+  {
+    final EntryIDBitmap result = new EntryIDBitmap();
+    int i = 0, j = 0;
+    while (i < size && j < that.size)
+    {
+      if (keys[i] < that.keys[j])
+      {
+        i++;
+      }
+      else if (keys[i] > that.keys[j])
+      {
+        j++;
+      }
+      else
+      {
+        final Container container = containers[i].and(that.containers[j]);
+        if (container != null)
+        {
+          result.append(keys[i], container);
+        }
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a new bitmap holding the entry IDs present in either this bitmap or the provided one.
+   *
+   * @param that
+   *          the other bitmap
+   * @return the union of the two bitmaps
+   */
+  EntryIDBitmap or(EntryIDBitmap that)
+  {
+    final EntryIDBitmap result = new EntryIDBitmap();
+    int i = 0, j = 0;
+    while (i < size && j < that.size)
+    {
+      if (keys[i] < that.keys[j])
+      {
+        result.append(keys[i], containers[i].copy());
+        i++;
+      }
+      else if (keys[i] > that.keys[j])
+      {
+        result.append(that.keys[j], that.containers[j].copy());
+        j++;
+      }
+      else
+      {
+        result.append(keys[i], containers[i].or(that.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    for (; i < size; i++)
+    {
+      result.append(keys[i], containers[i].copy());
+    }
+    for (; j < that.size; j++)
+    {
+      result.append(that.keys[j], that.containers[j].copy());
+    }
+    return result;
+  }
+
+  /**
+   * Returns a new bitmap holding the entry IDs present in this bitmap but not in the provided one.
+   *
+   * @param that
+   *          the other bitmap
+   * @return the difference of the two bitmaps
+   */
+  EntryIDBitmap andNot(EntryIDBitmap that)
+  {
+    final EntryIDBitmap result = new EntryIDBitmap();
+    int i = 0, j = 0;
+    while (i < size && j < that.size)
+    {
+      if (keys[i] < that.keys[j])
+      {
+        result.append(keys[i], containers[i].copy());
+        i++;
+      }
+      else if (keys[i] > that.keys[j])
+      {
+        j++;
+      }
+      else
+      {
+        final Container container = containers[i].andNot(that.containers[j]);
+        if (container != null)
+        {
+          result.append(keys[i], container);
+        }
+        i++;
+        j++;
+      }
+    }
+    for (; i < size; i++)
+    {
+      result.append(keys[i], containers[i].copy());
+    }
+    return result;
+  }
+
+  /**
+   * Returns a deep copy of this bitmap.
+   *
+   * @return a deep copy of this bitmap
+   */
+  EntryIDBitmap copy()
+  {
+    final Container[] copies = new Container[size];
+    for (int i = 0; i < size; i++)
+    {
+      copies[i] = containers[i].copy();
+    }
+    return new EntryIDBitmap(Arrays.copyOf(keys, size), copies, size);
+  }
+
+  /**
+   * Returns the entry IDs of this bitmap in ascending order.
+   *
+   * @return a new array containing the entry IDs of this bitmap
+   */
+  long[] toArray()
+  {
+    final long cardinality = cardinality();
+    final long[] entryIDs = new long[(int) cardinality];
+    int offset = 0;
+    for (int i = 0; i < size; i++)
+    {
+      offset = containers[i].fill(entryIDs, offset, keys[i] << 16);
+    }
+    return entryIDs;
+  }
+
+  /**
+   * Returns an iterator over the entry IDs of this bitmap, in ascending order.
+   *
+   * @return an iterator over the entry IDs of this bitmap
+   */
+  Iterator<EntryID> iterator()
+  {
+    return new BitmapIterator();
+  }
+
+  /**
+   * Encodes this bitmap. Each container is written in the most compact of the array, bitmap or run-length forms, so
+   * dense ranges of consecutive entry IDs only take a few bytes.
+   *
+   * @param builder
+   *          the builder where to write this bitmap
+   * @return the provided builder
+   */
+  ByteStringBuilder encode(ByteStringBuilder builder)
+  {
+    builder.appendCompactUnsigned(size);
+    long previousKey = 0;
+    for (int i = 0; i < size; i++)
+    {
+      builder.appendCompactUnsigned(keys[i] - previousKey);
+      previousKey = keys[i];
+
+      final Container container = containers[i];
+      final int cardinality = container.cardinality();
+      final int nbRuns = container.numberOfRuns();
+      final int runsSize = nbRuns * 4;
+      final int arraySize = cardinality * 2;
+      if (runsSize < arraySize && runsSize < BITMAP_CONTAINER_ENCODED_SIZE)
+      {
+        builder.appendByte(RUN_CONTAINER);
+        builder.appendCompactUnsigned(nbRuns);
+        container.appendRuns(builder);
+      }
+      else if (arraySize < BITMAP_CONTAINER_ENCODED_SIZE)
+      {
+        builder.appendByte(ARRAY_CONTAINER);
+        builder.appendCompactUnsigned(cardinality - 1);
+        container.appendValues(builder);
+      }
+      else
+      {
+        builder.appendByte(BITMAP_CONTAINER);
+        for (long word : container.toBitmap().words)
+        {
+          builder.appendLong(word);
+        }
+      }
+    }
+    return builder;
+  }
+
+  /**
+   * Decodes a bitmap previously written by {@link #encode(ByteStringBuilder)}.
+   *
+   * @param reader
+   *          the reader positioned on the encoded bitmap
+   * @return the decoded bitmap
+   */
+  static EntryIDBitmap decode(ByteSequenceReader reader)
+  {
+    final int nbContainers = reader.readCompactUnsignedInt();
+    final EntryIDBitmap bitmap =
+        new EntryIDBitmap(new long[nbContainers], new Container[nbContainers], 0);
+    long key = 0;
+    for (int i = 0; i < nbContainers; i++)
+    {
+      key += reader.readCompactUnsignedLong();
+      final byte type = reader.readByte();
+      switch (type)
+      {
+      case ARRAY_CONTAINER:
+        final int cardinality = reader.readCompactUnsignedInt() + 1;
+        final char[] values = new char[cardinality];
+        for (int j = 0; j < cardinality; j++)
+        {
+          values[j] = (char) reader.readShort();
+        }
+        bitmap.append(key, new ArrayContainer(values, cardinality));
+        break;
+      case BITMAP_CONTAINER:
+        final BitmapContainer bitmapContainer = new BitmapContainer();
+        for (int j = 0; j < BITMAP_CONTAINER_WORDS; j++)
+        {
+          bitmapContainer.words[j] = reader.readLong();
+        }
+        bitmapContainer.computeCardinality();
+        bitmap.append(key, bitmapContainer);
+        break;
+      case RUN_CONTAINER:
+        bitmap.append(key, decodeRuns(reader));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown bitmap container type " + type);
+      }
+    }
+    return bitmap;
+  }
+
+  private static Container decodeRuns(ByteSequenceReader reader)
+  {
+    final int nbRuns = reader.readCompactUnsignedInt();
+    final BitmapContainer container = new BitmapContainer();
+    for (int i = 0; i < nbRuns; i++)
+    {
+      final int start = reader.readShort() & 0xFFFF;
+      final int length = (reader.readShort() & 0xFFFF) + 1;
+      container.setRange(start, start + length);
+    }
+    container.computeCardinality();
+    return container.cardinality <= ARRAY_CONTAINER_MAX_SIZE ? container.toArrayContainer() : container;
+  }
+
+  private int indexOf(long key)
+  {
+    return Arrays.binarySearch(keys, 0, size, key);
+  }
+
+  private void append(long key, Container container)
+  {
+    ensureCapacity(size + 1);
+    keys[size] = key;
+    containers[size] = container;
+    size++;
+  }
+
+  private void insertAt(int pos, long key, Container container)
+  {
+    ensureCapacity(size + 1);
+    System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+    System.arraycopy(containers, pos, containers, pos + 1, size - pos);
+    keys[pos] = key;
+    containers[pos] = container;
+    size++;
+  }
+
+  private void removeAt(int pos)
+  {
+    System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+    System.arraycopy(containers, pos + 1, containers, pos, size - pos - 1);
+    size--;
+    containers[size] = null;
+  }
+
+  private void ensureCapacity(int capacity)
+  {
+    if (capacity > keys.length)
+    {
+      final int newCapacity = Math.max(capacity, keys.length * 2);
+      keys = Arrays.copyOf(keys, newCapacity);
+      containers = Arrays.copyOf(containers, newCapacity);
+    }
+  }
+
+  private static long highBits(long entryID)
+  {
+    return entryID >>> 16;
+  }
+
+  private static char lowBits(long entryID)
+  {
+    return (char) entryID;
+  }
+
+  private static long toEntryID(long key, int low)
+  {
+    return (key << 16) | low;
+  }
+
+  /** Iterates over the containers, then over the values of each container. */
+  private final class BitmapIterator implements Iterator<EntryID>
+  {
+    private int containerIndex = -1;
+    private long base;
+    private ValueCursor cursor;
+    private int next = -1;
+
+    BitmapIterator()
+    {
+      advance();
+    }
+
+    private void advance()
+    {
+      next = cursor != null ? cursor.next() : -1;
+      while (next < 0 && ++containerIndex < size)
+      {
+        base = keys[containerIndex] << 16;
+        cursor = containers[containerIndex].cursor();
+        next = cursor.next();
+      }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      return next >= 0;
+    }
+
+    @Override
+    public EntryID next()
+    {
+      if (!hasNext())
+      {
+        throw new NoSuchElementException();
+      }
+      final EntryID entryID = new EntryID(base | next);
+      advance();
+      return entryID;
+    }
+
+    @Override
+    public void remove()
+    {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** Sequential reader of the low parts stored in a container. */
+  private interface ValueCursor
+  {
+    /**
+     * Returns the next value of the container.
+     *
+     * @return the next value, or -1 when the container has been fully read
+     */
+    int next();
+  }
+
+  /** Stores the low 16 bits of the entry IDs sharing the same high bits. */
+  private abstract static class Container
+  {
+    abstract int cardinality();
+
+    abstract int first();
+
+    abstract int last();
+
+    abstract boolean contains(char value);
+
+    /** Returns the container holding this container values plus the provided one, which may be this container. */
+    abstract Container add(char value);
+
+    /** Returns the container holding this container values minus the provided one, or null if it is empty. */
+    abstract Container remove(char value);
+
+    /** Returns the intersection of both containers, or null if it is empty. */
+    abstract Container and(Container that);
+
+    abstract Container or(Container that);
+
+    /** Returns the difference of both containers, or null if it is empty. */
+    abstract Container andNot(Container that);
+
+    abstract Container copy();
+
+    abstract int fill(long[] entryIDs, int offset, long base);
+
+    abstract ValueCursor cursor();
+
+    abstract int numberOfRuns();
+
+    abstract void appendRuns(ByteStringBuilder builder);
+
+    abstract void appendValues(ByteStringBuilder builder);
+
+    abstract BitmapContainer toBitmap();
+  }
+
+  /** Container storing its values as a sorted array of chars. */
+  private static final class ArrayContainer extends Container
+  {
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer(char[] values, int cardinality)
+    {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality()
+    {
+      return cardinality;
+    }
+
+    @Override
+    int first()
+    {
+      return values[0];
+    }
+
+    @Override
+    int last()
+    {
+      return values[cardinality - 1];
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+      return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    Container add(char value)
+    {
+      int pos = Arrays.binarySearch(values, 0, cardinality, value);
+      if (pos >= 0)
+      {
+        return this;
+      }
+      if (cardinality >= ARRAY_CONTAINER_MAX_SIZE)
+      {
+        return toBitmap().add(value);
+      }
+      pos = -(pos + 1);
+      if (cardinality == values.length)
+      {
+        values = Arrays.copyOf(values, Math.min(Math.max(4, cardinality * 2), ARRAY_CONTAINER_MAX_SIZE));
+      }
+      System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+      values[pos] = value;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(char value)
+    {
+      final int pos = Arrays.binarySearch(values, 0, cardinality, value);
+      if (pos < 0)
+      {
+        return this;
+      }
+      System.arraycopy(values, pos + 1, values, pos, cardinality - pos - 1);
+      cardinality--;
+      return cardinality > 0 ? this : null;
+    }
+
+    @Override
+    Container and(Container that)
+    {
+      final char[] result = new char[Math.min(cardinality, that.cardinality())];
+      int count = 0;
+      if (that instanceof ArrayContainer)
+      {
+        final ArrayContainer other = (ArrayContainer) that;
+        int i = 0, j = 0;
+        while (i < cardinality && j < other.cardinality)
+        {
+          if (values[i] < other.values[j])
+          {
+            i++;
+          }
+          else if (values[i] > other.values[j])
+          {
+            j++;
+          }
+          else
+          {
+            result[count++] = values[i];
+            i++;
+            j++;
+          }
+        }
+      }
+      else
+      {
+        for (int i = 0; i < cardinality; i++)
+        {
+          if (that.contains(values[i]))
+          {
+            result[count++] = values[i];
+          }
+        }
+      }
+      return count > 0 ? new ArrayContainer(result, count) : null;
+    }
+
+    @Override
+    Container or(Container that)
+    {
+      if (that instanceof BitmapContainer)
+      {
+        return that.or(this);
+      }
+      final ArrayContainer other = (ArrayContainer) that;
+      if (cardinality + other.cardinality > ARRAY_CONTAINER_MAX_SIZE)
+      {
+        final BitmapContainer result = toBitmap();
+        for (int j = 0; j < other.cardinality; j++)
+        {
+          result.set(other.values[j]);
+        }
+        return result.cardinality <= ARRAY_CONTAINER_MAX_SIZE ? result.toArrayContainer() : result;
+      }
+      final char[] result = new char[cardinality + other.cardinality];
+      int i = 0, j = 0, count = 0;
+      while (i < cardinality && j < other.cardinality)
+      {
+        if (values[i] < other.values[j])
+        {
+          result[count++] = values[i++];
+        }
+        else if (values[i] > other.values[j])
+        {
+          result[count++] = other.values[j++];
+        }
+        else
+        {
+          result[count++] = values[i];
+          i++;
+          j++;
+        }
+      }
+      while (i < cardinality)
+      {
+        result[count++] = values[i++];
+      }
+      while (j < other.cardinality)
+      {
+        result[count++] = other.values[j++];
+      }
+      return new ArrayContainer(result, count);
+    }
+
+    @Override
+    Container andNot(Container that)
+    {
+      final char[] result = new char[cardinality];
+      int count = 0;
+      for (int i = 0; i < cardinality; i++)
+      {
+        if (!that.contains(values[i]))
+        {
+          result[count++] = values[i];
+        }
+      }
+      return count > 0 ? new ArrayContainer(result, count) : null;
+    }
+
+    @Override
+    Container copy()
+    {
+      return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+    }
+
+    @Override
+    int fill(long[] entryIDs, int offset, long base)
+    {
+      for (int i = 0; i < cardinality; i++)
+      {
+        entryIDs[offset++] = base | values[i];
+      }
+      return offset;
+    }
+
+    @Override
+    ValueCursor cursor()
+    {
+      return new ValueCursor()
+      {
+        private int index;
+
+        @Override
+        public int next()
+        {
+          return index < cardinality ? values[index++] : -1;
+        }
+      };
+    }
+
+    @Override
+    int numberOfRuns()
+    {
+      int nbRuns = cardinality > 0 ? 1 : 0;
+      for (int i = 1; i < cardinality; i++)
+      {
+        if (values[i] != values[i - 1] + 1)
+        {
+          nbRuns++;
+        }
+      }
+      return nbRuns;
+    }
+
+    @Override
+    void appendRuns(ByteStringBuilder builder)
+    {
+      int start = 0;
+      for (int i = 1; i <= cardinality; i++)
+      {
+        if (i == cardinality || values[i] != values[i - 1] + 1)
+        {
+          builder.appendShort(values[start]);
+          builder.appendShort(i - start - 1);
+          start = i;
+        }
+      }
+    }
+
+    @Override
+    void appendValues(ByteStringBuilder builder)
+    {
+      for (int i = 0; i < cardinality; i++)
+      {
+        builder.appendShort(values[i]);
+      }
+    }
+
+    @Override
+    BitmapContainer toBitmap()
+    {
+      final BitmapContainer bitmap = new BitmapContainer();
+      for (int i = 0; i < cardinality; i++)
+      {
+        bitmap.set(values[i]);
+      }
+      return bitmap;
+    }
+  }
+
+  /** Container storing its values as a 65536 bits bitmap. */
+  private static final class BitmapContainer extends Container
+  {
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer()
+    {
+      this(new long[BITMAP_CONTAINER_WORDS], 0);
+    }
+
+    private BitmapContainer(long[] words, int cardinality)
+    {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    void set(int value)
+    {
+      final long mask = 1L << value;
+      final int index = value >>> 6;
+      if ((words[index] & mask) == 0)
+      {
+        words[index] |= mask;
+        cardinality++;
+      }
+    }
+
+    /** Sets the bits in [start, end), without maintaining the cardinality. */
+    void setRange(int start, int end)
+    {
+      for (int value = start; value < end;)
+      {
+        final int index = value >>> 6;
+        final int bitsInWord = Math.min(64 - (value & 63), end - value);
+        final long mask = bitsInWord == 64 ? -1L : ((1L << bitsInWord) - 1) << (value & 63);
+        words[index] |= mask;
+        value += bitsInWord;
+      }
+    }
+
+    void computeCardinality()
+    {
+      cardinality = bitCount(words);
+    }
+
+    @Override
+    int cardinality()
+    {
+      return cardinality;
+    }
+
+    @Override
+    int first()
+    {
+      for (int i = 0; i < BITMAP_CONTAINER_WORDS; i++)
+      {
+        if (words[i] != 0)
+        {
+          return i * 64 + Long.numberOfTrailingZeros(words[i]);
+        }
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    int last()
+    {
+      for (int i = BITMAP_CONTAINER_WORDS - 1; i >= 0; i--)
+      {
+        if (words[i] != 0)
+        {
+          return i * 64 + 63 - Long.numberOfLeadingZeros(words[i]);
+        }
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    Container add(char value)
+    {
+      set(value);
+      return this;
+    }
+
+    @Override
+    Container remove(char value)
+    {
+      final long mask = 1L << value;
+      final int index = value >>> 6;
+      if ((words[index] & mask) != 0)
+      {
+        words[index] &= ~mask;
+        cardinality--;
+        if (cardinality <= ARRAY_CONTAINER_MAX_SIZE)
+        {
+          return cardinality > 0 ? toArrayContainer() : null;
+        }
+      }
+      return this;
+    }
+
+    @Override
+    Container and(Container that)
+    {
+      if (that instanceof ArrayContainer)
+      {
+        return that.and(this);
+      }
+      final long[] otherWords = ((BitmapContainer) that).words;
+      final long[] result = new long[BITMAP_CONTAINER_WORDS];
+      for (int i = 0; i < BITMAP_CONTAINER_WORDS; i++)
+      {
+        result[i] = words[i] & otherWords[i];
+      }
+      return newContainer(result);
+    }
+
+    @Override
+    Container or(Container that)
+    {
+      final long[] result = Arrays.copyOf(words, BITMAP_CONTAINER_WORDS);
+      if (that instanceof ArrayContainer)
+      {
+        final BitmapContainer container = new BitmapContainer(result, cardinality);
+        final ArrayContainer other = (ArrayContainer) that;
+        for (int i = 0; i < other.cardinality; i++)
+        {
+          container.set(other.values[i]);
+        }
+        return container;
+      }
+      final long[] otherWords = ((BitmapContainer) that).words;
+      for (int i = 0; i < BITMAP_CONTAINER_WORDS; i++)
+      {
+        result[i] |= otherWords[i];
+      }
+      return new BitmapContainer(result, bitCount(result));
+    }
+
+    @Override
+    Container andNot(Container that)
+    {
+      final long[] result = Arrays.copyOf(words, BITMAP_CONTAINER_WORDS);
+      if (that instanceof ArrayContainer)
+      {
+        final ArrayContainer other = (ArrayContainer) that;
+        for (int i = 0; i < other.cardinality; i++)
+        {
+          final char value = other.values[i];
+          result[value >>> 6] &= ~(1L << value);
+        }
+      }
+      else
+      {
+        final long[] otherWords = ((BitmapContainer) that).words;
+        for (int i = 0; i < BITMAP_CONTAINER_WORDS; i++)
+        {
+          result[i] &= ~otherWords[i];
+        }
+      }
+      return newContainer(result);
+    }
+
+    private static Container newContainer(long[] words)
+    {
+      final BitmapContainer container = new BitmapContainer(words, bitCount(words));
+      if (container.cardinality == 0)
+      {
+        return null;
+      }
+      return container.cardinality <= ARRAY_CONTAINER_MAX_SIZE ? container.toArrayContainer() : container;
+    }
+
+    private static int bitCount(long[] words)
+    {
+      int count = 0;
+      for (long word : words)
+      {
+        count += Long.bitCount(word);
+      }
+      return count;
+    }
+
+    @Override
+    Container copy()
+    {
+      return new BitmapContainer(Arrays.copyOf(words, BITMAP_CONTAINER_WORDS), cardinality);
+    }
+
+    @Override
+    int fill(long[] entryIDs, int offset, long base)
+    {
+      for (int i = 0; i < BITMAP_CONTAINER_WORDS; i++)
+      {
+        long word = words[i];
+        while (word != 0)
+        {
+          entryIDs[offset++] = base | (i * 64 + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return offset;
+    }
+
+    @Override
+    ValueCursor cursor()
+    {
+      return new ValueCursor()
+      {
+        private int index;
+        private long word = words[0];
+
+        @Override
+        public int next()
+        {
+          while (word == 0)
+          {
+            if (++index >= BITMAP_CONTAINER_WORDS)
+            {
+              return -1;
+            }
+            word = words[index];
+          }
+          final int value = index * 64 + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+          return value;
+        }
+      };
+    }
+
+    @Override
+    int numberOfRuns()
+    {
+      int nbRuns = 0;
+      for (int i = 0; i < BITMAP_CONTAINER_WORDS; i++)
+      {
+        final long word = words[i];
+        // A run starts on each set bit whose preceding bit (possibly in the previous word) is not set
+        final long previousBits = (word << 1) | (i > 0 ? words[i - 1] >>> 63 : 0);
+        nbRuns += Long.bitCount(word & ~previousBits);
+      }
+      return nbRuns;
+    }
+
+    @Override
+    void appendRuns(ByteStringBuilder builder)
+    {
+      int value = 0;
+      while (value < BITMAP_CONTAINER_WORDS * 64)
+      {
+        if (contains((char) value))
+        {
+          final int start = value;
+          while (value < BITMAP_CONTAINER_WORDS * 64 && contains((char) value))
+          {
+            value++;
+          }
+          builder.appendShort(start);
+          builder.appendShort(value - start - 1);
+        }
+        else
+        {
+          value++;
+        }
+      }
+    }
+
+    @Override
+    void appendValues(ByteStringBuilder builder)
+    {
+      final ValueCursor cursor = cursor();
+      for (int value = cursor.next(); value >= 0; value = cursor.next())
+      {
+        builder.appendShort(value);
+      }
+    }
+
+    @Override
+    BitmapContainer toBitmap()
+    {
+      return this;
+    }
+
+    ArrayContainer toArrayContainer()
+    {
+      final char[] values = new char[cardinality];
+      final ValueCursor cursor = cursor();
+      int count = 0;
+      for (int value = cursor.next(); value >= 0; value = cursor.next())
+      {
+        values[count++] = (char) value;
+      }
+      return new ArrayContainer(values, count);
+    }
+  }
+}
@@ -272,6 +272,93 @@ final class EntryIDSet implements Iterable<EntryID>
     }
   }
 
+  /**
+   * Concrete implementation representing a set of EntryIDs stored in a compressed bitmap. Intersections, unions and
+   * differences between two such sets are performed one 64 bits word at a time.
+   */
+  private static final class BitmapImpl implements EntryIDSetImplementor
+  {
+    private EntryIDBitmap bitmap;
+
+    BitmapImpl(EntryIDBitmap bitmap)
+    {
+      this.bitmap = checkNotNull(bitmap, "bitmap must not be null");
+    }
+
+    @Override
+    public long size()
+    {
+      return bitmap.cardinality();
+    }
+
+    @Override
+    public void toString(StringBuilder buffer)
+    {
+      buffer.append("[COUNT:").append(size()).append("]");
+    }
+
+    @Override
+    public boolean isDefined()
+    {
+      return true;
+    }
+
+    @Override
+    public boolean add(EntryID entryID)
+    {
+      return bitmap.add(entryID.longValue());
+    }
+
+    @Override
+    public boolean remove(EntryID entryID)
+    {
+      return bitmap.remove(entryID.longValue());
+    }
+
+    @Override
+    public boolean contains(EntryID entryID)
+    {
+      return bitmap.contains(entryID.longValue());
+    }
+
+    @Override
+    public void addAll(EntryIDSet that)
+    {
+      bitmap = bitmap.or(toBitmap(that));
+    }
+
+    @Override
+    public void removeAll(EntryIDSet that)
+    {
+      if (compareForOverlap(getRange(), that.getRange()) == 0)
+      {
+        bitmap = bitmap.andNot(toBitmap(that));
+      }
+    }
+
+    @Override
+    public Iterator<EntryID> iterator()
+    {
+      return bitmap.iterator();
+    }
+
+    @Override
+    public long[] getRange()
+    {
+      if (!bitmap.isEmpty())
+      {
+        return new long[] { bitmap.first(), bitmap.last() };
+      }
+      return NO_ENTRY_IDS_RANGE;
+    }
+
+    @Override
+    public long[] getIDs()
+    {
+      return bitmap.toArray();
+    }
+  }
+
   /**
    * Concrete implementation where the EntryIDs are not defined, for example when the index entry
    * limit has been exceeded.
@@ -539,7 +626,65 @@ final class EntryIDSet implements Iterable<EntryID>
   }
 
   /**
-   * Decorate a V1 or V2 codec with encryption. When writing EntryIDSets to disk,
+   * Decorate a V1 or V2 codec with a compressed bitmap encoding. When the bitmap encoding is enabled, sets having at
+   * least {@link #MIN_BITMAP_ENCODED_SIZE} IDs are written as a compressed bitmap prefixed by the tag {@code 0xFE},
+   * which can neither start a V1 nor a V2 encoded set. Smaller sets and undefined sets are written by the delegate
+   * codec, as their delta encoded form is already smaller. Values written by the delegate codec, including those
+   * written before the bitmap encoding was enabled, are still decoded, so that existing indexes are transparently
+   * upgraded as their keys are updated. Conversely, bitmap encoded values are still decoded when the bitmap encoding
+   * is disabled, and downgraded as their keys are updated.
+   */
+  static final class EntryIDSetCodecV4 implements EntryIDSetCodec
+  {
+    private static final byte CODEC_V4_TAG = (byte) 0xFE;
+    /** Minimum number of IDs for which the bitmap encoding is smaller than the delta encoding. */
+    static final int MIN_BITMAP_ENCODED_SIZE = 64;
+    private final EntryIDSetCodec delegate;
+    /** Whether large sets are written as bitmaps, or only read from bitmaps. */
+    private final boolean bitmapEncoding;
+
+    EntryIDSetCodecV4(EntryIDSetCodec delegate, boolean bitmapEncoding)
+    {
+      this.delegate = delegate;
+      this.bitmapEncoding = bitmapEncoding;
+    }
+
+    @Override
+    public ByteString encode(EntryIDSet idSet)
+    {
+      checkNotNull(idSet, "idSet must not be null");
+      if (!bitmapEncoding || !idSet.isDefined() || idSet.size() < MIN_BITMAP_ENCODED_SIZE)
+      {
+        return delegate.encode(idSet);
+      }
+      final ByteStringBuilder builder = new ByteStringBuilder();
+      builder.appendByte(CODEC_V4_TAG);
+      toBitmap(idSet).encode(builder);
+      return builder.toByteString();
+    }
+
+    @Override
+    public EntryIDSet decode(ByteSequence key, ByteString value)
+    {
+      checkNotNull(key, "key must not be null");
+      checkNotNull(value, "value must not be null");
+      if (!value.isEmpty() && value.byteAt(0) == CODEC_V4_TAG)
+      {
+        final ByteSequenceReader reader = value.asReader();
+        reader.skip(1);
+        return new EntryIDSet(new BitmapImpl(EntryIDBitmap.decode(reader)));
+      }
+      return delegate.decode(key, value);
+    }
+  }
+
+  static EntryIDSetCodec newEntryIDSetCodecV4(EntryIDSetCodec codec, boolean bitmapEncoding)
+  {
+    return new EntryIDSetCodecV4(codec, bitmapEncoding);
+  }
+
+  /**
+   * Decorate a V1, V2 or V4 codec with encryption. When writing EntryIDSets to disk,
    * prepend two bytes, {0, 1} to mark them as encrypted.
    * The first is tag zero (unused in other encodings), followed by a byte
    * indicating version 1 of encryption.
@@ -657,6 +802,32 @@ final class EntryIDSet implements Iterable<EntryID>
     return target;
   }
 
+  /**
+   * Intersects a sorted array with a bitmap by probing the bitmap, which is cheaper than materializing the bitmap.
+   */
+  private static long[] intersection(EntryIDSet set1, EntryIDSet set2)
+  {
+    final EntryIDSet bitmapSet = set1.concreteImpl instanceof BitmapImpl ? set1 : set2;
+    final EntryIDSet otherSet = bitmapSet == set1 ? set2 : set1;
+    final EntryIDBitmap bitmap = toBitmap(bitmapSet);
+    final long[] ids = otherSet.getIDs();
+
+    long[] target = new long[ids.length];
+    int ci = 0;
+    for (long id : ids)
+    {
+      if (bitmap.contains(id))
+      {
+        target[ci++] = id;
+      }
+    }
+    if (ci < target.length)
+    {
+      target = Arrays.copyOf(target, ci);
+    }
+    return target;
+  }
+
   /**
    * Creates a new set of entry IDs that is the union of several entry ID sets.
    *
@@ -689,6 +860,16 @@ final class EntryIDSet implements Iterable<EntryID>
       return newUndefinedSet();
     }
 
+    if (containsBitmap(sets))
+    {
+      EntryIDBitmap union = new EntryIDBitmap();
+      for (EntryIDSet l : sets)
+      {
+        union = union.or(toBitmap(l));
+      }
+      return new EntryIDSet(new BitmapImpl(union));
+    }
+
     boolean needSort = false;
     long[] n = new long[count];
     int pos = 0;
@@ -723,6 +904,31 @@ final class EntryIDSet implements Iterable<EntryID>
     return newDefinedSet(Arrays.copyOf(n1, j));
   }
 
+  private static boolean containsBitmap(List<EntryIDSet> sets)
+  {
+    for (EntryIDSet set : sets)
+    {
+      if (set.concreteImpl instanceof BitmapImpl)
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the compressed bitmap holding the IDs of the provided defined set. The returned bitmap is shared with the
+   * set if it is already stored as a bitmap, so it must not be modified.
+   */
+  private static EntryIDBitmap toBitmap(EntryIDSet idSet)
+  {
+    if (idSet.concreteImpl instanceof BitmapImpl)
+    {
+      return ((BitmapImpl) idSet.concreteImpl).bitmap;
+    }
+    return EntryIDBitmap.valueOf(idSet.getIDs());
+  }
+
   private EntryIDSetImplementor concreteImpl;
 
   private EntryIDSet(EntryIDSetImplementor concreteImpl)
@@ -889,7 +1095,10 @@ final class EntryIDSet implements Iterable<EntryID>
     checkNotNull(that, "that must not be null");
     if (!concreteImpl.isDefined())
     {
-      if ( that.isDefined() ) {
+      if (that.concreteImpl instanceof BitmapImpl) {
+        // Bitmaps are updated in place, so they must not be shared.
+        concreteImpl = new BitmapImpl(toBitmap(that).copy());
+      } else if ( that.isDefined() ) {
         // NOTE: It's ok to share the same array instance here thanks to the copy-on-write
         // performed by the implementation.
         concreteImpl = new DefinedImpl(that.getIDs());
@@ -903,8 +1112,18 @@ final class EntryIDSet implements Iterable<EntryID>
       return;
     }
 
+    if (concreteImpl instanceof BitmapImpl && that.concreteImpl instanceof BitmapImpl)
+    {
+      concreteImpl = new BitmapImpl(toBitmap(this).and(toBitmap(that)));
+      return;
+    }
+
     final boolean thatSetOverlap = compareForOverlap(getRange(), that.getRange()) == 0;
-    if (thatSetOverlap)
+    if (thatSetOverlap && (concreteImpl instanceof BitmapImpl || that.concreteImpl instanceof BitmapImpl))
+    {
+      concreteImpl = new DefinedImpl(intersection(this, that));
+    }
+    else if (thatSetOverlap)
     {
       concreteImpl = new DefinedImpl(intersection(concreteImpl.getIDs(), that.getIDs()));
     }
@@ -0,0 +1,390 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.forgerock.util.Utils.*;
+import static org.opends.server.backends.pluggable.VLVIndex.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.forgerock.opendj.ldap.ByteSequence;
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.backends.pluggable.OnDiskMergeImporter.BufferPool;
+import org.opends.server.backends.pluggable.OnDiskMergeImporter.ExternalSortChunk;
+import org.opends.server.backends.pluggable.spi.SequentialCursor;
+import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
+
+/**
+ * Sorts the IDs of the entries matching a search by their VLV keys, for the server-side sort and VLV controls which
+ * cannot be processed with a VLV index.
+ * <p>
+ * Only the keys which may be returned are kept: when a VLV request restricts the results to a window, the keys
+ * around the target are kept in bounded heaps while all the keys are counted. When all the keys are needed, they are
+ * sorted in memory until they exceed a threshold, then spilled to temporary sorted runs using the
+ * {@link ExternalSortChunk} of the importer, which are merged back once all the keys have been added.
+ * <p>
+ * The keys are the VLV keys of the entries, which end with the entry ID. This class is not thread-safe.
+ */
+final class EntryIDSorter implements Closeable
+{
+  /** Largest number of keys kept in a heap: windows larger than this are selected from a full sort. */
+  static final int MAX_HEAP_KEYS = 10000;
+  /** Size of the keys held in memory by a full sort before they are spilled to disk. */
+  static final long MAX_IN_MEMORY_KEYS_SIZE = 8 * 1024 * 1024;
+  /** Size of the buffer used to sort each run spilled to disk. */
+  private static final int SPILL_BUFFER_SIZE = 4 * 1024 * 1024;
+  /** Estimated memory used by a key held in memory, in addition to its bytes. */
+  private static final int KEY_OVERHEAD = 64;
+
+  /** The keys lower than the target assertion, or {@code null} if there is no target assertion. */
+  private final KeyStore lowerKeys;
+  /** The keys greater than or equal to the target assertion, or all the keys if there is no target assertion. */
+  private final KeyStore upperKeys;
+  private final ByteSequence targetAssertion;
+
+  /**
+   * Creates a new sorter.
+   *
+   * @param targetAssertion
+   *          the encoded target assertion splitting the keys, or {@code null} to keep the smallest keys
+   * @param lowerLimit
+   *          the number of largest keys lower than the target assertion to keep
+   * @param upperLimit
+   *          the number of smallest keys greater than or equal to the target assertion to keep, or
+   *          {@link Long#MAX_VALUE} to keep all of them
+   * @param tempDir
+   *          the directory where to spill the keys which do not fit in memory
+   * @param maxInMemoryKeysSize
+   *          the size of the keys held in memory before spilling them to disk
+   */
+  EntryIDSorter(ByteSequence targetAssertion, long lowerLimit, long upperLimit, File tempDir,
+      long maxInMemoryKeysSize)
+  {
+    this.targetAssertion = targetAssertion;
+    this.lowerKeys =
+        targetAssertion != null ? newKeyStore(lowerLimit, true, tempDir, maxInMemoryKeysSize) : null;
+    this.upperKeys = newKeyStore(upperLimit, false, tempDir, maxInMemoryKeysSize);
+  }
+
+  /**
+   * Returns a sorter keeping all the keys.
+   *
+   * @param tempDir
+   *          the directory where to spill the keys which do not fit in memory
+   * @return a new sorter
+   */
+  static EntryIDSorter newFullSorter(File tempDir)
+  {
+    return new EntryIDSorter(null, 0, Long.MAX_VALUE, tempDir, MAX_IN_MEMORY_KEYS_SIZE);
+  }
+
+  /**
+   * Returns a sorter keeping the smallest keys.
+   *
+   * @param limit
+   *          the number of smallest keys to keep
+   * @param tempDir
+   *          the directory where to spill the keys which do not fit in memory
+   * @return a new sorter
+   */
+  static EntryIDSorter newSmallestKeysSorter(long limit, File tempDir)
+  {
+    return new EntryIDSorter(null, 0, limit, tempDir, MAX_IN_MEMORY_KEYS_SIZE);
+  }
+
+  /**
+   * Returns a sorter keeping the keys around a target assertion.
+   *
+   * @param targetAssertion
+   *          the encoded target assertion
+   * @param lowerLimit
+   *          the number of largest keys lower than the target assertion to keep
+   * @param upperLimit
+   *          the number of smallest keys greater than or equal to the target assertion to keep
+   * @param tempDir
+   *          the directory where to spill the keys which do not fit in memory
+   * @return a new sorter
+   */
+  static EntryIDSorter newAssertionSorter(ByteSequence targetAssertion, long lowerLimit, long upperLimit,
+      File tempDir)
+  {
+    return new EntryIDSorter(targetAssertion, lowerLimit, upperLimit, tempDir, MAX_IN_MEMORY_KEYS_SIZE);
+  }
+
+  private static KeyStore newKeyStore(long limit, boolean keepLargest, File tempDir, long maxInMemoryKeysSize)
+  {
+    return limit <= MAX_HEAP_KEYS
+        ? new BoundedKeyStore((int) limit, keepLargest)
+        : new SpillingKeyStore(tempDir, maxInMemoryKeysSize);
+  }
+
+  /**
+   * Adds the VLV key of an entry.
+   *
+   * @param key
+   *          the VLV key of the entry, ending with its entry ID
+   */
+  void add(ByteString key)
+  {
+    if (lowerKeys != null && key.compareTo(targetAssertion) < 0)
+    {
+      lowerKeys.add(key);
+    }
+    else
+    {
+      upperKeys.add(key);
+    }
+  }
+
+  /**
+   * Returns the number of keys added to this sorter.
+   *
+   * @return the number of keys added to this sorter
+   */
+  int size()
+  {
+    return getLowerKeyCount() + upperKeys.size;
+  }
+
+  /**
+   * Returns the number of keys lower than the target assertion, which is also the position of the target entry.
+   *
+   * @return the number of keys lower than the target assertion, or 0 if there is no target assertion
+   */
+  int getLowerKeyCount()
+  {
+    return lowerKeys != null ? lowerKeys.size : 0;
+  }
+
+  /**
+   * Returns the IDs of a range of the sorted entries. The requested entries must have been kept by this sorter. This
+   * method can only be called once.
+   *
+   * @param fromIndex
+   *          the position of the first entry, starting at 0
+   * @param count
+   *          the number of entries
+   * @return the IDs of the entries, in ascending order of their keys
+   */
+  long[] getEntryIDs(int fromIndex, int count)
+  {
+    final long[] entryIDs = new long[count];
+    final int lowerKeyCount = getLowerKeyCount();
+    int nbEntryIDs = 0;
+    if (fromIndex < lowerKeyCount)
+    {
+      nbEntryIDs = lowerKeys.getEntryIDs(fromIndex, Math.min(count, lowerKeyCount - fromIndex), entryIDs, 0);
+    }
+    if (nbEntryIDs < count)
+    {
+      upperKeys.getEntryIDs(fromIndex + nbEntryIDs - lowerKeyCount, count - nbEntryIDs, entryIDs, nbEntryIDs);
+    }
+    return entryIDs;
+  }
+
+  @Override
+  public void close()
+  {
+    closeSilently(lowerKeys, upperKeys);
+  }
+
+  /** Keeps some of the keys added to it. */
+  private abstract static class KeyStore implements Closeable
+  {
+    /** The number of keys added to this store, including the keys which have not been kept. */
+    int size;
+
+    abstract void add(ByteString key);
+
+    /**
+     * Copies the IDs of the entries at the provided positions among all the keys added to this store.
+     *
+     * @return the position following the last copied entry ID
+     */
+    abstract int getEntryIDs(int fromIndex, int count, long[] entryIDs, int position);
+
+    @Override
+    public void close()
+    {
+      // Nothing to do by default
+    }
+  }
+
+  /** Keeps the smallest or the largest keys in a heap. */
+  private static final class BoundedKeyStore extends KeyStore
+  {
+    private final int limit;
+    private final boolean keepLargest;
+    /** The head of this heap is the first key to be dropped: the smallest one when keeping the largest keys. */
+    private final PriorityQueue<ByteString> heap;
+
+    BoundedKeyStore(int limit, boolean keepLargest)
+    {
+      this.limit = limit;
+      this.keepLargest = keepLargest;
+      this.heap = new PriorityQueue<>(Math.max(Math.min(limit, 1024), 1),
+          keepLargest ? null : Collections.<ByteString> reverseOrder());
+    }
+
+    @Override
+    void add(ByteString key)
+    {
+      size++;
+      if (heap.size() < limit)
+      {
+        heap.add(key);
+      }
+      else if (limit > 0 && (keepLargest ? key.compareTo(heap.peek()) > 0 : key.compareTo(heap.peek()) < 0))
+      {
+        heap.poll();
+        heap.add(key);
+      }
+    }
+
+    @Override
+    int getEntryIDs(int fromIndex, int count, long[] entryIDs, int position)
+    {
+      final ByteString[] keys = heap.toArray(new ByteString[heap.size()]);
+      Arrays.sort(keys);
+      final int firstIndex = keepLargest ? size - keys.length : 0;
+      for (int i = fromIndex; i < fromIndex + count; i++)
+      {
+        entryIDs[position++] = decodeEntryIDFromVLVKey(keys[i - firstIndex]);
+      }
+      return position;
+    }
+  }
+
+  /** Keeps all the keys, spilling them to temporary sorted runs when they do not fit in memory. */
+  private static final class SpillingKeyStore extends KeyStore
+  {
+    private final File tempDir;
+    private final long maxInMemoryKeysSize;
+    private final List<ByteString> inMemoryKeys = new ArrayList<>();
+    private long inMemoryKeysSize;
+
+    /** The directory holding the runs of this store, created on the first spill. */
+    private File runsDir;
+    private BufferPool bufferPool;
+    private ExternalSortChunk runs;
+    private SequentialCursor<ByteString, ByteString> runsCursor;
+
+    SpillingKeyStore(File tempDir, long maxInMemoryKeysSize)
+    {
+      this.tempDir = tempDir;
+      this.maxInMemoryKeysSize = maxInMemoryKeysSize;
+    }
+
+    @Override
+    void add(ByteString key)
+    {
+      size++;
+      if (runs != null)
+      {
+        runs.put(key, ByteString.empty());
+        return;
+      }
+
+      inMemoryKeys.add(key);
+      inMemoryKeysSize += key.length() + KEY_OVERHEAD;
+      if (inMemoryKeysSize > maxInMemoryKeysSize)
+      {
+        spill();
+      }
+    }
+
+    private void spill()
+    {
+      try
+      {
+        if (!tempDir.exists() && !tempDir.mkdirs())
+        {
+          throw new IOException("Cannot create directory " + tempDir);
+        }
+        runsDir = Files.createTempDirectory(tempDir.toPath(), "sort").toFile();
+        bufferPool = new BufferPool(1, SPILL_BUFFER_SIZE, false);
+        runs = new ExternalSortChunk(runsDir, "sort", bufferPool, null, null,
+            OnDiskMergeImporter.sameThreadExecutor());
+      }
+      catch (IOException e)
+      {
+        throw new StorageRuntimeException(e);
+      }
+
+      for (ByteString key : inMemoryKeys)
+      {
+        runs.put(key, ByteString.empty());
+      }
+      inMemoryKeys.clear();
+      inMemoryKeysSize = 0;
+    }
+
+    @Override
+    int getEntryIDs(int fromIndex, int count, long[] entryIDs, int position)
+    {
+      if (runs == null)
+      {
+        Collections.sort(inMemoryKeys);
+        for (ByteString key : inMemoryKeys.subList(fromIndex, fromIndex + count))
+        {
+          entryIDs[position++] = decodeEntryIDFromVLVKey(key);
+        }
+        return position;
+      }
+
+      runsCursor = runs.flip();
+      for (int i = 0; i < fromIndex && runsCursor.next(); i++)
+      {
+        // Skip the keys before the requested range
+      }
+      for (int i = 0; i < count && runsCursor.next(); i++)
+      {
+        entryIDs[position++] = decodeEntryIDFromVLVKey(runsCursor.getKey());
+      }
+      return position;
+    }
+
+    @Override
+    public void close()
+    {
+      if (runs == null)
+      {
+        return;
+      }
+      try
+      {
+        if (runsCursor == null)
+        {
+          runsCursor = runs.flip();
+        }
+      }
+      finally
+      {
+        closeSilently(runsCursor, bufferPool);
+        recursiveDelete(runsDir);
+      }
+    }
+  }
+}
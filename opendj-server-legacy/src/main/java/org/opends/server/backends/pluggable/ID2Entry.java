@@ -26,9 +26,8 @@ import static org.opends.server.core.DirectoryServer.*;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Set;
 import java.util.zip.DataFormatException;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.InflaterInputStream;
 import java.util.zip.InflaterOutputStream;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -39,6 +38,7 @@ import org.forgerock.opendj.ldap.ByteSequenceReader;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ByteStringBuilder;
 import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.schema.AttributeType;
 import org.forgerock.util.Function;
 import org.forgerock.util.Reject;
 import org.opends.server.api.CompressedSchema;
@@ -119,6 +119,11 @@ class ID2Entry extends AbstractTree
     private static final byte PLAIN_ENTRY = 0x00;
     private static final byte COMPRESS_ENTRY = 0x01;
     private static final byte ENCRYPT_ENTRY = 0x02;
+    /** Bits of the format flags holding the identifier of the compression algorithm, deflate being 0. */
+    private static final int COMPRESSION_CODEC_MASK = 0x1C;
+    private static final int COMPRESSION_CODEC_SHIFT = 2;
+    /** Indicates that the entry was compressed using a shared dictionary. */
+    private static final byte DICTIONARY_ENTRY = 0x20;
 
     /** The format version for entry encoding. */
     static final byte FORMAT_VERSION_V2 = 0x02;
@@ -140,16 +145,17 @@ class ID2Entry extends AbstractTree
       compressedEntryBuffer.clearAndTruncate(maxBufferSize, BUFFER_INIT_SIZE);
     }
 
-    private Entry decode(ByteString bytes, CompressedSchema compressedSchema)
+    private Entry decode(ByteString bytes, CompressedSchema compressedSchema,
+        PersistentCompressedSchema dictionaries, Set<AttributeType> attributeTypes)
         throws DirectoryException, DecodeException, IOException
     {
       final byte formatVersion = bytes.byteAt(0);
       switch(formatVersion)
       {
       case FORMAT_VERSION:
-        return decodeV1(bytes, compressedSchema);
+        return decodeV1(bytes, compressedSchema, attributeTypes);
       case FORMAT_VERSION_V2:
-        return decodeV2(bytes, compressedSchema);
+        return decodeV2(bytes, compressedSchema, dictionaries, attributeTypes);
       default:
         throw DecodeException.error(ERR_INCOMPATIBLE_ENTRY_VERSION.get(formatVersion));
       }
@@ -180,13 +186,14 @@ class ID2Entry extends AbstractTree
      *
      * @param bytes A byte array containing the encoded tree value.
      * @param compressedSchema The compressed schema manager to use when decoding.
+     * @param attributeTypes The types of the attributes to decode, or {@code null} to decode all of them.
      * @return The decoded entry.
      * @throws DecodeException If the data is not in the expected ASN.1 encoding
      * format.
      * @throws DirectoryException If a Directory Server error occurs.
      * @throws IOException if an error occurs while reading the ASN1 sequence.
      */
-    private Entry decodeV1(ByteString bytes, CompressedSchema compressedSchema)
+    private Entry decodeV1(ByteString bytes, CompressedSchema compressedSchema, Set<AttributeType> attributeTypes)
         throws DirectoryException, DecodeException, IOException
     {
       // Read the ASN1 sequence.
@@ -214,38 +221,43 @@ class ID2Entry extends AbstractTree
         // Since we are used the cached buffers (ByteStringBuilders),
         // the decoded attribute values will not refer back to the
         // original buffer.
-        return Entry.decode(entryBuffer.asReader(), compressedSchema);
+        return Entry.decode(entryBuffer.asReader(), compressedSchema, attributeTypes);
       }
       else
       {
         // Since we don't have to do any decompression, we can just decode
         // the entry directly.
         ByteString encodedEntry = reader.readOctetString();
-        return Entry.decode(encodedEntry.asReader(), compressedSchema);
+        return Entry.decode(encodedEntry.asReader(), compressedSchema, attributeTypes);
       }
     }
 
     /**
      * Decodes an entry in the new extensible format.
      * Enties are encoded according to the sequence
-     *   {VERSION_BYTE, FLAG_BYTE, COMPACT_INTEGER_LENGTH, ID2ENTRY_VALUE}
+     *   {VERSION_BYTE, FLAG_BYTE, COMPACT_INTEGER_LENGTH, [COMPACT_INTEGER_DICTIONARY], ID2ENTRY_VALUE}
      * where
      *
      * ID2ENTRY_VALUE = encoding of Entry as in decodeV1()
      * VERSION_BYTE = 0x2
      * FLAG_BYTE = bit field of OR'ed values indicating post-encoding processing.
-     *     possible meaningful flags are COMPRESS_ENTRY and ENCRYPT_ENTRY.
-     * COMPACT_INTEGER_LENGTH = length of ID2ENTRY_VALUE
+     *     possible meaningful flags are COMPRESS_ENTRY, ENCRYPT_ENTRY and DICTIONARY_ENTRY,
+     *     the compression algorithm identifier being stored in the COMPRESSION_CODEC_MASK bits.
+     * COMPACT_INTEGER_LENGTH = length of ID2ENTRY_VALUE before compression
+     * COMPACT_INTEGER_DICTIONARY = identifier of the compression dictionary, only if DICTIONARY_ENTRY is set
      *
      * @param bytes A byte array containing the encoded tree value.
      * @param compressedSchema The compressed schema manager to use when decoding.
+     * @param dictionaries Where to look up compression dictionaries, may be {@code null}.
+     * @param attributeTypes The types of the attributes to decode, or {@code null} to decode all of them.
      * @return The decoded entry.
      * @throws DecodeException If the data is not in the expected ASN.1 encoding
      * format or a decryption error occurs.
      * @throws DirectoryException If a Directory Server error occurs.
      * @throws IOException if an error occurs while reading the ASN1 sequence.
      */
-    private Entry decodeV2(ByteString bytes, CompressedSchema compressedSchema)
+    private Entry decodeV2(ByteString bytes, CompressedSchema compressedSchema,
+        PersistentCompressedSchema dictionaries, Set<AttributeType> attributeTypes)
         throws DirectoryException, DecodeException, IOException
     {
       ByteSequenceReader reader = bytes.asReader();
@@ -257,32 +269,50 @@ class ID2Entry extends AbstractTree
       {
         if (format == PLAIN_ENTRY)
         {
-          return Entry.decode(reader, compressedSchema);
+          return Entry.decode(reader, compressedSchema, attributeTypes);
         }
-        InputStream is = reader.asInputStream();
+        CompressionDictionary dictionary = null;
+        if ((format & DICTIONARY_ENTRY) == DICTIONARY_ENTRY)
+        {
+          final int dictionaryId = reader.readCompactUnsignedInt();
+          dictionary = dictionaries != null ? dictionaries.getCompressionDictionary(dictionaryId) : null;
+          if (dictionary == null)
+          {
+            throw DecodeException.error(ERR_CANNOT_DECODE_ENTRY.get());
+          }
+        }
+
         if ((format & ENCRYPT_ENTRY) == ENCRYPT_ENTRY)
         {
-          is = getCryptoManager().getCipherInputStream(is);
+          // CipherInputStream does not read more than block size...
+          InputStream is = getCryptoManager().getCipherInputStream(reader.asInputStream());
+          while (compressedEntryBuffer.appendBytes(is, BUFFER_INIT_SIZE) != -1)
+          {
+            // Read until the end of the stream
+          }
         }
-        if ((format & COMPRESS_ENTRY) == COMPRESS_ENTRY)
+        else
         {
-          is = new InflaterInputStream(is);
+          compressedEntryBuffer.appendBytes(reader, reader.remaining());
         }
-        byte[] data = new byte[encodedEntryLen];
-        int readBytes;
-        int position = 0;
-        int leftToRead = encodedEntryLen;
-        // CipherInputStream does not read more than block size...
-        do
+
+        if ((format & COMPRESS_ENTRY) != COMPRESS_ENTRY)
         {
-          if ((readBytes = is.read(data, position, leftToRead)) == -1 )
+          if (compressedEntryBuffer.length() != encodedEntryLen)
           {
             throw DecodeException.error(ERR_CANNOT_DECODE_ENTRY.get());
           }
-          position += readBytes;
-          leftToRead -= readBytes;
-        } while (leftToRead > 0 && readBytes > 0);
-        return Entry.decode(ByteString.wrap(data).asReader(), compressedSchema);
+          return Entry.decode(compressedEntryBuffer.asReader(), compressedSchema, attributeTypes);
+        }
+        final int codecId = (format & COMPRESSION_CODEC_MASK) >>> COMPRESSION_CODEC_SHIFT;
+        final CompressionCodec codec = getCompressionCodec(codecId);
+        if (codec == null)
+        {
+          throw DecodeException.error(ERR_CANNOT_DECODE_ENTRY.get());
+        }
+        codec.decompress(compressedEntryBuffer.getBackingArray(), 0, compressedEntryBuffer.length(), dictionary,
+            encodedEntryLen, entryBuffer);
+        return Entry.decode(entryBuffer.asReader(), compressedSchema, attributeTypes);
       }
       catch (CryptoManagerException cme)
       {
@@ -304,23 +334,47 @@ class ID2Entry extends AbstractTree
       OutputStream os = encodedBuffer.asOutputStream();
       try
       {
-        byte[] formatFlags = { FORMAT_VERSION_V2, 0};
-        os.write(formatFlags);
-        encodedBuffer.appendCompactUnsigned(entryBuffer.length());
+        byte formatFlags = PLAIN_ENTRY;
+        ByteStringBuilder data = entryBuffer;
+        CompressionDictionary dictionary = null;
         if (dataConfig.isCompressed())
         {
-          os = new DeflaterOutputStream(os);
-          formatFlags[1] = COMPRESS_ENTRY;
+          final CompressionCodec codec = dataConfig.getCompressionCodec();
+          if (dataConfig.isCompressionDictionaryEnabled())
+          {
+            dictionary = dataConfig.getCompressionDictionaries().getCompressionDictionary(
+                dataConfig.getCompressionDictionarySize(), entryBuffer.getBackingArray(), 0, entryBuffer.length());
+          }
+          codec.compress(entryBuffer.getBackingArray(), 0, entryBuffer.length(), dictionary, compressedEntryBuffer);
+          data = compressedEntryBuffer;
+          formatFlags = (byte) (COMPRESS_ENTRY | (codec.getId() << COMPRESSION_CODEC_SHIFT));
+          if (dictionary != null)
+          {
+            formatFlags |= DICTIONARY_ENTRY;
+          }
         }
         if (dataConfig.isEncrypted())
         {
-          os = dataConfig.getCryptoSuite().getCipherOutputStream(os);
-          formatFlags[1] |= ENCRYPT_ENTRY;
+          formatFlags |= ENCRYPT_ENTRY;
         }
-        encodedBuffer.setByte(1, formatFlags[1]);
 
-        entryBuffer.copyTo(os);
-        os.flush();
+        encodedBuffer.appendByte(FORMAT_VERSION_V2);
+        encodedBuffer.appendByte(formatFlags);
+        encodedBuffer.appendCompactUnsigned(entryBuffer.length());
+        if (dictionary != null)
+        {
+          encodedBuffer.appendCompactUnsigned(dictionary.getId());
+        }
+        if (dataConfig.isEncrypted())
+        {
+          os = dataConfig.getCryptoSuite().getCipherOutputStream(os);
+          data.copyTo(os);
+          os.flush();
+        }
+        else
+        {
+          encodedBuffer.appendBytes(data);
+        }
       }
       catch(CryptoManagerException | IOException e)
       {
@@ -339,6 +393,25 @@ class ID2Entry extends AbstractTree
         }
       }
     }
+
+    /**
+     * Returns the compression algorithm having the provided identifier.
+     *
+     * @param id the identifier recorded in the format flags of an entry
+     * @return the compression algorithm, or {@code null} if it is unknown
+     */
+    private static CompressionCodec getCompressionCodec(int id)
+    {
+      switch (id)
+      {
+      case CompressionCodec.DEFLATE_ID:
+        return DeflateCompressionCodec.INSTANCE;
+      case CompressionCodec.LZ4_ID:
+        return LZ4CompressionCodec.INSTANCE;
+      default:
+        return null;
+      }
+    }
   }
 
   /**
@@ -388,7 +461,7 @@ class ID2Entry extends AbstractTree
     EntryCodec codec = acquireEntryCodec();
     try
     {
-      return codec.decode(bytes, compressedSchema);
+      return codec.decode(bytes, compressedSchema, dataConfig.getCompressionDictionaries(), null);
     }
     finally
     {
@@ -458,15 +531,101 @@ class ID2Entry extends AbstractTree
   public Entry get(ReadableTransaction txn, EntryID entryID)
        throws DirectoryException, StorageRuntimeException
   {
+    return decode(entryID, txn.read(getName(), entryID.toByteString()));
+  }
+
+  /**
+   * Fetch the records of several entries from the entry tree, walking a single cursor. This is cheaper than fetching
+   * them one by one, notably when the entry IDs are close to each other. The records are returned undecoded so that
+   * only the entries which are actually needed get decoded.
+   *
+   * @param txn a non null transaction
+   * @param entryIDs The desired entry IDs, in ascending order.
+   * @param count The number of desired entry IDs.
+   * @param encodedEntries Receives the records of the entries, or null for the entries which do not exist.
+   * @throws StorageRuntimeException If an error occurs in the storage.
+   */
+  void getEncodedEntries(ReadableTransaction txn, long[] entryIDs, int count, ByteString[] encodedEntries)
+      throws StorageRuntimeException
+  {
+    try (final Cursor<ByteString, ByteString> cursor = txn.openCursor(getName()))
+    {
+      boolean isDefined = false;
+      for (int i = 0; i < count; i++)
+      {
+        final ByteString key = ByteString.valueOfLong(entryIDs[i]);
+        int cmp = isDefined ? cursor.getKey().compareTo(key) : -1;
+        if (isDefined && cmp < 0)
+        {
+          // The next desired entry is often the next record.
+          isDefined = cursor.next();
+          cmp = isDefined ? cursor.getKey().compareTo(key) : -1;
+        }
+        if (cmp < 0)
+        {
+          isDefined = cursor.positionToKeyOrNext(key);
+          cmp = isDefined ? cursor.getKey().compareTo(key) : 1;
+        }
+        encodedEntries[i] = cmp == 0 ? cursor.getValue() : null;
+      }
+    }
+  }
+
+  /**
+   * Decodes a record fetched from the entry tree.
+   *
+   * @param entryID The entry ID of the record.
+   * @param encodedEntry The record, or null if there is no such record.
+   * @return The decoded entry, or null if there is no such record.
+   * @throws DirectoryException If a problem occurs while decoding the entry.
+   */
+  Entry decode(EntryID entryID, ByteString encodedEntry) throws DirectoryException
+  {
+    try
+    {
+      return get0(encodedEntry);
+    }
+    catch (Exception e)
+    {
+      throw new DirectoryException(
+          DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), ERR_ENTRY_DATABASE_CORRUPT.get(entryID));
+    }
+  }
+
+  /**
+   * Decodes a record fetched from the entry tree, only keeping the attributes of the provided types. The returned
+   * entry has no virtual attributes: it is only meant to be matched against a search filter which does not depend on
+   * them, before deciding whether the whole entry needs decoding.
+   *
+   * @param entryID The entry ID of the record.
+   * @param encodedEntry The record, or null if there is no such record.
+   * @param attributeTypes The types of the attributes to decode.
+   * @return The partially decoded entry, or null if there is no such record.
+   * @throws DirectoryException If a problem occurs while decoding the entry.
+   */
+  Entry decodePartially(EntryID entryID, ByteString encodedEntry, Set<AttributeType> attributeTypes)
+      throws DirectoryException
+  {
+    if (encodedEntry == null)
+    {
+      return null;
+    }
+    EntryCodec codec = acquireEntryCodec();
     try
     {
-      return get0(txn.read(getName(), entryID.toByteString()));
+      return codec.decode(encodedEntry, dataConfig.getEntryEncodeConfig().getCompressedSchema(),
+          dataConfig.getCompressionDictionaries(), attributeTypes);
     }
     catch (Exception e)
     {
+      logger.traceException(e);
       throw new DirectoryException(
           DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), ERR_ENTRY_DATABASE_CORRUPT.get(entryID));
     }
+    finally
+    {
+      codec.release();
+    }
   }
 
   Cursor<EntryID, Entry> openCursor(ReadableTransaction txn)
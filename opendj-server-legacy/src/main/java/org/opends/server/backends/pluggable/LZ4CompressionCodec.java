@@ -0,0 +1,314 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+
+/**
+ * Compression using the LZ4 block format, which trades some compression ratio for a much faster decompression than
+ * deflate.
+ * <p>
+ * When a dictionary is provided, it is handled as if it was immediately preceding the data, so matches can refer to
+ * the dictionary content.
+ */
+final class LZ4CompressionCodec implements CompressionCodec
+{
+  /** The single instance of this codec. */
+  static final CompressionCodec INSTANCE = new LZ4CompressionCodec();
+
+  private static final int MIN_MATCH = 4;
+  /** The last literals of a block are never part of a match. */
+  private static final int LAST_LITERALS = 5;
+  /** A match cannot start within the last bytes of a block. */
+  private static final int MF_LIMIT = 12;
+  private static final int MAX_DISTANCE = 65535;
+  private static final int RUN_MASK = 15;
+  private static final int HASH_LOG = 12;
+  private static final int HASH_SIZE = 1 << HASH_LOG;
+
+  /** Per thread buffer holding the dictionary followed by the data being compressed. */
+  private static final ThreadLocal<CompressionBuffer> BUFFERS = new ThreadLocal<CompressionBuffer>()
+  {
+    @Override
+    protected CompressionBuffer initialValue()
+    {
+      return new CompressionBuffer();
+    }
+  };
+
+  /** Buffer and hash table reused across compressions performed by a thread. */
+  private static final class CompressionBuffer
+  {
+    private byte[] buffer = new byte[0];
+    private CompressionDictionary dictionary;
+    private final int[] hashTable = new int[HASH_SIZE];
+
+    /** Returns a buffer holding the dictionary content, with enough room after it for the data. */
+    byte[] prepare(CompressionDictionary dictionary, int dataLength)
+    {
+      final int dictionaryLength = dictionaryLength(dictionary);
+      if (buffer.length < dictionaryLength + dataLength)
+      {
+        buffer = new byte[dictionaryLength + dataLength];
+        this.dictionary = null;
+      }
+      if (dictionary != null && this.dictionary != dictionary)
+      {
+        System.arraycopy(dictionary.getContent(), 0, buffer, 0, dictionaryLength);
+      }
+      this.dictionary = dictionary;
+      return buffer;
+    }
+  }
+
+  private LZ4CompressionCodec()
+  {
+    // Singleton
+  }
+
+  @Override
+  public int getId()
+  {
+    return LZ4_ID;
+  }
+
+  @Override
+  public void compress(byte[] data, int offset, int length, CompressionDictionary dictionary,
+      ByteStringBuilder output)
+  {
+    final CompressionBuffer compressionBuffer = BUFFERS.get();
+    final byte[] src = compressionBuffer.prepare(dictionary, length);
+    final int srcStart = dictionaryLength(dictionary);
+    final int srcEnd = srcStart + length;
+    System.arraycopy(data, offset, src, srcStart, length);
+
+    int anchor = srcStart;
+    if (length > MF_LIMIT)
+    {
+      final int[] hashTable = compressionBuffer.hashTable;
+      if (dictionary != null)
+      {
+        System.arraycopy(getDictionaryHashTable(dictionary), 0, hashTable, 0, HASH_SIZE);
+      }
+      else
+      {
+        Arrays.fill(hashTable, -1);
+      }
+
+      final int matchLimit = srcEnd - LAST_LITERALS;
+      final int mfLimit = srcEnd - MF_LIMIT;
+      int ip = srcStart;
+      while (ip < mfLimit)
+      {
+        final int sequence = readInt(src, ip);
+        final int h = hash(sequence);
+        int ref = hashTable[h];
+        hashTable[h] = ip;
+        if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence)
+        {
+          ip++;
+          continue;
+        }
+
+        // Extend the match backwards, then forwards
+        while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1])
+        {
+          ip--;
+          ref--;
+        }
+        int matchLength = MIN_MATCH;
+        while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength])
+        {
+          matchLength++;
+        }
+
+        writeSequence(output, src, anchor, ip - anchor, ip - ref, matchLength);
+        ip += matchLength;
+        anchor = ip;
+        if (ip < mfLimit)
+        {
+          hashTable[hash(readInt(src, ip - 2))] = ip - 2;
+        }
+      }
+    }
+    writeLastLiterals(output, src, anchor, srcEnd - anchor);
+  }
+
+  @Override
+  public void decompress(byte[] compressed, int offset, int length, CompressionDictionary dictionary,
+      int uncompressedLength, ByteStringBuilder output) throws IOException
+  {
+    final byte[] dict = dictionary != null ? dictionary.getContent() : null;
+    final int dstStart = output.length();
+    final int dstEnd = dstStart + uncompressedLength;
+    output.setLength(dstEnd);
+    final byte[] dst = output.getBackingArray();
+
+    final int srcEnd = offset + length;
+    int ip = offset;
+    int op = dstStart;
+    while (ip < srcEnd)
+    {
+      final int token = compressed[ip++] & 0xFF;
+
+      int literalLength = token >>> 4;
+      if (literalLength == RUN_MASK)
+      {
+        int b;
+        do
+        {
+          checkBounds(ip < srcEnd);
+          b = compressed[ip++] & 0xFF;
+          literalLength += b;
+        }
+        while (b == 255);
+      }
+      checkBounds(ip + literalLength <= srcEnd && op + literalLength <= dstEnd);
+      System.arraycopy(compressed, ip, dst, op, literalLength);
+      ip += literalLength;
+      op += literalLength;
+      if (ip == srcEnd)
+      {
+        // The last sequence only holds literals
+        break;
+      }
+
+      checkBounds(ip + 2 <= srcEnd);
+      final int distance = (compressed[ip] & 0xFF) | ((compressed[ip + 1] & 0xFF) << 8);
+      ip += 2;
+      int matchLength = token & RUN_MASK;
+      if (matchLength == RUN_MASK)
+      {
+        int b;
+        do
+        {
+          checkBounds(ip < srcEnd);
+          b = compressed[ip++] & 0xFF;
+          matchLength += b;
+        }
+        while (b == 255);
+      }
+      matchLength += MIN_MATCH;
+      checkBounds(distance > 0 && op + matchLength <= dstEnd);
+
+      int ref = op - distance;
+      if (ref < dstStart)
+      {
+        // The match starts in the dictionary
+        final int dictionaryOffset = dstStart - ref;
+        checkBounds(dict != null && dictionaryOffset <= dict.length);
+        final int fromDictionary = Math.min(dictionaryOffset, matchLength);
+        System.arraycopy(dict, dict.length - dictionaryOffset, dst, op, fromDictionary);
+        op += fromDictionary;
+        matchLength -= fromDictionary;
+        ref = dstStart;
+      }
+      if (op - ref >= matchLength)
+      {
+        System.arraycopy(dst, ref, dst, op, matchLength);
+        op += matchLength;
+      }
+      else
+      {
+        // Overlapping match: copy byte by byte to repeat the pattern
+        for (int i = 0; i < matchLength; i++)
+        {
+          dst[op++] = dst[ref++];
+        }
+      }
+    }
+    checkBounds(op == dstEnd);
+  }
+
+  private static int[] getDictionaryHashTable(CompressionDictionary dictionary)
+  {
+    int[] hashTable = dictionary.getLZ4HashTable();
+    if (hashTable == null)
+    {
+      final byte[] content = dictionary.getContent();
+      hashTable = new int[HASH_SIZE];
+      Arrays.fill(hashTable, -1);
+      for (int i = Math.max(0, content.length - MAX_DISTANCE); i + MIN_MATCH <= content.length; i++)
+      {
+        hashTable[hash(readInt(content, i))] = i;
+      }
+      dictionary.setLZ4HashTable(hashTable);
+    }
+    return hashTable;
+  }
+
+  private static void writeSequence(ByteStringBuilder output, byte[] src, int literalStart, int literalLength,
+      int distance, int matchLength)
+  {
+    final int matchRun = matchLength - MIN_MATCH;
+    output.appendByte((Math.min(literalLength, RUN_MASK) << 4) | Math.min(matchRun, RUN_MASK));
+    writeLength(output, literalLength);
+    output.appendBytes(src, literalStart, literalLength);
+    output.appendByte(distance);
+    output.appendByte(distance >>> 8);
+    writeLength(output, matchRun);
+  }
+
+  private static void writeLastLiterals(ByteStringBuilder output, byte[] src, int literalStart, int literalLength)
+  {
+    output.appendByte(Math.min(literalLength, RUN_MASK) << 4);
+    writeLength(output, literalLength);
+    output.appendBytes(src, literalStart, literalLength);
+  }
+
+  private static void writeLength(ByteStringBuilder output, int length)
+  {
+    if (length >= RUN_MASK)
+    {
+      int remaining = length - RUN_MASK;
+      while (remaining >= 255)
+      {
+        output.appendByte(255);
+        remaining -= 255;
+      }
+      output.appendByte(remaining);
+    }
+  }
+
+  private static int readInt(byte[] buffer, int offset)
+  {
+    return (buffer[offset] & 0xFF)
+        | (buffer[offset + 1] & 0xFF) << 8
+        | (buffer[offset + 2] & 0xFF) << 16
+        | (buffer[offset + 3] & 0xFF) << 24;
+  }
+
+  private static int hash(int sequence)
+  {
+    return (sequence * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+  private static int dictionaryLength(CompressionDictionary dictionary)
+  {
+    return dictionary != null ? dictionary.getContent().length : 0;
+  }
+
+  private static void checkBounds(boolean condition) throws IOException
+  {
+    if (!condition)
+    {
+      throw new IOException("Corrupted LZ4 compressed entry");
+    }
+  }
+}
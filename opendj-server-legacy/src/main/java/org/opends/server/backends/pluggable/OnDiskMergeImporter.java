@@ -153,7 +153,7 @@ import org.forgerock.i18n.LocalizableMessage;
  */
 final class OnDiskMergeImporter
 {
-  private static final String DEFAULT_TMP_DIR = "import-tmp";
+  static final String DEFAULT_TMP_DIR = "import-tmp";
 
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
@@ -2772,7 +2772,7 @@ final class OnDiskMergeImporter
   }
 
   /** Executor delegating the execution of task to the current thread. */
-  private static Executor sameThreadExecutor()
+  static Executor sameThreadExecutor()
   {
     return new Executor()
     {
@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.io.ASN1;
@@ -45,6 +47,10 @@ import org.opends.server.types.InitializationException;
 /**
  * This class provides a compressed schema implementation whose definitions are
  * persisted in a tree.
+ * <p>
+ * It also holds the dictionaries used for compressing the entries of all the
+ * entry containers of the storage. Dictionaries are never removed as long as
+ * entries may still refer to them.
  */
 final class PersistentCompressedSchema extends CompressedSchema
 {
@@ -54,11 +60,15 @@ final class PersistentCompressedSchema extends CompressedSchema
   private static final String DB_NAME_AD = "compressed_attributes";
   /** The name of the tree used to store compressed object class set definitions. */
   private static final String DB_NAME_OC = "compressed_object_classes";
+  /** The name of the tree used to store entry compression dictionaries. */
+  private static final String DB_NAME_DICT = "compression_dictionaries";
 
   /** The compressed attribute description schema tree. */
   private static final TreeName adTreeName = new TreeName("compressed_schema", DB_NAME_AD);
   /** The compressed object class set schema tree. */
   private static final TreeName ocTreeName = new TreeName("compressed_schema", DB_NAME_OC);
+  /** The entry compression dictionaries tree. */
+  private static final TreeName dictTreeName = new TreeName("compressed_schema", DB_NAME_DICT);
 
   /** The storage in which the trees are held. */
   private final Storage storage;
@@ -68,6 +78,14 @@ final class PersistentCompressedSchema extends CompressedSchema
   private final ByteStringBuilder storeObjectClassesWriterBuffer = new ByteStringBuilder();
   private final ASN1Writer storeObjectClassesWriter = ASN1.getWriter(storeObjectClassesWriterBuffer);
 
+  /** The compression dictionaries, by identifier. */
+  private final Map<Integer, CompressionDictionary> dictionaries = new ConcurrentHashMap<>();
+  /** The most recently trained dictionary, used for compressing new entries. */
+  private volatile CompressionDictionary latestDictionary;
+  /** Collects the entries used for training the first dictionary, {@code null} when no training is needed. */
+  private volatile CompressionDictionaryTrainer trainer;
+  private final boolean writeable;
+
   /**
    * Creates a new instance of this compressed schema manager.
    *
@@ -90,7 +108,91 @@ final class PersistentCompressedSchema extends CompressedSchema
   {
     super(serverContext);
     this.storage = storage;
-    load(txn, accessMode.isWriteable());
+    this.writeable = accessMode.isWriteable();
+    load(txn, writeable);
+  }
+
+  /**
+   * Returns the compression dictionary having the provided identifier.
+   *
+   * @param id
+   *          the identifier of the dictionary
+   * @return the compression dictionary, or {@code null} if it does not exist
+   */
+  CompressionDictionary getCompressionDictionary(int id)
+  {
+    return dictionaries.get(id);
+  }
+
+  /**
+   * Returns the dictionary to use for compressing new entries. When no dictionary exists yet, the provided entry is
+   * kept as a sample and a dictionary is trained once enough samples have been collected.
+   *
+   * @param dictionarySize
+   *          the requested size of the dictionary
+   * @param encodedEntry
+   *          the array holding the encoded entry about to be compressed
+   * @param offset
+   *          the offset of the encoded entry in the array
+   * @param length
+   *          the length of the encoded entry
+   * @return the dictionary to use, or {@code null} if none is available yet
+   */
+  CompressionDictionary getCompressionDictionary(int dictionarySize, byte[] encodedEntry, int offset, int length)
+  {
+    final CompressionDictionary dictionary = latestDictionary;
+    if (dictionary != null || !writeable)
+    {
+      return dictionary;
+    }
+
+    CompressionDictionaryTrainer t = trainer;
+    if (t == null)
+    {
+      synchronized (this)
+      {
+        if (trainer == null && latestDictionary == null)
+        {
+          trainer = new CompressionDictionaryTrainer(dictionarySize);
+        }
+        t = trainer;
+      }
+      if (t == null)
+      {
+        return latestDictionary;
+      }
+    }
+    if (t.addSample(encodedEntry, offset, length))
+    {
+      final byte[] content = t.train();
+      if (content.length > 0)
+      {
+        try
+        {
+          storeCompressionDictionary(content);
+        }
+        catch (DirectoryException e)
+        {
+          logger.traceException(e);
+          logger.error(e.getMessageObject());
+        }
+      }
+    }
+    return latestDictionary;
+  }
+
+  private synchronized void storeCompressionDictionary(byte[] content) throws DirectoryException
+  {
+    int id = 0;
+    for (Integer existingId : dictionaries.keySet())
+    {
+      id = Math.max(id, existingId + 1);
+    }
+    final CompressionDictionary dictionary = new CompressionDictionary(id, content);
+    store(dictTreeName, ByteString.valueOfInt(id).toByteArray(), new ByteStringBuilder().appendBytes(content));
+    dictionaries.put(id, dictionary);
+    latestDictionary = dictionary;
+    trainer = null;
   }
 
   @Override
@@ -191,6 +293,25 @@ final class PersistentCompressedSchema extends CompressedSchema
       logger.traceException(e);
       throw new InitializationException(ERR_COMPSCHEMA_CANNOT_DECODE_AD_TOKEN.get(e.getMessage()), e);
     }
+
+    // Read-only storages created by previous versions do not have the dictionaries tree
+    if (shouldCreate || storage.listTrees().contains(dictTreeName))
+    {
+      txn.openTree(dictTreeName, shouldCreate);
+      try (Cursor<ByteString, ByteString> dictCursor = txn.openCursor(dictTreeName))
+      {
+        while (dictCursor.next())
+        {
+          final CompressionDictionary dictionary =
+              new CompressionDictionary(dictCursor.getKey().toInt(), dictCursor.getValue().toByteArray());
+          dictionaries.put(dictionary.getId(), dictionary);
+          if (latestDictionary == null || latestDictionary.getId() < dictionary.getId())
+          {
+            latestDictionary = dictionary;
+          }
+        }
+      }
+    }
   }
 
   private boolean store(final TreeName treeName, final byte[] key, final ByteStringBuilder value)
@@ -255,6 +255,16 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
     return compressedSchema;
   }
 
+  /**
+   * Retrieves where the entry compression dictionaries of this backend are held.
+   *
+   * @return The entry compression dictionaries of this backend.
+   */
+  PersistentCompressedSchema getCompressionDictionaries()
+  {
+    return compressedSchema;
+  }
+
   /**
    * Get the BackendMonitor object used by this root container.
    *
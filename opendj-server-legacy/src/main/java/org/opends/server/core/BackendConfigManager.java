@@ -60,6 +60,7 @@ import org.opends.server.backends.ConfigurationBackend;
 import org.opends.server.backends.RootDSEBackend;
 import org.opends.server.config.ConfigConstants;
 import org.opends.server.monitors.LocalBackendMonitor;
+import org.opends.server.monitors.OperationLatencyMonitor;
 import org.opends.server.types.DirectoryException;
 import org.opends.server.types.Entry;
 import org.opends.server.types.InitializationException;
@@ -642,6 +643,11 @@ public class BackendConfigManager implements
       monitor.initializeMonitorProvider(null);
       backend.setBackendMonitor(monitor);
       registerMonitorProvider(monitor);
+
+      OperationLatencyMonitor latencyMonitor = new OperationLatencyMonitor(backendID + " Backend Latency");
+      latencyMonitor.initializeMonitorProvider(null);
+      backend.setLatencyMonitor(latencyMonitor);
+      registerMonitorProvider(latencyMonitor);
     }
     finally
     {
@@ -712,6 +718,13 @@ public class BackendConfigManager implements
         monitor.finalizeMonitorProvider();
         backend.setBackendMonitor(null);
       }
+      OperationLatencyMonitor latencyMonitor = backend.getLatencyMonitor();
+      if (latencyMonitor != null)
+      {
+        deregisterMonitorProvider(latencyMonitor);
+        latencyMonitor.finalizeMonitorProvider();
+        backend.setLatencyMonitor(null);
+      }
     }
     finally
     {
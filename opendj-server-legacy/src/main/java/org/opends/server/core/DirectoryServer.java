@@ -1947,7 +1947,9 @@ public final class DirectoryServer
 
   /**
    * Retrieves the set of virtual attribute rules registered with the Directory
-   * Server.
+   * Server.  The returned collection is immutable, and a new collection is
+   * returned once the rules change, so that it can be used to invalidate the
+   * data derived from the rules.
    *
    * @return  The set of virtual attribute rules registered with the Directory
    *          Server.
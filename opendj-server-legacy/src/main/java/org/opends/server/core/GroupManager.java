@@ -32,13 +32,17 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.config.server.ConfigChangeResult;
 import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.ldap.ConditionResult;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.util.Utils;
@@ -57,6 +61,8 @@ import org.opends.server.api.plugin.InternalDirectoryServerPlugin;
 import org.opends.server.api.plugin.PluginResult;
 import org.opends.server.api.plugin.PluginResult.PostOperation;
 import org.opends.server.api.plugin.PluginType;
+import org.opends.server.extensions.StaticGroup;
+import org.opends.server.monitors.GroupManagerMonitor;
 import org.opends.server.protocols.internal.InternalClientConnection;
 import org.opends.server.protocols.internal.InternalSearchOperation;
 import org.opends.server.protocols.internal.SearchRequest;
@@ -111,11 +117,23 @@ public class GroupManager extends InternalDirectoryServerPlugin
   /** Lock to protect internal data structures. */
   private final ReadWriteLock lock;
 
+  /** Incremented each time the membership of any group may have changed. */
+  private final AtomicLong membershipVersion = new AtomicLong();
+
+  /** The transitive membership of the static groups, rebuilt when the groups or their nesting have changed. */
+  private volatile GroupMembershipIndex membershipIndex;
+
+  /** Ensures a single thread at a time rebuilds or updates the membership index. */
+  private final Lock membershipIndexLock = new ReentrantLock();
+
   /** Dummy configuration DN for Group Manager. */
   private static final String CONFIG_DN = "cn=Group Manager,cn=config";
 
   private final ServerContext serverContext;
 
+  /** The monitor reporting the groups known by this group manager. */
+  private GroupManagerMonitor monitor;
+
   /**
    * Creates a new instance of this group manager.
    *
@@ -185,6 +203,9 @@ public class GroupManager extends InternalDirectoryServerPlugin
         }
       }
     }
+
+    monitor = new GroupManagerMonitor(this);
+    DirectoryServer.registerMonitorProvider(monitor);
   }
 
   @Override
@@ -444,6 +465,11 @@ public class GroupManager extends InternalDirectoryServerPlugin
   {
     DirectoryServer.deregisterInternalPlugin(this);
     serverContext.getBackendConfigManager().deregisterLocalBackendInitializationListener(this);
+    if (monitor != null)
+    {
+      DirectoryServer.deregisterMonitorProvider(monitor);
+      monitor = null;
+    }
 
     deregisterAllGroups();
 
@@ -582,6 +608,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
               Group<?> groupInstance = groupImplementation.newInstance(serverContext, entry);
               groupInstances.put(entry.getName(), groupInstance);
               refreshToken++;
+              membershipChanged();
             }
             catch (DirectoryException e)
             {
@@ -618,6 +645,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
           iterator.remove();
         }
       }
+      membershipChanged();
     }
     finally
     {
@@ -683,6 +711,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
       if (groupInstances.removeSubtree(entry.getName(), null))
       {
         refreshToken++;
+        membershipChanged();
       }
     }
     finally
@@ -757,6 +786,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
         }
         else
         {
+          // The group notifies the changes of its membership
           group.updateMembers(modifications);
         }
       }
@@ -803,6 +833,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
       if (!groupSet.isEmpty())
       {
         refreshToken++;
+        membershipChanged();
       }
     }
     finally
@@ -944,6 +975,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
           {
             groupInstances.put(entry.getName(), groupInstance);
             refreshToken++;
+            membershipChanged();
           }
           finally
           {
@@ -969,6 +1001,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
     try
     {
       groupInstances.clear();
+      membershipChanged();
     }
     finally
     {
@@ -999,4 +1032,134 @@ public class GroupManager extends InternalDirectoryServerPlugin
   public long refreshToken() {
     return this.refreshToken;
   }
+
+  /**
+   * Notifies the group manager that the membership of a group may have changed, requiring to rebuild the membership
+   * index. Group implementations updating their membership must call this method, or
+   * {@link #memberChanged(StaticGroup, DN)} when a single member of a static group has changed.
+   */
+  public void membershipChanged()
+  {
+    membershipVersion.incrementAndGet();
+  }
+
+  /**
+   * Notifies the group manager that a member has been added to or removed from a static group. The membership index
+   * is updated in place, unless the member is a group: changing the nesting of the groups requires rebuilding it.
+   *
+   * @param group
+   *          The static group whose members have changed.
+   * @param memberDN
+   *          The DN of the member added to or removed from the group.
+   */
+  public void memberChanged(StaticGroup group, DN memberDN)
+  {
+    if (getGroupInstance(memberDN) != null)
+    {
+      membershipChanged();
+      return;
+    }
+    membershipIndexLock.lock();
+    try
+    {
+      GroupMembershipIndex index = membershipIndex;
+      if (index != null)
+      {
+        index.updateMember(group, memberDN);
+      }
+    }
+    finally
+    {
+      membershipIndexLock.unlock();
+    }
+  }
+
+  /**
+   * Indicates whether a user is a member of a group, directly or through nested groups, according to the
+   * membership index of the static groups.
+   *
+   * @param group
+   *          The group.
+   * @param userDN
+   *          The DN of the user.
+   * @return {@code TRUE} or {@code FALSE} if the membership index knows whether the user is a member of the group,
+   *         or {@code UNDEFINED} if the group must be evaluated the usual way.
+   */
+  public ConditionResult isIndexedMember(Group<?> group, DN userDN)
+  {
+    return getMembershipIndex().isMember(group, userDN);
+  }
+
+  /**
+   * Retrieves all the groups the provided user is a member of, directly or through nested groups.
+   *
+   * @param userEntry
+   *          The user entry.
+   * @return The groups the user is a member of.
+   */
+  public Set<Group<?>> getGroupsOfMember(Entry userEntry)
+  {
+    GroupMembershipIndex index = getMembershipIndex();
+    Set<Group<?>> groups = new HashSet<>(index.getIndexedGroups(userEntry.getName()));
+    for (Group<?> group : index.getOtherGroups())
+    {
+      try
+      {
+        if (!groups.contains(group) && group.isMember(userEntry))
+        {
+          groups.add(group);
+        }
+      }
+      catch (DirectoryException e)
+      {
+        logger.traceException(e);
+      }
+    }
+    return groups;
+  }
+
+  /**
+   * Returns the number of members of the static groups held by the membership index.
+   *
+   * @return The number of members held by the membership index, or 0 if it has not been built yet.
+   */
+  public int getIndexedMemberCount()
+  {
+    GroupMembershipIndex index = membershipIndex;
+    return index != null ? index.getMemberCount() : 0;
+  }
+
+  /**
+   * Returns an up to date membership index, rebuilding it if needed. Threads needing the index while another thread
+   * rebuilds it wait for that thread rather than evaluating every group. No other lock is taken while holding the
+   * lock of the index, the group instances being read beforehand.
+   *
+   * @return an up to date membership index
+   */
+  private GroupMembershipIndex getMembershipIndex()
+  {
+    GroupMembershipIndex index = membershipIndex;
+    long version = membershipVersion.get();
+    if (index != null && index.getVersion() >= version)
+    {
+      return index;
+    }
+    Iterable<Group<?>> groups = getGroupInstances();
+    membershipIndexLock.lock();
+    try
+    {
+      index = membershipIndex;
+      if (index == null || index.getVersion() < version)
+      {
+        // The members are read now, after the member updates applied to the previous index
+        index = GroupMembershipIndex.build(version, groups);
+        membershipIndex = index;
+      }
+      return index;
+    }
+    finally
+    {
+      membershipIndexLock.unlock();
+    }
+  }
 }
@@ -0,0 +1,322 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ConditionResult;
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.api.Group;
+import org.opends.server.extensions.StaticGroup;
+
+/**
+ * An index of the transitive membership of the static groups.
+ * <p>
+ * For each member of a static group, the index holds all the static groups it belongs to, either directly or through
+ * nested static groups. Membership through other kinds of groups, like dynamic groups, can only be determined by
+ * evaluating these groups against the user entry: the static groups nesting them are flagged as incomplete, and are
+ * evaluated the usual way.
+ * <p>
+ * The index is built from a snapshot of the groups. The group manager then updates the groups of the members added
+ * to or removed from a static group, and builds a new index when the groups or their nesting change. The sets of
+ * groups of the members are never modified once indexed: updates replace them, so that readers need no locking.
+ */
+final class GroupMembershipIndex
+{
+  /** The version of the group memberships this index has been built for. */
+  private final long version;
+  /** The static groups of each member, keyed by the normalized DN of the member. */
+  private final Map<ByteString, Set<Group<?>>> groupsOfMember;
+  /** Each static group with the static groups nesting it, directly or not. */
+  private final Map<Group<?>, Set<Group<?>>> groupAndAncestors;
+  /** The static groups whose membership is entirely known by this index. */
+  private final Set<Group<?>> completeGroups;
+  /** The groups which must be evaluated against the user entries. */
+  private final List<Group<?>> otherGroups;
+
+  private GroupMembershipIndex(long version, Map<ByteString, Set<Group<?>>> groupsOfMember,
+      Map<Group<?>, Set<Group<?>>> groupAndAncestors, Set<Group<?>> completeGroups, List<Group<?>> otherGroups)
+  {
+    this.version = version;
+    this.groupsOfMember = groupsOfMember;
+    this.groupAndAncestors = groupAndAncestors;
+    this.completeGroups = completeGroups;
+    this.otherGroups = otherGroups;
+  }
+
+  /**
+   * Builds the index of the provided groups.
+   *
+   * @param version
+   *          the version of the group memberships, read before reading the groups
+   * @param groups
+   *          all the group instances
+   * @return the new index
+   */
+  static GroupMembershipIndex build(long version, Iterable<Group<?>> groups)
+  {
+    final Map<ByteString, Group<?>> groupsByDN = new HashMap<>();
+    for (Group<?> group : groups)
+    {
+      groupsByDN.put(group.getGroupDN().toNormalizedByteString(), group);
+    }
+
+    // Find the nesting relationships between the groups
+    final Map<Group<?>, List<StaticGroup>> parents = new IdentityHashMap<>();
+    final Set<Group<?>> incompleteGroups = Collections.newSetFromMap(new IdentityHashMap<Group<?>, Boolean>());
+    final List<Group<?>> otherGroups = new ArrayList<>();
+    for (Group<?> group : groupsByDN.values())
+    {
+      if (!(group instanceof StaticGroup))
+      {
+        otherGroups.add(group);
+        continue;
+      }
+      final StaticGroup staticGroup = (StaticGroup) group;
+      for (ByteString memberDN : staticGroup.getNormalizedMemberDNs())
+      {
+        final Group<?> nestedGroup = groupsByDN.get(memberDN);
+        if (nestedGroup instanceof StaticGroup)
+        {
+          getParents(parents, nestedGroup).add(staticGroup);
+        }
+        else if (nestedGroup != null)
+        {
+          incompleteGroups.add(staticGroup);
+        }
+      }
+    }
+
+    // Groups nesting incomplete groups are incomplete too
+    for (Group<?> group : new ArrayList<>(incompleteGroups))
+    {
+      incompleteGroups.addAll(getAncestors(parents, group));
+    }
+
+    // Index the members: those belonging to a single group share the set of groups of that group
+    final Map<ByteString, Set<Group<?>>> groupsOfMember = new ConcurrentHashMap<>();
+    final Map<Group<?>, Set<Group<?>>> groupAndAncestorsByGroup = new IdentityHashMap<>();
+    final Set<Set<Group<?>>> sharedSets = Collections.newSetFromMap(new IdentityHashMap<Set<Group<?>>, Boolean>());
+    final Set<Group<?>> completeGroups = Collections.newSetFromMap(new IdentityHashMap<Group<?>, Boolean>());
+    for (Group<?> group : groupsByDN.values())
+    {
+      if (!(group instanceof StaticGroup))
+      {
+        continue;
+      }
+      if (incompleteGroups.contains(group))
+      {
+        otherGroups.add(group);
+      }
+      else
+      {
+        completeGroups.add(group);
+      }
+
+      final Set<Group<?>> groupAndAncestors = getAncestors(parents, group);
+      groupAndAncestors.add(group);
+      groupAndAncestorsByGroup.put(group, groupAndAncestors);
+      sharedSets.add(groupAndAncestors);
+      for (ByteString memberDN : ((StaticGroup) group).getNormalizedMemberDNs())
+      {
+        final Set<Group<?>> memberGroups = groupsOfMember.get(memberDN);
+        if (memberGroups == null)
+        {
+          groupsOfMember.put(memberDN, groupAndAncestors);
+        }
+        else if (sharedSets.contains(memberGroups))
+        {
+          final Set<Group<?>> newMemberGroups = Collections.newSetFromMap(new IdentityHashMap<Group<?>, Boolean>());
+          newMemberGroups.addAll(memberGroups);
+          newMemberGroups.addAll(groupAndAncestors);
+          groupsOfMember.put(memberDN, newMemberGroups);
+        }
+        else
+        {
+          memberGroups.addAll(groupAndAncestors);
+        }
+      }
+    }
+    return new GroupMembershipIndex(version, groupsOfMember, groupAndAncestorsByGroup, completeGroups, otherGroups);
+  }
+
+  /**
+   * Updates the groups of a member which has been added to or removed from a static group. The member must not be a
+   * group, as changing the nesting of the groups requires building a new index. Callers must serialize the updates.
+   * <p>
+   * The groups of the member are computed from the current members of the groups, so that the updates of a member can
+   * be applied in any order.
+   *
+   * @param group
+   *          the static group whose members have changed
+   * @param memberDN
+   *          the DN of the member added to or removed from the group
+   */
+  void updateMember(StaticGroup group, DN memberDN)
+  {
+    if (!groupAndAncestors.containsKey(group))
+    {
+      // The group is newer than this index, which will be rebuilt anyway
+      return;
+    }
+    final ByteString normalizedMemberDN = memberDN.toNormalizedByteString();
+    final Set<Group<?>> memberGroups = groupsOfMember.get(normalizedMemberDN);
+
+    // The member directly belongs to the provided group, to groups already indexed for it, or to none
+    Set<Group<?>> newMemberGroups = null;
+    final List<Group<?>> candidateGroups = new ArrayList<>();
+    candidateGroups.add(group);
+    if (memberGroups != null)
+    {
+      candidateGroups.addAll(memberGroups);
+    }
+    for (Group<?> candidateGroup : candidateGroups)
+    {
+      final Set<Group<?>> candidateAndAncestors = groupAndAncestors.get(candidateGroup);
+      if (((StaticGroup) candidateGroup).isDirectMember(memberDN)
+          && (newMemberGroups == null || !newMemberGroups.containsAll(candidateAndAncestors)))
+      {
+        if (newMemberGroups == null)
+        {
+          newMemberGroups = candidateAndAncestors;
+        }
+        else
+        {
+          final Set<Group<?>> mergedGroups = Collections.newSetFromMap(new IdentityHashMap<Group<?>, Boolean>());
+          mergedGroups.addAll(newMemberGroups);
+          mergedGroups.addAll(candidateAndAncestors);
+          newMemberGroups = mergedGroups;
+        }
+      }
+    }
+
+    if (newMemberGroups == null)
+    {
+      groupsOfMember.remove(normalizedMemberDN);
+    }
+    else if (!newMemberGroups.equals(memberGroups))
+    {
+      groupsOfMember.put(normalizedMemberDN, newMemberGroups);
+    }
+  }
+
+  private static List<StaticGroup> getParents(Map<Group<?>, List<StaticGroup>> parents, Group<?> group)
+  {
+    List<StaticGroup> groupParents = parents.get(group);
+    if (groupParents == null)
+    {
+      groupParents = new ArrayList<>(1);
+      parents.put(group, groupParents);
+    }
+    return groupParents;
+  }
+
+  /** Returns all the static groups nesting the provided group, directly or not. Handles nesting cycles. */
+  private static Set<Group<?>> getAncestors(Map<Group<?>, List<StaticGroup>> parents, Group<?> group)
+  {
+    final Set<Group<?>> ancestors = Collections.newSetFromMap(new IdentityHashMap<Group<?>, Boolean>());
+    final Deque<Group<?>> toVisit = new ArrayDeque<>();
+    toVisit.add(group);
+    while (!toVisit.isEmpty())
+    {
+      final List<StaticGroup> groupParents = parents.get(toVisit.poll());
+      if (groupParents != null)
+      {
+        for (StaticGroup parent : groupParents)
+        {
+          if (ancestors.add(parent))
+          {
+            toVisit.add(parent);
+          }
+        }
+      }
+    }
+    return ancestors;
+  }
+
+  /**
+   * Returns the version of the group memberships this index has been built for.
+   *
+   * @return the version of the group memberships this index has been built for
+   */
+  long getVersion()
+  {
+    return version;
+  }
+
+  /**
+   * Indicates whether a user is a member of a group, according to this index.
+   *
+   * @param group
+   *          the group
+   * @param userDN
+   *          the DN of the user
+   * @return {@code TRUE} or {@code FALSE} if this index knows whether the user is a member of the group, or
+   *         {@code UNDEFINED} if the group must be evaluated the usual way
+   */
+  ConditionResult isMember(Group<?> group, DN userDN)
+  {
+    final Set<Group<?>> memberGroups = groupsOfMember.get(userDN.toNormalizedByteString());
+    if (memberGroups != null && memberGroups.contains(group))
+    {
+      return ConditionResult.TRUE;
+    }
+    return completeGroups.contains(group) ? ConditionResult.FALSE : ConditionResult.UNDEFINED;
+  }
+
+  /**
+   * Returns the static groups the user belongs to according to this index.
+   *
+   * @param userDN
+   *          the DN of the user
+   * @return the static groups the user belongs to, which must not be modified
+   */
+  Set<Group<?>> getIndexedGroups(DN userDN)
+  {
+    final Set<Group<?>> memberGroups = groupsOfMember.get(userDN.toNormalizedByteString());
+    return memberGroups != null ? memberGroups : Collections.<Group<?>> emptySet();
+  }
+
+  /**
+   * Returns the groups whose membership cannot be determined by this index.
+   *
+   * @return the groups which must be evaluated against the user entries
+   */
+  List<Group<?>> getOtherGroups()
+  {
+    return otherGroups;
+  }
+
+  /**
+   * Returns the number of members in this index.
+   *
+   * @return the number of members in this index
+   */
+  int getMemberCount()
+  {
+    return groupsOfMember.size();
+  }
+}
@@ -18,11 +18,20 @@ package org.opends.server.core;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.ldap.ResultCode;
+import org.opends.server.api.DirectoryThread;
 import org.opends.server.controls.EntryChangeNotificationControl;
 import org.opends.server.controls.PersistentSearchChangeType;
 import org.opends.server.types.CancelResult;
@@ -30,7 +39,9 @@ import org.opends.server.types.Control;
 import org.forgerock.opendj.ldap.DN;
 import org.opends.server.types.DirectoryException;
 import org.opends.server.types.Entry;
+import org.opends.server.util.Platform;
 
+import static org.opends.messages.CoreMessages.*;
 import static org.opends.server.controls.PersistentSearchChangeType.*;
 
 /**
@@ -63,6 +74,19 @@ import static org.opends.server.controls.PersistentSearchChangeType.*;
  * Work flow element implementations should {@link #cancel()} active
  * persistent searches when the work flow element fails or is shut
  * down.
+ * <p>
+ * Changes are either processed on the calling thread with the {@code process*}
+ * methods, or handed over to a shared pool of dispatcher threads with the
+ * {@code notify*} methods, so that the thread performing a write does not wait
+ * for the change to be sent to the client. Each persistent search keeps its
+ * own bounded queue of pending notifications, sent in order by at most one
+ * dispatcher at a time. The pool has a bounded number of dispatchers, and a
+ * client which does not read its notifications only holds one of them until
+ * its connection gives up the blocked write. Such a client has its persistent
+ * search terminated, rather than delaying the other clients or exhausting the
+ * memory, once too many notifications are pending or once sending one has been
+ * blocked for longer than the maximum blocked write time limit of its
+ * connection.
  */
 public final class PersistentSearch
 {
@@ -85,6 +109,35 @@ public final class PersistentSearch
   }
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
+  /** The maximum number of notifications which can be waiting to be sent for a persistent search. */
+  private static final int MAX_PENDING_NOTIFICATIONS = 10000;
+  /** The maximum number of notifications sent by a dispatcher before giving way to other persistent searches. */
+  private static final int MAX_NOTIFICATIONS_PER_DISPATCH = 256;
+
+  /**
+   * The time in milliseconds a notification can be blocked when the connection has no maximum
+   * blocked write time limit, as used by the LDAP connections.
+   */
+  private static final long DEFAULT_MAX_BLOCKED_TIME = 300000L;
+
+  /** The number of dispatcher threads shared by all the persistent searches. */
+  static final int NUM_DISPATCHERS = Platform.computeNumberOfThreads(8, 1.0f);
+
+  /**
+   * The dispatcher threads shared by all the persistent searches. The persistent searches to notify
+   * are queued while all the dispatchers are busy, and idle threads terminate, so that no thread
+   * remains when no persistent search is notified.
+   */
+  private static final ThreadPoolExecutor dispatchers = newDispatchers();
+
+  private static ThreadPoolExecutor newDispatchers()
+  {
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(NUM_DISPATCHERS, NUM_DISPATCHERS, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new DirectoryThread.Factory("Persistent search dispatcher"));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   /** Cancel a persistent search. */
   private static synchronized void cancel(PersistentSearch psearch)
   {
@@ -119,7 +172,32 @@ public final class PersistentSearch
   private final Set<PersistentSearchChangeType> changeTypes;
 
   /** Indicates whether this persistent search has already been aborted. */
-  private boolean isCancelled;
+  private volatile boolean isCancelled;
+
+  /** The notifications waiting to be sent to the client. */
+  private final Queue<Runnable> pendingNotifications = new ConcurrentLinkedQueue<>();
+  /** The number of notifications waiting to be sent, bounded by {@link #MAX_PENDING_NOTIFICATIONS}. */
+  private final AtomicInteger nbPendingNotifications = new AtomicInteger();
+  /** Whether a dispatcher has been asked to send the pending notifications. */
+  private final AtomicBoolean isDispatchScheduled = new AtomicBoolean(false);
+  /** Whether this persistent search has been terminated because its client did not keep up. */
+  private final AtomicBoolean isEvicted = new AtomicBoolean(false);
+  /** The reason why this persistent search has been terminated, sent to the client. */
+  private volatile LocalizableMessage evictionMessage;
+  /** Whether the client has been told its persistent search has been terminated. */
+  private final AtomicBoolean isEvictionSent = new AtomicBoolean(false);
+  /** The time the notification being sent started to be sent, or 0 if none is being sent. */
+  private volatile long notificationStartTime;
+  /** The time in milliseconds a notification can be blocked before terminating this persistent search. */
+  private volatile long maxBlockedTime;
+  private final Runnable dispatchTask = new Runnable()
+  {
+    @Override
+    public void run()
+    {
+      dispatchPendingNotifications();
+    }
+  };
 
   /** Indicates whether entries returned should include the entry change notification control. */
   private final boolean returnECs;
@@ -155,6 +233,8 @@ public final class PersistentSearch
     this.changeTypes = changeTypes;
     this.changesOnly = changesOnly;
     this.returnECs = returnECs;
+    final long maxBlockedWriteTimeLimit = searchOperation.getClientConnection().getMaxBlockedWriteTimeLimit();
+    this.maxBlockedTime = maxBlockedWriteTimeLimit > 0 ? maxBlockedWriteTimeLimit : DEFAULT_MAX_BLOCKED_TIME;
   }
 
   /**
@@ -221,6 +301,226 @@ public final class PersistentSearch
     return changesOnly;
   }
 
+  /**
+   * Asynchronously notifies this persistent search that an entry has been added.
+   *
+   * @param entry
+   *          The entry that was added.
+   */
+  public void notifyAdd(final Entry entry)
+  {
+    if (changeTypes.contains(ADD))
+    {
+      dispatch(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          processAdd(entry);
+        }
+      });
+    }
+  }
+
+  /**
+   * Asynchronously notifies this persistent search that an entry has been deleted.
+   *
+   * @param entry
+   *          The entry that was deleted.
+   */
+  public void notifyDelete(final Entry entry)
+  {
+    if (changeTypes.contains(DELETE))
+    {
+      dispatch(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          processDelete(entry);
+        }
+      });
+    }
+  }
+
+  /**
+   * Asynchronously notifies this persistent search that an entry has been modified.
+   *
+   * @param entry
+   *          The entry after it was modified.
+   * @param oldEntry
+   *          The entry before it was modified.
+   */
+  public void notifyModify(final Entry entry, final Entry oldEntry)
+  {
+    if (changeTypes.contains(MODIFY))
+    {
+      dispatch(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          processModify(entry, oldEntry);
+        }
+      });
+    }
+  }
+
+  /**
+   * Asynchronously notifies this persistent search that an entry has been renamed.
+   *
+   * @param entry
+   *          The entry after it was renamed.
+   * @param oldDN
+   *          The DN of the entry before it was renamed.
+   */
+  public void notifyModifyDN(final Entry entry, final DN oldDN)
+  {
+    if (changeTypes.contains(MODIFY_DN))
+    {
+      dispatch(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          processModifyDN(entry, oldDN);
+        }
+      });
+    }
+  }
+
+  /**
+   * Sets the time a notification can be blocked before terminating this persistent search.
+   * Used by tests.
+   *
+   * @param maxBlockedTime
+   *          The time in milliseconds.
+   */
+  void setMaxBlockedTime(long maxBlockedTime)
+  {
+    this.maxBlockedTime = maxBlockedTime;
+  }
+
+  /**
+   * Queues a notification for this persistent search, terminating it if its client does not
+   * keep up with the pending notifications.
+   */
+  private void dispatch(Runnable notification)
+  {
+    if (isCancelled)
+    {
+      return;
+    }
+    if (isBlocked(notificationStartTime))
+    {
+      evict(WARN_PSEARCH_CLIENT_BLOCKED.get(this, maxBlockedTime));
+      return;
+    }
+    if (nbPendingNotifications.incrementAndGet() > MAX_PENDING_NOTIFICATIONS)
+    {
+      nbPendingNotifications.decrementAndGet();
+      evict(WARN_PSEARCH_CLIENT_TOO_SLOW.get(this, MAX_PENDING_NOTIFICATIONS));
+      return;
+    }
+    pendingNotifications.add(notification);
+    scheduleDispatch(false);
+  }
+
+  /** Indicates whether the notification started to be sent at the provided time has been blocked for too long. */
+  private boolean isBlocked(long startTime)
+  {
+    return startTime != 0 && System.currentTimeMillis() - startTime > maxBlockedTime;
+  }
+
+  /**
+   * Terminates this persistent search because its client does not keep up. The client is told
+   * once the notification being sent, if any, is no longer blocked.
+   */
+  private void evict(LocalizableMessage message)
+  {
+    if (isEvicted.compareAndSet(false, true))
+    {
+      logger.warn(message);
+      evictionMessage = message;
+      cancel();
+      // let a dispatcher discard the pending notifications and terminate the search
+      scheduleDispatch(true);
+    }
+  }
+
+  /** Asks a dispatcher to send the pending notifications, unless one is already doing it. */
+  private void scheduleDispatch(boolean force)
+  {
+    if ((force || !pendingNotifications.isEmpty()) && isDispatchScheduled.compareAndSet(false, true))
+    {
+      dispatchers.execute(dispatchTask);
+    }
+  }
+
+  /** Sends the pending notifications to the client, called by a dispatcher. */
+  private void dispatchPendingNotifications()
+  {
+    try
+    {
+      Runnable notification;
+      for (int i = 0; i < MAX_NOTIFICATIONS_PER_DISPATCH
+          && (notification = pendingNotifications.poll()) != null; i++)
+      {
+        nbPendingNotifications.decrementAndGet();
+        if (!isCancelled)
+        {
+          final long startTime = System.currentTimeMillis();
+          notificationStartTime = startTime;
+          try
+          {
+            notification.run();
+          }
+          finally
+          {
+            notificationStartTime = 0;
+          }
+          if (isBlocked(startTime))
+          {
+            // The connection gave up the blocked write: do not hold a dispatcher with the next ones
+            evict(WARN_PSEARCH_CLIENT_BLOCKED.get(this, maxBlockedTime));
+          }
+        }
+      }
+      final LocalizableMessage message = evictionMessage;
+      if (message != null && isEvictionSent.compareAndSet(false, true))
+      {
+        pendingNotifications.clear();
+        sendEvictedResult(message);
+      }
+    }
+    catch (RuntimeException e)
+    {
+      logger.traceException(e);
+    }
+    finally
+    {
+      isDispatchScheduled.set(false);
+    }
+    // Notifications may have been queued after draining, or left for fairness with other searches,
+    // or the search may have been terminated after draining
+    scheduleDispatch(evictionMessage != null && !isEvictionSent.get());
+  }
+
+  /** Tells the client its persistent search has been terminated because it did not keep up. */
+  private void sendEvictedResult(LocalizableMessage message)
+  {
+    try
+    {
+      searchOperation.setResultCode(ResultCode.ADMIN_LIMIT_EXCEEDED);
+      searchOperation.appendErrorMessage(message);
+      searchOperation.sendSearchResultDone();
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+    }
+  }
+
   /**
    * Notifies the persistent searches that an entry has been added.
    *
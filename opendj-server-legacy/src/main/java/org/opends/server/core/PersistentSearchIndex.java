@@ -0,0 +1,443 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ConditionResult;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.schema.AttributeType;
+import org.forgerock.opendj.ldap.schema.MatchingRule;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchFilter;
+
+/**
+ * Indexes the persistent searches registered with a backend, so that a change only needs to be
+ * evaluated against the persistent searches which may be interested in it.
+ * <p>
+ * Persistent searches are indexed by their base DN, and then by one of the equality or presence
+ * terms that any entry they return must satisfy. For example {@code (&(objectClass=person)(uid=jdoe))}
+ * is indexed by the normalized value of {@code uid}, and {@code (|(mail=*)(telephoneNumber=*))} by
+ * both attribute types. The persistent searches whose filter has no such term are always candidates.
+ * The index only selects candidates: the scope and the complete filter are still checked by each
+ * {@link PersistentSearch}, on the dispatcher threads rather than on the thread which performed
+ * the change.
+ * <p>
+ * Persistent searches are rarely registered compared to how often changes are notified, so the
+ * index is rebuilt on registration and published as an immutable snapshot which can be read
+ * without locking.
+ */
+public final class PersistentSearchIndex
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** An equality or presence term any entry returned by a persistent search must satisfy. */
+  private static final class Term
+  {
+    private final AttributeType attributeType;
+    /** The normalized assertion value of an equality term, {@code null} for a presence term. */
+    private final ByteString normalizedValue;
+
+    private Term(AttributeType attributeType, ByteString normalizedValue)
+    {
+      this.attributeType = attributeType;
+      this.normalizedValue = normalizedValue;
+    }
+  }
+
+  /** The persistent searches sharing the same base DN. */
+  private static final class Subscriptions
+  {
+    private final List<PersistentSearch> unindexed = new ArrayList<>();
+    private final Map<AttributeType, List<PersistentSearch>> presence = new HashMap<>();
+    private final Map<AttributeType, Map<ByteString, List<PersistentSearch>>> equality = new HashMap<>();
+
+    private void add(PersistentSearch psearch, List<Term> terms)
+    {
+      if (terms == null)
+      {
+        unindexed.add(psearch);
+        return;
+      }
+      for (Term term : terms)
+      {
+        if (term.normalizedValue == null)
+        {
+          getOrCreate(presence, term.attributeType).add(psearch);
+        }
+        else
+        {
+          Map<ByteString, List<PersistentSearch>> values = equality.get(term.attributeType);
+          if (values == null)
+          {
+            values = new HashMap<>();
+            equality.put(term.attributeType, values);
+          }
+          getOrCreate(values, term.normalizedValue).add(psearch);
+        }
+      }
+    }
+
+    private static <K> List<PersistentSearch> getOrCreate(Map<K, List<PersistentSearch>> map, K key)
+    {
+      List<PersistentSearch> psearches = map.get(key);
+      if (psearches == null)
+      {
+        psearches = new ArrayList<>();
+        map.put(key, psearches);
+      }
+      return psearches;
+    }
+
+    private void addCandidates(Entry entry, Set<PersistentSearch> candidates)
+    {
+      candidates.addAll(unindexed);
+      for (Map.Entry<AttributeType, List<PersistentSearch>> mapEntry : presence.entrySet())
+      {
+        if (entry.hasAttribute(mapEntry.getKey()))
+        {
+          candidates.addAll(mapEntry.getValue());
+        }
+      }
+      for (Map.Entry<AttributeType, Map<ByteString, List<PersistentSearch>>> mapEntry : equality.entrySet())
+      {
+        addEqualityCandidates(entry, mapEntry.getKey(), mapEntry.getValue(), candidates);
+      }
+    }
+
+    private void addEqualityCandidates(Entry entry, AttributeType attributeType,
+        Map<ByteString, List<PersistentSearch>> values, Set<PersistentSearch> candidates)
+    {
+      final MatchingRule matchingRule = attributeType.getEqualityMatchingRule();
+      for (Attribute attribute : entry.getAllAttributes(attributeType))
+      {
+        final AttributeType actualType = attribute.getAttributeDescription().getAttributeType();
+        if (!matchingRule.equals(actualType.getEqualityMatchingRule()))
+        {
+          // a subtype compared with another matching rule: cannot use the normalized values
+          addAll(values, candidates);
+          return;
+        }
+        for (ByteString value : attribute)
+        {
+          try
+          {
+            final List<PersistentSearch> psearches = values.get(matchingRule.normalizeAttributeValue(value));
+            if (psearches != null)
+            {
+              candidates.addAll(psearches);
+            }
+          }
+          catch (DecodeException e)
+          {
+            logger.traceException(e);
+            addAll(values, candidates);
+            return;
+          }
+        }
+      }
+    }
+
+    private static void addAll(Map<ByteString, List<PersistentSearch>> values, Set<PersistentSearch> candidates)
+    {
+      for (List<PersistentSearch> psearches : values.values())
+      {
+        candidates.addAll(psearches);
+      }
+    }
+  }
+
+  /** The indexed terms of each registered persistent search, {@code null} when it is not indexed. */
+  @GuardedBy("this")
+  private final Map<PersistentSearch, List<Term>> registeredSearches = new LinkedHashMap<>();
+  /** The immutable snapshot of the index, keyed by base DN. */
+  private volatile Map<DN, Subscriptions> subscriptions = Collections.emptyMap();
+
+  /**
+   * Adds a persistent search to this index.
+   *
+   * @param psearch
+   *          The persistent search to add.
+   */
+  public synchronized void add(PersistentSearch psearch)
+  {
+    registeredSearches.put(psearch, getIndexTerms(psearch.getSearchOperation().getFilter()));
+    rebuild();
+  }
+
+  /**
+   * Removes a persistent search from this index.
+   *
+   * @param psearch
+   *          The persistent search to remove.
+   */
+  public synchronized void remove(PersistentSearch psearch)
+  {
+    if (registeredSearches.containsKey(psearch))
+    {
+      registeredSearches.remove(psearch);
+      rebuild();
+    }
+  }
+
+  @GuardedBy("this")
+  private void rebuild()
+  {
+    final Map<DN, Subscriptions> newSubscriptions = new HashMap<>();
+    for (Map.Entry<PersistentSearch, List<Term>> mapEntry : registeredSearches.entrySet())
+    {
+      final DN baseDN = mapEntry.getKey().getSearchOperation().getBaseDN();
+      Subscriptions subs = newSubscriptions.get(baseDN);
+      if (subs == null)
+      {
+        subs = new Subscriptions();
+        newSubscriptions.put(baseDN, subs);
+      }
+      subs.add(mapEntry.getKey(), mapEntry.getValue());
+    }
+    subscriptions = newSubscriptions;
+  }
+
+  /**
+   * Returns the terms by which a filter can be indexed: any entry matching the filter satisfies
+   * at least one of them.
+   *
+   * @param filter
+   *          the filter of a persistent search
+   * @return the terms by which the filter can be indexed, or {@code null} if it cannot be indexed
+   */
+  private static List<Term> getIndexTerms(SearchFilter filter)
+  {
+    switch (filter.getFilterType())
+    {
+    case EQUALITY:
+      final Term equalityTerm = getEqualityTerm(filter);
+      return equalityTerm != null ? Collections.singletonList(equalityTerm) : null;
+
+    case PRESENT:
+      final AttributeType attributeType = filter.getAttributeType();
+      if (attributeType == null || attributeType.isObjectClass())
+      {
+        // all entries have object classes, which are not even returned as attributes
+        return null;
+      }
+      return Collections.singletonList(new Term(attributeType, null));
+
+    case AND:
+      // any component will do: prefer the most selective one
+      List<Term> best = null;
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        final List<Term> terms = getIndexTerms(component);
+        if (terms != null && (best == null || isMoreSelective(terms, best)))
+        {
+          best = terms;
+        }
+      }
+      return best;
+
+    case OR:
+      final List<Term> all = new ArrayList<>();
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        final List<Term> terms = getIndexTerms(component);
+        if (terms == null)
+        {
+          return null;
+        }
+        all.addAll(terms);
+      }
+      return all;
+
+    default:
+      return null;
+    }
+  }
+
+  private static Term getEqualityTerm(SearchFilter filter)
+  {
+    final AttributeType attributeType = filter.getAttributeType();
+    final ByteString assertionValue = filter.getAssertionValue();
+    if (attributeType == null || attributeType.isObjectClass() || assertionValue == null)
+    {
+      return null;
+    }
+    final MatchingRule matchingRule = attributeType.getEqualityMatchingRule();
+    if (matchingRule == null)
+    {
+      return null;
+    }
+    try
+    {
+      // Some equality matching rules accept assertion values which are not attribute values
+      // (e.g. first component matches): only index values which match their own normalized form
+      final ByteString normalizedValue = matchingRule.normalizeAttributeValue(assertionValue);
+      if (matchingRule.getAssertion(assertionValue).matches(normalizedValue) == ConditionResult.TRUE)
+      {
+        return new Term(attributeType, normalizedValue);
+      }
+    }
+    catch (DecodeException e)
+    {
+      logger.traceException(e);
+    }
+    return null;
+  }
+
+  private static boolean isMoreSelective(List<Term> terms, List<Term> otherTerms)
+  {
+    if (terms.size() != otherTerms.size())
+    {
+      return terms.size() < otherTerms.size();
+    }
+    return countEqualityTerms(terms) > countEqualityTerms(otherTerms);
+  }
+
+  private static int countEqualityTerms(List<Term> terms)
+  {
+    int count = 0;
+    for (Term term : terms)
+    {
+      if (term.normalizedValue != null)
+      {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the persistent searches which may be interested in a change.
+   *
+   * @param dns
+   *          The DNs of the changed entry: any persistent search whose base DN is not a superior
+   *          of one of them is not interested in the change
+   * @param entries
+   *          The states of the changed entry: any persistent search whose indexed terms are not
+   *          satisfied by one of them is not interested in the change
+   * @return the persistent searches which may be interested in the change
+   */
+  private Collection<PersistentSearch> getCandidates(Collection<DN> dns, Collection<Entry> entries)
+  {
+    final Map<DN, Subscriptions> subs = subscriptions;
+    if (subs.isEmpty())
+    {
+      return Collections.emptySet();
+    }
+
+    final Set<Subscriptions> inScope = new LinkedHashSet<>();
+    for (DN dn : dns)
+    {
+      for (DN parentDN = dn; parentDN != null; parentDN = parentDN.parent())
+      {
+        final Subscriptions s = subs.get(parentDN);
+        if (s != null)
+        {
+          inScope.add(s);
+        }
+      }
+    }
+
+    final Set<PersistentSearch> candidates = new LinkedHashSet<>();
+    for (Subscriptions s : inScope)
+    {
+      for (Entry entry : entries)
+      {
+        s.addCandidates(entry, candidates);
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Notifies the interested persistent searches that an entry has been added.
+   *
+   * @param entry
+   *          The entry that was added.
+   */
+  public void notifyAdd(Entry entry)
+  {
+    for (PersistentSearch psearch : getCandidates(Collections.singleton(entry.getName()),
+        Collections.singleton(entry)))
+    {
+      psearch.notifyAdd(entry);
+    }
+  }
+
+  /**
+   * Notifies the interested persistent searches that an entry has been deleted.
+   *
+   * @param entry
+   *          The entry that was deleted.
+   */
+  public void notifyDelete(Entry entry)
+  {
+    for (PersistentSearch psearch : getCandidates(Collections.singleton(entry.getName()),
+        Collections.singleton(entry)))
+    {
+      psearch.notifyDelete(entry);
+    }
+  }
+
+  /**
+   * Notifies the interested persistent searches that an entry has been modified.
+   *
+   * @param entry
+   *          The entry after it was modified.
+   * @param oldEntry
+   *          The entry before it was modified.
+   */
+  public void notifyModify(Entry entry, Entry oldEntry)
+  {
+    for (PersistentSearch psearch : getCandidates(Collections.singleton(oldEntry.getName()),
+        Arrays.asList(entry, oldEntry)))
+    {
+      psearch.notifyModify(entry, oldEntry);
+    }
+  }
+
+  /**
+   * Notifies the interested persistent searches that an entry has been renamed.
+   *
+   * @param entry
+   *          The entry after it was renamed.
+   * @param oldDN
+   *          The DN of the entry before it was renamed.
+   */
+  public void notifyModifyDN(Entry entry, DN oldDN)
+  {
+    for (PersistentSearch psearch : getCandidates(Arrays.asList(oldDN, entry.getName()),
+        Collections.singleton(entry)))
+    {
+      psearch.notifyModifyDN(entry, oldDN);
+    }
+  }
+}
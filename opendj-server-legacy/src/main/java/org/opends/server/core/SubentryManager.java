@@ -517,6 +517,24 @@ public class SubentryManager extends InternalDirectoryServerPlugin
     return getSubentries(dn2CollectiveSubEntry, dn);
   }
 
+  /**
+   * Indicates whether any collective subentry is defined, in which case
+   * collective attributes may be added to the entries.
+   * @return {@code true} if at least one collective subentry is defined.
+   */
+  public boolean hasCollectiveSubentries()
+  {
+    lock.readLock().lock();
+    try
+    {
+      return !dn2CollectiveSubEntry.isEmpty();
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
   /**
    * Return collective subentries applicable to specific entry.
    * Note that this getter will skip any regular subentries,
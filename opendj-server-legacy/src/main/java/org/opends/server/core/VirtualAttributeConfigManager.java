@@ -13,6 +13,7 @@
  *
  * Copyright 2007-2009 Sun Microsystems, Inc.
  * Portions Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.core;
 
@@ -22,6 +23,7 @@ import static org.opends.server.util.StaticUtils.*;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -67,6 +69,11 @@ public class VirtualAttributeConfigManager
 
   /** A mapping between the DNs of the config entries and the associated virtual attribute rules. */
   private final ConcurrentMap<DN, VirtualAttributeRule> rules = new ConcurrentHashMap<>();
+  /**
+   * An immutable copy of the registered rules, replaced each time they change, so that the data
+   * derived from the rules can be cached as long as the copy it was computed from is current.
+   */
+  private volatile Collection<VirtualAttributeRule> ruleSet = Collections.emptyList();
 
   private final ServerContext serverContext;
 
@@ -145,6 +152,7 @@ public class VirtualAttributeConfigManager
 
           VirtualAttributeRule rule = createRule(cfg, provider, filters);
           rules.put(cfg.dn(), rule);
+          updateRuleSet();
         }
         catch (InitializationException ie)
         {
@@ -259,6 +267,7 @@ public class VirtualAttributeConfigManager
     {
       VirtualAttributeRule rule = createRule(configuration, provider, filters);
       rules.put(configuration.dn(), rule);
+      updateRuleSet();
     }
 
     return ccr;
@@ -282,6 +291,7 @@ public class VirtualAttributeConfigManager
     VirtualAttributeRule rule = rules.remove(configuration.dn());
     if (rule != null)
     {
+      updateRuleSet();
       rule.getProvider().finalizeVirtualAttributeProvider();
     }
 
@@ -344,6 +354,7 @@ public class VirtualAttributeConfigManager
       if (existingRule != null)
       {
         rules.remove(configuration.dn());
+        updateRuleSet();
         existingRule.getProvider().finalizeVirtualAttributeProvider();
       }
 
@@ -381,6 +392,7 @@ public class VirtualAttributeConfigManager
     {
       VirtualAttributeRule rule = createRule(configuration, provider, filters);
       rules.put(configuration.dn(), rule);
+      updateRuleSet();
       if (existingRule != null)
       {
         existingRule.getProvider().finalizeVirtualAttributeProvider();
@@ -450,13 +462,19 @@ public class VirtualAttributeConfigManager
   }
 
   /**
-   * Retrieves the collection of registered virtual attribute rules.
+   * Retrieves the collection of registered virtual attribute rules. The returned collection is
+   * immutable: a new collection is returned once the rules change.
    *
    * @return The collection of registered virtual attribute rules.
    */
   public Collection<VirtualAttributeRule> getVirtualAttributes()
   {
-    return this.rules.values();
+    return ruleSet;
+  }
+
+  private synchronized void updateRuleSet()
+  {
+    ruleSet = Collections.unmodifiableList(new ArrayList<>(rules.values()));
   }
 
   /**
@@ -468,6 +486,7 @@ public class VirtualAttributeConfigManager
   public void register(VirtualAttributeRule rule)
   {
     rules.put(getDummyDN(rule), rule);
+    updateRuleSet();
   }
 
   /**
@@ -479,6 +498,7 @@ public class VirtualAttributeConfigManager
   public void deregister(VirtualAttributeRule rule)
   {
     rules.remove(getDummyDN(rule));
+    updateRuleSet();
   }
 
   private DN getDummyDN(VirtualAttributeRule rule)
@@ -0,0 +1,764 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.server.config.server.EntryCacheCfg;
+import org.forgerock.opendj.server.config.server.OffHeapEntryCacheCfg;
+import org.forgerock.util.Utils;
+import org.opends.server.api.EntryCache;
+import org.opends.server.api.MonitorData;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.ServerContext;
+import org.opends.server.types.Entry;
+import org.opends.server.types.EntryEncodeConfig;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.util.ServerConstants;
+
+/**
+ * This class defines a Directory Server entry cache storing the entries in their encoded form outside of the JVM
+ * heap, so that large caches do not increase garbage collection pauses.
+ * <BR><BR>
+ * The cache memory is split in fixed size segments of direct memory, allocated on demand. Encoded entries are
+ * appended to the current segment. Once all the segments are full, the oldest segment is recycled: all the entries
+ * it holds are evicted at once, then it becomes the current segment. Only the indexes by DN and by backend and
+ * entry ID are held on the heap. Entries are decoded each time they are read from the cache.
+ * <BR><BR>
+ * Each segment has a generation which is incremented before the segment is recycled, and a read-write lock
+ * protecting its content: readers copy an entry under the read lock, once they have checked that its generation has
+ * not changed, and only wait for the recycling of that segment. Writers only serialize on the segment they append to.
+ * <BR><BR>
+ * If a filter list is provided, then only entries matching at least one of the given filters will be stored in
+ * the cache.
+ */
+public class OffHeapEntryCache
+       extends EntryCache<OffHeapEntryCacheCfg>
+       implements ConfigurationChangeListener<OffHeapEntryCacheCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** Number of segments the cache memory is split into, unless it makes them too small or too large. */
+  private static final int TARGET_SEGMENT_COUNT = 64;
+  private static final int MIN_SEGMENT_SIZE = 1024 * 1024;
+  private static final int MAX_SEGMENT_SIZE = 256 * 1024 * 1024;
+  private static final int BUFFER_INIT_SIZE = 512;
+
+  /** Entries are stored with tokenized attribute descriptions and object classes. */
+  private static final EntryEncodeConfig ENCODE_CONFIG = new EntryEncodeConfig(false, true, true);
+
+  /** Per thread buffer used for encoding and decoding entries. */
+  private static final ThreadLocal<ByteStringBuilder> BUFFERS = new ThreadLocal<ByteStringBuilder>()
+  {
+    @Override
+    protected ByteStringBuilder initialValue()
+    {
+      return new ByteStringBuilder(BUFFER_INIT_SIZE);
+    }
+  };
+
+  /** The mapping between DNs and entries. */
+  private final ConcurrentMap<DN, Location> dnMap = new ConcurrentHashMap<>();
+  /** The mapping between entry backends/IDs and entries. */
+  private final ConcurrentMap<String, ConcurrentMap<Long, Location>> idMap = new ConcurrentHashMap<>();
+
+  /** Serializes the moves to the next segment, which must not be taken while holding the lock of a segment. */
+  private final ReentrantLock rotateLock = new ReentrantLock();
+  /** The segments, used as a ring buffer. */
+  private Segment[] segments;
+  /** Index of the segment where entries are appended, updated while holding the rotate lock. */
+  private volatile int writeIndex;
+  private int segmentSize;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /** The maximum amount of direct memory used by the cache. */
+  private long maxMemorySize;
+
+  /** Currently registered configuration object. */
+  private OffHeapEntryCacheCfg registeredConfiguration;
+
+  /** A segment of direct memory holding encoded entries. */
+  private static final class Segment
+  {
+    /** Serializes the appends to this segment and its recycling. */
+    private final ReentrantLock appendLock = new ReentrantLock();
+    /** Held by readers while copying an entry, and by writers before the content of the segment is overwritten. */
+    private final ReentrantReadWriteLock contentLock = new ReentrantReadWriteLock();
+    /** Incremented before the content of the segment is overwritten, while holding both locks. */
+    private volatile int generation;
+    /** Allocated while holding the append lock, released while holding both locks. */
+    private volatile ByteBuffer buffer;
+    /** The following fields are guarded by the append lock. */
+    private int position;
+    private final List<Location> locations = new ArrayList<>();
+  }
+
+  /** The location of an encoded entry in a segment. */
+  private static final class Location
+  {
+    private final Segment segment;
+    private final int generation;
+    private final int offset;
+    private final int length;
+    private final DN dn;
+    private final String backendID;
+    private final long entryID;
+
+    private Location(Segment segment, int offset, int length, DN dn, String backendID, long entryID)
+    {
+      this.segment = segment;
+      this.generation = segment.generation;
+      this.offset = offset;
+      this.length = length;
+      this.dn = dn;
+      this.backendID = backendID;
+      this.entryID = entryID;
+    }
+
+    private boolean isValid()
+    {
+      return segment.generation == generation;
+    }
+  }
+
+  /** Creates a new instance of this entry cache. */
+  public OffHeapEntryCache()
+  {
+    super();
+    // All initialization should be performed in the initializeEntryCache.
+  }
+
+  @Override
+  public void initializeEntryCache(ServerContext serverContext, OffHeapEntryCacheCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    registeredConfiguration = configuration;
+    configuration.addOffHeapChangeListener(this);
+
+    // Read configuration and apply changes.
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_INIT, null, errorMessages
+          );
+    if (!processEntryCacheConfig(configuration, applyChanges, errorHandler)) {
+      String buffer = Utils.joinAsString(".  ", errorMessages);
+      throw new ConfigException(ERR_OFFHEAPCACHE_CANNOT_INITIALIZE.get(buffer));
+    }
+
+    // The memory is allocated when needed, so that an empty cache does not use any
+    maxMemorySize = configuration.getMaxMemorySize();
+    segmentSize = (int) Math.max(Math.min(maxMemorySize / TARGET_SEGMENT_COUNT, MAX_SEGMENT_SIZE), MIN_SEGMENT_SIZE);
+    final int segmentCount = (int) Math.max(maxMemorySize / segmentSize, 2);
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++)
+    {
+      segments[i] = new Segment();
+    }
+  }
+
+  @Override
+  public void finalizeEntryCache()
+  {
+    registeredConfiguration.removeOffHeapChangeListener(this);
+    clear();
+
+    // Release the direct memory
+    for (Segment segment : segments)
+    {
+      segment.appendLock.lock();
+      try
+      {
+        invalidate(segment);
+        segment.buffer = null;
+      }
+      finally
+      {
+        segment.appendLock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public boolean containsEntry(DN entryDN)
+  {
+    if (entryDN == null)
+    {
+      return false;
+    }
+    final Location location = dnMap.get(entryDN);
+    return location != null && location.isValid();
+  }
+
+  @Override
+  public Entry getEntry(DN entryDN)
+  {
+    return read(dnMap.get(entryDN));
+  }
+
+  @Override
+  public Entry getEntry(String backendID, long entryID)
+  {
+    return read(getLocation(backendID, entryID));
+  }
+
+  private Entry read(Location location)
+  {
+    if (location != null)
+    {
+      final Entry entry = decode(location);
+      if (entry != null)
+      {
+        hits.increment();
+        return entry;
+      }
+    }
+    misses.increment();
+    return null;
+  }
+
+  /** Decodes the entry at the provided location, or returns {@code null} if it has been overwritten. */
+  private Entry decode(Location location)
+  {
+    final Segment segment = location.segment;
+    final ByteStringBuilder builder = BUFFERS.get();
+    try
+    {
+      builder.clear();
+      segment.contentLock.readLock().lock();
+      try
+      {
+        // The segment cannot be recycled while copying the entry
+        final ByteBuffer buffer = segment.buffer;
+        if (!location.isValid() || buffer == null)
+        {
+          return null;
+        }
+        final ByteBuffer source = buffer.duplicate();
+        source.position(location.offset);
+        builder.appendBytes(source, location.length);
+      }
+      finally
+      {
+        segment.contentLock.readLock().unlock();
+      }
+
+      final Entry entry = Entry.decode(builder.asReader(), DirectoryServer.getDefaultCompressedSchema());
+      return location.dn.equals(entry.getName()) ? entry : null;
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      return null;
+    }
+    finally
+    {
+      builder.clearAndTruncate(DirectoryServer.getCoreConfigManager().getMaxInternalBufferSize(), BUFFER_INIT_SIZE);
+    }
+  }
+
+  @Override
+  public long getEntryID(DN entryDN)
+  {
+    final Location location = dnMap.get(entryDN);
+    return location != null && location.isValid() ? location.entryID : -1;
+  }
+
+  @Override
+  public DN getEntryDN(String backendID, long entryID)
+  {
+    final Location location = getLocation(backendID, entryID);
+    return location != null && location.isValid() ? location.dn : null;
+  }
+
+  private Location getLocation(String backendID, long entryID)
+  {
+    final Map<Long, Location> backendMap = idMap.get(backendID);
+    return backendMap != null ? backendMap.get(entryID) : null;
+  }
+
+  @Override
+  public void putEntry(Entry entry, String backendID, long entryID)
+  {
+    put(entry, backendID, entryID, false);
+  }
+
+  @Override
+  public boolean putEntryIfAbsent(Entry entry, String backendID, long entryID)
+  {
+    if (dnMap.containsKey(entry.getName()))
+    {
+      return false;
+    }
+    return put(entry, backendID, entryID, true);
+  }
+
+  private boolean put(Entry entry, String backendID, long entryID, boolean onlyIfAbsent)
+  {
+    final DN dn = entry.getName();
+    final ByteStringBuilder builder = BUFFERS.get();
+    try
+    {
+      // Encode before taking any lock
+      builder.clear();
+      entry.encode(builder, ENCODE_CONFIG);
+      if (builder.length() > segmentSize)
+      {
+        // Too large to be cached
+        final Location previous = dnMap.get(dn);
+        if (previous != null && onlyIfAbsent)
+        {
+          return false;
+        }
+        if (previous != null)
+        {
+          remove(previous);
+        }
+        return true;
+      }
+
+      while (true)
+      {
+        final int index = writeIndex;
+        final Segment segment = segments[index];
+        segment.appendLock.lock();
+        try
+        {
+          if (index == writeIndex && segment.buffer != null && segment.position + builder.length() <= segmentSize)
+          {
+            return append(segment, builder, dn, backendID, entryID, onlyIfAbsent);
+          }
+        }
+        finally
+        {
+          segment.appendLock.unlock();
+        }
+        moveToNextSegment(index);
+      }
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      return false;
+    }
+    finally
+    {
+      builder.clearAndTruncate(DirectoryServer.getCoreConfigManager().getMaxInternalBufferSize(), BUFFER_INIT_SIZE);
+    }
+  }
+
+  /**
+   * Copies an encoded entry to the free space of the provided segment, then indexes it. The append lock of the
+   * segment must be held, so that it cannot be recycled before the entry is indexed.
+   */
+  private boolean append(Segment segment, ByteStringBuilder encodedEntry, DN dn, String backendID, long entryID,
+      boolean onlyIfAbsent)
+  {
+    final Location previous = dnMap.get(dn);
+    if (previous != null && onlyIfAbsent)
+    {
+      return false;
+    }
+    if (previous != null)
+    {
+      remove(previous);
+    }
+
+    // Readers do not read the free space, no need for the content lock
+    final Location location = new Location(segment, segment.position, encodedEntry.length(), dn, backendID, entryID);
+    final ByteBuffer target = segment.buffer.duplicate();
+    target.position(segment.position);
+    target.put(encodedEntry.getBackingArray(), 0, encodedEntry.length());
+    segment.position += encodedEntry.length();
+    segment.locations.add(location);
+
+    dnMap.put(dn, location);
+    final Location previousWithId = getBackendMap(backendID).put(entryID, location);
+    if (previousWithId != null && previousWithId != previous)
+    {
+      // The entry has been renamed
+      dnMap.remove(previousWithId.dn, previousWithId);
+    }
+    return true;
+  }
+
+  /** Recycles the segment following the full segment at the provided index, and makes it the current segment. */
+  private void moveToNextSegment(int fullIndex)
+  {
+    rotateLock.lock();
+    try
+    {
+      if (writeIndex != fullIndex)
+      {
+        // Another writer already moved to the next segment
+        return;
+      }
+      final int nextIndex = (fullIndex + 1) % segments.length;
+      final Segment segment = segments[nextIndex];
+      segment.appendLock.lock();
+      try
+      {
+        recycle(segment);
+        if (segment.buffer == null)
+        {
+          segment.buffer = ByteBuffer.allocateDirect(segmentSize);
+        }
+      }
+      finally
+      {
+        segment.appendLock.unlock();
+      }
+      writeIndex = nextIndex;
+    }
+    finally
+    {
+      rotateLock.unlock();
+    }
+  }
+
+  /** Evicts all the entries of a segment so that it can be overwritten. The append lock of the segment must be held. */
+  private void recycle(Segment segment)
+  {
+    // Invalidate first, so that readers ignore the data being overwritten
+    invalidate(segment);
+    for (Location location : segment.locations)
+    {
+      if (remove(location))
+      {
+        evictions.increment();
+      }
+    }
+    segment.locations.clear();
+    segment.position = 0;
+  }
+
+  /**
+   * Invalidates the locations of a segment, waiting for the readers copying entries from it. The append lock of the
+   * segment must be held.
+   */
+  private void invalidate(Segment segment)
+  {
+    segment.contentLock.writeLock().lock();
+    try
+    {
+      segment.generation++;
+    }
+    finally
+    {
+      segment.contentLock.writeLock().unlock();
+    }
+  }
+
+  /** Removes a location from both maps, unless it has already been replaced. */
+  private boolean remove(Location location)
+  {
+    final boolean removed = dnMap.remove(location.dn, location);
+    final Map<Long, Location> map = idMap.get(location.backendID);
+    if (map != null)
+    {
+      map.remove(location.entryID, location);
+    }
+    return removed;
+  }
+
+  private ConcurrentMap<Long, Location> getBackendMap(String backendID)
+  {
+    ConcurrentMap<Long, Location> map = idMap.get(backendID);
+    if (map == null)
+    {
+      // Writers appending to different segments may race
+      final ConcurrentMap<Long, Location> newMap = new ConcurrentHashMap<>();
+      map = idMap.putIfAbsent(backendID, newMap);
+      if (map == null)
+      {
+        map = newMap;
+      }
+    }
+    return map;
+  }
+
+  @Override
+  public void removeEntry(DN entryDN)
+  {
+    final Location location = dnMap.get(entryDN);
+    if (location != null)
+    {
+      remove(location);
+    }
+  }
+
+  @Override
+  public void clear()
+  {
+    rotateLock.lock();
+    try
+    {
+      for (Segment segment : segments)
+      {
+        segment.appendLock.lock();
+        try
+        {
+          invalidate(segment);
+          segment.locations.clear();
+          segment.position = 0;
+        }
+        finally
+        {
+          segment.appendLock.unlock();
+        }
+      }
+      dnMap.clear();
+      idMap.clear();
+    }
+    finally
+    {
+      rotateLock.unlock();
+    }
+  }
+
+  @Override
+  public void clearBackend(String backendID)
+  {
+    final Map<Long, Location> map = idMap.remove(backendID);
+    if (map != null)
+    {
+      for (Location location : map.values())
+      {
+        dnMap.remove(location.dn, location);
+      }
+    }
+  }
+
+  @Override
+  public void handleLowMemory()
+  {
+    // Entries are not held on the heap, but their index is: recycle the oldest 10% of the used segments
+    rotateLock.lock();
+    try
+    {
+      int numUsed = 0;
+      for (Segment segment : segments)
+      {
+        if (segment.buffer != null)
+        {
+          numUsed++;
+        }
+      }
+      int numToDrop = Math.max(numUsed / 10, 1);
+      for (int i = 1; i <= segments.length && numToDrop > 0; i++)
+      {
+        // Starting with the oldest segment, and ending with the current one
+        final Segment segment = segments[(writeIndex + i) % segments.length];
+        segment.appendLock.lock();
+        try
+        {
+          if (segment.buffer != null)
+          {
+            recycle(segment);
+            numToDrop--;
+          }
+        }
+        finally
+        {
+          segment.appendLock.unlock();
+        }
+      }
+    }
+    finally
+    {
+      rotateLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isConfigurationAcceptable(EntryCacheCfg configuration,
+                                           List<LocalizableMessage> unacceptableReasons)
+  {
+    OffHeapEntryCacheCfg config = (OffHeapEntryCacheCfg) configuration;
+    return isConfigurationChangeAcceptable(config, unacceptableReasons);
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      OffHeapEntryCacheCfg configuration,
+      List<LocalizableMessage> unacceptableReasons
+      )
+  {
+    boolean applyChanges = false;
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_ACCEPTABLE,
+          unacceptableReasons,
+          null
+        );
+    processEntryCacheConfig (configuration, applyChanges, errorHandler);
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(OffHeapEntryCacheCfg configuration)
+  {
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_APPLY, null, errorMessages
+          );
+
+    // Do not apply changes unless this cache is enabled.
+    if (configuration.isEnabled()) {
+      processEntryCacheConfig (configuration, applyChanges, errorHandler);
+    }
+
+    final ConfigChangeResult changeResult = new ConfigChangeResult();
+    changeResult.setResultCode(errorHandler.getResultCode());
+    changeResult.setAdminActionRequired(errorHandler.getIsAdminActionRequired()
+        || configuration.getMaxMemorySize() != maxMemorySize);
+    changeResult.getMessages().addAll(errorHandler.getErrorMessages());
+    return changeResult;
+  }
+
+  /**
+   * Parses the provided configuration and configure the entry cache.
+   *
+   * @param configuration  The new configuration containing the changes.
+   * @param applyChanges   If true then take into account the new configuration.
+   * @param errorHandler   An handler used to report errors.
+   *
+   * @return  <CODE>true</CODE> if configuration is acceptable,
+   *          or <CODE>false</CODE> otherwise.
+   */
+  private boolean processEntryCacheConfig(
+      OffHeapEntryCacheCfg                configuration,
+      boolean                             applyChanges,
+      EntryCacheCommon.ConfigErrorHandler errorHandler
+      )
+  {
+    // Read configuration.
+    DN newConfigEntryDN = configuration.dn();
+
+    // Get include and exclude filters.
+    Set<SearchFilter> newIncludeFilters = EntryCacheCommon.getFilters (
+        configuration.getIncludeFilter(),
+        ERR_CACHE_INVALID_INCLUDE_FILTER,
+        errorHandler,
+        newConfigEntryDN
+        );
+    Set<SearchFilter> newExcludeFilters = EntryCacheCommon.getFilters (
+        configuration.getExcludeFilter(),
+        ERR_CACHE_INVALID_EXCLUDE_FILTER,
+        errorHandler,
+        newConfigEntryDN
+        );
+
+    // The size of the direct memory is only taken into account when the cache is initialized
+    if (applyChanges && errorHandler.getIsAcceptable())
+    {
+      setIncludeFilters(newIncludeFilters);
+      setExcludeFilters(newExcludeFilters);
+      registeredConfiguration = configuration;
+    }
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public long getCacheHits()
+  {
+    return hits.sum();
+  }
+
+  @Override
+  public long getCacheMisses()
+  {
+    return misses.sum();
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    try {
+      long memorySize = 0;
+      for (Segment segment : segments)
+      {
+        memorySize += segment.position;
+      }
+      final MonitorData monitorData = EntryCacheCommon.getGenericMonitorData(
+        getCacheHits(),
+        getCacheMisses(),
+        memorySize,
+        maxMemorySize,
+        Long.valueOf(dnMap.size()),
+        null
+        );
+      monitorData.add("entryCacheMisses", getCacheMisses());
+      monitorData.add("entryCacheEvictions", evictions.sum());
+      return monitorData;
+    } catch (Exception e) {
+      logger.traceException(e);
+      return new MonitorData(0);
+    }
+  }
+
+  @Override
+  public Long getCacheCount()
+  {
+    return Long.valueOf(dnMap.size());
+  }
+
+  @Override
+  public String toVerboseString()
+  {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<DN, Location> mapEntry : dnMap.entrySet())
+    {
+      final Location location = mapEntry.getValue();
+      sb.append(mapEntry.getKey());
+      sb.append(":");
+      sb.append(location.entryID);
+      sb.append(":");
+      sb.append(location.backendID);
+      sb.append(ServerConstants.EOL);
+    }
+
+    String verboseString = sb.toString();
+    return verboseString.length() > 0 ? verboseString : null;
+  }
+}
@@ -19,22 +19,28 @@ package org.opends.server.extensions;
 import static com.forgerock.opendj.util.StaticUtils.getBytes;
 
 import java.io.UnsupportedEncodingException;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.LocalizedIllegalArgumentException;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.config.server.ConfigException;
 import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ConditionResult;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.ModificationType;
 import org.forgerock.opendj.ldap.ResultCode;
@@ -94,17 +100,20 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
   /** The DN of the entry that holds the definition for this group. */
   private DN groupEntryDN;
 
-  /** The set of the DNs of the members for this group. */
-  private HashSet<CompactDn> memberDNs;
+  /**
+   * The set of the DNs of the members for this group. It is updated in place, so that adding or removing a member
+   * does not depend on the size of the group.
+   */
+  private volatile MemberSet memberDNs;
 
   /** The list of nested group DNs for this group. */
-  private LinkedList<DN> nestedGroups = new LinkedList<>();
+  private final List<DN> nestedGroups = new CopyOnWriteArrayList<>();
 
   /** Passed to the group manager to see if the nested group list needs to be refreshed. */
-  private long nestedGroupRefreshToken = DirectoryServer.getGroupManager().refreshToken();
+  private volatile long nestedGroupRefreshToken = DirectoryServer.getGroupManager().refreshToken();
 
-  /** Read/write lock protecting memberDNs and nestedGroups. */
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** Lock serializing the updates of memberDNs and nestedGroups. Readers never lock. */
+  private final Lock lock = new ReentrantLock();
 
   private ServerContext serverContext;
 
@@ -128,7 +137,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
    *                              group.
    */
   private StaticGroup(ServerContext serverContext, DN groupEntryDN, AttributeType memberAttributeType,
-      LinkedHashSet<CompactDn> memberDNs)
+      MemberSet memberDNs)
   {
     super();
     Reject.ifNull(groupEntryDN, memberAttributeType, memberDNs);
@@ -202,7 +211,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
     {
       membersCount += a.size();
     }
-    LinkedHashSet<CompactDn> someMemberDNs = new LinkedHashSet<>(membersCount);
+    MemberSet someMemberDNs = new MemberSet(membersCount);
     for (Attribute a : memberAttrList)
     {
       for (ByteString v : a)
@@ -302,15 +311,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
     {
       return Collections.<DN>emptyList();
     }
-    lock.readLock().lock();
-    try
-    {
-      return nestedGroups;
-    }
-    finally
-    {
-      lock.readLock().unlock();
-    }
+    return Collections.unmodifiableList(nestedGroups);
   }
 
   @Override
@@ -319,7 +320,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
   {
     Reject.ifNull(nestedGroupDN);
 
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
       if (nestedGroups.contains(nestedGroupDN))
@@ -337,17 +338,14 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
         throw new DirectoryException(modifyOperation.getResultCode(), msg);
       }
 
-      LinkedList<DN> newNestedGroups = new LinkedList<>(nestedGroups);
-      newNestedGroups.add(nestedGroupDN);
-      nestedGroups = newNestedGroups;
+      nestedGroups.add(nestedGroupDN);
       //Add it to the member DN list.
-      HashSet<CompactDn> newMemberDNs = new HashSet<>(memberDNs);
-      newMemberDNs.add(new CompactDn(nestedGroupDN));
-      memberDNs = newMemberDNs;
+      memberDNs.add(new CompactDn(nestedGroupDN));
+      getGroupManager().membershipChanged();
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -357,7 +355,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
   {
     Reject.ifNull(nestedGroupDN);
 
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
       if (! nestedGroups.contains(nestedGroupDN))
@@ -375,17 +373,14 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
         throw new DirectoryException(modifyOperation.getResultCode(), message);
       }
 
-      LinkedList<DN> newNestedGroups = new LinkedList<>(nestedGroups);
-      newNestedGroups.remove(nestedGroupDN);
-      nestedGroups = newNestedGroups;
+      nestedGroups.remove(nestedGroupDN);
       //Remove it from the member DN list.
-      LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<>(memberDNs);
-      newMemberDNs.remove(new CompactDn(nestedGroupDN));
-      memberDNs = newMemberDNs;
+      memberDNs.remove(new CompactDn(nestedGroupDN));
+      getGroupManager().membershipChanged();
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -394,35 +389,32 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
   {
     reloadIfNeeded();
     CompactDn compactUserDN = new CompactDn(userDN);
-    lock.readLock().lock();
-    try
+    if (memberDNs.contains(compactUserDN))
     {
-      if (memberDNs.contains(compactUserDN))
-      {
-        return true;
-      }
-      if (nestedGroups.isEmpty()) {
-        return false;
-      }
+      return true;
+    }
+    if (nestedGroups.isEmpty()) {
+      return false;
+    }
 
-      // there are nested groups
-      Set<DN> groups = getExaminedGroups(examinedGroups);
-      if (!groups.add(getGroupDN()))
-      {
-        return false;
-      }
-      for (DN nestedGroupDN : nestedGroups)
-      {
-        Group<? extends GroupImplementationCfg> group = getGroupManager().getGroupInstance(nestedGroupDN);
-        if (group != null && group.isMember(userDN, examinedGroups))
-        {
-          return true;
-        }
-      }
+    // there are nested groups: the group manager may know the answer without evaluating them
+    ConditionResult indexedMember = getGroupManager().isIndexedMember(this, userDN);
+    if (indexedMember != ConditionResult.UNDEFINED)
+    {
+      return indexedMember == ConditionResult.TRUE;
     }
-    finally
+    Set<DN> groups = getExaminedGroups(examinedGroups);
+    if (!groups.add(getGroupDN()))
     {
-      lock.readLock().unlock();
+      return false;
+    }
+    for (DN nestedGroupDN : nestedGroups)
+    {
+      Group<? extends GroupImplementationCfg> group = getGroupManager().getGroupInstance(nestedGroupDN);
+      if (group != null && group.isMember(userDN, examinedGroups))
+      {
+        return true;
+      }
     }
     return false;
   }
@@ -455,9 +447,14 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
     //the current token.
     if (DirectoryServer.getGroupManager().hasInstancesChanged(nestedGroupRefreshToken))
     {
-      lock.writeLock().lock();
+      lock.lock();
       try
       {
+        if (!DirectoryServer.getGroupManager().hasInstancesChanged(nestedGroupRefreshToken))
+        {
+          // Another thread reloaded the group meanwhile
+          return;
+        }
         Group<?> thisGroup = DirectoryServer.getGroupManager().getGroupInstance(groupEntryDN);
         // Check if the group itself has been removed
         if (thisGroup == null)
@@ -467,7 +464,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
         }
         else if (thisGroup != this)
         {
-          LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<>();
+          MemberSet newMemberDNs = new MemberSet(0);
           MemberList memberList = thisGroup.getMembers();
           while (memberList.hasMoreMembers())
           {
@@ -482,21 +479,24 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
           }
           memberDNs = newMemberDNs;
         }
-        nestedGroups.clear();
+        List<DN> newNestedGroups = new LinkedList<>();
         for (CompactDn compactDn : memberDNs)
         {
           DN dn = compactDn.toDn(serverContext);
           Group<?> group = DirectoryServer.getGroupManager().getGroupInstance(dn);
           if (group != null)
           {
-            nestedGroups.add(group.getGroupDN());
+            newNestedGroups.add(group.getGroupDN());
           }
         }
+        nestedGroups.retainAll(newNestedGroups);
+        newNestedGroups.removeAll(nestedGroups);
+        nestedGroups.addAll(newNestedGroups);
         nestedGroupRefreshToken = DirectoryServer.getGroupManager().refreshToken();
       }
       finally
       {
-        lock.writeLock().unlock();
+        lock.unlock();
       }
     }
   }
@@ -505,34 +505,19 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
   public MemberList getMembers() throws DirectoryException
   {
     reloadIfNeeded();
-    lock.readLock().lock();
-    try
-    {
-      return new SimpleStaticGroupMemberList(serverContext, groupEntryDN, memberDNs);
-    }
-    finally
-    {
-      lock.readLock().unlock();
-    }
+    return new SimpleStaticGroupMemberList(serverContext, groupEntryDN, memberDNs);
   }
 
   @Override
   public MemberList getMembers(DN baseDN, SearchScope scope, SearchFilter filter) throws DirectoryException
   {
     reloadIfNeeded();
-    lock.readLock().lock();
-    try
-    {
-      if (baseDN == null && filter == null)
-      {
-        return new SimpleStaticGroupMemberList(serverContext, groupEntryDN, memberDNs);
-      }
-      return new FilteredStaticGroupMemberList(serverContext, groupEntryDN, memberDNs, baseDN, scope, filter);
-    }
-    finally
+    final MemberSet members = memberDNs;
+    if (baseDN == null && filter == null)
     {
-      lock.readLock().unlock();
+      return new SimpleStaticGroupMemberList(serverContext, groupEntryDN, members);
     }
+    return new FilteredStaticGroupMemberList(serverContext, groupEntryDN, members, baseDN, scope, filter);
   }
 
   @Override
@@ -549,7 +534,9 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
     Reject.ifNull(nestedGroups);
 
     reloadIfNeeded();
-    lock.writeLock().lock();
+    List<DN> changedMembers = new ArrayList<>();
+    boolean allMembersChanged = false;
+    lock.lock();
     try
     {
       for (Modification mod : modifications)
@@ -564,7 +551,9 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
               {
                 DN member = DN.valueOf(v);
                 memberDNs.add(new CompactDn(member));
-                if (DirectoryServer.getGroupManager().getGroupInstance(member) != null)
+                changedMembers.add(member);
+                if (DirectoryServer.getGroupManager().getGroupInstance(member) != null
+                    && !nestedGroups.contains(member))
                 {
                   nestedGroups.add(member);
                 }
@@ -573,8 +562,9 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
             case DELETE:
               if (attribute.isEmpty())
               {
-                memberDNs.clear();
+                memberDNs = new MemberSet(0);
                 nestedGroups.clear();
+                allMembersChanged = true;
               }
               else
               {
@@ -583,28 +573,51 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
                   DN member = DN.valueOf(v);
                   memberDNs.remove(new CompactDn(member));
                   nestedGroups.remove(member);
+                  changedMembers.add(member);
                 }
               }
               break;
             case REPLACE:
-              memberDNs.clear();
-              nestedGroups.clear();
+              // Readers keep using the previous members until the new ones are all known
+              MemberSet newMemberDNs = new MemberSet(attribute.size());
+              List<DN> newNestedGroups = new LinkedList<>();
               for (ByteString v : attribute)
               {
                 DN member = DN.valueOf(v);
-                memberDNs.add(new CompactDn(member));
-                if (DirectoryServer.getGroupManager().getGroupInstance(member) != null)
+                newMemberDNs.add(new CompactDn(member));
+                if (DirectoryServer.getGroupManager().getGroupInstance(member) != null
+                    && !newNestedGroups.contains(member))
                 {
-                  nestedGroups.add(member);
+                  newNestedGroups.add(member);
                 }
               }
+              memberDNs = newMemberDNs;
+              nestedGroups.retainAll(newNestedGroups);
+              newNestedGroups.removeAll(nestedGroups);
+              nestedGroups.addAll(newNestedGroups);
+              allMembersChanged = true;
               break;
           }
         }
       }
     }
     finally {
-      lock.writeLock().unlock();
+      lock.unlock();
+      notifyMembershipChanges(allMembersChanged, changedMembers);
+    }
+  }
+
+  /** Notifies the group manager of the changes of the members, once the lock of this group is released. */
+  private void notifyMembershipChanges(boolean allMembersChanged, List<DN> changedMembers)
+  {
+    if (allMembersChanged)
+    {
+      getGroupManager().membershipChanged();
+      return;
+    }
+    for (DN member : changedMembers)
+    {
+      getGroupManager().memberChanged(this, member);
     }
   }
 
@@ -613,7 +626,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
   {
     Reject.ifNull(userEntry);
 
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
       DN userDN = userEntry.getName();
@@ -633,14 +646,13 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
             ERR_STATICGROUP_ADD_MEMBER_UPDATE_FAILED.get(userDN, groupEntryDN, modifyOperation.getErrorMessage()));
       }
 
-      LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<CompactDn>(memberDNs);
-      newMemberDNs.add(compactUserDN);
-      memberDNs = newMemberDNs;
+      memberDNs.add(compactUserDN);
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
+    getGroupManager().memberChanged(this, userEntry.getName());
   }
 
   @Override
@@ -649,7 +661,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
     Reject.ifNull(userDN);
 
     CompactDn compactUserDN = new CompactDn(userDN);
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
       if (! memberDNs.contains(compactUserDN))
@@ -666,21 +678,15 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
             ERR_STATICGROUP_REMOVE_MEMBER_UPDATE_FAILED.get(userDN, groupEntryDN, modifyOperation.getErrorMessage()));
       }
 
-      LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<>(memberDNs);
-      newMemberDNs.remove(compactUserDN);
-      memberDNs = newMemberDNs;
+      memberDNs.remove(compactUserDN);
       //If it is in the nested group list remove it.
-      if (nestedGroups.contains(userDN))
-      {
-        LinkedList<DN> newNestedGroups = new LinkedList<>(nestedGroups);
-        newNestedGroups.remove(userDN);
-        nestedGroups = newNestedGroups;
-      }
+      nestedGroups.remove(userDN);
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
+    getGroupManager().memberChanged(this, userDN);
   }
 
   private ModifyOperation newModifyOperation(ModificationType modType, DN userDN)
@@ -693,6 +699,77 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
         newLinkedList(control), groupEntryDN, mods);
   }
 
+  /**
+   * Returns the number of direct members of this group, including the nested groups.
+   *
+   * @return the number of direct members of this group
+   */
+  public int getMemberCount()
+  {
+    return memberDNs.size();
+  }
+
+  /**
+   * Indicates whether the provided DN is a direct member of this group, including the nested groups.
+   *
+   * @param memberDN
+   *          the DN of the member
+   * @return {@code true} if the provided DN is a direct member of this group
+   */
+  public boolean isDirectMember(DN memberDN)
+  {
+    return memberDNs.contains(new CompactDn(memberDN));
+  }
+
+  /**
+   * Returns the normalized DNs of the direct members of this group, including the nested groups. The returned
+   * {@code Iterable} reflects the updates of the membership list, without ever failing because of them.
+   *
+   * @return the normalized DNs of the direct members of this group
+   */
+  public Iterable<ByteString> getNormalizedMemberDNs()
+  {
+    final MemberSet members = memberDNs;
+    return new Iterable<ByteString>()
+    {
+      @Override
+      public Iterator<ByteString> iterator()
+      {
+        final Iterator<CompactDn> iterator = members.iterator();
+        return new Iterator<ByteString>()
+        {
+          @Override
+          public boolean hasNext()
+          {
+            return iterator.hasNext();
+          }
+
+          @Override
+          public ByteString next()
+          {
+            return iterator.next().toNormalizedByteString();
+          }
+
+          @Override
+          public void remove()
+          {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Returns an estimate of the memory used by the membership list of this group.
+   *
+   * @return the estimated memory used by the membership list of this group, in bytes
+   */
+  public long getMemoryUsage()
+  {
+    return memberDNs.getMemoryUsage();
+  }
+
   @Override
   public void toString(StringBuilder buffer)
   {
@@ -709,6 +786,11 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
    */
   static final class CompactDn implements Comparable<CompactDn>
   {
+    /** Estimated size of the object header and references of a compact DN, and of its hash table node. */
+    private static final long COMPACT_DN_OVERHEAD = 24 + 32;
+    /** Estimated size of a byte array header. */
+    private static final long ARRAY_OVERHEAD = 16;
+
     /** Original string corresponding to the DN. */
     private final byte[] originalValue;
 
@@ -758,6 +840,32 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
       return DN.valueOf(toString(), serverContext.getSchema());
     }
 
+    /**
+     * Returns the normalized value of this DN, as returned by {@link DN#toNormalizedByteString()}.
+     *
+     * @return the normalized value of this DN
+     */
+    ByteString toNormalizedByteString()
+    {
+      return ByteString.wrap(normalizedValue);
+    }
+
+    /**
+     * Returns an estimate of the memory used by this compact representation.
+     *
+     * @return the estimated memory used by this object and its byte arrays, in bytes
+     */
+    long getMemorySize()
+    {
+      return COMPACT_DN_OVERHEAD + align(ARRAY_OVERHEAD + originalValue.length)
+          + align(ARRAY_OVERHEAD + normalizedValue.length);
+    }
+
+    private static long align(long size)
+    {
+      return (size + 7) & ~7L;
+    }
+
     @Override
     public int hashCode()
     {
@@ -797,4 +905,112 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
       }
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * A concurrent set of member DNs, keyed by their normalized value.
+   * <p>
+   * Members can be added or removed in constant time without copying the set, and the set can be read and iterated
+   * without locking while it is updated. Iterators are weakly consistent: they reflect the state of the set at some
+   * point at or since their creation. The estimated memory used by the members is maintained as they are added or
+   * removed.
+   */
+  static final class MemberSet extends AbstractSet<CompactDn>
+  {
+    private final Set<CompactDn> members;
+    private final LongAdder memoryUsage = new LongAdder();
+
+    /**
+     * Creates an empty member set.
+     *
+     * @param expectedSize
+     *          the number of members expected to be added to the set
+     */
+    MemberSet(int expectedSize)
+    {
+      members = Collections.newSetFromMap(new ConcurrentHashMap<CompactDn, Boolean>(Math.max(expectedSize, 16)));
+    }
+
+    @Override
+    public boolean add(CompactDn member)
+    {
+      if (members.add(member))
+      {
+        memoryUsage.add(member.getMemorySize());
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public boolean remove(Object member)
+    {
+      if (members.remove(member))
+      {
+        memoryUsage.add(-((CompactDn) member).getMemorySize());
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public boolean contains(Object member)
+    {
+      return members.contains(member);
+    }
+
+    @Override
+    public void clear()
+    {
+      for (Iterator<CompactDn> it = iterator(); it.hasNext();)
+      {
+        it.next();
+        it.remove();
+      }
+    }
+
+    @Override
+    public int size()
+    {
+      return members.size();
+    }
+
+    @Override
+    public Iterator<CompactDn> iterator()
+    {
+      final Iterator<CompactDn> iterator = members.iterator();
+      return new Iterator<CompactDn>()
+      {
+        private CompactDn current;
+
+        @Override
+        public boolean hasNext()
+        {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public CompactDn next()
+        {
+          current = iterator.next();
+          return current;
+        }
+
+        @Override
+        public void remove()
+        {
+          MemberSet.this.remove(current);
+        }
+      };
+    }
+
+    /**
+     * Returns an estimate of the memory used by the members of this set.
+     *
+     * @return the estimated memory used by the members of this set, in bytes
+     */
+    long getMemoryUsage()
+    {
+      return memoryUsage.sum();
+    }
+  }
+}
@@ -13,6 +13,7 @@
  *
  * Copyright 2008-2009 Sun Microsystems, Inc.
  * Portions Copyright 2012-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.extensions;
 
@@ -33,6 +34,7 @@ import javax.net.ssl.SSLPeerUnverifiedException;
 import javax.net.ssl.SSLSession;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.opends.server.util.DirectBufferPool;
 
 /** A class that provides a TLS byte channel implementation. */
 public final class TLSByteChannel implements ConnectionSecurityProvider
@@ -81,7 +83,15 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
             }
             finally
             {
-              channel.close();
+              try
+              {
+                channel.close();
+              }
+              finally
+              {
+                isClosed = true;
+                releaseBuffers();
+              }
             }
           }
         }
@@ -99,36 +109,51 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
     {
       synchronized (readLock)
       {
-        // Only read and unwrap new data if needed.
-        if (!recvUnwrappedBuffer.hasRemaining())
+        try
+        {
+          return doRead(unwrappedData);
+        }
+        finally
         {
-          final int read = doRecvAndUnwrap();
-          if (read <= 0)
+          if (bufferPool != null)
           {
-            // No data read or end of stream.
-            return read;
+            releaseReceiveBuffers();
           }
         }
+      }
+    }
 
-        // Copy available data.
-        final int startPos = unwrappedData.position();
-        if (recvUnwrappedBuffer.remaining() > unwrappedData.remaining())
+    private int doRead(final ByteBuffer unwrappedData) throws IOException
+    {
+      // Only read and unwrap new data if needed.
+      if (!recvUnwrappedBuffer.hasRemaining())
+      {
+        final int read = doRecvAndUnwrap();
+        if (read <= 0)
         {
-          // Unwrapped data does not fit in client buffer so copy one byte at a
-          // time: it's annoying that there is no easy way to do this with
-          // ByteBuffers.
-          while (unwrappedData.hasRemaining())
-          {
-            unwrappedData.put(recvUnwrappedBuffer.get());
-          }
+          // No data read or end of stream.
+          return read;
         }
-        else
+      }
+
+      // Copy available data.
+      final int startPos = unwrappedData.position();
+      if (recvUnwrappedBuffer.remaining() > unwrappedData.remaining())
+      {
+        // Unwrapped data does not fit in client buffer so copy one byte at a
+        // time: it's annoying that there is no easy way to do this with
+        // ByteBuffers.
+        while (unwrappedData.hasRemaining())
         {
-          // Unwrapped data fits client buffer so block copy.
-          unwrappedData.put(recvUnwrappedBuffer);
+          unwrappedData.put(recvUnwrappedBuffer.get());
         }
-        return unwrappedData.position() - startPos;
       }
+      else
+      {
+        // Unwrapped data fits client buffer so block copy.
+        unwrappedData.put(recvUnwrappedBuffer);
+      }
+      return unwrappedData.position() - startPos;
     }
 
     @Override
@@ -217,6 +242,17 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
       // Synchronize SSL unwrap with channel reads.
       synchronized (unwrapLock)
       {
+        if (recvWrappedBuffer == EMPTY_BUFFER)
+        {
+          recvWrappedBuffer = allocate(sslEngine.getSession().getPacketBufferSize());
+          recvWrappedBuffer.flip();
+        }
+        if (recvUnwrappedBuffer == EMPTY_BUFFER)
+        {
+          recvUnwrappedBuffer = allocate(sslEngine.getSession().getApplicationBufferSize());
+          recvUnwrappedBuffer.flip();
+        }
+
         // Read SSL packets until some unwrapped data is produced or no more
         // data is available on the underlying channel.
         while (true)
@@ -246,10 +282,11 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
             // The unwrapped buffer is not big enough: resize and repeat.
             final int newAppSize = sslEngine.getSession()
                 .getApplicationBufferSize();
-            final ByteBuffer newRecvUnwrappedBuffer = ByteBuffer
-                .allocate(recvUnwrappedBuffer.limit() + newAppSize);
+            final ByteBuffer newRecvUnwrappedBuffer =
+                allocate(recvUnwrappedBuffer.limit() + newAppSize);
             newRecvUnwrappedBuffer.put(recvUnwrappedBuffer);
             newRecvUnwrappedBuffer.flip();
+            free(recvUnwrappedBuffer);
             recvUnwrappedBuffer = newRecvUnwrappedBuffer;
             break; // Retry unwrap.
           case BUFFER_UNDERFLOW:
@@ -259,10 +296,10 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
             if (newPktSize > recvWrappedBuffer.capacity())
             {
               // Increase the buffer size.
-              final ByteBuffer newRecvWrappedBuffer = ByteBuffer
-                  .allocate(newPktSize);
+              final ByteBuffer newRecvWrappedBuffer = allocate(newPktSize);
               newRecvWrappedBuffer.put(recvWrappedBuffer);
               newRecvWrappedBuffer.flip();
+              free(recvWrappedBuffer);
               recvWrappedBuffer = newRecvWrappedBuffer;
             }
             // Read wrapped data from underlying channel.
@@ -305,52 +342,75 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
       // Synchronize SSL wrap with channel writes.
       synchronized (wrapLock)
       {
-        // Repeat while there is overflow.
-        while (true)
+        if (sendWrappedBuffer == EMPTY_BUFFER)
         {
-          abortOnSSLException();
-          final SSLEngineResult result;
-          try
+          sendWrappedBuffer = allocate(sslEngine.getSession().getPacketBufferSize());
+        }
+        try
+        {
+          return wrapAndSend(unwrappedData);
+        }
+        finally
+        {
+          if (bufferPool != null)
           {
-            result = sslEngine.wrap(unwrappedData, sendWrappedBuffer);
-          }
-          catch (SSLException e)
-          {
-            // Save the error - see abortOnSSLException().
-            sslException = e;
-            throw e;
+            // Nothing is left in the buffer once the SSL packet is sent
+            free(sendWrappedBuffer);
+            sendWrappedBuffer = EMPTY_BUFFER;
           }
+        }
+      }
+    }
 
-          switch (result.getStatus())
+    private int wrapAndSend(final ByteBuffer unwrappedData)
+        throws IOException
+    {
+      // Repeat while there is overflow.
+      while (true)
+      {
+        abortOnSSLException();
+        final SSLEngineResult result;
+        try
+        {
+          result = sslEngine.wrap(unwrappedData, sendWrappedBuffer);
+        }
+        catch (SSLException e)
+        {
+          // Save the error - see abortOnSSLException().
+          sslException = e;
+          throw e;
+        }
+
+        switch (result.getStatus())
+        {
+        case BUFFER_OVERFLOW:
+          // The wrapped buffer is not big enough: resize and repeat.
+          final int newSize = sslEngine.getSession().getPacketBufferSize();
+          final ByteBuffer newSendWrappedBuffer =
+              allocate(sendWrappedBuffer.position() + newSize);
+          sendWrappedBuffer.flip();
+          newSendWrappedBuffer.put(sendWrappedBuffer);
+          free(sendWrappedBuffer);
+          sendWrappedBuffer = newSendWrappedBuffer;
+          break; // Retry.
+        case BUFFER_UNDERFLOW:
+          // This should not happen for sends.
+          sslException =
+            new SSLException("Got unexpected underflow while wrapping");
+          throw sslException;
+        case CLOSED:
+          throw new ClosedChannelException();
+        default: // OK
+          // Write the SSL packet: our IO stack will block until all the
+          // data is written.
+          sendWrappedBuffer.flip();
+          while (sendWrappedBuffer.hasRemaining())
           {
-          case BUFFER_OVERFLOW:
-            // The wrapped buffer is not big enough: resize and repeat.
-            final int newSize = sslEngine.getSession().getPacketBufferSize();
-            final ByteBuffer newSendWrappedBuffer = ByteBuffer
-                .allocate(sendWrappedBuffer.position() + newSize);
-            sendWrappedBuffer.flip();
-            newSendWrappedBuffer.put(sendWrappedBuffer);
-            sendWrappedBuffer = newSendWrappedBuffer;
-            break; // Retry.
-          case BUFFER_UNDERFLOW:
-            // This should not happen for sends.
-            sslException =
-              new SSLException("Got unexpected underflow while wrapping");
-            throw sslException;
-          case CLOSED:
-            throw new ClosedChannelException();
-          default: // OK
-            // Write the SSL packet: our IO stack will block until all the
-            // data is written.
-            sendWrappedBuffer.flip();
-            while (sendWrappedBuffer.hasRemaining())
-            {
-              channel.write(sendWrappedBuffer);
-            }
-            final int written = sendWrappedBuffer.position();
-            sendWrappedBuffer.clear();
-            return written;
+            channel.write(sendWrappedBuffer);
           }
+          final int written = sendWrappedBuffer.position();
+          sendWrappedBuffer.clear();
+          return written;
         }
       }
     }
@@ -401,6 +461,14 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
   private final ByteChannelImpl pimpl = new ByteChannelImpl();
   private final ByteChannel channel;
   private final SSLEngine sslEngine;
+  /**
+   * The pool of the buffers, or {@code null} if the buffers are allocated
+   * once for all. The pooled buffers are only leased while data are in flight,
+   * otherwise they are set to {@link #EMPTY_BUFFER}.
+   */
+  private final DirectBufferPool bufferPool;
+  /** Whether the channel is closed, so that buffers are not leased from the pool anymore. */
+  private boolean isClosed;
 
   private volatile SSLException sslException;
   private ByteBuffer recvWrappedBuffer;
@@ -424,22 +492,99 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
    *          The SSL engine to use.
    */
   public TLSByteChannel(final ByteChannel channel, final SSLEngine sslEngine)
+  {
+    this(channel, sslEngine, null);
+  }
+
+  /**
+   * Creates an TLS byte channel instance whose buffers are leased from the
+   * provided pool while data are received or sent.
+   *
+   * @param channel
+   *          The underlying channel.
+   * @param sslEngine
+   *          The SSL engine to use.
+   * @param bufferPool
+   *          The pool of the buffers, or {@code null} if the buffers must be
+   *          allocated for the lifetime of the channel.
+   */
+  public TLSByteChannel(final ByteChannel channel, final SSLEngine sslEngine, final DirectBufferPool bufferPool)
   {
     this.channel = channel;
     this.sslEngine = sslEngine;
+    this.bufferPool = bufferPool;
+    if (bufferPool != null)
+    {
+      // Buffers are leased from the pool when needed.
+      sendWrappedBuffer = EMPTY_BUFFER;
+      recvWrappedBuffer = EMPTY_BUFFER;
+      recvUnwrappedBuffer = EMPTY_BUFFER;
+    }
+    else
+    {
+      // Allocate read/write buffers.
+      final SSLSession session = sslEngine.getSession();
+      final int wrappedBufferSize = session.getPacketBufferSize();
+      final int unwrappedBufferSize = session.getApplicationBufferSize();
+
+      sendWrappedBuffer = ByteBuffer.allocate(wrappedBufferSize);
+      recvWrappedBuffer = ByteBuffer.allocate(wrappedBufferSize);
+      recvUnwrappedBuffer = ByteBuffer.allocate(unwrappedBufferSize);
+
+      // Initially nothing has been received.
+      recvWrappedBuffer.flip();
+      recvUnwrappedBuffer.flip();
+    }
+  }
 
-    // Allocate read/write buffers.
-    final SSLSession session = sslEngine.getSession();
-    final int wrappedBufferSize = session.getPacketBufferSize();
-    final int unwrappedBufferSize = session.getApplicationBufferSize();
+  private ByteBuffer allocate(final int capacity)
+  {
+    if (bufferPool != null && !isClosed)
+    {
+      return bufferPool.lease(capacity);
+    }
+    return ByteBuffer.allocate(capacity);
+  }
 
-    sendWrappedBuffer = ByteBuffer.allocate(wrappedBufferSize);
-    recvWrappedBuffer = ByteBuffer.allocate(wrappedBufferSize);
-    recvUnwrappedBuffer = ByteBuffer.allocate(unwrappedBufferSize);
+  private void free(final ByteBuffer buffer)
+  {
+    // Only the pooled buffers are direct
+    if (bufferPool != null && buffer.isDirect())
+    {
+      bufferPool.release(buffer);
+    }
+  }
 
-    // Initially nothing has been received.
-    recvWrappedBuffer.flip();
-    recvUnwrappedBuffer.flip();
+  /** Returns the receive buffers to the pool once all their data has been consumed. */
+  private void releaseReceiveBuffers()
+  {
+    synchronized (unwrapLock)
+    {
+      if (!recvUnwrappedBuffer.hasRemaining())
+      {
+        free(recvUnwrappedBuffer);
+        recvUnwrappedBuffer = EMPTY_BUFFER;
+      }
+      if (!recvWrappedBuffer.hasRemaining())
+      {
+        free(recvWrappedBuffer);
+        recvWrappedBuffer = EMPTY_BUFFER;
+      }
+    }
+  }
+
+  /** Returns all the buffers to the pool once the channel is closed. */
+  private void releaseBuffers()
+  {
+    if (bufferPool != null)
+    {
+      free(sendWrappedBuffer);
+      sendWrappedBuffer = EMPTY_BUFFER;
+      free(recvWrappedBuffer);
+      recvWrappedBuffer = EMPTY_BUFFER;
+      free(recvUnwrappedBuffer);
+      recvUnwrappedBuffer = EMPTY_BUFFER;
+    }
   }
 
   @Override
@@ -0,0 +1,854 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.server.config.server.EntryCacheCfg;
+import org.forgerock.opendj.server.config.server.TinyLFUEntryCacheCfg;
+import org.forgerock.util.Utils;
+import org.opends.server.api.EntryCache;
+import org.opends.server.api.MonitorData;
+import org.opends.server.core.ServerContext;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.CacheEntry;
+import org.opends.server.types.Entry;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.util.ServerConstants;
+
+/**
+ * This class defines a Directory Server entry cache designed for highly concurrent, read mostly workloads.
+ * <BR><BR>
+ * Lookups never block: entries are held in concurrent maps and reading an entry only records the access in a
+ * shared frequency sketch and marks the entry as recently used. The bookkeeping needed for eviction is split
+ * across independent stripes, each one guarded by its own lock and holding a share of the cache capacity, so
+ * that concurrent updates rarely contend with each other.
+ * <BR><BR>
+ * Entries to evict are selected with the W-TinyLFU policy: new entries first go through a small admission window,
+ * then only enter the main area of the cache if they have been accessed more frequently than the entry they would
+ * replace. Within the main area, recently read entries are given a second chance before being evicted (CLOCK).
+ * This protects the cache content from scans of entries which are only read once.
+ * <BR><BR>
+ * The cache is bounded by the estimated amount of memory used by the cached entries, and optionally by a maximum
+ * number of entries. If a filter list is provided, then only entries matching at least one of the given filters
+ * will be stored in the cache.
+ */
+public class TinyLFUEntryCache
+       extends EntryCache<TinyLFUEntryCacheCfg>
+       implements ConfigurationChangeListener<TinyLFUEntryCacheCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** Share of the capacity of each stripe used by the admission window. */
+  private static final int WINDOW_PERCENT = 1;
+  /** Smallest memory size of a stripe, so that small caches are not split in too many stripes. */
+  private static final long MIN_STRIPE_MEMORY_SIZE = 1024 * 1024;
+  /** Smallest number of entries held by a stripe, so that small caches are not split in too many stripes. */
+  private static final long MIN_STRIPE_ENTRIES = 64;
+  /** Estimated memory overheads of the cache structures, of each attribute and of each attribute value. */
+  private static final int ENTRY_OVERHEAD = 256;
+  private static final int ATTRIBUTE_OVERHEAD = 64;
+  private static final int VALUE_OVERHEAD = 48;
+
+  /** The mapping between DNs and entries. */
+  private final ConcurrentMap<DN, Node> dnMap = new ConcurrentHashMap<>();
+  /** The mapping between entry backends/IDs and entries. */
+  private final ConcurrentMap<String, ConcurrentMap<Long, Node>> idMap = new ConcurrentHashMap<>();
+
+  /** The stripes sharing the eviction bookkeeping, selected by DN. */
+  private Stripe[] stripes;
+  /** Access frequencies of the recently used DNs, used for deciding which entries are worth caching. */
+  private FrequencySketch sketch;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /** The maximum amount of memory in bytes used by the cached entries. */
+  private volatile long maxMemorySize;
+  /** The maximum number of entries that may be held in the cache. */
+  private volatile long maxEntries;
+
+  /** Currently registered configuration object. */
+  private TinyLFUEntryCacheCfg registeredConfiguration;
+
+  /** A cached entry, linked in the eviction list of its stripe. */
+  private static final class Node
+  {
+    private final CacheEntry cacheEntry;
+    private final long weight;
+    /** Set by readers and cleared by the eviction sweep: recently read entries get a second chance. */
+    private volatile boolean referenced;
+
+    /** The following fields are guarded by the lock of the stripe. */
+    private boolean inWindow;
+    private boolean removed;
+    private Node prev;
+    private Node next;
+
+    private Node(CacheEntry cacheEntry, long weight)
+    {
+      this.cacheEntry = cacheEntry;
+      this.weight = weight;
+    }
+  }
+
+  /** A doubly linked list of nodes, ordered from the oldest to the most recently inserted. */
+  private static final class NodeList
+  {
+    private final Node head = new Node(null, 0);
+    private long weight;
+    private long count;
+
+    private NodeList()
+    {
+      head.prev = head;
+      head.next = head;
+    }
+
+    private boolean isEmpty()
+    {
+      return head.next == head;
+    }
+
+    private Node first()
+    {
+      return isEmpty() ? null : head.next;
+    }
+
+    private void addLast(Node node)
+    {
+      node.prev = head.prev;
+      node.next = head;
+      head.prev.next = node;
+      head.prev = node;
+      weight += node.weight;
+      count++;
+    }
+
+    private void remove(Node node)
+    {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+      node.prev = null;
+      node.next = null;
+      weight -= node.weight;
+      count--;
+    }
+
+    private void clear()
+    {
+      head.prev = head;
+      head.next = head;
+      weight = 0;
+      count = 0;
+    }
+  }
+
+  /** A share of the cache, with its own lock and eviction lists. */
+  private final class Stripe
+  {
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Newly added entries, not yet admitted in the main area. */
+    private final NodeList window = new NodeList();
+    /** Entries admitted in the main area, swept as a CLOCK. */
+    private final NodeList main = new NodeList();
+
+    /** Adds a node to this stripe, then evicts entries until the stripe fits in its capacity. Lock must be held. */
+    private void add(Node node)
+    {
+      node.inWindow = true;
+      window.addLast(node);
+
+      final int nbStripes = stripes.length;
+      final long maxWeight = Math.max(maxMemorySize / nbStripes, 1);
+      final long maxCount = Math.max((maxEntries + nbStripes - 1) / nbStripes, 1);
+      final long maxWindowWeight = maxWeight * WINDOW_PERCENT / 100;
+      final long maxWindowCount = Math.max(maxCount * WINDOW_PERCENT / 100, 1);
+
+      // The oldest entries of the window become candidates for the main area
+      Node candidate = null;
+      while (window.count > 1 && (window.weight > maxWindowWeight || window.count > maxWindowCount))
+      {
+        candidate = window.first();
+        window.remove(candidate);
+        candidate.inWindow = false;
+        main.addLast(candidate);
+      }
+
+      while (window.weight + main.weight > maxWeight || window.count + main.count > maxCount)
+      {
+        Node victim = sweep();
+        if (victim == null)
+        {
+          victim = window.first();
+        }
+        else if (candidate != null && victim != candidate && sketch.frequency(candidate) <= sketch.frequency(victim))
+        {
+          // Not worth replacing an entry used more frequently
+          victim = candidate;
+        }
+        if (victim == candidate)
+        {
+          candidate = null;
+        }
+        evict(victim);
+      }
+    }
+
+    /** Returns the first entry of the main area which has not been read since the last sweep. */
+    private Node sweep()
+    {
+      for (long i = main.count; i >= 0; i--)
+      {
+        final Node node = main.first();
+        if (node == null || !node.referenced)
+        {
+          return node;
+        }
+        node.referenced = false;
+        main.remove(node);
+        main.addLast(node);
+      }
+      return main.first();
+    }
+
+    private void evict(Node node)
+    {
+      unlink(node);
+      removeFromMaps(node);
+      evictions.increment();
+    }
+
+    /** Removes a node from the eviction lists. Lock must be held. */
+    private void unlink(Node node)
+    {
+      if (!node.removed)
+      {
+        node.removed = true;
+        (node.inWindow ? window : main).remove(node);
+      }
+    }
+
+    private void clear()
+    {
+      window.clear();
+      main.clear();
+    }
+  }
+
+  /**
+   * A count-min sketch of 4-bit counters estimating how frequently the DNs are accessed. The counters are halved
+   * periodically so that the estimated frequencies favor recent accesses.
+   * <p>
+   * Counters are updated without synchronization: lost updates only slightly degrade the accuracy of the estimates.
+   */
+  private static final class FrequencySketch
+  {
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    private FrequencySketch(long maximumEntries)
+    {
+      final int tableSize = (int) Math.min(Long.highestOneBit(Math.max(maximumEntries, 64) - 1) << 1, 1 << 22);
+      this.table = new long[tableSize];
+      this.tableMask = tableSize - 1;
+      this.sampleSize = 10 * tableSize;
+    }
+
+    private int frequency(Node node)
+    {
+      return frequency(node.cacheEntry.getDN());
+    }
+
+    private int frequency(DN dn)
+    {
+      final int hash = spread(dn.hashCode());
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++)
+      {
+        frequency = Math.min(frequency, (int) ((table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xF));
+      }
+      return frequency;
+    }
+
+    private void increment(DN dn)
+    {
+      final int hash = spread(dn.hashCode());
+      boolean added = false;
+      for (int i = 0; i < 4; i++)
+      {
+        final int index = indexOf(hash, i);
+        final int offset = offsetOf(hash, i);
+        final long value = table[index];
+        if (((value >>> offset) & 0xF) != 0xF)
+        {
+          table[index] = value + (1L << offset);
+          added = true;
+        }
+      }
+      if (added && ++size >= sampleSize)
+      {
+        reset();
+      }
+    }
+
+    private void clear()
+    {
+      Arrays.fill(table, 0);
+      size = 0;
+    }
+
+    /** Halves all the counters. */
+    private void reset()
+    {
+      for (int i = 0; i < table.length; i++)
+      {
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      size /= 2;
+    }
+
+    private int indexOf(int hash, int i)
+    {
+      long h = (hash + SEEDS[i]) * SEEDS[i];
+      h += h >>> 32;
+      return (int) h & tableMask;
+    }
+
+    private int offsetOf(int hash, int i)
+    {
+      // Each hash function uses its own nibble of the 16 nibbles of a long
+      return (((hash >>> (i << 3)) & 3) << 2 | i) << 2;
+    }
+
+    private static int spread(int hash)
+    {
+      int h = hash * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+  }
+
+  /** Creates a new instance of this entry cache. */
+  public TinyLFUEntryCache()
+  {
+    super();
+    // All initialization should be performed in the initializeEntryCache.
+  }
+
+  @Override
+  public void initializeEntryCache(ServerContext serverContext, TinyLFUEntryCacheCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    registeredConfiguration = configuration;
+    configuration.addTinyLFUChangeListener(this);
+
+    // Read configuration and apply changes.
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_INIT, null, errorMessages
+          );
+    if (!processEntryCacheConfig(configuration, applyChanges, errorHandler)) {
+      String buffer = Utils.joinAsString(".  ", errorMessages);
+      throw new ConfigException(ERR_TINYLFUCACHE_CANNOT_INITIALIZE.get(buffer));
+    }
+
+    // The number of stripes is fixed: growing the cache later only makes the stripes larger
+    final long maxStripes = Math.min(Math.max(maxMemorySize / MIN_STRIPE_MEMORY_SIZE, 1),
+        Math.max(maxEntries / MIN_STRIPE_ENTRIES, 1));
+    final int targetStripes = Runtime.getRuntime().availableProcessors() * 4;
+    final int nbStripes = Integer.highestOneBit((int) Math.max(Math.min(maxStripes, targetStripes), 1));
+    stripes = new Stripe[nbStripes];
+    for (int i = 0; i < nbStripes; i++)
+    {
+      stripes[i] = new Stripe();
+    }
+    sketch = new FrequencySketch(Math.min(maxEntries, maxMemorySize / 1024));
+  }
+
+  @Override
+  public void finalizeEntryCache()
+  {
+    registeredConfiguration.removeTinyLFUChangeListener(this);
+    clear();
+  }
+
+  @Override
+  public boolean containsEntry(DN entryDN)
+  {
+    return entryDN != null && dnMap.containsKey(entryDN);
+  }
+
+  @Override
+  public Entry getEntry(DN entryDN)
+  {
+    sketch.increment(entryDN);
+    final Node node = dnMap.get(entryDN);
+    if (node == null)
+    {
+      misses.increment();
+      return null;
+    }
+    return hit(node);
+  }
+
+  @Override
+  public Entry getEntry(String backendID, long entryID)
+  {
+    final Node node = getNode(backendID, entryID);
+    if (node == null)
+    {
+      misses.increment();
+      return null;
+    }
+    sketch.increment(node.cacheEntry.getDN());
+    return hit(node);
+  }
+
+  private Entry hit(Node node)
+  {
+    if (!node.referenced)
+    {
+      // Avoid writing to shared memory for each read of a popular entry
+      node.referenced = true;
+    }
+    hits.increment();
+    return node.cacheEntry.getEntry();
+  }
+
+  @Override
+  public long getEntryID(DN entryDN)
+  {
+    final Node node = dnMap.get(entryDN);
+    return node != null ? node.cacheEntry.getEntryID() : -1;
+  }
+
+  @Override
+  public DN getEntryDN(String backendID, long entryID)
+  {
+    final Node node = getNode(backendID, entryID);
+    return node != null ? node.cacheEntry.getDN() : null;
+  }
+
+  private Node getNode(String backendID, long entryID)
+  {
+    final Map<Long, Node> backendMap = idMap.get(backendID);
+    return backendMap != null ? backendMap.get(entryID) : null;
+  }
+
+  @Override
+  public void putEntry(Entry entry, String backendID, long entryID)
+  {
+    put(entry, backendID, entryID, false);
+  }
+
+  @Override
+  public boolean putEntryIfAbsent(Entry entry, String backendID, long entryID)
+  {
+    return put(entry, backendID, entryID, true);
+  }
+
+  private boolean put(Entry entry, String backendID, long entryID, boolean onlyIfAbsent)
+  {
+    final DN dn = entry.getName();
+    final Node node = new Node(new CacheEntry(entry, backendID, entryID), estimateSize(entry));
+    sketch.increment(dn);
+
+    final Stripe stripe = getStripe(dn);
+    stripe.lock.lock();
+    try
+    {
+      final Node previous = onlyIfAbsent ? dnMap.putIfAbsent(dn, node) : dnMap.put(dn, node);
+      if (previous != null)
+      {
+        if (onlyIfAbsent)
+        {
+          return false;
+        }
+        stripe.unlink(previous);
+        removeFromIdMap(previous);
+      }
+      final Node previousWithId = getBackendMap(backendID).put(entryID, node);
+      if (previousWithId != null && previousWithId != previous)
+      {
+        // The entry has been renamed: when the old DN is in another stripe, the node is left for its sweep to evict
+        final DN previousDN = previousWithId.cacheEntry.getDN();
+        if (dnMap.remove(previousDN, previousWithId) && getStripe(previousDN) == stripe)
+        {
+          stripe.unlink(previousWithId);
+        }
+      }
+      stripe.add(node);
+      return true;
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      return false;
+    }
+    finally
+    {
+      stripe.lock.unlock();
+    }
+  }
+
+  private ConcurrentMap<Long, Node> getBackendMap(String backendID)
+  {
+    ConcurrentMap<Long, Node> map = idMap.get(backendID);
+    if (map == null)
+    {
+      map = new ConcurrentHashMap<>();
+      final ConcurrentMap<Long, Node> existingMap = idMap.putIfAbsent(backendID, map);
+      if (existingMap != null)
+      {
+        map = existingMap;
+      }
+    }
+    return map;
+  }
+
+  @Override
+  public void removeEntry(DN entryDN)
+  {
+    final Stripe stripe = getStripe(entryDN);
+    stripe.lock.lock();
+    try
+    {
+      final Node node = dnMap.remove(entryDN);
+      if (node != null)
+      {
+        stripe.unlink(node);
+        removeFromIdMap(node);
+      }
+    }
+    finally
+    {
+      stripe.lock.unlock();
+    }
+  }
+
+  /** Removes a node from both maps, unless it has already been replaced. */
+  private void removeFromMaps(Node node)
+  {
+    dnMap.remove(node.cacheEntry.getDN(), node);
+    removeFromIdMap(node);
+  }
+
+  private void removeFromIdMap(Node node)
+  {
+    final Map<Long, Node> map = idMap.get(node.cacheEntry.getBackendID());
+    if (map != null)
+    {
+      map.remove(node.cacheEntry.getEntryID(), node);
+    }
+  }
+
+  @Override
+  public void clear()
+  {
+    for (Stripe stripe : stripes)
+    {
+      stripe.lock.lock();
+    }
+    try
+    {
+      dnMap.clear();
+      idMap.clear();
+      for (Stripe stripe : stripes)
+      {
+        stripe.clear();
+      }
+      sketch.clear();
+    }
+    finally
+    {
+      for (Stripe stripe : stripes)
+      {
+        stripe.lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void clearBackend(String backendID)
+  {
+    final Map<Long, Node> map = idMap.remove(backendID);
+    if (map == null)
+    {
+      // No entries were in the cache for this backend.
+      return;
+    }
+
+    // Only one stripe is locked at a time, so this does not become a stop-the-world event
+    for (Node node : map.values())
+    {
+      final Stripe stripe = getStripe(node.cacheEntry.getDN());
+      stripe.lock.lock();
+      try
+      {
+        if (dnMap.remove(node.cacheEntry.getDN(), node))
+        {
+          stripe.unlink(node);
+        }
+      }
+      finally
+      {
+        stripe.lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void handleLowMemory()
+  {
+    // Drop 10% of the entries of each stripe, or all of them for small caches
+    final boolean dropAll = dnMap.size() < 1000;
+    for (Stripe stripe : stripes)
+    {
+      stripe.lock.lock();
+      try
+      {
+        long numToDrop = dropAll ? Long.MAX_VALUE : (stripe.window.count + stripe.main.count) / 10;
+        while (numToDrop-- > 0)
+        {
+          Node victim = stripe.sweep();
+          if (victim == null)
+          {
+            victim = stripe.window.first();
+            if (victim == null)
+            {
+              break;
+            }
+          }
+          stripe.evict(victim);
+        }
+      }
+      finally
+      {
+        stripe.lock.unlock();
+      }
+    }
+  }
+
+  private Stripe getStripe(DN dn)
+  {
+    final int h = dn.hashCode();
+    return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+  }
+
+  /**
+   * Estimates the memory used by a cached entry. Only the variable parts of the entry are accounted for,
+   * the rest being approximated by fixed overheads.
+   */
+  private static long estimateSize(Entry entry)
+  {
+    long size = ENTRY_OVERHEAD + 2L * entry.getName().toString().length();
+    size += ATTRIBUTE_OVERHEAD + (long) VALUE_OVERHEAD * entry.getObjectClasses().size();
+    for (Attribute attribute : entry.getAllAttributes())
+    {
+      size += ATTRIBUTE_OVERHEAD;
+      for (ByteString value : attribute)
+      {
+        size += VALUE_OVERHEAD + value.length();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public boolean isConfigurationAcceptable(EntryCacheCfg configuration,
+                                           List<LocalizableMessage> unacceptableReasons)
+  {
+    TinyLFUEntryCacheCfg config = (TinyLFUEntryCacheCfg) configuration;
+    return isConfigurationChangeAcceptable(config, unacceptableReasons);
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      TinyLFUEntryCacheCfg configuration,
+      List<LocalizableMessage> unacceptableReasons
+      )
+  {
+    boolean applyChanges = false;
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_ACCEPTABLE,
+          unacceptableReasons,
+          null
+        );
+    processEntryCacheConfig (configuration, applyChanges, errorHandler);
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(TinyLFUEntryCacheCfg configuration)
+  {
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_APPLY, null, errorMessages
+          );
+
+    // Do not apply changes unless this cache is enabled.
+    if (configuration.isEnabled()) {
+      processEntryCacheConfig (configuration, applyChanges, errorHandler);
+    }
+
+    final ConfigChangeResult changeResult = new ConfigChangeResult();
+    changeResult.setResultCode(errorHandler.getResultCode());
+    changeResult.setAdminActionRequired(errorHandler.getIsAdminActionRequired());
+    changeResult.getMessages().addAll(errorHandler.getErrorMessages());
+    return changeResult;
+  }
+
+  /**
+   * Parses the provided configuration and configure the entry cache.
+   *
+   * @param configuration  The new configuration containing the changes.
+   * @param applyChanges   If true then take into account the new configuration.
+   * @param errorHandler   An handler used to report errors.
+   *
+   * @return  <CODE>true</CODE> if configuration is acceptable,
+   *          or <CODE>false</CODE> otherwise.
+   */
+  private boolean processEntryCacheConfig(
+      TinyLFUEntryCacheCfg                configuration,
+      boolean                             applyChanges,
+      EntryCacheCommon.ConfigErrorHandler errorHandler
+      )
+  {
+    // Read configuration.
+    DN newConfigEntryDN = configuration.dn();
+    long newMaxEntries = configuration.getMaxEntries();
+    long newMaxMemorySize = configuration.getMaxMemorySize();
+
+    // Get include and exclude filters.
+    Set<SearchFilter> newIncludeFilters = EntryCacheCommon.getFilters (
+        configuration.getIncludeFilter(),
+        ERR_CACHE_INVALID_INCLUDE_FILTER,
+        errorHandler,
+        newConfigEntryDN
+        );
+    Set<SearchFilter> newExcludeFilters = EntryCacheCommon.getFilters (
+        configuration.getExcludeFilter(),
+        ERR_CACHE_INVALID_EXCLUDE_FILTER,
+        errorHandler,
+        newConfigEntryDN
+        );
+
+    if (applyChanges && errorHandler.getIsAcceptable())
+    {
+      maxEntries = newMaxEntries;
+      maxMemorySize = newMaxMemorySize;
+      setIncludeFilters(newIncludeFilters);
+      setExcludeFilters(newExcludeFilters);
+      registeredConfiguration = configuration;
+    }
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public long getCacheHits()
+  {
+    return hits.sum();
+  }
+
+  @Override
+  public long getCacheMisses()
+  {
+    return misses.sum();
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    try {
+      long memorySize = 0;
+      for (Stripe stripe : stripes)
+      {
+        memorySize += stripe.window.weight + stripe.main.weight;
+      }
+      final MonitorData monitorData = EntryCacheCommon.getGenericMonitorData(
+        getCacheHits(),
+        getCacheMisses(),
+        memorySize,
+        maxMemorySize,
+        Long.valueOf(dnMap.size()),
+        Long.valueOf(maxEntries != Integer.MAX_VALUE && maxEntries != Long.MAX_VALUE ? maxEntries : 0)
+        );
+      monitorData.add("entryCacheMisses", getCacheMisses());
+      monitorData.add("entryCacheEvictions", evictions.sum());
+      return monitorData;
+    } catch (Exception e) {
+      logger.traceException(e);
+      return new MonitorData(0);
+    }
+  }
+
+  @Override
+  public Long getCacheCount()
+  {
+    return Long.valueOf(dnMap.size());
+  }
+
+  @Override
+  public String toVerboseString()
+  {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<DN, Node> mapEntry : dnMap.entrySet())
+    {
+      final CacheEntry cacheEntry = mapEntry.getValue().cacheEntry;
+      sb.append(mapEntry.getKey());
+      sb.append(":");
+      sb.append(cacheEntry.getEntryID());
+      sb.append(":");
+      sb.append(cacheEntry.getBackendID());
+      sb.append(ServerConstants.EOL);
+    }
+
+    String verboseString = sb.toString();
+    return verboseString.length() > 0 ? verboseString : null;
+  }
+}
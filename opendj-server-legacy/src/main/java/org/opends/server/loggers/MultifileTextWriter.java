@@ -25,6 +25,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Calendar;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -85,6 +87,8 @@ class MultifileTextWriter
 
   /** The underlying output stream. */
   private MeteredStream outputStream;
+  /** The channel of the underlying output stream, for writing records which are already encoded. */
+  private FileChannel channel;
   /** The underlying buffered writer using the output stream. */
   private BufferedWriter writer;
 
@@ -166,6 +170,7 @@ class MultifileTextWriter
 
     FileOutputStream stream = new FileOutputStream(file, append);
     outputStream = new MeteredStream(stream, file.length());
+    channel = stream.getChannel();
 
     OutputStreamWriter osw = new OutputStreamWriter(outputStream, encoding);
     if(bufferSize <= 0)
@@ -562,6 +567,38 @@ class MultifileTextWriter
     }
   }
 
+  /**
+   * Writes log records which are already encoded in UTF-8, each one followed
+   * by a line separator, straight to the file channel. They are neither
+   * buffered nor subject to the auto flush setting.
+   *
+   * @param records the encoded log records to write.
+   */
+  void writeRecords(ByteBuffer records)
+  {
+    synchronized(this)
+    {
+      if(sizeLimit > 0 && outputStream.written + records.remaining() >= sizeLimit)
+      {
+        rotate();
+      }
+
+      try
+      {
+        // Make sure the records written as strings come first
+        writer.flush();
+        while (records.hasRemaining())
+        {
+          outputStream.written += channel.write(records);
+        }
+      }
+      catch(Exception e)
+      {
+        errorHandler.handleWriteError(null, e);
+      }
+    }
+  }
+
   @Override
   public void flush()
   {
@@ -0,0 +1,515 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.loggers;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.concurrent.TimeUnit.*;
+
+import static org.opends.server.util.StaticUtils.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.opendj.server.config.meta.FileBasedAccessLogPublisherCfgDefn.QueueFullPolicy;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.DirectoryThread;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.api.ServerShutdownListener;
+import org.opends.server.core.DirectoryServer;
+
+/**
+ * A Text Writer which writes log records asynchronously through a ring buffer
+ * of preallocated byte slots.
+ * <p>
+ * The threads writing log records claim a slot with a compare-and-set on the
+ * claim sequence and encode their record in UTF-8 straight into it, without
+ * any lock or intermediate string. A single writer thread copies the published
+ * slots into a direct buffer, which it writes to the log file channel in one
+ * call per batch. The writer thread parks when there is no record to write,
+ * and the thread publishing the next record unparks it. When all the slots
+ * are in use, the threads writing log records either wait for a slot to be
+ * freed, or drop their record, depending on the queue full policy.
+ * <p>
+ * The number of dropped records and the time spent by the records in the ring
+ * buffer are reported by a monitor provider.
+ */
+final class RingBufferTextWriter implements ServerShutdownListener, TextWriter
+{
+  /** The initial size of the slots. Slots grow to hold larger records. */
+  private static final int INITIAL_SLOT_SIZE = 256;
+  /** Slots which have grown above this size are shrunk back once their record is written. */
+  private static final int MAX_RETAINED_SLOT_SIZE = 8192;
+  /** The size of the direct buffer holding a batch of records. */
+  private static final int BATCH_SIZE = 64 * 1024;
+  private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(UTF_8);
+  /** How long a thread writing a record sleeps when it waits for a free slot. */
+  private static final long QUEUE_FULL_PARK_NANOS = MICROSECONDS.toNanos(10);
+
+  /** The wrapped Text Writer. */
+  private final MultifileTextWriter writer;
+  private final String name;
+
+  private final int mask;
+  private final byte[][] slots;
+  /** The length of the record held by each slot, line separator included. */
+  private final int[] lengths;
+  /** The time each slot was published, as returned by {@link System#nanoTime()}. */
+  private final long[] publishTimes;
+  /** The sequence of the record held by each slot, once published. */
+  private final AtomicLongArray publishedSequences;
+  /** The sequence of the next record to be claimed. */
+  private final AtomicLong claimSequence = new AtomicLong();
+  /** The sequence of the next record to be written: the slots of the previous ones are free. */
+  private volatile long writeSequence;
+  /** Whether the writer thread is parked, or about to park, waiting for the next record to be published. */
+  private volatile boolean isWriterParked;
+
+  private volatile QueueFullPolicy queueFullPolicy;
+  private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+  private final WriterThread writerThread;
+  private final RingBufferMonitor monitor;
+
+  private final LongAdder droppedRecords = new LongAdder();
+  /** Only updated by the writer thread. */
+  private volatile long writtenRecords;
+  /** Only updated by the writer thread. */
+  private volatile long totalLatencyNanos;
+  /** Only updated by the writer thread. */
+  private volatile long maxLatencyNanos;
+
+  /**
+   * Construct a new RingBufferTextWriter wrapper.
+   *
+   * @param name
+   *          the name of the writer thread, also used to name the monitor
+   *          provider
+   * @param capacity
+   *          the minimum number of records the ring buffer can hold, rounded
+   *          up to the next power of two
+   * @param queueFullPolicy
+   *          what to do with the records written while the ring buffer is
+   *          full
+   * @param writer
+   *          the multi-file writer where the records are written
+   */
+  RingBufferTextWriter(String name, int capacity, QueueFullPolicy queueFullPolicy, MultifileTextWriter writer)
+  {
+    this.name = name;
+    this.writer = writer;
+    this.queueFullPolicy = queueFullPolicy;
+
+    final int size = Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+    this.mask = size - 1;
+    this.slots = new byte[size][];
+    for (int i = 0; i < size; i++)
+    {
+      slots[i] = new byte[INITIAL_SLOT_SIZE];
+    }
+    this.lengths = new int[size];
+    this.publishTimes = new long[size];
+    this.publishedSequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++)
+    {
+      publishedSequences.set(i, -1);
+    }
+
+    writerThread = new WriterThread();
+    writerThread.start();
+
+    monitor = new RingBufferMonitor();
+    DirectoryServer.registerMonitorProvider(monitor);
+    DirectoryServer.registerShutdownListener(this);
+  }
+
+  /** The writer thread is responsible for writing the published records to the log file. */
+  private class WriterThread extends DirectoryThread
+  {
+    public WriterThread()
+    {
+      super(name);
+    }
+
+    /** Runs until all the claimed records are written AND we've been asked to terminate. */
+    @Override
+    public void run()
+    {
+      final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_SIZE);
+      while (!stopRequested.get() || writeSequence != claimSequence.get())
+      {
+        if (!writeBatch(batch))
+        {
+          waitForNextRecord();
+        }
+      }
+    }
+
+    /**
+     * Parks until the next record is published or a stop is requested. Checking again once the flag is set
+     * ensures a thread publishing the record meanwhile sees the flag, and unparks this thread.
+     */
+    private void waitForNextRecord()
+    {
+      isWriterParked = true;
+      try
+      {
+        while (!isPublished(writeSequence) && !stopRequested.get())
+        {
+          LockSupport.park(this);
+        }
+      }
+      finally
+      {
+        isWriterParked = false;
+      }
+    }
+  }
+
+  /**
+   * Writes a batch of published records.
+   *
+   * @return {@code false} if there was no published record to write
+   */
+  private boolean writeBatch(ByteBuffer batch)
+  {
+    final long firstSequence = writeSequence;
+    final long now = System.nanoTime();
+    long sequence = firstSequence;
+    long latencyNanos = 0;
+    long maxLatency = maxLatencyNanos;
+    while (isPublished(sequence))
+    {
+      final int index = (int) sequence & mask;
+      final int length = lengths[index];
+      if (length > batch.remaining())
+      {
+        if (batch.position() > 0)
+        {
+          // Leave it for the next batch
+          break;
+        }
+        // Larger than a whole batch
+        writer.writeRecords(ByteBuffer.wrap(slots[index], 0, length));
+      }
+      else
+      {
+        batch.put(slots[index], 0, length);
+      }
+
+      // Records published since the batch started are counted as not waiting at all
+      final long latency = Math.max(0, now - publishTimes[index]);
+      latencyNanos += latency;
+      maxLatency = Math.max(maxLatency, latency);
+      if (slots[index].length > MAX_RETAINED_SLOT_SIZE)
+      {
+        slots[index] = new byte[INITIAL_SLOT_SIZE];
+      }
+      sequence++;
+    }
+
+    if (sequence == firstSequence)
+    {
+      return false;
+    }
+    // The records are copied: free their slots
+    writeSequence = sequence;
+
+    if (batch.position() > 0)
+    {
+      batch.flip();
+      writer.writeRecords(batch);
+      batch.clear();
+    }
+    writtenRecords += sequence - firstSequence;
+    totalLatencyNanos += latencyNanos;
+    maxLatencyNanos = maxLatency;
+    return true;
+  }
+
+  private boolean isPublished(long sequence)
+  {
+    return publishedSequences.get((int) sequence & mask) == sequence;
+  }
+
+  @Override
+  public void writeRecord(String record)
+  {
+    writeRecord((CharSequence) record);
+  }
+
+  /**
+   * Write the log record asynchronously, encoding it directly into a slot of
+   * the ring buffer.
+   *
+   * @param record
+   *          the log record to write.
+   */
+  void writeRecord(CharSequence record)
+  {
+    if (stopRequested.get())
+    {
+      return;
+    }
+
+    final long sequence = claim();
+    if (sequence < 0)
+    {
+      droppedRecords.increment();
+      return;
+    }
+    final int index = (int) sequence & mask;
+    lengths[index] = encode(record, index);
+    publishTimes[index] = System.nanoTime();
+    // Not a lazy set: the writer thread must not miss this record after checking it before parking
+    publishedSequences.set(index, sequence);
+    if (isWriterParked)
+    {
+      LockSupport.unpark(writerThread);
+    }
+  }
+
+  /**
+   * Claims a free slot.
+   *
+   * @return the sequence of the claimed slot, or -1 if the record must be dropped
+   */
+  private long claim()
+  {
+    while (true)
+    {
+      final long sequence = claimSequence.get();
+      if (sequence - writeSequence < slots.length)
+      {
+        if (claimSequence.compareAndSet(sequence, sequence + 1))
+        {
+          return sequence;
+        }
+      }
+      else if (queueFullPolicy == QueueFullPolicy.DROP || stopRequested.get())
+      {
+        return -1;
+      }
+      else
+      {
+        LockSupport.parkNanos(QUEUE_FULL_PARK_NANOS);
+      }
+    }
+  }
+
+  /** Encodes the record followed by a line separator in UTF-8 into the slot, growing it if needed. */
+  private int encode(CharSequence record, int index)
+  {
+    final int size = getUTF8Length(record) + LINE_SEPARATOR.length;
+    byte[] slot = slots[index];
+    if (slot.length < size)
+    {
+      slot = new byte[size];
+      slots[index] = slot;
+    }
+
+    final int length = record.length();
+    int pos = 0;
+    for (int i = 0; i < length; i++)
+    {
+      final char c = record.charAt(i);
+      if (c < 0x80)
+      {
+        slot[pos++] = (byte) c;
+      }
+      else if (c < 0x800)
+      {
+        slot[pos++] = (byte) (0xC0 | (c >> 6));
+        slot[pos++] = (byte) (0x80 | (c & 0x3F));
+      }
+      else if (isSurrogatePair(record, i))
+      {
+        final int codePoint = Character.toCodePoint(c, record.charAt(++i));
+        slot[pos++] = (byte) (0xF0 | (codePoint >> 18));
+        slot[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        slot[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        slot[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+      }
+      else if (Character.isSurrogate(c))
+      {
+        // Unpaired surrogate, replaced like String.getBytes() does
+        slot[pos++] = '?';
+      }
+      else
+      {
+        slot[pos++] = (byte) (0xE0 | (c >> 12));
+        slot[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        slot[pos++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    System.arraycopy(LINE_SEPARATOR, 0, slot, pos, LINE_SEPARATOR.length);
+    return pos + LINE_SEPARATOR.length;
+  }
+
+  private static int getUTF8Length(CharSequence record)
+  {
+    final int length = record.length();
+    int size = length;
+    for (int i = 0; i < length; i++)
+    {
+      final char c = record.charAt(i);
+      if (c >= 0x80)
+      {
+        if (c < 0x800)
+        {
+          size += 1;
+        }
+        else if (isSurrogatePair(record, i))
+        {
+          // 4 bytes for 2 chars
+          size += 2;
+          i++;
+        }
+        else if (!Character.isSurrogate(c))
+        {
+          size += 2;
+        }
+      }
+    }
+    return size;
+  }
+
+  private static boolean isSurrogatePair(CharSequence record, int i)
+  {
+    return Character.isHighSurrogate(record.charAt(i))
+        && i + 1 < record.length()
+        && Character.isLowSurrogate(record.charAt(i + 1));
+  }
+
+  @Override
+  public void flush()
+  {
+    // Records are written straight to the file channel, nothing is buffered
+  }
+
+  @Override
+  public long getBytesWritten()
+  {
+    return writer.getBytesWritten();
+  }
+
+  /**
+   * Retrieves the wrapped writer.
+   *
+   * @return The wrapped writer used by this ring buffer writer.
+   */
+  public MultifileTextWriter getWrappedWriter()
+  {
+    return writer;
+  }
+
+  /**
+   * Sets what to do with the records written while the ring buffer is full.
+   *
+   * @param queueFullPolicy
+   *          the new queue full policy
+   */
+  public void setQueueFullPolicy(QueueFullPolicy queueFullPolicy)
+  {
+    this.queueFullPolicy = queueFullPolicy;
+  }
+
+  @Override
+  public String getShutdownListenerName()
+  {
+    return "RingBufferTextWriter Thread " + name;
+  }
+
+  @Override
+  public void processServerShutdown(LocalizableMessage reason)
+  {
+    // Don't shutdown the wrapped writer on server shutdown as it
+    // might get more write requests before the log publishers are
+    // manually shutdown just before the server process exists.
+    shutdown(false);
+  }
+
+  @Override
+  public void shutdown()
+  {
+    shutdown(true);
+  }
+
+  /**
+   * Releases any resources held by the writer.
+   *
+   * @param shutdownWrapped If the wrapped writer should be closed as well.
+   */
+  public void shutdown(boolean shutdownWrapped)
+  {
+    stopRequested.set(true);
+
+    // The writer thread writes all the claimed records before terminating
+    while (writerThread.isAlive())
+    {
+      try
+      {
+        LockSupport.unpark(writerThread);
+        writerThread.join();
+      }
+      catch (InterruptedException ex)
+      {
+        // Ignore; we gotta wait..
+      }
+    }
+
+    if (shutdownWrapped)
+    {
+      writer.shutdown();
+    }
+
+    // A writer with the same name may already have replaced this one
+    if (DirectoryServer.getMonitorProviders().get(toLowerCase(monitor.getMonitorInstanceName())) == monitor)
+    {
+      DirectoryServer.deregisterMonitorProvider(monitor);
+    }
+    DirectoryServer.deregisterShutdownListener(this);
+  }
+
+  /** Reports the state of the ring buffer and the latency of the records. */
+  private final class RingBufferMonitor extends MonitorProvider<MonitorProviderCfg>
+  {
+    @Override
+    public String getMonitorInstanceName()
+    {
+      return name;
+    }
+
+    @Override
+    public MonitorData getMonitorData()
+    {
+      final long nbWritten = writtenRecords;
+      final MonitorData monitorData = new MonitorData(6);
+      monitorData.add("ds-mon-queue-capacity", slots.length);
+      monitorData.add("ds-mon-queued-records", Math.max(0, claimSequence.get() - writeSequence));
+      monitorData.add("ds-mon-written-records", nbWritten);
+      monitorData.add("ds-mon-dropped-records", droppedRecords.sum());
+      monitorData.add("ds-mon-record-latency-mean",
+          nbWritten != 0 ? NANOSECONDS.toMicros(totalLatencyNanos / nbWritten) : 0);
+      monitorData.add("ds-mon-record-latency-max", NANOSECONDS.toMicros(maxLatencyNanos));
+      return monitorData;
+    }
+  }
+}
@@ -94,6 +94,18 @@ public final class TextAccessLogPublisher extends
     return startupPublisher;
   }
 
+  /** The log records are formatted in builders reused by each thread. */
+  private static final ThreadLocal<StringBuilder> RECORD_BUILDERS = new ThreadLocal<StringBuilder>()
+  {
+    @Override
+    protected StringBuilder initialValue()
+    {
+      return new StringBuilder(128);
+    }
+  };
+  /** Builders which have grown above this capacity for a large record are not reused. */
+  private static final int MAX_RETAINED_RECORD_BUILDER_CAPACITY = 8192;
+
   private TextWriter writer;
   private FileBasedAccessLogPublisherCfg cfg;
   private boolean isCombinedMode;
@@ -111,9 +123,9 @@ public final class TextAccessLogPublisher extends
       // Determine the writer we are using. If we were writing asynchronously,
       // we need to modify the underlying writer.
       TextWriter currentWriter;
-      if (writer instanceof AsynchronousTextWriter)
+      if (writer instanceof RingBufferTextWriter)
       {
-        currentWriter = ((AsynchronousTextWriter) writer).getWrappedWriter();
+        currentWriter = ((RingBufferTextWriter) writer).getWrappedWriter();
       }
       else
       {
@@ -127,15 +139,19 @@ public final class TextAccessLogPublisher extends
 
         if (config.isAsynchronous())
         {
-          if (writer instanceof AsynchronousTextWriter)
+          if (writer instanceof RingBufferTextWriter)
           {
             if (hasAsyncConfigChanged(config))
             {
               // reinstantiate
-              final AsynchronousTextWriter previousWriter = (AsynchronousTextWriter) writer;
+              final RingBufferTextWriter previousWriter = (RingBufferTextWriter) writer;
               writer = newAsyncWriter(mfWriter, config);
               previousWriter.shutdown(false);
             }
+            else
+            {
+              ((RingBufferTextWriter) writer).setQueueFullPolicy(config.getQueueFullPolicy());
+            }
           }
           else
           {
@@ -145,10 +161,10 @@ public final class TextAccessLogPublisher extends
         }
         else
         {
-          if (writer instanceof AsynchronousTextWriter)
+          if (writer instanceof RingBufferTextWriter)
           {
             // asynchronous is being turned off, remove async text writers.
-            final AsynchronousTextWriter previousWriter = (AsynchronousTextWriter) writer;
+            final RingBufferTextWriter previousWriter = (RingBufferTextWriter) writer;
             writer = mfWriter;
             previousWriter.shutdown(false);
           }
@@ -282,10 +298,38 @@ public final class TextAccessLogPublisher extends
     return !cfg.dn().equals(newConfig.dn()) && cfg.isAutoFlush() != newConfig.isAutoFlush();
   }
 
-  private AsynchronousTextWriter newAsyncWriter(MultifileTextWriter mfWriter, FileBasedAccessLogPublisherCfg config)
+  private RingBufferTextWriter newAsyncWriter(MultifileTextWriter mfWriter, FileBasedAccessLogPublisherCfg config)
   {
-    String name = "Asynchronous Text Writer for " + config.dn();
-    return new AsynchronousTextWriter(name, config.getQueueSize(), config.isAutoFlush(), mfWriter);
+    // Also names the monitor entry of the writer
+    String name = config.dn().rdn().getFirstAVA().getAttributeValue() + " Writer";
+    return new RingBufferTextWriter(name, config.getQueueSize(), config.getQueueFullPolicy(), mfWriter);
+  }
+
+  /** Returns an empty builder for formatting a log record, reused by the current thread. */
+  private static StringBuilder newRecordBuilder()
+  {
+    StringBuilder buffer = RECORD_BUILDERS.get();
+    if (buffer.capacity() > MAX_RETAINED_RECORD_BUILDER_CAPACITY)
+    {
+      buffer = new StringBuilder(128);
+      RECORD_BUILDERS.set(buffer);
+    }
+    buffer.setLength(0);
+    return buffer;
+  }
+
+  private void writeRecord(StringBuilder buffer)
+  {
+    final TextWriter currentWriter = writer;
+    if (currentWriter instanceof RingBufferTextWriter)
+    {
+      // Encoded straight from the builder
+      ((RingBufferTextWriter) currentWriter).writeRecord(buffer);
+    }
+    else
+    {
+      currentWriter.writeRecord(buffer.toString());
+    }
   }
 
   @Override
@@ -343,10 +387,10 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(abandonOperation, "ABANDON", CATEGORY_REQUEST, buffer);
     appendAbandonRequest(abandonOperation, buffer);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -357,7 +401,7 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(abandonOperation, "ABANDON", CATEGORY_RESPONSE, buffer);
     if (isCombinedMode)
     {
@@ -366,7 +410,7 @@ public final class TextAccessLogPublisher extends
     appendResultCodeAndMessage(buffer, abandonOperation);
     logAdditionalLogItems(abandonOperation, buffer);
     appendEtime(buffer, abandonOperation);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -377,10 +421,10 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(addOperation, "ADD", CATEGORY_REQUEST, buffer);
     appendAddRequest(addOperation, buffer);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -391,7 +435,7 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(addOperation, "ADD", CATEGORY_RESPONSE, buffer);
     if (isCombinedMode)
     {
@@ -401,7 +445,7 @@ public final class TextAccessLogPublisher extends
     logAdditionalLogItems(addOperation, buffer);
     appendLabelIfNotNull(buffer, "authzDN", addOperation.getProxiedAuthorizationDN());
     appendEtime(buffer, addOperation);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -412,10 +456,10 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(bindOperation, "BIND", CATEGORY_REQUEST, buffer);
     appendBindRequest(bindOperation, buffer);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -426,7 +470,7 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(bindOperation, "BIND", CATEGORY_RESPONSE, buffer);
     if (isCombinedMode)
     {
@@ -478,7 +522,7 @@ public final class TextAccessLogPublisher extends
 
     appendEtime(buffer, bindOperation);
 
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -489,10 +533,10 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(compareOperation, "COMPARE", CATEGORY_REQUEST, buffer);
     appendCompareRequest(compareOperation, buffer);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -503,7 +547,7 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(compareOperation, "COMPARE", CATEGORY_RESPONSE, buffer);
     if (isCombinedMode)
     {
@@ -513,7 +557,7 @@ public final class TextAccessLogPublisher extends
     logAdditionalLogItems(compareOperation, buffer);
     appendLabelIfNotNull(buffer, "authzDN", compareOperation.getProxiedAuthorizationDN());
     appendEtime(buffer, compareOperation);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -525,14 +569,14 @@ public final class TextAccessLogPublisher extends
     }
 
     final long connectionID = clientConnection.getConnectionID();
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     buffer.append('[').append(TimeThread.getUserDefinedTime(timeStampFormat)).append(']');
     buffer.append(" CONNECT conn=").append(connectionID);
     buffer.append(" from=").append(clientConnection.getClientHostPort());
     buffer.append(" to=").append(clientConnection.getServerHostPort());
     buffer.append(" protocol=").append(clientConnection.getProtocol());
 
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -543,10 +587,10 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(deleteOperation, "DELETE", CATEGORY_REQUEST, buffer);
     appendDeleteRequest(deleteOperation, buffer);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -557,7 +601,7 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(deleteOperation, "DELETE", CATEGORY_RESPONSE, buffer);
     if (isCombinedMode)
     {
@@ -567,7 +611,7 @@ public final class TextAccessLogPublisher extends
     logAdditionalLogItems(deleteOperation, buffer);
     appendLabelIfNotNull(buffer, "authzDN", deleteOperation.getProxiedAuthorizationDN());
     appendEtime(buffer, deleteOperation);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -580,13 +624,13 @@ public final class TextAccessLogPublisher extends
     }
 
     final long connectionID = clientConnection.getConnectionID();
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     buffer.append('[').append(TimeThread.getUserDefinedTime(timeStampFormat)).append(']');
     buffer.append(" DISCONNECT conn=").append(connectionID);
     appendLabel(buffer, "reason", disconnectReason);
     appendLabelIfNotNull(buffer, "msg", message);
 
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -597,10 +641,10 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(extendedOperation, "EXTENDED", CATEGORY_REQUEST, buffer);
     appendExtendedRequest(extendedOperation, buffer);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -611,7 +655,7 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(extendedOperation, "EXTENDED", CATEGORY_RESPONSE, buffer);
     if (isCombinedMode)
     {
@@ -634,7 +678,7 @@ public final class TextAccessLogPublisher extends
     logAdditionalLogItems(extendedOperation, buffer);
     appendEtime(buffer, extendedOperation);
 
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -645,10 +689,10 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(modifyDNOperation, "MODIFYDN", CATEGORY_REQUEST, buffer);
     appendModifyDNRequest(modifyDNOperation, buffer);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -659,7 +703,7 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(modifyDNOperation, "MODIFYDN", CATEGORY_RESPONSE, buffer);
     if (isCombinedMode)
     {
@@ -669,7 +713,7 @@ public final class TextAccessLogPublisher extends
     logAdditionalLogItems(modifyDNOperation, buffer);
     appendLabelIfNotNull(buffer, "authzDN", modifyDNOperation.getProxiedAuthorizationDN());
     appendEtime(buffer, modifyDNOperation);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -680,10 +724,10 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(modifyOperation, "MODIFY", CATEGORY_REQUEST, buffer);
     appendModifyRequest(modifyOperation, buffer);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -694,7 +738,7 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(modifyOperation, "MODIFY", CATEGORY_RESPONSE, buffer);
     if (isCombinedMode)
     {
@@ -704,7 +748,7 @@ public final class TextAccessLogPublisher extends
     logAdditionalLogItems(modifyOperation, buffer);
     appendLabelIfNotNull(buffer, "authzDN", modifyOperation.getProxiedAuthorizationDN());
     appendEtime(buffer, modifyOperation);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -715,10 +759,10 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(192);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(searchOperation, "SEARCH", CATEGORY_REQUEST, buffer);
     appendSearchRequest(searchOperation, buffer);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -729,7 +773,7 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(128);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(searchOperation, "SEARCH", CATEGORY_RESPONSE, buffer);
     if (isCombinedMode)
     {
@@ -740,7 +784,7 @@ public final class TextAccessLogPublisher extends
     logAdditionalLogItems(searchOperation, buffer);
     appendLabelIfNotNull(buffer, "authzDN", searchOperation.getProxiedAuthorizationDN());
     appendEtime(buffer, searchOperation);
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
@@ -751,14 +795,14 @@ public final class TextAccessLogPublisher extends
       return;
     }
 
-    final StringBuilder buffer = new StringBuilder(100);
+    final StringBuilder buffer = newRecordBuilder();
     appendHeader(unbindOperation, "UNBIND", CATEGORY_REQUEST, buffer);
     if (unbindOperation.isSynchronizationOperation())
     {
       buffer.append(" type=synchronization");
     }
 
-    writer.writeRecord(buffer.toString());
+    writeRecord(buffer);
   }
 
   @Override
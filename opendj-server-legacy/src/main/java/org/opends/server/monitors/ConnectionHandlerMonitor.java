@@ -13,6 +13,7 @@
  *
  * Copyright 2006-2010 Sun Microsystems, Inc.
  * Portions Copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.monitors;
 
@@ -30,12 +31,13 @@ import org.opends.server.api.MonitorData;
 import org.opends.server.api.MonitorProvider;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.types.HostPort;
+import org.opends.server.util.DirectBufferPool;
 import org.forgerock.opendj.ldap.schema.ObjectClass;
 
 /**
  * This class implements a monitor provider that will report generic information
  * for an enabled Directory Server connection handler, including its protocol,
- * listeners, and established connections.
+ * listeners, established connections, and the usage of its buffer pool.
  */
 public class ConnectionHandlerMonitor
        extends MonitorProvider<MonitorProviderCfg>
@@ -122,6 +124,16 @@ public class ConnectionHandlerMonitor
       attrs.add(ATTR_MONITOR_CONNHANDLER_CONNECTION, connectionSummaries);
     }
 
+    final DirectBufferPool bufferPool = connectionHandler.getBufferPool();
+    if (bufferPool != null)
+    {
+      attrs.add(ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_LEASED_BUFFERS, bufferPool.getLeasedBuffers());
+      attrs.add(ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_LEASED_BYTES, bufferPool.getLeasedBytes());
+      attrs.add(ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_IDLE_BUFFERS, bufferPool.getIdleBuffers());
+      attrs.add(ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_IDLE_BYTES, bufferPool.getIdleBytes());
+      attrs.add(ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_ALLOCATED_BUFFERS, bufferPool.getAllocatedBuffers());
+    }
+
     return attrs;
   }
 }
@@ -0,0 +1,102 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.monitors;
+
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.Group;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.core.GroupManager;
+import org.opends.server.extensions.StaticGroup;
+
+/**
+ * This class defines a Directory Server monitor that can be used to provide
+ * information about the groups known by the group manager. Note that the
+ * information reported is obtained with no locking, so it may not be entirely
+ * consistent.
+ */
+public class GroupManagerMonitor extends MonitorProvider<MonitorProviderCfg>
+{
+  /** The name to use for the monitor attribute that provides the number of group instances. */
+  public static final String ATTR_GROUP_COUNT = "groupCount";
+  /** The name to use for the monitor attribute that provides the number of static groups. */
+  public static final String ATTR_STATIC_GROUP_COUNT = "staticGroupCount";
+  /** The name to use for the monitor attribute that provides the total number of static group members. */
+  public static final String ATTR_STATIC_GROUP_MEMBER_COUNT = "staticGroupMemberCount";
+  /** The name to use for the monitor attribute that provides the largest number of members of a static group. */
+  public static final String ATTR_STATIC_GROUP_MAX_MEMBER_COUNT = "staticGroupMaxMemberCount";
+  /**
+   * The name to use for the monitor attribute that provides the estimated memory
+   * used by the membership lists of the static groups, in bytes.
+   */
+  public static final String ATTR_STATIC_GROUP_MEMORY_USAGE = "staticGroupMemoryUsage";
+  /**
+   * The name to use for the monitor attribute that provides the number of members
+   * held by the transitive membership index of the static groups.
+   */
+  public static final String ATTR_INDEXED_MEMBER_COUNT = "indexedMemberCount";
+
+  /** The group manager with which this monitor is associated. */
+  private final GroupManager groupManager;
+
+  /**
+   * Creates a new monitor for the provided group manager.
+   *
+   * @param  groupManager  The group manager with which this monitor is associated.
+   */
+  public GroupManagerMonitor(GroupManager groupManager)
+  {
+    this.groupManager = groupManager;
+  }
+
+  @Override
+  public String getMonitorInstanceName()
+  {
+    return "Groups";
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    long groupCount = 0;
+    long staticGroupCount = 0;
+    long staticGroupMemberCount = 0;
+    long staticGroupMaxMemberCount = 0;
+    long staticGroupMemoryUsage = 0;
+    for (Group<?> group : groupManager.getGroupInstances())
+    {
+      groupCount++;
+      if (group instanceof StaticGroup)
+      {
+        StaticGroup staticGroup = (StaticGroup) group;
+        int memberCount = staticGroup.getMemberCount();
+        staticGroupCount++;
+        staticGroupMemberCount += memberCount;
+        staticGroupMaxMemberCount = Math.max(staticGroupMaxMemberCount, memberCount);
+        staticGroupMemoryUsage += staticGroup.getMemoryUsage();
+      }
+    }
+
+    final MonitorData monitorAttrs = new MonitorData(6);
+    monitorAttrs.add(ATTR_GROUP_COUNT, groupCount);
+    monitorAttrs.add(ATTR_STATIC_GROUP_COUNT, staticGroupCount);
+    monitorAttrs.add(ATTR_STATIC_GROUP_MEMBER_COUNT, staticGroupMemberCount);
+    monitorAttrs.add(ATTR_STATIC_GROUP_MAX_MEMBER_COUNT, staticGroupMaxMemberCount);
+    monitorAttrs.add(ATTR_STATIC_GROUP_MEMORY_USAGE, staticGroupMemoryUsage);
+    monitorAttrs.add(ATTR_INDEXED_MEMBER_COUNT, groupManager.getIndexedMemberCount());
+    return monitorAttrs;
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.monitors;
+
+import static org.opends.server.util.StaticUtils.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.types.Operation;
+import org.opends.server.types.OperationType;
+
+/**
+ * This class defines a monitor provider that reports the distribution of the
+ * latencies of the operations processed by a connection handler or a backend.
+ * <p>
+ * For each operation type, the elapsed processing time (etime) and the time
+ * spent waiting in the work queue are recorded in HDR histograms. Recording is
+ * wait-free, so that the worker threads never contend on this monitor. The
+ * histograms are swapped every {@link #WINDOW_SECONDS} seconds, and the monitor
+ * entry reports the percentiles of the last complete window, in microseconds.
+ */
+public class OperationLatencyMonitor
+       extends MonitorProvider<MonitorProviderCfg>
+       implements Runnable
+{
+  /** The duration of the window over which the latencies are reported. */
+  public static final int WINDOW_SECONDS = 60;
+
+  /** The number of significant decimal digits kept by the histograms. */
+  private static final int SIGNIFICANT_DIGITS = 2;
+
+  private static final OperationType[] OPERATION_TYPES = OperationType.values();
+
+  /** The name of this monitor. */
+  private final String monitorName;
+
+  /** The recorders of the etimes, lazily created for each operation type. */
+  private final AtomicReferenceArray<Recorder> etimeRecorders = new AtomicReferenceArray<>(OPERATION_TYPES.length);
+  /** The recorders of the queue wait times, lazily created for each operation type. */
+  private final AtomicReferenceArray<Recorder> queueWaitRecorders =
+      new AtomicReferenceArray<>(OPERATION_TYPES.length);
+
+  /** The etimes recorded during the last complete window. */
+  private volatile Histogram[] lastEtimes = new Histogram[OPERATION_TYPES.length];
+  /** The queue wait times recorded during the last complete window. */
+  private volatile Histogram[] lastQueueWaits = new Histogram[OPERATION_TYPES.length];
+  /** The time at which the last complete window started. */
+  private volatile long lastWindowStartTime = System.currentTimeMillis();
+  /** The time at which the last complete window ended. */
+  private volatile long lastWindowEndTime = lastWindowStartTime;
+
+  /**
+   * Creates a new operation latency monitor.
+   *
+   * @param monitorName
+   *          The name of this monitor.
+   */
+  public OperationLatencyMonitor(String monitorName)
+  {
+    this.monitorName = monitorName;
+  }
+
+  @Override
+  public void initializeMonitorProvider(MonitorProviderCfg configuration)
+  {
+    scheduleUpdate(this, WINDOW_SECONDS, WINDOW_SECONDS, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public String getMonitorInstanceName()
+  {
+    return monitorName;
+  }
+
+  /**
+   * Records the latencies of an operation whose response has been sent.
+   *
+   * @param operation
+   *          The completed operation.
+   */
+  public void recordOperation(Operation operation)
+  {
+    long etime = operation.getProcessingNanoTime();
+    if (etime < 0)
+    {
+      etime = TimeUnit.MILLISECONDS.toNanos(operation.getProcessingTime());
+    }
+    recordOperation(operation.getOperationType(), etime, operation.getQueueWaitNanoTime());
+  }
+
+  /**
+   * Records the latencies of an operation.
+   *
+   * @param operationType
+   *          The type of the operation.
+   * @param etimeNanos
+   *          The processing time of the operation, in nanoseconds.
+   * @param queueWaitNanos
+   *          The time the operation waited before its processing started, in
+   *          nanoseconds, or a negative value if it is not known.
+   */
+  public void recordOperation(OperationType operationType, long etimeNanos, long queueWaitNanos)
+  {
+    final int index = operationType.ordinal();
+    record(etimeRecorders, index, etimeNanos);
+    record(queueWaitRecorders, index, queueWaitNanos);
+  }
+
+  private void record(AtomicReferenceArray<Recorder> recorders, int index, long nanos)
+  {
+    if (nanos < 0)
+    {
+      return;
+    }
+    Recorder recorder = recorders.get(index);
+    if (recorder == null)
+    {
+      recorders.compareAndSet(index, null, new Recorder(SIGNIFICANT_DIGITS));
+      recorder = recorders.get(index);
+    }
+    recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+
+  /** Closes the current window and makes it the one reported by this monitor. */
+  @Override
+  public void run()
+  {
+    final Histogram[] etimes = new Histogram[OPERATION_TYPES.length];
+    final Histogram[] queueWaits = new Histogram[OPERATION_TYPES.length];
+    for (int i = 0; i < OPERATION_TYPES.length; i++)
+    {
+      etimes[i] = getIntervalHistogram(etimeRecorders.get(i));
+      queueWaits[i] = getIntervalHistogram(queueWaitRecorders.get(i));
+    }
+
+    final long now = System.currentTimeMillis();
+    lastEtimes = etimes;
+    lastQueueWaits = queueWaits;
+    lastWindowStartTime = lastWindowEndTime;
+    lastWindowEndTime = now;
+  }
+
+  private Histogram getIntervalHistogram(Recorder recorder)
+  {
+    // a new histogram is allocated rather than recycled because readers may still use the previous one
+    return recorder != null ? recorder.getIntervalHistogram() : null;
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    final Histogram[] etimes = lastEtimes;
+    final Histogram[] queueWaits = lastQueueWaits;
+
+    final MonitorData attrs = new MonitorData(2 + OPERATION_TYPES.length * 14);
+    attrs.add("ds-mon-latency-window-start", new Date(lastWindowStartTime));
+    attrs.add("ds-mon-latency-window-end", new Date(lastWindowEndTime));
+    for (OperationType operationType : OPERATION_TYPES)
+    {
+      final String prefix = "ds-mon-" + toLowerCase(operationType.getOperationName());
+      addHistogram(attrs, prefix + "-etime", etimes[operationType.ordinal()]);
+      addHistogram(attrs, prefix + "-queue-wait", queueWaits[operationType.ordinal()]);
+    }
+    return attrs;
+  }
+
+  private void addHistogram(MonitorData attrs, String prefix, Histogram histogram)
+  {
+    if (histogram == null)
+    {
+      // this operation type has never been recorded
+      return;
+    }
+    attrs.add(prefix + "-count", histogram.getTotalCount());
+    attrs.add(prefix + "-mean", Math.round(histogram.getMean()));
+    attrs.add(prefix + "-p50", histogram.getValueAtPercentile(50));
+    attrs.add(prefix + "-p90", histogram.getValueAtPercentile(90));
+    attrs.add(prefix + "-p99", histogram.getValueAtPercentile(99));
+    attrs.add(prefix + "-p999", histogram.getValueAtPercentile(99.9));
+    attrs.add(prefix + "-max", histogram.getMaxValue());
+  }
+}
@@ -54,6 +54,7 @@ import org.opends.server.core.ModifyDNOperation;
 import org.opends.server.core.ModifyOperation;
 import org.opends.server.core.SearchOperation;
 import org.opends.server.core.ServerContext;
+import org.opends.server.monitors.OperationLatencyMonitor;
 import org.opends.server.protocols.ldap.AddResponseProtocolOp;
 import org.opends.server.protocols.ldap.BindResponseProtocolOp;
 import org.opends.server.protocols.ldap.CompareResponseProtocolOp;
@@ -178,6 +179,8 @@ final class HTTPClientConnection extends ClientConnection
 
   /** The statistics tracker associated with this client connection. */
   private final HTTPStatistics statTracker;
+  /** The operation latencies measured for the connection handler. */
+  private final OperationLatencyMonitor latencyMonitor;
   private boolean useNanoTime;
 
   /** Total execution time for this request. */
@@ -245,6 +248,7 @@ final class HTTPClientConnection extends ClientConnection
     this.protocol = request.getVersion();
 
     this.statTracker = this.connectionHandler.getStatTracker();
+    this.latencyMonitor = this.connectionHandler.getLatencyMonitor();
 
     this.keepStats = connectionHandler.keepStats();
     if (this.keepStats)
@@ -326,6 +330,7 @@ final class HTTPClientConnection extends ClientConnection
     {
       this.statTracker.updateRequestMonitoringData(method, time);
       this.statTracker.updateOperationMonitoringData(operation.getOperationType(), time);
+      this.latencyMonitor.recordOperation(operation);
     }
 
     OperationWithPromise op = this.operationsInProgress.get(operation.getMessageID());
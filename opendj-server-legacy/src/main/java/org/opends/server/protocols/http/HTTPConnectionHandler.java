@@ -88,6 +88,7 @@ import org.opends.server.core.ServerContext;
 import org.opends.server.extensions.NullKeyManagerProvider;
 import org.opends.server.loggers.HTTPAccessLogger;
 import org.opends.server.monitors.ClientConnectionMonitorProvider;
+import org.opends.server.monitors.OperationLatencyMonitor;
 import org.opends.server.protocols.internal.InternalClientConnection;
 import org.opends.server.types.AbstractOperation;
 import org.opends.server.types.DirectoryException;
@@ -150,6 +151,9 @@ public class HTTPConnectionHandler extends ConnectionHandler<HTTPConnectionHandl
   /** The set of statistics collected for this connection handler. */
   private HTTPStatistics statTracker;
 
+  /** The operation latencies measured for this connection handler. */
+  private OperationLatencyMonitor latencyMonitor;
+
   /** The client connection monitor provider associated with this connection handler. */
   private ClientConnectionMonitorProvider connMonitor;
 
@@ -298,6 +302,12 @@ public class HTTPConnectionHandler extends ConnectionHandler<HTTPConnectionHandl
     {
       DirectoryServer.deregisterMonitorProvider(statTracker);
     }
+
+    if (latencyMonitor != null)
+    {
+      DirectoryServer.deregisterMonitorProvider(latencyMonitor);
+      latencyMonitor.finalizeMonitorProvider();
+    }
   }
 
   @Override
@@ -405,6 +415,16 @@ public class HTTPConnectionHandler extends ConnectionHandler<HTTPConnectionHandl
     return statTracker;
   }
 
+  /**
+   * Retrieves the operation latencies measured for this connection handler.
+   *
+   * @return The operation latencies measured for this connection handler.
+   */
+  public OperationLatencyMonitor getLatencyMonitor()
+  {
+    return latencyMonitor;
+  }
+
   @Override
   public void initializeConnectionHandler(ServerContext serverContext, HTTPConnectionHandlerCfg config)
       throws ConfigException, InitializationException
@@ -441,6 +461,10 @@ public class HTTPConnectionHandler extends ConnectionHandler<HTTPConnectionHandl
     statTracker = new HTTPStatistics(handlerName + " Statistics");
     DirectoryServer.registerMonitorProvider(statTracker);
 
+    latencyMonitor = new OperationLatencyMonitor(handlerName + " Latency");
+    latencyMonitor.initializeMonitorProvider(null);
+    DirectoryServer.registerMonitorProvider(latencyMonitor);
+
     connMonitor = new ClientConnectionMonitorProvider(this);
     DirectoryServer.registerMonitorProvider(connMonitor);
 
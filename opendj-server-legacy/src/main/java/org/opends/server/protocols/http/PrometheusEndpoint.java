@@ -0,0 +1,258 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.protocols.http;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.forgerock.http.Handler;
+import org.forgerock.http.HttpApplication;
+import org.forgerock.http.HttpApplicationException;
+import org.forgerock.http.io.Buffer;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.LdapException;
+import org.forgerock.opendj.rest2ldap.AuthenticatedConnectionContext;
+import org.forgerock.opendj.server.config.server.PrometheusEndpointCfg;
+import org.forgerock.services.context.Context;
+import org.forgerock.util.Factory;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.Promises;
+import org.opends.server.api.HttpEndpoint;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.ServerContext;
+import org.opends.server.monitors.StackTraceMonitorProvider;
+import org.opends.server.types.Attribute;
+
+/**
+ * An HTTP endpoint exposing the numeric values of the monitor providers in the
+ * OpenMetrics text format, for scraping by Prometheus.
+ * <p>
+ * Each numeric monitor attribute becomes a metric named after the attribute,
+ * with a {@code monitor} label holding the name of the monitor provider. The
+ * values are read directly from the monitor providers: no entry of the
+ * monitoring backend is built, which keeps scraping cheap.
+ */
+public final class PrometheusEndpoint extends HttpEndpoint<PrometheusEndpointCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+  private static final String METRIC_PREFIX = "opendj_";
+  private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?");
+  /** Reading it grants access to the metrics, so they are protected like the monitoring backend. */
+  private static final DN MONITOR_DN = DN.valueOf("cn=monitor");
+
+  /**
+   * Create a new PrometheusEndpoint with the supplied configuration.
+   *
+   * @param configuration
+   *          Configuration to use for the {@link HttpApplication}
+   * @param serverContext
+   *          Server of this LDAP server
+   */
+  public PrometheusEndpoint(PrometheusEndpointCfg configuration, ServerContext serverContext)
+  {
+    super(configuration, serverContext);
+  }
+
+  @Override
+  public HttpApplication newHttpApplication()
+  {
+    return new PrometheusHttpApplication();
+  }
+
+  /** Serves the metrics to the authorized GET requests. */
+  private static final class PrometheusHttpApplication implements HttpApplication, Handler
+  {
+    @Override
+    public Handler start() throws HttpApplicationException
+    {
+      return this;
+    }
+
+    @Override
+    public Promise<Response, NeverThrowsException> handle(Context context, Request request)
+    {
+      if (!"GET".equalsIgnoreCase(request.getMethod()))
+      {
+        return Promises.newResultPromise(new Response(Status.METHOD_NOT_ALLOWED));
+      }
+
+      try
+      {
+        context.asContext(AuthenticatedConnectionContext.class).getConnection().readEntry(MONITOR_DN, "1.1");
+      }
+      catch (LdapException e)
+      {
+        logger.traceException(e);
+        return Promises.newResultPromise(new Response(Status.FORBIDDEN));
+      }
+
+      final StringBuilder metrics = new StringBuilder(64 * 1024);
+      appendMetrics(DirectoryServer.getMonitorProviders().values(), metrics);
+      final Response response = new Response(Status.OK).setEntity(metrics.toString());
+      response.getHeaders().put("Content-Type", CONTENT_TYPE);
+      return Promises.newResultPromise(response);
+    }
+
+    @Override
+    public void stop()
+    {
+      // Nothing to do
+    }
+
+    @Override
+    public Factory<Buffer> getBufferFactory()
+    {
+      return null;
+    }
+  }
+
+  /**
+   * Appends the numeric values of the provided monitor providers in the
+   * OpenMetrics text format.
+   *
+   * @param monitorProviders
+   *          the monitor providers whose values must be exposed
+   * @param buffer
+   *          the buffer where to append the metrics
+   */
+  static void appendMetrics(Collection<? extends MonitorProvider<?>> monitorProviders, StringBuilder buffer)
+  {
+    // Samples must be grouped by metric family, whereas monitor data is grouped by monitor provider
+    final Map<String, StringBuilder> families = new TreeMap<>();
+    for (MonitorProvider<?> monitorProvider : monitorProviders)
+    {
+      if (monitorProvider instanceof StackTraceMonitorProvider)
+      {
+        // Expensive to compute, and without any numeric value
+        continue;
+      }
+
+      final MonitorData monitorData;
+      try
+      {
+        monitorData = monitorProvider.getMonitorData();
+      }
+      catch (RuntimeException e)
+      {
+        logger.traceException(e);
+        continue;
+      }
+
+      final String label = escapeLabelValue(monitorProvider.getMonitorInstanceName());
+      for (Attribute attribute : monitorData)
+      {
+        final String value = toMetricValue(attribute);
+        if (value != null)
+        {
+          final String name = toMetricName(attribute.getAttributeDescription().getNameOrOID());
+          StringBuilder family = families.get(name);
+          if (family == null)
+          {
+            family = new StringBuilder();
+            families.put(name, family);
+          }
+          family.append(name).append("{monitor=\"").append(label).append("\"} ").append(value).append('\n');
+        }
+      }
+    }
+
+    for (Map.Entry<String, StringBuilder> family : families.entrySet())
+    {
+      buffer.append("# TYPE ").append(family.getKey()).append(" unknown\n");
+      buffer.append(family.getValue());
+    }
+    buffer.append("# EOF\n");
+  }
+
+  /** Returns the value of a single valued numeric or boolean attribute, {@code null} for any other attribute. */
+  private static String toMetricValue(Attribute attribute)
+  {
+    final Iterator<ByteString> values = attribute.iterator();
+    if (!values.hasNext())
+    {
+      return null;
+    }
+    final String value = values.next().toString();
+    if (values.hasNext())
+    {
+      return null;
+    }
+    if (NUMBER.matcher(value).matches())
+    {
+      return value;
+    }
+    if ("true".equalsIgnoreCase(value))
+    {
+      return "1";
+    }
+    if ("false".equalsIgnoreCase(value))
+    {
+      return "0";
+    }
+    return null;
+  }
+
+  private static String toMetricName(String attributeName)
+  {
+    final StringBuilder name = new StringBuilder(METRIC_PREFIX.length() + attributeName.length());
+    name.append(METRIC_PREFIX);
+    for (int i = 0; i < attributeName.length(); i++)
+    {
+      final char c = attributeName.charAt(i);
+      final boolean isValid = ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || ('0' <= c && c <= '9') || c == '_';
+      name.append(isValid ? c : '_');
+    }
+    return name.toString();
+  }
+
+  private static String escapeLabelValue(String value)
+  {
+    final StringBuilder escaped = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++)
+    {
+      final char c = value.charAt(i);
+      switch (c)
+      {
+      case '\\':
+        escaped.append("\\\\");
+        break;
+      case '"':
+        escaped.append("\\\"");
+        break;
+      case '\n':
+        escaped.append("\\n");
+        break;
+      default:
+        escaped.append(c);
+        break;
+      }
+    }
+    return escaped.toString();
+  }
+}
@@ -13,12 +13,14 @@
  *
  * Copyright 2006-2009 Sun Microsystems, Inc.
  * Portions Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.protocols.ldap;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.IllegalBlockingModeException;
 import java.nio.channels.ReadableByteChannel;
 
@@ -28,6 +30,7 @@ import org.forgerock.opendj.ldap.ByteSequenceReader;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ByteStringBuilder;
 import org.forgerock.opendj.ldap.DecodeException;
+import org.opends.server.util.DirectBufferPool;
 
 /**
  * This class is for reading ASN.1 elements from a readable byte
@@ -64,14 +67,26 @@ import org.forgerock.opendj.ldap.DecodeException;
  */
 final class ASN1ByteChannelReader implements ASN1Reader
 {
+  /** The channel buffer of the readers which do not hold a buffer leased from the pool. */
+  private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
   /** The byte channel to read from. */
   private final ReadableByteChannel byteChannel;
 
   /** The wrapped ASN.1 reader. */
   private final ASN1Reader reader;
 
+  /** The pool of the channel buffers, or {@code null} if this reader owns its buffer. */
+  private final DirectBufferPool bufferPool;
+
+  /** The size of the channel buffer. */
+  private final int bufferSize;
+
   /** The NIO ByteStringBuilder that stores any immediate data read off the channel. */
-  private final ByteBuffer byteBuffer;
+  private ByteBuffer byteBuffer;
+
+  /** Whether this reader is closed, so that it cannot lease a buffer anymore. */
+  private boolean isClosed;
 
   /**
    * The save buffer used to store any unprocessed data waiting to be read as
@@ -272,10 +287,43 @@ final class ASN1ByteChannelReader implements ASN1Reader
    */
   ASN1ByteChannelReader(ReadableByteChannel channel, int bufferSize,
       int maxElementSize)
+  {
+    this(channel, bufferSize, maxElementSize, null);
+  }
+
+  /**
+   * Creates a new ASN.1 byte channel reader whose source is the
+   * provided readable byte channel, having a user defined buffer
+   * size, and user defined maximum BER element size. The channel
+   * buffer is leased from the provided pool only while data are read
+   * off the channel: it is returned to the pool by
+   * {@link #releaseBuffer()}.
+   *
+   * @param channel
+   *          The readable byte channel to use.
+   * @param bufferSize
+   *          The buffer size to use when reading from the channel.
+   * @param maxElementSize
+   *          The max ASN.1 element size this reader will read.
+   * @param bufferPool
+   *          The pool of the channel buffers, or {@code null} if this
+   *          reader must allocate its own buffer.
+   */
+  ASN1ByteChannelReader(ReadableByteChannel channel, int bufferSize,
+      int maxElementSize, DirectBufferPool bufferPool)
   {
     this.byteChannel = channel;
-    this.byteBuffer = ByteBuffer.allocate(bufferSize);
-    this.byteBuffer.flip();
+    this.bufferPool = bufferPool;
+    this.bufferSize = bufferSize;
+    if (bufferPool != null)
+    {
+      this.byteBuffer = EMPTY_BUFFER;
+    }
+    else
+    {
+      this.byteBuffer = ByteBuffer.allocate(bufferSize);
+      this.byteBuffer.flip();
+    }
     this.saveBuffer = new ByteStringBuilder();
     this.saveBufferReader = saveBuffer.asReader();
 
@@ -294,6 +342,7 @@ final class ASN1ByteChannelReader implements ASN1Reader
    * <li>Clear the save buffer if everything was read.
    * <li>Append any unread data from the NIO byte buffer to the save
    * buffer.
+   * <li>Lease the NIO byte buffer from the pool if it was released.
    * <li>Clear the NIO byte buffer and read from the channel.
    * </ul>
    *
@@ -302,8 +351,13 @@ final class ASN1ByteChannelReader implements ASN1Reader
    * @throws IOException
    *           If an exception occurs while reading from the channel.
    */
-  public int processChannelData() throws IOException
+  public synchronized int processChannelData() throws IOException
   {
+    if (isClosed)
+    {
+      throw new ClosedChannelException();
+    }
+
     // Clear the save buffer if we have read all of it
     if (saveBufferReader.remaining() == 0)
     {
@@ -317,6 +371,10 @@ final class ASN1ByteChannelReader implements ASN1Reader
       saveBuffer.appendBytes(byteBuffer, byteBuffer.remaining());
     }
 
+    if (byteBuffer == EMPTY_BUFFER)
+    {
+      byteBuffer = bufferPool.lease(bufferSize);
+    }
     byteBuffer.clear();
     try
     {
@@ -331,6 +389,33 @@ final class ASN1ByteChannelReader implements ASN1Reader
     }
   }
 
+  /**
+   * Returns the NIO byte buffer to the pool, so that an idle connection
+   * does not hold any channel buffer. This method should only be called
+   * when no more data can be read from the channel. Any unread data is
+   * kept in the save buffer, which is also shrunk if everything was read.
+   * This method does nothing if the reader does not use a pool.
+   */
+  synchronized void releaseBuffer()
+  {
+    if (byteBuffer == EMPTY_BUFFER || bufferPool == null)
+    {
+      return;
+    }
+
+    if (byteBuffer.remaining() > 0)
+    {
+      saveBuffer.appendBytes(byteBuffer, byteBuffer.remaining());
+    }
+    if (saveBufferReader.remaining() == 0)
+    {
+      saveBuffer.clearAndTruncate(bufferSize, 0);
+      saveBufferReader.rewind();
+    }
+    bufferPool.release(byteBuffer);
+    byteBuffer = EMPTY_BUFFER;
+  }
+
   /**
    * Determines if a complete ASN.1 element is ready to be read from
    * channel.
@@ -496,6 +581,16 @@ final class ASN1ByteChannelReader implements ASN1Reader
 
   @Override
   public void close() throws IOException {
+    synchronized (this)
+    {
+      isClosed = true;
+      if (byteBuffer != EMPTY_BUFFER && bufferPool != null)
+      {
+        // Another thread may still be reading the last elements: do not recycle the buffer
+        bufferPool.discard(byteBuffer);
+        byteBuffer = EMPTY_BUFFER;
+      }
+    }
     reader.close();
     byteChannel.close();
   }
@@ -13,6 +13,7 @@
  *
  * Copyright 2006-2010 Sun Microsystems, Inc.
  * Portions Copyright 2010-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.protocols.ldap;
 
@@ -76,6 +77,7 @@ import org.opends.server.extensions.ConnectionSecurityProvider;
 import org.opends.server.extensions.RedirectingByteChannel;
 import org.opends.server.extensions.TLSByteChannel;
 import org.opends.server.extensions.TLSCapableConnection;
+import org.opends.server.monitors.OperationLatencyMonitor;
 import org.opends.server.types.AuthenticationType;
 import org.opends.server.types.CancelRequest;
 import org.opends.server.types.CancelResult;
@@ -399,6 +401,8 @@ public final class LDAPClientConnection extends ClientConnection implements
   private final LDAPConnectionHandler connectionHandler;
   /** The statistics tracker associated with this client connection. */
   private final LDAPStatistics statTracker;
+  /** The operation latencies measured for the connection handler. */
+  private final OperationLatencyMonitor latencyMonitor;
   private final boolean useNanoTime;
 
   /** The connection ID assigned to this connection. */
@@ -464,6 +468,7 @@ public final class LDAPClientConnection extends ClientConnection implements
     serverPort = socket.getLocalPort();
 
     statTracker = this.connectionHandler.getStatTracker();
+    latencyMonitor = this.connectionHandler.getLatencyMonitor();
     if (keepStats)
     {
       statTracker.updateConnect();
@@ -478,7 +483,8 @@ public final class LDAPClientConnection extends ClientConnection implements
 
     tlsChannel = RedirectingByteChannel.getRedirectingByteChannel(timeoutClientChannel);
     saslChannel = RedirectingByteChannel.getRedirectingByteChannel(tlsChannel);
-    this.asn1Reader = new ASN1ByteChannelReader(saslChannel, bufferSize, connectionHandler.getMaxRequestSize());
+    this.asn1Reader = new ASN1ByteChannelReader(saslChannel, bufferSize, connectionHandler.getMaxRequestSize(),
+        connectionHandler.getBufferPool());
 
     if (connectionHandler.useSSL())
     {
@@ -672,6 +678,7 @@ public final class LDAPClientConnection extends ClientConnection implements
         this.statTracker.updateOperationMonitoringData(
                 operation.getOperationType(),
                 time);
+        latencyMonitor.recordOperation(operation);
     }
 
     // Avoid sending the response if one has already been sent. This may happen
@@ -1436,7 +1443,9 @@ public final class LDAPClientConnection extends ClientConnection implements
   }
 
   /**
-   * Process data read.
+   * Process data read. The read buffer is returned to the pool of the
+   * connection handler whenever no more data can be read, so that idle
+   * connections do not hold any read buffer.
    *
    * @return number of bytes read if this connection is still valid
    *         or negative integer to indicate an error otherwise
@@ -1447,6 +1456,7 @@ public final class LDAPClientConnection extends ClientConnection implements
     {
       // We should wait for the bind or startTLS to finish before
       // reading any more data off the socket.
+      asn1Reader.releaseBuffer();
       return 0;
     }
 
@@ -1457,9 +1467,14 @@ public final class LDAPClientConnection extends ClientConnection implements
       {
         // The connection has been closed by the client. Disconnect
         // and return.
+        asn1Reader.releaseBuffer();
         disconnect(DisconnectReason.CLIENT_DISCONNECT, false, null);
         return -1;
       }
+      if (result == 0)
+      {
+        asn1Reader.releaseBuffer();
+      }
       return result;
     }
     catch (Exception e)
@@ -1482,6 +1497,7 @@ public final class LDAPClientConnection extends ClientConnection implements
         LocalizableMessage m = ERR_LDAP_CLIENT_IO_ERROR_BEFORE_READ.get();
         disconnect(DisconnectReason.CLIENT_DISCONNECT, true, m);
       }
+      asn1Reader.releaseBuffer();
 
       return -1;
     }
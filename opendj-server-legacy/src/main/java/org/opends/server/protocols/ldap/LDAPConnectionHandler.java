@@ -13,6 +13,7 @@
  *
  * Copyright 2006-2010 Sun Microsystems, Inc.
  * Portions Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.protocols.ldap;
 
@@ -55,7 +56,9 @@ import org.opends.server.core.WorkQueueStrategy;
 import org.opends.server.extensions.NullKeyManagerProvider;
 import org.opends.server.extensions.TLSByteChannel;
 import org.opends.server.monitors.ClientConnectionMonitorProvider;
+import org.opends.server.monitors.OperationLatencyMonitor;
 import org.opends.server.types.*;
+import org.opends.server.util.DirectBufferPool;
 import org.opends.server.util.SelectableCertificateKeyManager;
 import org.opends.server.util.StaticUtils;
 
@@ -106,6 +109,9 @@ public final class LDAPConnectionHandler extends
   /** SSL instance name used in context creation. */
   private static final String SSL_CONTEXT_INSTANCE_NAME = "TLS";
 
+  /** The maximum number of idle buffers of each size kept in the buffer pool. */
+  private static final int MAX_IDLE_BUFFERS = 256;
+
   /** The current configuration state. */
   private LDAPConnectionHandlerCfg currentConfig;
 
@@ -158,6 +164,9 @@ public final class LDAPConnectionHandler extends
   /** The set of statistics collected for this connection handler. */
   private LDAPStatistics statTracker;
 
+  /** The operation latencies measured for this connection handler. */
+  private OperationLatencyMonitor latencyMonitor;
+
   /** The client connection monitor provider associated with this connection handler. */
   private ClientConnectionMonitorProvider connMonitor;
 
@@ -176,6 +185,9 @@ public final class LDAPConnectionHandler extends
   /** Queueing strategy. */
   private final QueueingStrategy queueingStrategy;
 
+  /** The pool of the read and TLS buffers, leased by the client connections while they have data in flight. */
+  private final DirectBufferPool bufferPool = new DirectBufferPool(MAX_IDLE_BUFFERS);
+
   /**
    * The condition variable that will be used by the start method to wait for
    * the socket port to be opened and ready to process requests before
@@ -348,6 +360,12 @@ public final class LDAPConnectionHandler extends
       DirectoryServer.deregisterMonitorProvider(statTracker);
     }
 
+    if (latencyMonitor != null)
+    {
+      DirectoryServer.deregisterMonitorProvider(latencyMonitor);
+      latencyMonitor.finalizeMonitorProvider();
+    }
+
     DirectoryServer.deregisterSupportedLDAPVersion(2, this);
     DirectoryServer.deregisterSupportedLDAPVersion(3, this);
 
@@ -527,6 +545,12 @@ public final class LDAPConnectionHandler extends
     return (int) currentConfig.getBufferSize();
   }
 
+  @Override
+  public DirectBufferPool getBufferPool()
+  {
+    return bufferPool;
+  }
+
   @Override
   public String getProtocol()
   {
@@ -559,6 +583,16 @@ public final class LDAPConnectionHandler extends
     return statTracker;
   }
 
+  /**
+   * Retrieves the operation latencies measured for this connection handler.
+   *
+   * @return The operation latencies measured for this connection handler.
+   */
+  public OperationLatencyMonitor getLatencyMonitor()
+  {
+    return latencyMonitor;
+  }
+
   @Override
   public void initializeConnectionHandler(ServerContext serverContext, LDAPConnectionHandlerCfg config)
       throws ConfigException, InitializationException
@@ -674,6 +708,10 @@ public final class LDAPConnectionHandler extends
     statTracker = new LDAPStatistics(handlerName + " Statistics");
     DirectoryServer.registerMonitorProvider(statTracker);
 
+    latencyMonitor = new OperationLatencyMonitor(handlerName + " Latency");
+    latencyMonitor.initializeMonitorProvider(null);
+    DirectoryServer.registerMonitorProvider(latencyMonitor);
+
     connMonitor = new ClientConnectionMonitorProvider(this);
     DirectoryServer.registerMonitorProvider(connMonitor);
 
@@ -1224,7 +1262,7 @@ public final class LDAPConnectionHandler extends
       throws DirectoryException
   {
     SSLEngine sslEngine = createSSLEngine(currentConfig, sslContext);
-    return new TLSByteChannel(channel, sslEngine);
+    return new TLSByteChannel(channel, sslEngine, bufferPool);
   }
 
   private SSLEngine createSSLEngine(LDAPConnectionHandlerCfg config,
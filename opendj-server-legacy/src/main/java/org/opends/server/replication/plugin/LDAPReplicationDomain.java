@@ -49,7 +49,6 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -296,10 +295,14 @@ public final class LDAPReplicationDomain extends ReplicationDomain
 
   private final DSRSShutdownSync dsrsShutdownSync;
   /**
-   * The update to replay message queue where the listener thread is going to
-   * push incoming update messages.
+   * The scheduler dispatching the incoming update messages pushed by the
+   * listener thread to the replay threads.
    */
-  private final BlockingQueue<UpdateToReplay> updateToReplayQueue;
+  private final ReplayScheduler replayScheduler;
+  /** The number of updates of this domain waiting in the replay queues. */
+  private final AtomicInteger replayQueueSize = new AtomicInteger();
+  /** The time in milliseconds spent in the replay queues by the last update dequeued for replay. */
+  private volatile long lastReplayQueueTime;
   /** The number of naming conflicts successfully resolved. */
   private final AtomicInteger numResolvedNamingConflicts = new AtomicInteger();
   /** The number of modify conflicts successfully resolved. */
@@ -534,17 +537,17 @@ public final class LDAPReplicationDomain extends ReplicationDomain
    * Creates a new ReplicationDomain using configuration from configEntry.
    *
    * @param configuration    The configuration of this ReplicationDomain.
-   * @param updateToReplayQueue The queue for update messages to replay.
+   * @param replayScheduler The scheduler dispatching update messages to the replay threads.
    * @param dsrsShutdownSync Synchronization object for shutdown of combined DS/RS instances.
    * @throws ConfigException In case of invalid configuration.
    */
   LDAPReplicationDomain(ReplicationDomainCfg configuration,
-      BlockingQueue<UpdateToReplay> updateToReplayQueue,
+      ReplayScheduler replayScheduler,
       DSRSShutdownSync dsrsShutdownSync) throws ConfigException
   {
     super(configuration, -1);
 
-    this.updateToReplayQueue = updateToReplayQueue;
+    this.replayScheduler = replayScheduler;
     this.dsrsShutdownSync = dsrsShutdownSync;
 
     // Get assured configuration
@@ -2274,6 +2277,17 @@ public final class LDAPReplicationDomain extends ReplicationDomain
     remotePendingChanges.markInProgress(msg);
   }
 
+  /**
+   * Records that the specified update has been taken from the replay queues by a replay thread.
+   * @param updateToReplay the update about to be replayed
+   */
+  void replayDequeued(UpdateToReplay updateToReplay)
+  {
+    replayScheduler.dequeued(updateToReplay);
+    replayQueueSize.decrementAndGet();
+    lastReplayQueueTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - updateToReplay.getQueuedTime());
+  }
+
   /**
    * Create and replay a synchronized Operation from an UpdateMsg.
    *
@@ -2410,6 +2424,7 @@ public final class LDAPReplicationDomain extends ReplicationDomain
                *  Note: When msg is a DeleteMsg, the DeleteOperation is properly
                *  created with subtreeDelete request control when needed.
                */
+              remotePendingChanges.updateDNs(msg);
               nextOp = msg.createOperation(conn);
             }
           }
@@ -4267,18 +4282,24 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
         return true;
       }
 
-      // Put update message into the replay queue
-      // (block until some place in the queue is available)
+      // Mark the update as "in progress" now that updates are received in order:
+      // replay threads may take them from their queues in any order, but the
+      // dependencies between them must be computed in the order of their CSNs.
+      markInProgress(msg);
+
+      // Put update message into the replay queue of the thread in charge of its entry
+      // (block until the updates of this domain waiting for replay are less than its quota)
       final UpdateToReplay updateToReplay = new UpdateToReplay(msg, this);
+      replayQueueSize.incrementAndGet();
       while (!isListenerShuttingDown())
       {
         // loop until we can offer to the queue or shutdown was initiated
         try
         {
-          if (updateToReplayQueue.offer(updateToReplay, 1, TimeUnit.SECONDS))
+          if (replayScheduler.offer(updateToReplay, 1, TimeUnit.SECONDS))
           {
             // successful offer to the queue, let's exit the loop
-            break;
+            return false;
           }
         }
         catch (InterruptedException e)
@@ -4287,6 +4308,9 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
           Thread.currentThread().interrupt();
         }
       }
+      // The update will not be replayed: it must not block the changes depending on it
+      replayQueueSize.decrementAndGet();
+      remotePendingChanges.unmarkInProgress(msg);
 
       return false;
     }
@@ -4306,6 +4330,9 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
     attributes.add("remote-pending-changes-size", remotePendingChanges.getQueueSize());
     attributes.add("dependent-changes-size", remotePendingChanges.getDependentChangesSize());
     attributes.add("changes-in-progress-size", remotePendingChanges.changesInProgressSize());
+    final int queueSize = replayQueueSize.get();
+    attributes.add("replay-queue-size", queueSize);
+    attributes.add("replay-lag-millis", queueSize > 0 ? lastReplayQueueTime : 0L);
   }
 
   /**
@@ -21,7 +21,6 @@ import static org.opends.server.replication.plugin.ReplicationRepairRequestContr
 import static org.opends.server.util.ServerConstants.*;
 import static org.opends.server.util.StaticUtils.*;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -29,9 +28,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -53,6 +50,7 @@ import org.opends.server.api.SynchronizationProvider;
 import org.opends.server.core.BackendConfigManager;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.core.ServerContext;
+import org.opends.server.replication.protocol.Session;
 import org.opends.server.replication.service.DSRSShutdownSync;
 import org.opends.server.types.BackupConfig;
 import org.opends.server.types.Control;
@@ -98,10 +96,8 @@ public class MultimasterReplication
   private ReplicationServerListener replicationServerListener;
   private static final Map<DN, LDAPReplicationDomain> domains = new ConcurrentHashMap<>(4);
   private static final DSRSShutdownSync dsrsShutdownSync = new DSRSShutdownSync();
-  /** The queue of received update messages, to be treated by the ReplayThread threads. */
-  private static final BlockingQueue<UpdateToReplay> updateToReplayQueue = new LinkedBlockingQueue<>(10000);
-  /** The list of ReplayThread threads. */
-  private static final List<ReplayThread> replayThreads = new ArrayList<>();
+  /** Dispatches the received update messages to the queues of the ReplayThread threads. */
+  private static final ReplayScheduler replayScheduler = new ReplayScheduler();
   /** The configurable number of replay threads. */
   private static int replayThreadNumber = 10;
 
@@ -194,7 +190,7 @@ public class MultimasterReplication
     try
     {
       final LDAPReplicationDomain domain = new LDAPReplicationDomain(
-          configuration, updateToReplayQueue, dsrsShutdownSync);
+          configuration, replayScheduler, dsrsShutdownSync);
       if (domains.isEmpty())
       {
         // Create the threads that will process incoming update messages
@@ -230,7 +226,7 @@ public class MultimasterReplication
       throws ConfigException
   {
     final LDAPReplicationDomain domain =
-        new LDAPReplicationDomain(configuration, queue, dsrsShutdownSync);
+        new LDAPReplicationDomain(configuration, new ReplayScheduler(queue), dsrsShutdownSync);
     domains.put(domain.getBaseDN(), domain);
     return domain;
   }
@@ -271,6 +267,7 @@ public class MultimasterReplication
 
     replayThreadNumber = getNumberOfReplayThreadsOrDefault(cfg);
     connectionTimeoutMS = (int) Math.min(cfg.getConnectionTimeout(), Integer.MAX_VALUE);
+    configureSessionWriters(cfg);
 
     //  Create the list of domains that are already defined.
     for (String name : cfg.listReplicationDomains())
@@ -296,41 +293,23 @@ public class MultimasterReplication
     return value == null ? Platform.computeNumberOfThreads(16, 2.0f) : value;
   }
 
-  /** Create the threads that will wait for incoming update messages. */
-  private static synchronized void createReplayThreads()
+  private void configureSessionWriters(ReplicationSynchronizationProviderCfg cfg)
   {
-    replayThreads.clear();
+    Integer value = cfg.getNumSessionWriterThreads();
+    Session.configureSessionWriters(value == null ? Session.DEFAULT_SESSION_WRITERS : value,
+        cfg.getSessionWriteTimeout());
+  }
 
-    ReentrantLock switchQueueLock = new ReentrantLock();
-    for (int i = 0; i < replayThreadNumber; i++)
-    {
-      ReplayThread replayThread = new ReplayThread(updateToReplayQueue, switchQueueLock);
-      replayThread.start();
-      replayThreads.add(replayThread);
-    }
+  /** Create the threads that will wait for incoming update messages. */
+  private static void createReplayThreads()
+  {
+    replayScheduler.start(replayThreadNumber);
   }
 
   /** Stop the threads that are waiting for incoming update messages. */
-  private static synchronized void stopReplayThreads()
+  private static void stopReplayThreads()
   {
-    //  stop the replay threads
-    for (ReplayThread replayThread : replayThreads)
-    {
-      replayThread.shutdown();
-    }
-
-    for (ReplayThread replayThread : replayThreads)
-    {
-      try
-      {
-        replayThread.join();
-      }
-      catch(InterruptedException e)
-      {
-        Thread.currentThread().interrupt();
-      }
-    }
-    replayThreads.clear();
+    replayScheduler.stop();
   }
 
   @Override
@@ -754,6 +733,7 @@ public class MultimasterReplication
 
     connectionTimeoutMS = (int) Math.min(configuration.getConnectionTimeout(),
         Integer.MAX_VALUE);
+    configureSessionWriters(configuration);
 
     return new ConfigChangeResult();
   }
@@ -16,13 +16,19 @@
  */
 package org.opends.server.replication.plugin;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -50,6 +56,12 @@ import org.opends.server.types.Operation;
  *
  * It is used to know when the ServerState must be updated and to compute
  * the dependencies between operations.
+ * <p>
+ * The changes in progress are indexed by the DNs they affect, so that the
+ * dependencies of a change are found with a few lookups on its DN and on the
+ * DNs of its ancestors, whatever the number of changes in progress. A change
+ * depending on other changes is released as soon as all these changes are
+ * committed.
  *
  * One of this object is instantiated for each ReplicationDomain.
  */
@@ -60,26 +72,95 @@ final class RemotePendingChanges
   private final SortedMap<CSN, PendingChange> pendingChanges = new TreeMap<>();
 
   /**
-   * A sorted set containing the list of PendingChanges that have
-   * not been replayed correctly because they are dependent on
-   * another change to be completed.
+   * The changes currently being replayed, including the ones discovered to be
+   * dependent on other changes in progress.
    */
-  @GuardedBy("dependentChangesLock")
-  private final SortedSet<PendingChange> dependentChanges = new TreeSet<>();
+  @GuardedBy("activeChangesLock")
+  private final Map<CSN, ActiveChange> activeChanges = new HashMap<>();
+  /** The changes in progress, indexed by the DN of their target entry. */
+  @GuardedBy("activeChangesLock")
+  private final Map<DN, List<ActiveChange>> changesByDN = new HashMap<>();
+  /** The modify DN changes in progress, indexed by the new DN of their target entry. */
+  @GuardedBy("activeChangesLock")
+  private final Map<DN, List<ActiveChange>> changesByNewDN = new HashMap<>();
   /**
-   * {@code activeAndDependentChanges} also contains changes discovered to be dependent
-   * on currently in progress changes.
+   * The delete and modify DN changes in progress, indexed by the DN of their
+   * target entry and by the DNs of all its ancestors.
    */
-  private final ConcurrentSkipListSet<PendingChange> activeAndDependentChanges = new ConcurrentSkipListSet<>();
+  @GuardedBy("activeChangesLock")
+  private final Map<DN, List<ActiveChange>> changesBySuperiorDN = new HashMap<>();
+  /**
+   * The changes which have not been replayed correctly because they are
+   * dependent on other changes, and whose dependencies are now all committed.
+   */
+  @GuardedBy("activeChangesLock")
+  private final SortedSet<ActiveChange> releasedChanges = new TreeSet<>();
+  /** The number of changes waiting for their dependencies or to be replayed after being released. */
+  @GuardedBy("activeChangesLock")
+  private int dependentChangesCount;
 
   private final ReentrantReadWriteLock pendingChangesLock = new ReentrantReadWriteLock(true);
   private final ReentrantReadWriteLock.ReadLock pendingChangesReadLock = pendingChangesLock.readLock();
   private final ReentrantReadWriteLock.WriteLock pendingChangesWriteLock = pendingChangesLock.writeLock();
-  private final ReentrantLock dependentChangesLock = new ReentrantLock();
+  /** Lock for the changes in progress. Never acquire the pending changes lock while holding it. */
+  private final ReentrantLock activeChangesLock = new ReentrantLock();
 
   /** The ServerState that will be updated when LDAPUpdateMsg are fully replayed. */
   private final ServerState state;
 
+  /** A change in progress, with the DNs under which it is indexed and the changes depending on it. */
+  private static final class ActiveChange implements Comparable<ActiveChange>
+  {
+    private final PendingChange pendingChange;
+    /** The DN of the target entry when this change has been indexed. */
+    private DN indexedDN;
+    /** The new DN of the target entry when this modify DN change has been indexed. */
+    private DN indexedNewDN;
+    /** Whether this change is indexed under the ancestors of its target entry. */
+    private boolean isIndexedBySuperiorDN;
+    /** The number of changes in progress this change is waiting for. */
+    private int blockingChangesCount;
+    /** Whether this change is waiting for its dependencies or to be replayed after being released. */
+    private boolean isDependent;
+    /** The changes waiting for this change to be committed. */
+    private List<ActiveChange> dependentChanges;
+
+    private ActiveChange(PendingChange pendingChange)
+    {
+      this.pendingChange = pendingChange;
+    }
+
+    private CSN getCSN()
+    {
+      return pendingChange.getCSN();
+    }
+
+    private LDAPUpdateMsg getLDAPUpdateMsg()
+    {
+      return pendingChange.getLDAPUpdateMsg();
+    }
+
+    private boolean isOlderThan(CSN csn)
+    {
+      return getCSN().isOlderThan(csn);
+    }
+
+    @Override
+    public int compareTo(ActiveChange o)
+    {
+      return pendingChange.compareTo(o.pendingChange);
+    }
+
+    @Override
+    public String toString()
+    {
+      return getClass().getSimpleName()
+          + " csn=" + getCSN().toStringUI()
+          + ", blockingChangesCount=" + blockingChangesCount
+          + ", isDependent=" + isDependent;
+    }
+  }
+
   /**
    * Creates a new RemotePendingChanges using the provided ServerState.
    *
@@ -116,7 +197,15 @@ final class RemotePendingChanges
    */
   public int changesInProgressSize()
   {
-    return activeAndDependentChanges.size();
+    activeChangesLock.lock();
+    try
+    {
+      return activeChanges.size();
+    }
+    finally
+    {
+      activeChangesLock.unlock();
+    }
   }
 
   /**
@@ -126,14 +215,14 @@ final class RemotePendingChanges
    */
   public int getDependentChangesSize()
   {
-    dependentChangesLock.lock();
+    activeChangesLock.lock();
     try
     {
-      return dependentChanges.size();
+      return dependentChangesCount;
     }
     finally
     {
-      dependentChangesLock.unlock();
+      activeChangesLock.unlock();
     }
   }
 
@@ -177,7 +266,7 @@ final class RemotePendingChanges
         throw new NoSuchElementException();
       }
       curChange.setCommitted(true);
-      activeAndDependentChanges.remove(curChange);
+      removeActiveChange(csn);
 
       final Iterator<PendingChange> it = pendingChanges.values().iterator();
       while (it.hasNext())
@@ -200,18 +289,188 @@ final class RemotePendingChanges
     }
   }
 
+  /** Removes a committed change from the changes in progress, and releases the changes waiting only for it. */
+  private void removeActiveChange(CSN csn)
+  {
+    activeChangesLock.lock();
+    try
+    {
+      final ActiveChange change = activeChanges.remove(csn);
+      if (change == null)
+      {
+        return;
+      }
+      unindex(change);
+      if (change.isDependent)
+      {
+        change.isDependent = false;
+        dependentChangesCount--;
+        releasedChanges.remove(change);
+      }
+      if (change.dependentChanges != null)
+      {
+        for (ActiveChange dependentChange : change.dependentChanges)
+        {
+          if (--dependentChange.blockingChangesCount == 0 && dependentChange.isDependent)
+          {
+            releasedChanges.add(dependentChange);
+          }
+        }
+        change.dependentChanges = null;
+      }
+    }
+    finally
+    {
+      activeChangesLock.unlock();
+    }
+  }
+
+  /**
+   * Marks the specified message as the one currently processed by a replay thread.
+   *
+   * @param msg
+   *          the message being processed
+   */
   public void markInProgress(LDAPUpdateMsg msg)
   {
-    pendingChangesReadLock.lock();
+    final PendingChange pendingChange = getPendingChange(msg.getCSN());
+    if (pendingChange == null)
+    {
+      return;
+    }
+    activeChangesLock.lock();
     try
     {
-      activeAndDependentChanges.add(pendingChanges.get(msg.getCSN()));
+      getOrAddActiveChange(pendingChange);
     }
     finally
     {
-      pendingChangesReadLock.unlock();
+      activeChangesLock.unlock();
     }
   }
+
+  /**
+   * Removes the specified message from the messages in progress, because it
+   * will not be replayed. The changes which depended only on it are released.
+   *
+   * @param msg
+   *          the message which was marked in progress
+   */
+  public void unmarkInProgress(LDAPUpdateMsg msg)
+  {
+    removeActiveChange(msg.getCSN());
+  }
+
+  /**
+   * Updates the DNs under which the specified message in progress is indexed,
+   * after they have been changed by the resolution of a naming conflict.
+   *
+   * @param msg
+   *          the message being processed
+   */
+  public void updateDNs(LDAPUpdateMsg msg)
+  {
+    activeChangesLock.lock();
+    try
+    {
+      final ActiveChange change = activeChanges.get(msg.getCSN());
+      if (change != null)
+      {
+        unindex(change);
+        index(change);
+      }
+    }
+    finally
+    {
+      activeChangesLock.unlock();
+    }
+  }
+
+  @GuardedBy("activeChangesLock")
+  private ActiveChange getOrAddActiveChange(PendingChange pendingChange)
+  {
+    ActiveChange change = activeChanges.get(pendingChange.getCSN());
+    if (change == null)
+    {
+      change = new ActiveChange(pendingChange);
+      activeChanges.put(pendingChange.getCSN(), change);
+      index(change);
+    }
+    return change;
+  }
+
+  @GuardedBy("activeChangesLock")
+  private void index(ActiveChange change)
+  {
+    final LDAPUpdateMsg msg = change.getLDAPUpdateMsg();
+    change.indexedDN = msg.getDN();
+    addToIndex(changesByDN, change.indexedDN, change);
+    if (msg instanceof ModifyDNMsg)
+    {
+      change.indexedNewDN = ((ModifyDNMsg) msg).getNewDN();
+      addToIndex(changesByNewDN, change.indexedNewDN, change);
+    }
+    change.isIndexedBySuperiorDN = msg instanceof DeleteMsg || msg instanceof ModifyDNMsg;
+    if (change.isIndexedBySuperiorDN)
+    {
+      for (DN dn = change.indexedDN; dn != null; dn = dn.parent())
+      {
+        addToIndex(changesBySuperiorDN, dn, change);
+      }
+    }
+  }
+
+  @GuardedBy("activeChangesLock")
+  private void unindex(ActiveChange change)
+  {
+    removeFromIndex(changesByDN, change.indexedDN, change);
+    removeFromIndex(changesByNewDN, change.indexedNewDN, change);
+    if (change.isIndexedBySuperiorDN)
+    {
+      for (DN dn = change.indexedDN; dn != null; dn = dn.parent())
+      {
+        removeFromIndex(changesBySuperiorDN, dn, change);
+      }
+    }
+    change.indexedDN = null;
+    change.indexedNewDN = null;
+    change.isIndexedBySuperiorDN = false;
+  }
+
+  private static void addToIndex(Map<DN, List<ActiveChange>> index, DN dn, ActiveChange change)
+  {
+    if (dn == null)
+    {
+      return;
+    }
+    List<ActiveChange> changes = index.get(dn);
+    if (changes == null)
+    {
+      changes = new ArrayList<>(1);
+      index.put(dn, changes);
+    }
+    changes.add(change);
+  }
+
+  private static void removeFromIndex(Map<DN, List<ActiveChange>> index, DN dn, ActiveChange change)
+  {
+    if (dn == null)
+    {
+      return;
+    }
+    final List<ActiveChange> changes = index.get(dn);
+    if (changes != null && changes.remove(change) && changes.isEmpty())
+    {
+      index.remove(dn);
+    }
+  }
+
+  private static List<ActiveChange> getFromIndex(Map<DN, List<ActiveChange>> index, DN dn)
+  {
+    final List<ActiveChange> changes = dn != null ? index.get(dn) : null;
+    return changes != null ? changes : Collections.<ActiveChange> emptyList();
+  }
+
   /**
    * Get the first update in the list that have some dependencies cleared.
    *
@@ -219,44 +478,56 @@ final class RemotePendingChanges
    */
   public LDAPUpdateMsg getNextUpdate()
   {
-    pendingChangesReadLock.lock();
-    dependentChangesLock.lock();
+    activeChangesLock.lock();
     try
     {
-      if (!dependentChanges.isEmpty())
+      if (releasedChanges.isEmpty())
       {
-        PendingChange firstDependentChange = dependentChanges.first();
-        if (pendingChanges.firstKey().isNewerThanOrEqualTo(firstDependentChange.getCSN()))
-        {
-          dependentChanges.remove(firstDependentChange);
-          return firstDependentChange.getLDAPUpdateMsg();
-        }
+        return null;
       }
-      return null;
+      final ActiveChange releasedChange = releasedChanges.first();
+      releasedChanges.remove(releasedChange);
+      releasedChange.isDependent = false;
+      dependentChangesCount--;
+      return releasedChange.getLDAPUpdateMsg();
     }
     finally
     {
-      dependentChangesLock.unlock();
-      pendingChangesReadLock.unlock();
+      activeChangesLock.unlock();
     }
   }
 
   /**
-   * Mark the first pendingChange as dependent on the second PendingChange.
-   * @param dependentChange The PendingChange that depend on the second
-   *                        PendingChange.
+   * Mark the change as dependent on the provided changes in progress.
+   *
+   * @param change
+   *          The change that depends on the blocking changes.
+   * @param blockingChanges
+   *          The changes in progress which must be committed before the change can be replayed.
+   * @return A boolean indicating if the change has some dependencies.
    */
-  private void addDependency(PendingChange dependentChange)
+  @GuardedBy("activeChangesLock")
+  private boolean addDependencies(ActiveChange change, Set<ActiveChange> blockingChanges)
   {
-    dependentChangesLock.lock();
-    try
+    if (blockingChanges.isEmpty())
     {
-      dependentChanges.add(dependentChange);
+      return false;
     }
-    finally
+    for (ActiveChange blockingChange : blockingChanges)
+    {
+      if (blockingChange.dependentChanges == null)
+      {
+        blockingChange.dependentChanges = new ArrayList<>(1);
+      }
+      blockingChange.dependentChanges.add(change);
+    }
+    change.blockingChangesCount += blockingChanges.size();
+    if (!change.isDependent)
     {
-      dependentChangesLock.unlock();
+      change.isDependent = true;
+      dependentChangesCount++;
     }
+    return true;
   }
 
   private PendingChange getPendingChange(CSN csn)
@@ -291,61 +562,59 @@ final class RemotePendingChanges
   public boolean checkDependencies(AddOperation op)
   {
     final CSN csn = OperationContext.getCSN(op);
-    final PendingChange change = getPendingChange(csn);
-    if (change == null)
+    final PendingChange pendingChange = getPendingChange(csn);
+    if (pendingChange == null)
     {
       return false;
     }
 
-    boolean hasDependencies = false;
     final DN targetDN = op.getEntryDN();
-    for (PendingChange pendingChange : activeAndDependentChanges)
+    activeChangesLock.lock();
+    try
     {
-      if (pendingChange.getCSN().isNewerThanOrEqualTo(csn))
+      final ActiveChange change = getOrAddActiveChange(pendingChange);
+      final Set<ActiveChange> blockingChanges = new LinkedHashSet<>();
+      for (ActiveChange activeChange : getFromIndex(changesByDN, targetDN))
       {
-        // From now on, the dependency should be for newer changes to be dependent on this one, so we can stop for now.
-        break;
-      }
-      final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-      if (pendingMsg instanceof DeleteMsg)
-      {
-        if (pendingMsg.getDN().equals(targetDN))
+        final LDAPUpdateMsg activeMsg = activeChange.getLDAPUpdateMsg();
+        if (activeChange.isOlderThan(csn)
+            && (activeMsg instanceof DeleteMsg || activeMsg instanceof ModifyDNMsg)
+            && activeMsg.getDN().equals(targetDN))
         {
           // it is a deleteOperation on the same DN
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
-      else if (pendingMsg instanceof AddMsg)
-      {
-        if (pendingMsg.getDN().isSuperiorOrEqualTo(targetDN))
-        {
-          // it is an addOperation on a parent of the current AddOperation
-          hasDependencies = true;
-          addDependency(change);
+          // or a ModifyDnOperation with the same target DN as the ADD DN
+          blockingChanges.add(activeChange);
         }
       }
-      else if (pendingMsg instanceof ModifyDNMsg)
+      for (DN dn = targetDN; dn != null; dn = dn.parent())
       {
-        // it is a ModifyDnOperation with the same target DN as the ADD DN
-        // or a ModifyDnOperation with new DN equals to the ADD DN parent?
-        if (pendingMsg.getDN().equals(targetDN))
+        for (ActiveChange activeChange : getFromIndex(changesByDN, dn))
         {
-          hasDependencies = true;
-          addDependency(change);
+          final LDAPUpdateMsg activeMsg = activeChange.getLDAPUpdateMsg();
+          if (activeChange.isOlderThan(csn)
+              && activeMsg instanceof AddMsg
+              && activeMsg.getDN().isSuperiorOrEqualTo(targetDN))
+          {
+            // it is an addOperation on a parent of the current AddOperation
+            blockingChanges.add(activeChange);
+          }
         }
-        else
+        for (ActiveChange activeChange : getFromIndex(changesByNewDN, dn))
         {
-          final ModifyDNMsg pendingModDn = (ModifyDNMsg) pendingMsg;
-          if (pendingModDn.newDNIsParent(targetDN))
+          if (activeChange.isOlderThan(csn)
+              && ((ModifyDNMsg) activeChange.getLDAPUpdateMsg()).newDNIsParent(targetDN))
           {
-            hasDependencies = true;
-            addDependency(change);
+            // it is a ModifyDnOperation with new DN equals to the ADD DN parent
+            blockingChanges.add(activeChange);
           }
         }
       }
+      return addDependencies(change, blockingChanges);
+    }
+    finally
+    {
+      activeChangesLock.unlock();
     }
-    return hasDependencies;
   }
 
   /**
@@ -365,50 +634,43 @@ final class RemotePendingChanges
   public boolean checkDependencies(ModifyOperation op)
   {
     final CSN csn = OperationContext.getCSN(op);
-    final PendingChange change = getPendingChange(csn);
-    if (change == null)
+    final PendingChange pendingChange = getPendingChange(csn);
+    if (pendingChange == null)
     {
         return false;
     }
 
-    boolean hasDependencies = false;
-    final DN targetDN = change.getLDAPUpdateMsg().getDN();
-    for (PendingChange pendingChange : activeAndDependentChanges)
+    final DN targetDN = pendingChange.getLDAPUpdateMsg().getDN();
+    activeChangesLock.lock();
+    try
     {
-      if (pendingChange.getCSN().isNewerThanOrEqualTo(csn))
-      {
-        // From now on, the dependency should be for newer changes to be dependent on this one, so we can stop for now.
-        break;
-      }
-      final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-      if (pendingMsg instanceof AddMsg)
-      {
-        if (pendingMsg.getDN().equals(targetDN))
-        {
-          // it is an addOperation on a same DN
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
-      else if (pendingMsg instanceof ModifyDNMsg)
+      final ActiveChange change = getOrAddActiveChange(pendingChange);
+      final Set<ActiveChange> blockingChanges = new LinkedHashSet<>();
+      for (ActiveChange activeChange : getFromIndex(changesByDN, targetDN))
       {
-        if (((ModifyDNMsg) pendingMsg).newDNIsEqual(targetDN))
+        final LDAPUpdateMsg activeMsg = activeChange.getLDAPUpdateMsg();
+        if (activeChange.isOlderThan(csn)
+            && (activeMsg instanceof AddMsg || activeMsg instanceof ModifyMsg)
+            && activeMsg.getDN().equals(targetDN))
         {
-          hasDependencies = true;
-          addDependency(change);
+          // it is an addOperation or another modify on the same DN
+          blockingChanges.add(activeChange);
         }
       }
-      else if (pendingMsg instanceof ModifyMsg)
+      for (ActiveChange activeChange : getFromIndex(changesByNewDN, targetDN))
       {
-        if (pendingMsg.getDN().equals(targetDN))
+        if (activeChange.isOlderThan(csn)
+            && ((ModifyDNMsg) activeChange.getLDAPUpdateMsg()).newDNIsEqual(targetDN))
         {
-          // it is another modify on the same DN, they depend
-          hasDependencies = true;
-          addDependency(change);
+          blockingChanges.add(activeChange);
         }
       }
+      return addDependencies(change, blockingChanges);
+    }
+    finally
+    {
+      activeChangesLock.unlock();
     }
-    return hasDependencies;
   }
 
   /**
@@ -432,60 +694,62 @@ final class RemotePendingChanges
   public boolean checkDependencies(ModifyDNMsg msg)
   {
     final CSN csn = msg.getCSN();
-    final PendingChange change = getPendingChange(csn);
-    if (change == null)
+    final PendingChange pendingChange = getPendingChange(csn);
+    if (pendingChange == null)
     {
       return false;
     }
 
-    boolean hasDependencies = false;
-    final DN targetDN = change.getLDAPUpdateMsg().getDN();
-    for (PendingChange pendingChange : activeAndDependentChanges)
+    final DN targetDN = pendingChange.getLDAPUpdateMsg().getDN();
+    final DN newDN = msg.getNewDN();
+    activeChangesLock.lock();
+    try
     {
-      if (pendingChange.getCSN().isNewerThanOrEqualTo(csn))
+      final ActiveChange change = getOrAddActiveChange(pendingChange);
+      final Set<ActiveChange> blockingChanges = new LinkedHashSet<>();
+      for (ActiveChange activeChange : getFromIndex(changesByDN, newDN))
       {
-        // From now on, the dependency should be for newer changes to be dependent on this one, so we can stop for now.
-        break;
-      }
-      final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-      if (pendingMsg instanceof DeleteMsg)
-      {
-        // Check if the target of the Delete is the same
-        // as the new DN of this ModifyDN
-        if (msg.newDNIsEqual(pendingMsg.getDN()))
+        final LDAPUpdateMsg activeMsg = activeChange.getLDAPUpdateMsg();
+        if (activeChange.isOlderThan(csn)
+            && (activeMsg instanceof DeleteMsg || activeMsg instanceof ModifyDNMsg)
+            && msg.newDNIsEqual(activeMsg.getDN()))
         {
-          hasDependencies = true;
-          addDependency(change);
+          // the target of the Delete is the same as the new DN of this ModifyDN
+          // or the ModifyDNOperation was done from the new DN of the MODDN operation
+          blockingChanges.add(activeChange);
         }
       }
-      else if (pendingMsg instanceof AddMsg)
+      if (msg.getNewSuperior() != null && newDN != null)
       {
-        // Check if the Add Operation was done on the new parent of
-        // the MODDN  operation
-        if (msg.newParentIsEqual(pendingMsg.getDN()))
+        for (ActiveChange activeChange : getFromIndex(changesByDN, newDN.parent()))
         {
-          hasDependencies = true;
-          addDependency(change);
-        }
-        // Check if the AddOperation was done on the same DN as the
-        // target DN of the MODDN operation
-        if (pendingMsg.getDN().equals(targetDN))
-        {
-          hasDependencies = true;
-          addDependency(change);
+          final LDAPUpdateMsg activeMsg = activeChange.getLDAPUpdateMsg();
+          if (activeChange.isOlderThan(csn)
+              && activeMsg instanceof AddMsg
+              && msg.newParentIsEqual(activeMsg.getDN()))
+          {
+            // the Add Operation was done on the new parent of the MODDN operation
+            blockingChanges.add(activeChange);
+          }
         }
       }
-      else if (pendingMsg instanceof ModifyDNMsg)
+      for (ActiveChange activeChange : getFromIndex(changesByDN, targetDN))
       {
-        if (msg.newDNIsEqual(pendingMsg.getDN()))
+        final LDAPUpdateMsg activeMsg = activeChange.getLDAPUpdateMsg();
+        if (activeChange.isOlderThan(csn)
+            && activeMsg instanceof AddMsg
+            && activeMsg.getDN().equals(targetDN))
         {
-          // the ModifyDNOperation was done from the new DN of the MODDN operation
-          hasDependencies = true;
-          addDependency(change);
+          // the AddOperation was done on the same DN as the target DN of the MODDN operation
+          blockingChanges.add(activeChange);
         }
       }
+      return addDependencies(change, blockingChanges);
+    }
+    finally
+    {
+      activeChangesLock.unlock();
     }
-    return hasDependencies;
   }
 
   /**
@@ -507,61 +771,58 @@ final class RemotePendingChanges
   public boolean checkDependencies(DeleteOperation op)
   {
     final CSN csn = OperationContext.getCSN(op);
-    final PendingChange change = getPendingChange(csn);
-    if (change == null)
+    final PendingChange pendingChange = getPendingChange(csn);
+    if (pendingChange == null)
     {
       return false;
     }
 
-    boolean hasDependencies = false;
     final DN targetDN = op.getEntryDN();
-    for (PendingChange pendingChange : activeAndDependentChanges)
+    activeChangesLock.lock();
+    try
     {
-      if (pendingChange.getCSN().isNewerThanOrEqualTo(csn))
-      {
-        // From now on, the dependency should be for newer changes to be dependent on this one, so we can stop for now.
-        break;
-      }
-      final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-      if (pendingMsg instanceof DeleteMsg)
+      final ActiveChange change = getOrAddActiveChange(pendingChange);
+      final Set<ActiveChange> blockingChanges = new LinkedHashSet<>();
+      for (ActiveChange activeChange : getFromIndex(changesBySuperiorDN, targetDN))
       {
-          /*
-           * Check if the operation to be run is a deleteOperation on a
-           * children of the current DeleteOperation.
-           */
-        if (pendingMsg.getDN().isSubordinateOrEqualTo(targetDN))
+        // Check if the operation to be run is a deleteOperation or a ModifyDNOperation
+        // on a children of the current DeleteOperation.
+        if (activeChange.isOlderThan(csn)
+            && activeChange.getLDAPUpdateMsg().getDN().isSubordinateOrEqualTo(targetDN))
         {
-          hasDependencies = true;
-          addDependency(change);
+          blockingChanges.add(activeChange);
         }
       }
-      else if (pendingMsg instanceof AddMsg)
+      for (ActiveChange activeChange : getFromIndex(changesByDN, targetDN))
       {
-          /*
-           * Check if the operation to be run is an addOperation on a
-           * parent of the current DeleteOperation.
-           */
-        if (pendingMsg.getDN().equals(targetDN))
+        // Check if the operation to be run is an addOperation on the same DN.
+        final LDAPUpdateMsg activeMsg = activeChange.getLDAPUpdateMsg();
+        if (activeChange.isOlderThan(csn)
+            && activeMsg instanceof AddMsg
+            && activeMsg.getDN().equals(targetDN))
         {
-          hasDependencies = true;
-          addDependency(change);
+          blockingChanges.add(activeChange);
         }
       }
-      else if (pendingMsg instanceof ModifyDNMsg)
+      for (DN dn = targetDN; dn != null; dn = dn.parent())
       {
-        final ModifyDNMsg pendingModDn = (ModifyDNMsg) pendingMsg;
-          /*
-           * Check if the operation to be run is an ModifyDNOperation
-           * on a children of the current DeleteOperation
-           */
-        if (pendingMsg.getDN().isSubordinateOrEqualTo(targetDN) || pendingModDn.newDNIsParent(targetDN))
+        for (ActiveChange activeChange : getFromIndex(changesByNewDN, dn))
         {
-          hasDependencies = true;
-          addDependency(change);
+          // Check if the operation to be run is a ModifyDNOperation renaming
+          // an entry to a parent of the current DeleteOperation.
+          if (activeChange.isOlderThan(csn)
+              && ((ModifyDNMsg) activeChange.getLDAPUpdateMsg()).newDNIsParent(targetDN))
+          {
+            blockingChanges.add(activeChange);
+          }
         }
       }
+      return addDependencies(change, blockingChanges);
+    }
+    finally
+    {
+      activeChangesLock.unlock();
     }
-    return hasDependencies;
   }
 
   /**
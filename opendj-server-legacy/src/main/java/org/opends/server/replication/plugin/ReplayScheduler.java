@@ -0,0 +1,293 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.replication.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.forgerock.opendj.ldap.DN;
+
+/**
+ * Dispatches the updates received by the replication domains to the replay threads.
+ * <p>
+ * Each replay thread consumes its own queue. Updates are partitioned onto these queues by
+ * replication domain and by the hash of the DN of the entry they target, so the updates of an
+ * entry are always replayed in the order they were received, while updates of unrelated entries
+ * are replayed in parallel without contending on a shared queue. The dependencies between updates
+ * of different entries (for example adding a child before its parent) are still resolved by the
+ * {@link RemotePendingChanges} of each domain.
+ * <p>
+ * The queues are shared by all the domains, so they are not bounded themselves. Instead, each
+ * domain can only have a bounded number of updates waiting for replay: a domain whose updates are
+ * replayed late only blocks its own listener thread, never the listeners of the other domains.
+ */
+class ReplayScheduler
+{
+  /** The number of updates of a replication domain which can be waiting for replay. */
+  static final int MAX_QUEUED_UPDATES_PER_DOMAIN = 10000;
+
+  /** Protects the queues against their redistribution while updates are being offered. */
+  private final ReadWriteLock queuesLock = new ReentrantReadWriteLock();
+  /** The queues of the replay threads, one per replay thread. */
+  @GuardedBy("queuesLock")
+  private List<BlockingQueue<UpdateToReplay>> queues = new ArrayList<>();
+  /** The replay threads consuming the queues. */
+  @GuardedBy("this")
+  private final List<ReplayThread> replayThreads = new ArrayList<>();
+  /** Whether the queues are provided by the caller and no replay threads must be started. */
+  private final boolean isExternalQueue;
+  /** The number of updates each replication domain can still queue, keyed by base DN. */
+  private final ConcurrentMap<DN, Semaphore> domainQuotas = new ConcurrentHashMap<>();
+
+  /** Creates a scheduler whose queues are created when the replay threads are started. */
+  ReplayScheduler()
+  {
+    this.isExternalQueue = false;
+  }
+
+  /**
+   * Creates a scheduler dispatching all the updates to the provided queue, without starting any
+   * replay thread. The updates are only bounded by the capacity of the queue. Only used for tests
+   * so far.
+   *
+   * @param queue
+   *          the queue where the updates are dispatched
+   */
+  ReplayScheduler(BlockingQueue<UpdateToReplay> queue)
+  {
+    this.isExternalQueue = true;
+    this.queues.add(queue);
+  }
+
+  /**
+   * Starts the replay threads, redistributing the updates still waiting for replay if the number
+   * of replay threads changed since they were stopped.
+   *
+   * @param numberOfThreads
+   *          the number of replay threads to start
+   */
+  synchronized void start(int numberOfThreads)
+  {
+    if (isExternalQueue || !replayThreads.isEmpty())
+    {
+      return;
+    }
+    setNumberOfQueues(Math.max(1, numberOfThreads));
+    // queues cannot be redistributed concurrently: this is only done by start() or before the first start
+    for (BlockingQueue<UpdateToReplay> queue : getQueues())
+    {
+      final ReplayThread replayThread = new ReplayThread(queue);
+      replayThread.start();
+      replayThreads.add(replayThread);
+    }
+  }
+
+  /**
+   * Sets the number of queues, redistributing the updates waiting for replay if it changed.
+   *
+   * @param nbQueues
+   *          the number of queues, one per replay thread
+   */
+  void setNumberOfQueues(int nbQueues)
+  {
+    queuesLock.writeLock().lock();
+    try
+    {
+      if (queues.size() != nbQueues)
+      {
+        redistribute(nbQueues);
+      }
+    }
+    finally
+    {
+      queuesLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the queues of the replay threads.
+   *
+   * @return the queues of the replay threads
+   */
+  List<BlockingQueue<UpdateToReplay>> getQueues()
+  {
+    queuesLock.readLock().lock();
+    try
+    {
+      return new ArrayList<>(queues);
+    }
+    finally
+    {
+      queuesLock.readLock().unlock();
+    }
+  }
+
+  @GuardedBy("queuesLock")
+  private void redistribute(int nbQueues)
+  {
+    // Keep the order of the updates of each entry while partitioning them onto the new queues
+    final List<List<UpdateToReplay>> partitions = new ArrayList<>(nbQueues);
+    for (int i = 0; i < nbQueues; i++)
+    {
+      partitions.add(new ArrayList<UpdateToReplay>());
+    }
+    final List<UpdateToReplay> waitingUpdates = new ArrayList<>();
+    for (BlockingQueue<UpdateToReplay> queue : queues)
+    {
+      queue.drainTo(waitingUpdates);
+    }
+    for (UpdateToReplay update : waitingUpdates)
+    {
+      partitions.get(partition(update, nbQueues)).add(update);
+    }
+
+    // the updates are bounded by the quotas of their domains, not by the queues
+    final List<BlockingQueue<UpdateToReplay>> newQueues = new ArrayList<>(nbQueues);
+    for (List<UpdateToReplay> partition : partitions)
+    {
+      newQueues.add(new LinkedBlockingQueue<>(partition));
+    }
+    queues = newQueues;
+  }
+
+  /** Stops the replay threads, keeping the updates still waiting for replay in their queues. */
+  synchronized void stop()
+  {
+    for (ReplayThread replayThread : replayThreads)
+    {
+      replayThread.shutdown();
+    }
+    for (ReplayThread replayThread : replayThreads)
+    {
+      try
+      {
+        replayThread.join();
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+    replayThreads.clear();
+  }
+
+  /**
+   * Offers an update to the queue of the replay thread in charge of the entry it targets, waiting
+   * if necessary for its domain to have less updates waiting for replay than its quota.
+   *
+   * @param update
+   *          the update to replay
+   * @param timeout
+   *          how long to wait before giving up
+   * @param unit
+   *          the unit of the timeout
+   * @return {@code true} if the update has been queued, {@code false} if the timeout elapsed
+   *         before space was available
+   * @throws InterruptedException
+   *           if interrupted while waiting
+   */
+  boolean offer(UpdateToReplay update, long timeout, TimeUnit unit) throws InterruptedException
+  {
+    final Semaphore quota = isExternalQueue ? null : getQuota(update);
+    if (quota != null && !quota.tryAcquire(timeout, unit))
+    {
+      return false;
+    }
+    queuesLock.readLock().lock();
+    try
+    {
+      if (queues.isEmpty())
+      {
+        redistributeBeforeFirstStart();
+      }
+      final BlockingQueue<UpdateToReplay> queue = queues.get(partition(update, queues.size()));
+      return quota != null ? queue.add(update) : queue.offer(update, timeout, unit);
+    }
+    finally
+    {
+      queuesLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Records that an update has been taken from its queue by a replay thread, so that its domain
+   * can queue another update.
+   *
+   * @param update
+   *          the update taken from its queue
+   */
+  void dequeued(UpdateToReplay update)
+  {
+    if (!isExternalQueue)
+    {
+      getQuota(update).release();
+    }
+  }
+
+  private Semaphore getQuota(UpdateToReplay update)
+  {
+    final DN baseDN = update.getReplicationDomain().getBaseDN();
+    Semaphore quota = domainQuotas.get(baseDN);
+    if (quota == null)
+    {
+      final Semaphore newQuota = new Semaphore(MAX_QUEUED_UPDATES_PER_DOMAIN);
+      quota = domainQuotas.putIfAbsent(baseDN, newQuota);
+      if (quota == null)
+      {
+        quota = newQuota;
+      }
+    }
+    return quota;
+  }
+
+  @GuardedBy("queuesLock")
+  private void redistributeBeforeFirstStart()
+  {
+    // cannot upgrade the read lock: release it while the queues are created
+    queuesLock.readLock().unlock();
+    queuesLock.writeLock().lock();
+    try
+    {
+      if (queues.isEmpty())
+      {
+        redistribute(1);
+      }
+    }
+    finally
+    {
+      queuesLock.readLock().lock();
+      queuesLock.writeLock().unlock();
+    }
+  }
+
+  private static int partition(UpdateToReplay update, int nbQueues)
+  {
+    final int hash = 31 * update.getReplicationDomain().getBaseDN().hashCode()
+        + update.getUpdateMessage().getDN().hashCode();
+    // spread the high bits, DN hash codes are not always well distributed
+    return Math.abs((hash ^ (hash >>> 16)) % nbQueues);
+  }
+}
@@ -28,6 +28,8 @@ public class UpdateToReplay
 {
   private LDAPUpdateMsg updateMessage;
   private LDAPReplicationDomain replicationDomain;
+  /** The time when this update was queued for replay, as returned by {@link System#nanoTime()}. */
+  private final long queuedTime = System.nanoTime();
 
   /**
    * Construct the object associating the update message with the replication
@@ -60,4 +62,13 @@ public class UpdateToReplay
   {
     return replicationDomain;
   }
+
+  /**
+   * Getter for the time when this update was queued for replay.
+   * @return The time when this update was queued, as returned by {@link System#nanoTime()}
+   */
+  public long getQueuedTime()
+  {
+    return queuedTime;
+  }
 }
@@ -378,6 +378,7 @@ public class AddMsg extends LDAPUpdateMsg
   public void setParentEntryUUID(String entryUUID)
   {
     parentEntryUUID = entryUUID;
+    clearEncodedForms();
   }
 
   /**
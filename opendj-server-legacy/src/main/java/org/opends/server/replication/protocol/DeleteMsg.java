@@ -89,6 +89,11 @@ public class DeleteMsg extends LDAPUpdateMsg
       // truth, we assume 'subtree'
       isSubtreeDelete = true;
     }
+
+    if (protocolVersion == ProtocolVersion.getCurrentVersion())
+    {
+      bytes = in;
+    }
   }
 
   /** {@inheritDoc} */
@@ -194,6 +199,7 @@ public class DeleteMsg extends LDAPUpdateMsg
   public void setInitiatorsName(String iname)
   {
     initiatorsName = iname;
+    clearEncodedForms();
   }
 
   /**
@@ -212,6 +218,7 @@ public class DeleteMsg extends LDAPUpdateMsg
   public void setSubtreeDelete(boolean subtreeDelete)
   {
     this.isSubtreeDelete = subtreeDelete;
+    clearEncodedForms();
   }
 
   /**
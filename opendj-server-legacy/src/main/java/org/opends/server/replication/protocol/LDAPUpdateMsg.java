@@ -53,9 +53,17 @@ public abstract class LDAPUpdateMsg extends UpdateMsg
   protected String entryUUID;
 
   /**
-   * Encoded form of the LDAPUpdateMsg.
+   * Encoded form of the LDAPUpdateMsg, for protocol versions 4 and later.
+   * <p>
+   * It is computed once and shared by all the sessions the message is sent to:
+   * messages decoded from the network or from the changelog keep the bytes they
+   * were decoded from, so they are never encoded again.
    */
-  protected byte[] bytes;
+  protected volatile byte[] bytes;
+  /** Encoded form of the LDAPUpdateMsg for the version 1 of the protocol. */
+  private volatile byte[] bytesV1;
+  /** Encoded form of the LDAPUpdateMsg for the versions 2 and 3 of the protocol. */
+  private volatile byte[] bytesV23;
 
   /**
    * Encoded form of entry attributes.
@@ -143,6 +151,7 @@ public abstract class LDAPUpdateMsg extends UpdateMsg
   public void setDN(DN dn)
   {
     this.dn = dn;
+    clearEncodedForms();
   }
 
   /**
@@ -243,30 +252,57 @@ public abstract class LDAPUpdateMsg extends UpdateMsg
     return builder;
   }
 
-  /** {@inheritDoc} */
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The encoded forms are cached, so the returned byte arrays must not be modified.
+   * Concurrent callers may encode the same form twice, but always get equal bytes.
+   */
   @Override
   public byte[] getBytes(short protocolVersion)
   {
     if (protocolVersion == ProtocolVersion.REPLICATION_PROTOCOL_V1)
     {
-      return getBytes_V1();
+      byte[] result = bytesV1;
+      if (result == null)
+      {
+        result = getBytes_V1();
+        bytesV1 = result;
+      }
+      return result;
     }
     else if (protocolVersion <= ProtocolVersion.REPLICATION_PROTOCOL_V3)
     {
-      return getBytes_V23();
+      byte[] result = bytesV23;
+      if (result == null)
+      {
+        result = getBytes_V23();
+        bytesV23 = result;
+      }
+      return result;
     }
     else
     {
       // Encode in the current protocol version
-      if (bytes == null)
+      byte[] result = bytes;
+      if (result == null)
       {
         // this is the current version of the protocol
-        bytes = getBytes_V45(protocolVersion);
+        result = getBytes_V45(protocolVersion);
+        bytes = result;
       }
-      return bytes;
+      return result;
     }
   }
 
+  @Override
+  protected void clearEncodedForms()
+  {
+    bytes = null;
+    bytesV1 = null;
+    bytesV23 = null;
+  }
+
   /**
    * Get the byte array representation of this message. This uses the version
    * 1 of the replication protocol (used for compatibility purpose).
@@ -399,6 +435,7 @@ public abstract class LDAPUpdateMsg extends UpdateMsg
   public void setEclIncludes(Collection<Attribute> entryAttrs)
   {
     this.encodedEclIncludes = encodeAttributes(entryAttrs);
+    clearEncodedForms();
   }
 
   /**
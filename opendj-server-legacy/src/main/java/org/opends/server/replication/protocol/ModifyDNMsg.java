@@ -271,6 +271,7 @@ public class ModifyDNMsg extends ModifyCommonMsg
   public void setNewSuperior(String string)
   {
     newSuperior = string;
+    clearEncodedForms();
   }
 
   /**
@@ -311,6 +312,7 @@ public class ModifyDNMsg extends ModifyCommonMsg
   public void setNewSuperiorEntryUUID(String newSup)
   {
     newSuperiorEntryUUID = newSup;
+    clearEncodedForms();
   }
 
   /**
@@ -321,6 +323,7 @@ public class ModifyDNMsg extends ModifyCommonMsg
   public void  setDeleteOldRdn(boolean delete)
   {
     deleteOldRdn = delete;
+    clearEncodedForms();
   }
 
   /**
@@ -349,6 +352,7 @@ public class ModifyDNMsg extends ModifyCommonMsg
   public void setNewRDN(String newRDN)
   {
     this.newRDN = newRDN;
+    clearEncodedForms();
   }
 
   /**
@@ -368,6 +372,23 @@ public class ModifyDNMsg extends ModifyCommonMsg
     return parentDn.child(RDN.valueOf(newRDN));
   }
 
+  /**
+   * Returns the new DN that the entry should have after this operation.
+   *
+   * @return the new DN, or {@code null} if it is not a correct DN.
+   */
+  public DN getNewDN()
+  {
+    try
+    {
+      return computeNewDN();
+    }
+    catch (LocalizedIllegalArgumentException e)
+    {
+      return null;
+    }
+  }
+
   /**
    * Check if this MSG will change the DN of the target entry to be
    * the same as the dn given as a parameter.
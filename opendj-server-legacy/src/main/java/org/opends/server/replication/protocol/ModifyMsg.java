@@ -102,8 +102,8 @@ public class ModifyMsg extends ModifyCommonMsg
   {
     ModifyMsg msg = new ModifyMsg(in);
 
-    // bytes is only for current version (of the protocol) bytes !
-    msg.bytes = null;
+    // the decoded bytes are not the encoded form for the current version of the protocol
+    msg.clearEncodedForms();
 
     return msg;
   }
@@ -13,41 +13,136 @@
  *
  * Copyright 2006-2009 Sun Microsystems, Inc.
  * Portions Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.replication.protocol;
 
+import static org.opends.messages.ReplicationMessages.*;
 import static org.opends.server.util.StaticUtils.*;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.Closeable;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketException;
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import javax.net.ssl.SSLSocket;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.opends.server.api.DirectoryThread;
 import org.opends.server.types.HostPort;
+import org.opends.server.util.Platform;
 import org.opends.server.util.StaticUtils;
 
 /**
  * This class defines a replication session using TLS.
+ * <p>
+ * Once asynchronous publishing is started, the published messages are queued and
+ * written by a pool of session writer threads shared by all the sessions, rather
+ * than by a thread dedicated to each session. A session writer drains all the
+ * messages queued on a session and sends them with a single flush of the socket.
+ * <p>
+ * Writes to the socket block while the peer does not read. A session is served by
+ * at most one session writer at a time, and the number of session writers is
+ * bounded. To keep stalled peers from holding all the session writers, a session
+ * whose writes make no progress for longer than the write timeout is closed, which
+ * releases its session writer. The messages it did not send are sent again once
+ * the peers reconnect, like after any other broken connection.
  */
-public final class Session extends DirectoryThread implements Closeable
+public final class Session implements Closeable
 {
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
+  /** The maximum number of queued messages sent by a session writer before letting other sessions be served. */
+  private static final int MAX_MESSAGES_PER_WRITE = 256;
+  /** The size of the output buffer, large enough to send several messages with a single system call. */
+  private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+  /** The first byte of the length of compressed messages, which cannot be mistaken for an hexadecimal digit. */
+  private static final byte COMPRESSED_MESSAGE_MARKER = 'z';
+  /** The size of the compression identifier and of the uncompressed length preceding the compressed data. */
+  private static final int COMPRESSED_HEADER_SIZE = 5;
+  /** The size under which messages are not worth compressing. */
+  private static final int MIN_COMPRESSED_SIZE = 256;
+  /** The size over which the length of compressed messages cannot be written on 7 hexadecimal digits. */
+  private static final int MAX_COMPRESSED_SIZE = 0x0fffffff;
+  /** The default number of session writer threads. */
+  public static final int DEFAULT_SESSION_WRITERS = Platform.computeNumberOfThreads(8, 1.0f);
+  /** The default time in milliseconds after which a session whose writes make no progress is closed. */
+  public static final long DEFAULT_WRITE_TIMEOUT = 120000L;
+  /**
+   * The session writer threads shared by all the sessions. Sessions to be written
+   * wait in the queue while all the threads are busy, and idle threads terminate,
+   * so that no thread remains when no session publishes asynchronously.
+   */
+  private static final ThreadPoolExecutor sessionWriters = newSessionWriters();
+  /** Checks the writes which did not complete within the write timeout, idle threads terminate. */
+  private static final ScheduledThreadPoolExecutor writeTimeouts = newWriteTimeouts();
+  /** The time in milliseconds after which a session whose writes make no progress is closed, 0 to never close. */
+  private static volatile long writeTimeout = DEFAULT_WRITE_TIMEOUT;
+
+  private static ThreadPoolExecutor newSessionWriters()
+  {
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_SESSION_WRITERS, DEFAULT_SESSION_WRITERS,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new DirectoryThread.Factory("Replication session writer"));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static ScheduledThreadPoolExecutor newWriteTimeouts()
+  {
+    final ScheduledThreadPoolExecutor executor =
+        new ScheduledThreadPoolExecutor(1, new DirectoryThread.Factory("Replication session write timeout"));
+    executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+    executor.allowCoreThreadTimeOut(true);
+    executor.setRemoveOnCancelPolicy(true);
+    return executor;
+  }
+
+  /**
+   * Configures the session writers shared by all the sessions.
+   *
+   * @param nbSessionWriters
+   *          the maximum number of session writer threads
+   * @param writeTimeoutMillis
+   *          the time in milliseconds after which a session whose writes make
+   *          no progress is closed, 0 to never close such sessions
+   */
+  public static void configureSessionWriters(final int nbSessionWriters, final long writeTimeoutMillis)
+  {
+    synchronized (sessionWriters)
+    {
+      if (nbSessionWriters > sessionWriters.getMaximumPoolSize())
+      {
+        sessionWriters.setMaximumPoolSize(nbSessionWriters);
+        sessionWriters.setCorePoolSize(nbSessionWriters);
+      }
+      else
+      {
+        sessionWriters.setCorePoolSize(nbSessionWriters);
+        sessionWriters.setMaximumPoolSize(nbSessionWriters);
+      }
+    }
+    writeTimeout = writeTimeoutMillis;
+  }
+
   private final Socket plainSocket;
   private final SSLSocket secureSocket;
   private final InputStream plainInput;
@@ -56,6 +151,7 @@ public final class Session extends DirectoryThread implements Closeable
   private final String readableRemoteAddress;
   private final HostPort remoteAddress;
   private final HostPort localUrl;
+  private volatile String name;
 
   /** The time the last message published to this session. */
   private volatile long lastPublishTime;
@@ -85,6 +181,17 @@ public final class Session extends DirectoryThread implements Closeable
   /** Initially encrypted. */
   private boolean isEncrypted = true;
 
+  /** The compression of the messages sent, enabled once the protocol version is negotiated. */
+  private volatile SessionCompression compression = SessionCompression.NONE;
+  /** Compresses the messages sent, guarded by publishLock. */
+  private Deflater deflater;
+  /** Decompresses the messages received, only used by the receiving thread. */
+  private Inflater inflater;
+  /** The number of bytes of the messages sent, before compression. */
+  private volatile long uncompressedBytesSent;
+  /** The number of bytes of the messages sent, after compression. */
+  private volatile long compressedBytesSent;
+
   /**
    * Use a buffered input stream to avoid too many system calls.
    */
@@ -97,8 +204,89 @@ public final class Session extends DirectoryThread implements Closeable
   private BufferedOutputStream output;
 
   private final LinkedBlockingQueue<byte[]> sendQueue = new LinkedBlockingQueue<>(4000);
-  private AtomicBoolean isRunning = new AtomicBoolean(false);
-  private final CountDownLatch latch = new CountDownLatch(1);
+  /** Whether published messages are queued and sent by the session writers. */
+  private final AtomicBoolean isRunning = new AtomicBoolean(false);
+  /** Whether a session writer has been asked to send the queued messages. */
+  private final AtomicBoolean isWriteScheduled = new AtomicBoolean(false);
+  private final Runnable writeTask = new Runnable()
+  {
+    @Override
+    public void run()
+    {
+      writeQueuedMessages();
+    }
+  };
+  /** Whether a message is being written to the socket. */
+  private volatile boolean isWriting;
+  /** The number of writes started, identifying the write checked by a {@link WriteTimeout}. */
+  private volatile long nbWrites;
+  /** The last time the write in progress started or made progress. */
+  private volatile long writeProgressTime;
+
+  /** Closes the session if the write it checks made no progress for longer than the write timeout. */
+  private final class WriteTimeout implements Runnable
+  {
+    private final long writeNumber;
+    private final long timeout;
+
+    private WriteTimeout(final long writeNumber, final long timeout)
+    {
+      this.writeNumber = writeNumber;
+      this.timeout = timeout;
+    }
+
+    @Override
+    public void run()
+    {
+      if (!isWriting || nbWrites != writeNumber)
+      {
+        // this write completed
+        return;
+      }
+      final long blockedTime = System.currentTimeMillis() - writeProgressTime;
+      if (blockedTime < timeout)
+      {
+        writeTimeouts.schedule(this, timeout - blockedTime, TimeUnit.MILLISECONDS);
+        return;
+      }
+      logger.warn(WARN_SESSION_WRITE_TIMEOUT.get(name, timeout));
+      setSessionError(new IOException("Writes blocked for " + blockedTime + " ms"));
+      // closing the socket makes the blocked write fail, which releases the session writer
+      close();
+    }
+  }
+
+  /** Records the progress of the writes to the socket. */
+  private final class WriteProgressOutputStream extends FilterOutputStream
+  {
+    private WriteProgressOutputStream(final OutputStream out)
+    {
+      super(out);
+    }
+
+    @Override
+    public void write(final int b) throws IOException
+    {
+      out.write(b);
+      writeProgressTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException
+    {
+      // write large messages in chunks, so that a slow peer is not mistaken for a stalled one
+      int offset = off;
+      int remaining = len;
+      while (remaining > 0)
+      {
+        final int chunkLength = Math.min(remaining, OUTPUT_BUFFER_SIZE);
+        out.write(b, offset, chunkLength);
+        writeProgressTime = System.currentTimeMillis();
+        offset += chunkLength;
+        remaining -= chunkLength;
+      }
+    }
+  }
 
   /**
    * Creates a new Session.
@@ -113,8 +301,8 @@ public final class Session extends DirectoryThread implements Closeable
   public Session(final Socket socket,
                  final SSLSocket secureSocket) throws IOException
   {
-    super("Replication Session from "+ socket.getLocalSocketAddress() +
-        " to " + socket.getRemoteSocketAddress());
+    this.name = "Replication Session from " + socket.getLocalSocketAddress()
+        + " to " + socket.getRemoteSocketAddress();
     if (logger.isTraceEnabled())
     {
       logger.trace(
@@ -127,9 +315,10 @@ public final class Session extends DirectoryThread implements Closeable
     this.plainSocket = socket;
     this.secureSocket = secureSocket;
     this.plainInput = plainSocket.getInputStream();
-    this.plainOutput = plainSocket.getOutputStream();
+    this.plainOutput = new WriteProgressOutputStream(plainSocket.getOutputStream());
     this.input = new BufferedInputStream(secureSocket.getInputStream());
-    this.output = new BufferedOutputStream(secureSocket.getOutputStream());
+    this.output = new BufferedOutputStream(
+        new WriteProgressOutputStream(secureSocket.getOutputStream()), OUTPUT_BUFFER_SIZE);
     this.readableRemoteAddress = plainSocket.getRemoteSocketAddress().toString();
     this.remoteAddress = new HostPort(plainSocket.getInetAddress().getHostAddress(), plainSocket.getPort());
     this.localUrl = new HostPort(plainSocket.getLocalAddress().getHostName(), plainSocket.getLocalPort());
@@ -157,13 +346,9 @@ public final class Session extends DirectoryThread implements Closeable
       closeInitiated = true;
     }
 
-    try {
-      interrupt();
-      join();
-    }
-    catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-    }
+    // Messages not sent yet by the session writers are dropped
+    isRunning.set(false);
+    sendQueue.clear();
 
     // Perform close outside of critical section.
     if (logger.isTraceEnabled())
@@ -201,6 +386,20 @@ public final class Session extends DirectoryThread implements Closeable
     }
 
     StaticUtils.close(plainSocket, secureSocket);
+
+    publishLock.lock();
+    try
+    {
+      if (deflater != null)
+      {
+        deflater.end();
+        deflater = null;
+      }
+    }
+    finally
+    {
+      publishLock.unlock();
+    }
   }
 
 
@@ -322,6 +521,7 @@ public final class Session extends DirectoryThread implements Closeable
           // Avoid blocking forever so that we can check for session closure.
           if (sendQueue.offer(buffer, 100, TimeUnit.MILLISECONDS))
           {
+            scheduleWrite();
             return;
           }
         }
@@ -346,18 +546,47 @@ public final class Session extends DirectoryThread implements Closeable
    */
   private void send(final byte[] buffer) throws IOException
   {
-    final String str = String.format("%08x", buffer.length);
-    final byte[] sendLengthBuf = str.getBytes();
-
     publishLock.lock();
+    final ScheduledFuture<?> timeout = startWrite();
     try
     {
       /*
        * The buffered output stream ensures that the message is usually sent as
        * a single TCP packet.
        */
-      output.write(sendLengthBuf);
-      output.write(buffer);
+      write(buffer);
+      output.flush();
+    } catch (final IOException e) {
+      setSessionError(e);
+      throw e;
+    }
+    finally
+    {
+      endWrite(timeout);
+      publishLock.unlock();
+    }
+
+    lastPublishTime = System.currentTimeMillis();
+  }
+
+  /**
+   * Sends several replication messages already encoded to the socket, flushing
+   * them all at once.
+   *
+   * @param buffers
+   *          the encoded buffers
+   * @throws IOException if the messages could not be sent
+   */
+  private void send(final List<byte[]> buffers) throws IOException
+  {
+    publishLock.lock();
+    final ScheduledFuture<?> timeout = startWrite();
+    try
+    {
+      for (byte[] buffer : buffers)
+      {
+        write(buffer);
+      }
       output.flush();
     } catch (final IOException e) {
       setSessionError(e);
@@ -365,12 +594,160 @@ public final class Session extends DirectoryThread implements Closeable
     }
     finally
     {
+      endWrite(timeout);
       publishLock.unlock();
     }
 
     lastPublishTime = System.currentTimeMillis();
   }
 
+  /**
+   * Starts checking that the write about to be made completes, called with the publishLock held.
+   *
+   * @return the check of the write timeout, or {@code null} if there is no write timeout
+   */
+  private ScheduledFuture<?> startWrite()
+  {
+    final long timeout = writeTimeout;
+    writeProgressTime = System.currentTimeMillis();
+    nbWrites++;
+    isWriting = true;
+    return timeout > 0
+        ? writeTimeouts.schedule(new WriteTimeout(nbWrites, timeout), timeout, TimeUnit.MILLISECONDS)
+        : null;
+  }
+
+  /** Stops checking that the write completes, called with the publishLock held. */
+  private void endWrite(final ScheduledFuture<?> timeout)
+  {
+    isWriting = false;
+    if (timeout != null)
+    {
+      timeout.cancel(false);
+    }
+  }
+
+  private void write(final byte[] buffer) throws IOException
+  {
+    final byte[] compressed = compress(buffer);
+    if (compressed != null)
+    {
+      output.write(COMPRESSED_MESSAGE_MARKER);
+      output.write(String.format("%07x", compressed.length).getBytes());
+      output.write(compressed);
+      uncompressedBytesSent += buffer.length;
+      compressedBytesSent += compressed.length;
+      return;
+    }
+    output.write(String.format("%08x", buffer.length).getBytes());
+    output.write(buffer);
+    if (compression != SessionCompression.NONE)
+    {
+      uncompressedBytesSent += buffer.length;
+      compressedBytesSent += buffer.length;
+    }
+  }
+
+  /**
+   * Compresses a message to send, called with the publishLock held.
+   *
+   * @return the compressed message with its header, or {@code null} if it must be sent uncompressed
+   */
+  private byte[] compress(final byte[] buffer)
+  {
+    final SessionCompression localCompression = compression;
+    if (localCompression == SessionCompression.NONE
+        || buffer.length < MIN_COMPRESSED_SIZE
+        || buffer.length > MAX_COMPRESSED_SIZE
+        || protocolVersion < ProtocolVersion.REPLICATION_PROTOCOL_V9
+        || closeInitiated)
+    {
+      return null;
+    }
+
+    if (deflater == null)
+    {
+      deflater = new Deflater();
+    }
+    deflater.reset();
+    if (localCompression == SessionCompression.DEFLATE_WITH_DICTIONARY)
+    {
+      deflater.setDictionary(SessionCompression.DICTIONARY);
+    }
+    deflater.setInput(buffer);
+    deflater.finish();
+
+    // Compressing is only worth it if the compressed message is smaller
+    final byte[] compressed = new byte[buffer.length];
+    compressed[0] = localCompression.getValue();
+    compressed[1] = (byte) (buffer.length >>> 24);
+    compressed[2] = (byte) (buffer.length >>> 16);
+    compressed[3] = (byte) (buffer.length >>> 8);
+    compressed[4] = (byte) buffer.length;
+    int length = COMPRESSED_HEADER_SIZE;
+    while (!deflater.finished() && length < compressed.length)
+    {
+      length += deflater.deflate(compressed, length, compressed.length - length);
+    }
+    if (!deflater.finished())
+    {
+      return null;
+    }
+    final byte[] result = new byte[length];
+    System.arraycopy(compressed, 0, result, 0, length);
+    return result;
+  }
+
+  /**
+   * Decompresses a message received.
+   *
+   * @return the decompressed message
+   */
+  private byte[] decompress(final byte[] compressed) throws DataFormatException
+  {
+    if (compressed.length < COMPRESSED_HEADER_SIZE)
+    {
+      throw new DataFormatException("Compressed message too short");
+    }
+    final SessionCompression receivedCompression = SessionCompression.valueOf(compressed[0]);
+    if (receivedCompression == null || receivedCompression == SessionCompression.NONE)
+    {
+      throw new DataFormatException("Unknown message compression " + compressed[0]);
+    }
+    final int length = ((compressed[1] & 0xff) << 24) | ((compressed[2] & 0xff) << 16)
+        | ((compressed[3] & 0xff) << 8) | (compressed[4] & 0xff);
+    if (length < 0)
+    {
+      throw new DataFormatException("Invalid uncompressed message length " + length);
+    }
+
+    if (inflater == null)
+    {
+      inflater = new Inflater();
+    }
+    inflater.reset();
+    inflater.setInput(compressed, COMPRESSED_HEADER_SIZE, compressed.length - COMPRESSED_HEADER_SIZE);
+    final byte[] buffer = new byte[length];
+    int inflated = 0;
+    while (inflated < length)
+    {
+      final int read = inflater.inflate(buffer, inflated, length - inflated);
+      if (read == 0)
+      {
+        if (inflater.needsDictionary())
+        {
+          inflater.setDictionary(SessionCompression.DICTIONARY);
+        }
+        else if (inflater.finished() || inflater.needsInput())
+        {
+          throw new DataFormatException("Compressed message shorter than its announced length " + length);
+        }
+      }
+      inflated += read;
+    }
+    return buffer;
+  }
+
 
 
   /**
@@ -401,12 +778,19 @@ public final class Session extends DirectoryThread implements Closeable
 
       // Read the first 8 bytes containing the packet length.
       read(rcvLengthBuf);
-      final int totalLength = Integer.parseInt(new String(rcvLengthBuf), 16);
+      final boolean isCompressed = rcvLengthBuf[0] == COMPRESSED_MESSAGE_MARKER;
+      final int totalLength = isCompressed
+          ? Integer.parseInt(new String(rcvLengthBuf, 1, rcvLengthBuf.length - 1), 16)
+          : Integer.parseInt(new String(rcvLengthBuf), 16);
 
       try
       {
-        final byte[] buffer = new byte[totalLength];
+        byte[] buffer = new byte[totalLength];
         read(buffer);
+        if (isCompressed)
+        {
+          buffer = decompress(buffer);
+        }
 
         /*
          * We do not want the heartbeat to close the session when we are
@@ -456,6 +840,42 @@ public final class Session extends DirectoryThread implements Closeable
   }
 
 
+  /**
+   * Sets the compression of the messages sent on this session. It must be
+   * called once the version of the protocol is negotiated: compression is
+   * only applied if the remote peer supports it.
+   *
+   * @param compression The compression of the messages sent on this session.
+   */
+  public void setCompression(final SessionCompression compression)
+  {
+    this.compression = compression;
+  }
+
+  /**
+   * Returns the compression of the messages sent on this session, if supported
+   * by the remote peer.
+   *
+   * @return The compression of the messages sent on this session.
+   */
+  public SessionCompression getCompression()
+  {
+    return protocolVersion >= ProtocolVersion.REPLICATION_PROTOCOL_V9 ? compression : SessionCompression.NONE;
+  }
+
+  /**
+   * Returns the ratio between the size of the messages sent on this session
+   * and their size once compressed.
+   *
+   * @return The compression ratio of the messages sent, 1 if no message has
+   *         been compressed.
+   */
+  public double getCompressionRatio()
+  {
+    final long compressedBytes = compressedBytesSent;
+    return compressedBytes > 0 ? (double) uncompressedBytesSent / compressedBytes : 1;
+  }
+
   /**
    * Returns the version of the protocol that is currently used.
    *
@@ -502,7 +922,7 @@ public final class Session extends DirectoryThread implements Closeable
     }
 
     input = new BufferedInputStream(plainInput);
-    output = new BufferedOutputStream(plainOutput);
+    output = new BufferedOutputStream(plainOutput, OUTPUT_BUFFER_SIZE);
     isEncrypted = false;
   }
 
@@ -520,58 +940,77 @@ public final class Session extends DirectoryThread implements Closeable
   }
 
   /**
-   * Run method for the Session.
-   * Loops waiting for buffers from the queue and sends them when available.
+   * Retrieves the name of this session, used in log messages.
+   *
+   * @return The name of this session.
    */
-  @Override
-  public void run()
+  public String getName()
   {
-    isRunning.set(true);
-    latch.countDown();
-    if (logger.isTraceEnabled())
+    return name;
+  }
+
+  /**
+   * Sets the name of this session, used in log messages.
+   *
+   * @param name The name of this session.
+   */
+  public void setName(final String name)
+  {
+    this.name = name;
+  }
+
+  /**
+   * Starts publishing messages asynchronously: from now on, {@link #publish(ReplicationMsg)}
+   * queues the messages, which are then sent by the session writers.
+   */
+  public void startAsyncPublish()
+  {
+    if (!closeInitiated && isRunning.compareAndSet(false, true) && logger.isTraceEnabled())
+    {
+      logger.trace(name + " publishing asynchronously.");
+    }
+  }
+
+  /** Asks a session writer to send the queued messages, unless one is already doing it. */
+  private void scheduleWrite()
+  {
+    if (!sendQueue.isEmpty() && isWriteScheduled.compareAndSet(false, true))
     {
-      logger.trace(getName() + " starting.");
+      sessionWriters.execute(writeTask);
     }
+  }
+
+  /** Sends the queued messages, called by a session writer. */
+  private void writeQueuedMessages()
+  {
     boolean needClosing = false;
-    while (!closeInitiated)
+    try
     {
-      byte[] buffer;
-      try
-      {
-        buffer = sendQueue.take();
-      }
-      catch (InterruptedException ie)
+      final List<byte[]> buffers = new ArrayList<>();
+      sendQueue.drainTo(buffers, MAX_MESSAGES_PER_WRITE);
+      if (!buffers.isEmpty() && !closeInitiated)
       {
-        break;
-      }
-      try
-      {
-        send(buffer);
-      }
-      catch (IOException e)
-      {
-        setSessionError(e);
-        needClosing = true;
+        send(buffers);
       }
     }
-    isRunning.set(false);
+    catch (IOException e)
+    {
+      setSessionError(e);
+      needClosing = true;
+    }
+    finally
+    {
+      isWriteScheduled.set(false);
+    }
+
     if (needClosing)
     {
       close();
     }
-    if (logger.isTraceEnabled())
+    else
     {
-      logger.trace(getName() + " stopped.");
+      // Messages may have been queued after draining, or left for fairness with other sessions
+      scheduleWrite();
     }
   }
-
-  /**
-   * This method can be called to wait until the session thread is
-   * properly started.
-   * @throws InterruptedException when interrupted
-   */
-  public void waitForStartup() throws InterruptedException
-  {
-    latch.await();
-  }
 }
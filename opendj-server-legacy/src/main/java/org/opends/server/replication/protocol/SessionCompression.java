@@ -0,0 +1,95 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.replication.protocol;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The compression applied to the messages sent on a replication session.
+ * <p>
+ * Compression is only applied when both peers speak the version 9 or later of the replication
+ * protocol, which always accept compressed messages whatever the compression they apply
+ * themselves: the compression is chosen independently by each peer for the messages it sends.
+ */
+public enum SessionCompression
+{
+  /** Messages are sent uncompressed. */
+  NONE((byte) 0),
+  /** Messages are compressed with deflate. */
+  DEFLATE((byte) 1),
+  /**
+   * Messages are compressed with deflate, using a preset dictionary of the attribute names and
+   * values common in directory entries, which improves the compression of small messages.
+   */
+  DEFLATE_WITH_DICTIONARY((byte) 2);
+
+  /**
+   * The preset dictionary shared by all the peers. It must never change: changing it would require
+   * a new version of the replication protocol. The most frequent strings come last.
+   */
+  static final byte[] DICTIONARY = ("uniqueMember: memberOf: manager: secretary: seeAlso: "
+      + "postalAddress: postalCode: street: st: l: title: employeeNumber: initials: "
+      + "facsimileTelephoneNumber: mobile: homePhone: pager: roomNumber: departmentNumber: "
+      + "groupOfUniqueNames groupOfNames organizationalUnit organization domain "
+      + "ds-pwp-password-policy-dn: pwdChangedTime: pwdHistory: ds-pwp-last-login-time: "
+      + "member: description: telephoneNumber: givenName: userPassword: {SSHA512}{SSHA}{PBKDF2} "
+      + "objectClass: top person organizationalPerson inetOrgPerson "
+      + "creatorsName: createTimestamp: modifiersName: modifyTimestamp: entryUUID: "
+      + "ds-sync-hist: :repl:add:del:mod:attrDel: ou=People,ou=Groups,dc=example,dc=com "
+      + "mail: uid: sn: cn: dn: ").getBytes(StandardCharsets.UTF_8);
+
+  private final byte value;
+
+  private SessionCompression(byte value)
+  {
+    this.value = value;
+  }
+
+  /**
+   * Returns the value identifying this compression in the compressed messages.
+   *
+   * @return the value identifying this compression in the compressed messages
+   */
+  byte getValue()
+  {
+    return value;
+  }
+
+  @Override
+  public String toString()
+  {
+    return name().toLowerCase().replace('_', '-');
+  }
+
+  /**
+   * Returns the compression identified by the provided value in a compressed message.
+   *
+   * @param value
+   *          the value read from a compressed message
+   * @return the compression identified by the provided value, or {@code null} if it is unknown
+   */
+  static SessionCompression valueOf(byte value)
+  {
+    for (SessionCompression compression : values())
+    {
+      if (compression.value == value)
+      {
+        return compression;
+      }
+    }
+    return null;
+  }
+}
@@ -13,6 +13,7 @@
  *
  * Copyright 2006-2009 Sun Microsystems, Inc.
  * Portions Copyright 2013-2015 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.replication.protocol;
 
@@ -115,6 +116,7 @@ public class UpdateMsg extends ReplicationMsg
   public void setAssured(boolean assured)
   {
     assuredFlag = assured;
+    clearEncodedForms();
   }
 
   /** {@inheritDoc} */
@@ -166,6 +168,7 @@ public class UpdateMsg extends ReplicationMsg
   public void setAssuredMode(AssuredMode assuredMode)
   {
     this.assuredMode = assuredMode;
+    clearEncodedForms();
   }
 
   /**
@@ -176,6 +179,17 @@ public class UpdateMsg extends ReplicationMsg
   public void setSafeDataLevel(byte safeDataLevel)
   {
     this.safeDataLevel = safeDataLevel;
+    clearEncodedForms();
+  }
+
+  /**
+   * Discards the cached encoded forms of this message, if any. This is called
+   * by every setter modifying the encoded form of this message. The assured
+   * flags are part of the encoded form.
+   */
+  protected void clearEncodedForms()
+  {
+    // Nothing is cached by default
   }
 
   /**
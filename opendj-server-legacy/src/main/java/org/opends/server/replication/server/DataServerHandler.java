@@ -327,6 +327,7 @@ public class DataServerHandler extends ServerHandler
   {
     session
         .setProtocolVersion(getCompatibleVersion(serverStartMsg.getVersion()));
+    session.setCompression(replicationServer.getSessionCompression());
     tmpGenerationId = serverStartMsg.getGenerationId();
     serverId = serverStartMsg.getServerId();
     serverURL = serverStartMsg.getServerURL();
@@ -66,6 +66,7 @@ import org.opends.server.replication.protocol.ReplSessionSecurity;
 import org.opends.server.replication.protocol.ReplicationMsg;
 import org.opends.server.replication.protocol.ServerStartMsg;
 import org.opends.server.replication.protocol.Session;
+import org.opends.server.replication.protocol.SessionCompression;
 import org.opends.server.replication.server.changelog.api.ChangeNumberIndexDB;
 import org.opends.server.replication.server.changelog.api.ChangeNumberIndexRecord;
 import org.opends.server.replication.server.changelog.api.ChangelogDB;
@@ -903,6 +904,11 @@ public class ReplicationServer
     cryptoSuite.newParameters(config.getCipherTransformation(), config.getCipherKeyLength(),
         config.isConfidentialityEnabled());
 
+    if (config.isChangelogDurableWrites() != oldConfig.isChangelogDurableWrites())
+    {
+      this.changelogDB.setDurableWrites(config.isChangelogDurableWrites());
+    }
+
     // changing the listen port requires to stop the listen thread
     // and restart it.
     if (getReplicationPort() != oldConfig.getReplicationPort())
@@ -1360,6 +1366,24 @@ public class ReplicationServer
     return config.isComputeChangeNumber();
   }
 
+  /**
+   * Returns whether the changes stored in the change-log must be made durable before being acknowledged.
+   * @return true if the changes stored in the change-log must be made durable
+   */
+  public boolean isDurableWritesEnabled()
+  {
+    return config.isChangelogDurableWrites();
+  }
+
+  /**
+   * Returns the compression of the messages sent on the sessions established by this RS.
+   * @return the compression of the messages sent on the sessions established by this RS
+   */
+  public SessionCompression getSessionCompression()
+  {
+    return SessionCompression.valueOf(config.getSessionCompression().name());
+  }
+
   /**
    * Returns whether the external change-log contains data from at least a domain.
    * @return whether the external change-log contains data from at least a domain
@@ -322,12 +322,19 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
      */
     final PreparedAssuredInfo preparedAssuredInfo = getPreparedAssuredInfo(updateMsg, sourceHandler);
 
+    final List<Integer> assuredServers = getAssuredServers(updateMsg, preparedAssuredInfo);
+
     if (!publishUpdateMsg(updateMsg))
     {
       return;
     }
 
-    final List<Integer> assuredServers = getAssuredServers(updateMsg, preparedAssuredInfo);
+    // The acks which can be sent immediately are only sent once the message is
+    // stored in the changelog, and durable when durable writes are enabled
+    if (preparedAssuredInfo != null && preparedAssuredInfo.ackImmediately)
+    {
+      sourceHandler.send(new AckMsg(updateMsg.getCSN()));
+    }
 
     /**
      * The update message equivalent to the originally received update message,
@@ -429,7 +436,7 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
   }
 
   private PreparedAssuredInfo getPreparedAssuredInfo(UpdateMsg updateMsg,
-      ServerHandler sourceHandler) throws IOException
+      ServerHandler sourceHandler)
   {
     // Assured feature is supported starting from replication protocol V2
     if (!updateMsg.isAssured()
@@ -518,6 +525,11 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
           generationIdSavedStatus = true;
         }
       }
+      if (updateMsg.isAssured())
+      {
+        // Hold the acks until the change is durable
+        this.domainDB.waitForDurability(baseDN, updateMsg.getCSN());
+      }
       return true;
     }
     catch (ChangelogException e)
@@ -534,6 +546,28 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
     }
   }
 
+  /**
+   * Waits until the update with the provided CSN is durable, when durable
+   * writes are enabled.
+   *
+   * @return {@code false} if the changelog failed, in which case the
+   *         replication server is shut down
+   */
+  private boolean waitForDurability(CSN csn)
+  {
+    try
+    {
+      this.domainDB.waitForDurability(baseDN, csn);
+      return true;
+    }
+    catch (ChangelogException e)
+    {
+      logger.error(ERR_CHANGELOG_SHUTDOWN_DATABASE_ERROR, stackTraceToSingleLineString(e));
+      localReplicationServer.shutdown();
+      return false;
+    }
+  }
+
   private void addUpdate(ServerHandler sHandler, UpdateMsg updateMsg,
       NotAssuredUpdateMsg notAssuredUpdateMsg, List<Integer> assuredServers)
   {
@@ -573,11 +607,18 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
        * received. Null if expectedServers is null.
        */
       public ExpectedAcksInfo expectedAcksInfo;
+
+      /**
+       * Whether the ack can be sent to the requester as soon as the update is
+       * published, without waiting for the acks of other servers.
+       */
+      public boolean ackImmediately;
   }
 
   /**
-   * Process a just received assured update message in Safe Read mode. If the
-   * ack can be sent immediately, it is done here. This will also determine to
+   * Process a just received assured update message in Safe Read mode. This
+   * determines whether the ack can be sent immediately, which is done once the
+   * update is published. This will also determine to
    * which suitable servers an ack should be requested from, and which ones are
    * not eligible for an ack request.
    * This method is an helper method for the put method. Have a look at the put
@@ -587,11 +628,9 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
    *        update was received
    * @return A suitable PreparedAssuredInfo object that contains every needed
    * info to proceed with post to server writers.
-   * @throws IOException When an IO exception happens during the update
-   *         processing.
    */
   private PreparedAssuredInfo processSafeReadUpdateMsg(
-    UpdateMsg update, ServerHandler sourceHandler) throws IOException
+    UpdateMsg update, ServerHandler sourceHandler)
   {
     CSN csn = update.getCSN();
     byte groupId = localReplicationServer.getGroupId();
@@ -652,15 +691,16 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
     if (preparedAssuredInfo.expectedServers == null)
     {
       // No eligible servers found, send the ack immediately
-      sourceHandler.send(new AckMsg(csn));
+      preparedAssuredInfo.ackImmediately = true;
     }
 
     return preparedAssuredInfo;
   }
 
   /**
-   * Process a just received assured update message in Safe Data mode. If the
-   * ack can be sent immediately, it is done here. This will also determine to
+   * Process a just received assured update message in Safe Data mode. This
+   * determines whether the ack can be sent immediately, which is done once the
+   * update is published. This will also determine to
    * which suitable servers an ack should be requested from, and which ones are
    * not eligible for an ack request.
    * This method is an helper method for the put method. Have a look at the put
@@ -670,14 +710,13 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
    *        update was received
    * @return A suitable PreparedAssuredInfo object that contains every needed
    * info to proceed with post to server writers.
-   * @throws IOException When an IO exception happens during the update
-   *         processing.
    */
   private PreparedAssuredInfo processSafeDataUpdateMsg(
-    UpdateMsg update, ServerHandler sourceHandler) throws IOException
+    UpdateMsg update, ServerHandler sourceHandler)
   {
     CSN csn = update.getCSN();
     boolean interestedInAcks = false;
+    boolean ackImmediately = false;
     byte safeDataLevel = update.getSafeDataLevel();
     byte groupId = localReplicationServer.getGroupId();
     byte sourceGroupId = sourceHandler.getGroupId();
@@ -700,7 +739,7 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
              * mode with safe data level 1, coming from a DS. No need to wait
              * for more acks
              */
-            sourceHandler.send(new AckMsg(csn));
+            ackImmediately = true;
           } else
           {
             /**
@@ -720,7 +759,7 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
            */
           if (safeDataLevel > (byte) 1)
           {
-            sourceHandler.send(new AckMsg(csn));
+            ackImmediately = true;
           }
         }
     }
@@ -733,6 +772,7 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
 
     // Return computed structures
     PreparedAssuredInfo preparedAssuredInfo = new PreparedAssuredInfo();
+    preparedAssuredInfo.ackImmediately = ackImmediately;
     int nExpectedServers = expectedServers.size();
     if (interestedInAcks) // interestedInAcks so level > 1
     {
@@ -755,7 +795,7 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
       {
         // level > 1 and source is a DS but no eligible servers found, send the
         // ack immediately
-        sourceHandler.send(new AckMsg(csn));
+        preparedAssuredInfo.ackImmediately = true;
       }
     }
 
@@ -819,6 +859,11 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
          */
         if (expectedAcksInfo.processReceivedAck(ackingServer, ack))
         {
+          // Acks from other servers may arrive before the update is durable here
+          if (!waitForDurability(csn))
+          {
+            return;
+          }
           // Remove the object from the map as no more needed
           waitingAcks.remove(csn);
           AckMsg finalAck = expectedAcksInfo.createAck(false);
@@ -74,6 +74,7 @@ public class ReplicationServerHandler extends ServerHandler
       short protocolVersion = getCompatibleVersion(inReplServerStartMsg
           .getVersion());
       session.setProtocolVersion(protocolVersion);
+      session.setCompression(replicationServer.getSessionCompression());
       generationId = inReplServerStartMsg.getGenerationId();
       serverId = inReplServerStartMsg.getServerId();
       serverURL = inReplServerStartMsg.getServerURL();
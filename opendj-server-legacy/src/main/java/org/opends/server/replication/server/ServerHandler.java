@@ -295,17 +295,7 @@ public abstract class ServerHandler extends MessageHandler
       session.setName("Replication server RS(" + getReplicationServerId()
           + ") session thread to " + this + " at "
           + session.getReadableRemoteAddress());
-      session.start();
-      try
-      {
-        session.waitForStartup();
-      }
-      catch (InterruptedException e)
-      {
-        final LocalizableMessage message =
-            ERR_SESSION_STARTUP_INTERRUPTED.get(session.getName());
-        throw new DirectoryException(ResultCode.OTHER, message, e);
-      }
+      session.startAsyncPublish();
       reader.start();
       writer.start();
 
@@ -523,6 +513,10 @@ public abstract class ServerHandler extends MessageHandler
     // Encryption
     attributes.add("ssl-encryption", session.isEncrypted());
 
+    // Compression
+    attributes.add("session-compression", session.getCompression());
+    attributes.add("compression-ratio", session.getCompressionRatio());
+
     // Data generation
     attributes.add("generation-id", generationId);
 
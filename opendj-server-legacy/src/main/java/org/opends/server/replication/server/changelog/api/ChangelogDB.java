@@ -58,6 +58,17 @@ public interface ChangelogDB
   void setComputeChangeNumber(boolean computeChangeNumber)
       throws ChangelogException;
 
+  /**
+   * Sets whether the changes published to the replication database must be
+   * made durable. Durable changes are synchronized with the file system by
+   * group commit, using a separate new thread. Can be called while the
+   * database is running.
+   *
+   * @param durableWrites
+   *          whether the published changes must be made durable
+   */
+  void setDurableWrites(boolean durableWrites);
+
   /**
    * Shutdown the replication database.
    *
@@ -199,6 +199,23 @@ public interface ReplicationDomainDB
   boolean publishUpdateMsg(DN baseDN, UpdateMsg updateMsg)
       throws ChangelogException;
 
+  /**
+   * Waits until the changes published to the replicaDB for the specified
+   * serverId and replication domain are durable. Returns immediately if durable
+   * writes are disabled.
+   * <p>
+   * The changes published concurrently are made durable together, so that
+   * waiting does not cost one synchronization with the file system per change.
+   *
+   * @param baseDN
+   *          the replication domain baseDN
+   * @param csn
+   *          the CSN of the last published change, which identifies the serverId
+   * @throws ChangelogException
+   *           If a database problem happened
+   */
+  void waitForDurability(DN baseDN, CSN csn) throws ChangelogException;
+
   /**
    * Let the DB know this replica is alive.
    * <p>
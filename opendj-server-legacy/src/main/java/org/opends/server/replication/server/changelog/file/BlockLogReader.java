@@ -69,7 +69,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
 
   private final RecordParser<K, V> parser;
 
-  private final RandomAccessFile reader;
+  private final LogFileInput reader;
 
   private final File file;
 
@@ -91,7 +91,28 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   static <K extends Comparable<K>, V> BlockLogReader<K, V> newReader(
       final File file, final RandomAccessFile reader, final RecordParser<K, V> parser)
   {
-    return new BlockLogReader<>(file, reader, parser, BLOCK_SIZE);
+    return newReader(file, LogFileInput.newChannelInput(reader.getChannel()), parser);
+  }
+
+  /**
+   * Creates a reader for the provided file, file input and parser.
+   *
+   * @param <K>
+   *          Type of the key of a record, which must be comparable.
+   * @param <V>
+   *          Type of the value of a record.
+   * @param file
+   *          The log file to read.
+   * @param input
+   *          The input on the log file.
+   * @param parser
+   *          The parser to decode the records read.
+   * @return a new log reader
+   */
+  static <K extends Comparable<K>, V> BlockLogReader<K, V> newReader(
+      final File file, final LogFileInput input, final RecordParser<K, V> parser)
+  {
+    return new BlockLogReader<>(file, input, parser, BLOCK_SIZE);
   }
 
   /**
@@ -117,11 +138,38 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   static <K extends Comparable<K>, V> BlockLogReader<K, V> newReaderForTests(
       final File file, final RandomAccessFile reader, final RecordParser<K, V> parser, int blockSize)
   {
-    return new BlockLogReader<>(file, reader, parser, blockSize);
+    return newReaderForTests(
+        file, reader != null ? LogFileInput.newChannelInput(reader.getChannel()) : null, parser, blockSize);
+  }
+
+  /**
+   * Creates a reader for the provided file, file input, parser and block size.
+   * <p>
+   * This method is intended for tests only, to allow tuning of the block size.
+   *
+   * @param <K>
+   *          Type of the key of a record, which must be comparable.
+   * @param <V>
+   *          Type of the value of a record.
+   * @param file
+   *          The log file to read.
+   * @param input
+   *          The input on the log file.
+   * @param parser
+   *          The parser to decode the records read.
+   * @param blockSize
+   *          The size of each block, or frequency at which the record offset is
+   *          present in the log file.
+   * @return a new log reader
+   */
+  static <K extends Comparable<K>, V> BlockLogReader<K, V> newReaderForTests(
+      final File file, final LogFileInput input, final RecordParser<K, V> parser, int blockSize)
+  {
+    return new BlockLogReader<>(file, input, parser, blockSize);
   }
 
   private BlockLogReader(
-      final File file, final RandomAccessFile reader, final RecordParser<K, V> parser, final int blockSize)
+      final File file, final LogFileInput reader, final RecordParser<K, V> parser, final int blockSize)
   {
     this.file = file;
     this.reader = reader;
@@ -173,14 +221,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
    */
   public void seekToPosition(final long filePosition) throws ChangelogException
   {
-    try
-    {
-      reader.seek(filePosition);
-    }
-    catch (IOException e)
-    {
-      throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_SEEK.get(filePosition, file.getPath()), e);
-    }
+    reader.seek(filePosition);
   }
 
   /**
@@ -204,15 +245,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
    */
   public long getFilePosition() throws ChangelogException
   {
-    try
-    {
-      return reader.getFilePointer();
-    }
-    catch (IOException e)
-    {
-      throw new ChangelogException(
-          ERR_CHANGELOG_UNABLE_TO_GET_CURSOR_READER_POSITION_LOG_FILE.get(file.getPath()), e);
-    }
+    return reader.getPosition();
   }
 
   /** {@inheritDoc} */
@@ -265,9 +298,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
     reader.seek(blockStartPosition);
     if (blockStartPosition > 0)
     {
-      final byte[] offsetData = new byte[SIZE_OF_BLOCK_OFFSET];
-      reader.readFully(offsetData);
-      final int offsetToRecord = ByteString.wrap(offsetData).toInt();
+      final int offsetToRecord = reader.readInt();
       if (offsetToRecord > 0)
       {
         reader.seek(blockStartPosition - offsetToRecord);
@@ -287,16 +318,16 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
     try
     {
       // read length of record if not already at EOF
-      final long filePosition = reader.getFilePointer();
-      if (reader.length() == filePosition)
+      if (reader.isAtEnd())
       {
         return null;
       }
+      final long filePosition = reader.getPosition();
       int distanceToBlockStart = getDistanceToNextBlockStart(filePosition, blockSize);
       final int recordLength = readRecordLength(distanceToBlockStart);
 
       // read the record
-      long currentPosition = reader.getFilePointer();
+      long currentPosition = reader.getPosition();
       distanceToBlockStart = getDistanceToNextBlockStart(currentPosition, blockSize);
       final ByteStringBuilder recordBytes =
           new ByteStringBuilder(getLengthOfStoredRecord(recordLength, distanceToBlockStart));
@@ -305,7 +336,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
       {
         if (distanceToBlockStart != 0)
         {
-          recordBytes.appendBytes(reader, distanceToBlockStart);
+          reader.readFully(recordBytes, distanceToBlockStart);
         }
         // skip the offset
         reader.skipBytes(SIZE_OF_BLOCK_OFFSET);
@@ -318,7 +349,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
       if (remainingBytesToRead > 0)
       {
         // last bytes of the record
-        recordBytes.appendBytes(reader, remainingBytesToRead);
+        reader.readFully(recordBytes, remainingBytesToRead);
       }
       return recordBytes.toByteString();
     }
@@ -354,24 +385,21 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   /** Read the length of a record. */
   private int readRecordLength(final int distanceToBlockStart) throws IOException
   {
-    final ByteStringBuilder lengthBytes = new ByteStringBuilder(SIZE_OF_RECORD_SIZE);
     if (distanceToBlockStart > 0 && distanceToBlockStart < SIZE_OF_RECORD_SIZE)
     {
-      lengthBytes.appendBytes(reader, distanceToBlockStart);
+      final ByteStringBuilder lengthBytes = new ByteStringBuilder(SIZE_OF_RECORD_SIZE);
+      reader.readFully(lengthBytes, distanceToBlockStart);
       // skip the offset
       reader.skipBytes(SIZE_OF_BLOCK_OFFSET);
-      lengthBytes.appendBytes(reader, SIZE_OF_RECORD_SIZE - distanceToBlockStart);
+      reader.readFully(lengthBytes, SIZE_OF_RECORD_SIZE - distanceToBlockStart);
+      return lengthBytes.toByteString().toInt();
     }
-    else
+    if (distanceToBlockStart == 0)
     {
-      if (distanceToBlockStart == 0)
-      {
-        // skip the offset
-        reader.skipBytes(SIZE_OF_BLOCK_OFFSET);
-      }
-      lengthBytes.appendBytes(reader, SIZE_OF_RECORD_SIZE);
+      // skip the offset
+      reader.skipBytes(SIZE_OF_BLOCK_OFFSET);
     }
-    return lengthBytes.toByteString().toInt();
+    return reader.readInt();
   }
 
   /**
@@ -606,7 +634,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
      long lastValidPosition = lastBlockStart;
      for (ByteString recordData = readNextRecord(); recordData != null; recordData = readNextRecord()) {
        parser.decodeRecord(recordData);
-       lastValidPosition = reader.getFilePointer();
+       lastValidPosition = reader.getPosition();
      }
 
      final boolean isFileValid = lastValidPosition == getFileLength();
@@ -20,7 +20,6 @@ import static org.opends.server.replication.server.changelog.file.BlockLogReader
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.SyncFailedException;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ByteStringBuilder;
@@ -143,10 +142,10 @@ class BlockLogWriter<K extends Comparable<K>, V> implements Closeable
   /**
    * Synchronize all modifications to the log file to the underlying device.
    *
-   * @throws SyncFailedException
+   * @throws IOException
    *           If synchronization fails.
    */
-  public void sync() throws SyncFailedException
+  public void sync() throws IOException
   {
     writer.sync();
   }
@@ -290,6 +290,7 @@ public class FileChangelogDB implements ChangelogDB, ReplicationDomainDB
         startIndexer();
       }
       setPurgeDelay(replicationServer.getPurgeDelay());
+      setDurableWrites(replicationServer.isDurableWritesEnabled());
     }
     catch (ChangelogException e)
     {
@@ -615,6 +616,12 @@ public class FileChangelogDB implements ChangelogDB, ReplicationDomainDB
     }
   }
 
+  @Override
+  public void setDurableWrites(final boolean durableWrites)
+  {
+    replicationEnv.setDurableWrites(durableWrites);
+  }
+
   void resetChangeNumberIndex(long newFirstCN, DN baseDN, CSN newFirstCSN) throws ChangelogException
   {
     if (!replicationServer.isChangeNumberEnabled())
@@ -821,6 +828,16 @@ public class FileChangelogDB implements ChangelogDB, ReplicationDomainDB
     return pair.getSecond(); // replica DB was created
   }
 
+  @Override
+  public void waitForDurability(final DN baseDN, final CSN csn) throws ChangelogException
+  {
+    final FileReplicaDB replicaDB = getReplicaDB(baseDN, csn.getServerId());
+    if (replicaDB != null)
+    {
+      replicaDB.waitForDurability();
+    }
+  }
+
   @Override
   public void replicaHeartbeat(final DN baseDN, final CSN heartbeatCSN) throws ChangelogException
   {
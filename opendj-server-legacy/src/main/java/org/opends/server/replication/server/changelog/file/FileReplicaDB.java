@@ -156,6 +156,7 @@ class FileReplicaDB
     }
 
     log.append(Record.from(updateMsg.getCSN(), updateMsg));
+    replicationEnv.notifyRecordAppended(log);
 
     final CSNLimits limits = csnLimits;
     final boolean updateNew = limits.newestCSN == null || limits.newestCSN.isOlderThan(updateMsg.getCSN());
@@ -168,6 +169,17 @@ class FileReplicaDB
     }
   }
 
+  /**
+   * Waits until the messages added to this replicaDB are durable, when durable writes are enabled.
+   *
+   * @throws ChangelogException
+   *           If the messages could not be synchronized with the file system.
+   */
+  void waitForDurability() throws ChangelogException
+  {
+    replicationEnv.waitForDurability(log);
+  }
+
   /**
    * Get the oldest CSN that has not been purged yet.
    *
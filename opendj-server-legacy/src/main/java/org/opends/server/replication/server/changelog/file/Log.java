@@ -516,6 +516,34 @@ final class Log<K extends Comparable<K>, V> implements Closeable
     }
   }
 
+  /**
+   * Synchronize the records appended so far with the file system, while letting
+   * other threads append new records.
+   * <p>
+   * After a successful call to this method, it is guaranteed that all records
+   * appended to the log before the call are persisted to the file system.
+   * Records appended to a rotated log file have been persisted on rotation.
+   *
+   * @throws ChangelogException
+   *           If the synchronization fails.
+   */
+  void syncAppendedRecords() throws ChangelogException
+  {
+    // The shared lock prevents the head log file from being rotated or closed during the sync
+    sharedLock.lock();
+    try
+    {
+      if (!isClosed)
+      {
+        getHeadLogFile().syncAppendedRecords();
+      }
+    }
+    finally
+    {
+      sharedLock.unlock();
+    }
+  }
+
   /**
    * Returns a cursor that allows to retrieve the records from this log,
    * starting at the first position.
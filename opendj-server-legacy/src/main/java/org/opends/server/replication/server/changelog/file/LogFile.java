@@ -108,7 +108,7 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
     sharedLock = rwLock.readLock();
     createLogFileIfNotExists();
 
-    readerPool = new LogReaderPool<>(logfile, parser);
+    readerPool = new LogReaderPool<>(logfile, parser, !isWriteEnabled);
     if (isWriteEnabled)
     {
       ensureLogFileIsValid(parser);
@@ -336,6 +336,30 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
     }
   }
 
+  /**
+   * Synchronize the records appended so far with the file system, without preventing
+   * concurrent appends.
+   * <p>
+   * After a successful call to this method, it is guaranteed that all records
+   * appended before the call are persisted to the file system. The caller must
+   * ensure that this log file is not closed during the call.
+   *
+   * @throws ChangelogException
+   *           If the synchronization fails.
+   */
+  void syncAppendedRecords() throws ChangelogException
+  {
+    checkLogIsEnabledForWrite();
+    try
+    {
+      writer.sync();
+    }
+    catch (Exception e)
+    {
+      throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_SYNC.get(getPath()), e);
+    }
+  }
+
   /**
    * Returns a cursor that allows to retrieve the records from this log,
    * starting at the first position.
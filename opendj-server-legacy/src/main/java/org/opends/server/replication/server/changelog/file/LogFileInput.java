@@ -0,0 +1,303 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.replication.server.changelog.file;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+
+/**
+ * Input used by a {@link BlockLogReader} to read a log file.
+ * <p>
+ * Each input has its own position in the file and reads the file through a window, so that seeking is free and
+ * small reads do not need any system call. Two kinds of inputs are available:
+ * <ul>
+ * <li>a mapped input, whose window is a memory mapping of a whole read-only log file, shared by all the inputs on
+ * the file,</li>
+ * <li>a channel input, whose window is a small buffer filled by positional reads on a file channel, which is used
+ * for the head log file, still growing.</li>
+ * </ul>
+ */
+abstract class LogFileInput implements Closeable
+{
+  /** Size of the buffer of a channel input. */
+  static final int CHANNEL_BUFFER_SIZE = 8192;
+
+  /** Content of the file from {@code windowStart}. */
+  ByteBuffer window;
+  /** Position in the file of the first byte of the window. */
+  long windowStart;
+  /** Position in the file of the next byte to read. */
+  private long position;
+  /** Length of the file the last time it has been read. */
+  private long knownLength = -1;
+
+  /**
+   * Returns an input reading the provided memory mapping of a whole file.
+   *
+   * @param mappedFile
+   *          The memory mapping of a file, which must not change.
+   * @return a new input, whose closing does not release the mapping
+   */
+  static LogFileInput newMappedInput(MappedByteBuffer mappedFile)
+  {
+    return new MappedInput(mappedFile);
+  }
+
+  /**
+   * Returns an input reading the provided file channel with positional reads.
+   *
+   * @param channel
+   *          The channel to read. It is closed when the input is closed.
+   * @return a new input
+   */
+  static LogFileInput newChannelInput(FileChannel channel)
+  {
+    return new ChannelInput(channel);
+  }
+
+  /**
+   * Returns the length of the file.
+   *
+   * @return the length of the file
+   * @throws IOException
+   *           If an error occurs while reading the length.
+   */
+  final long length() throws IOException
+  {
+    knownLength = readLength();
+    return knownLength;
+  }
+
+  /**
+   * Indicates whether the position is at, or beyond, the end of the file. The length of the file is only read when the
+   * position reaches the length previously read.
+   *
+   * @return {@code true} if there is nothing left to read
+   * @throws IOException
+   *           If an error occurs while reading the length.
+   */
+  final boolean isAtEnd() throws IOException
+  {
+    return position >= knownLength && position >= length();
+  }
+
+  /**
+   * Returns the position of the next byte to read.
+   *
+   * @return the position of the next byte to read
+   */
+  final long getPosition()
+  {
+    return position;
+  }
+
+  /**
+   * Sets the position of the next byte to read.
+   *
+   * @param position
+   *          The position of the next byte to read, which can be beyond the end of file.
+   */
+  final void seek(long position)
+  {
+    this.position = position;
+  }
+
+  /**
+   * Skips bytes.
+   *
+   * @param length
+   *          The number of bytes to skip.
+   */
+  final void skipBytes(int length)
+  {
+    position += length;
+  }
+
+  /**
+   * Reads an integer.
+   *
+   * @return the integer read
+   * @throws EOFException
+   *           If the end of file is reached before reading the integer.
+   * @throws IOException
+   *           If an error occurs while reading.
+   */
+  final int readInt() throws IOException
+  {
+    if (positionWindow() >= 4)
+    {
+      final int value = window.getInt();
+      position += 4;
+      return value;
+    }
+    final ByteStringBuilder bytes = new ByteStringBuilder(4);
+    readFully(bytes, 4);
+    return bytes.toByteString().toInt();
+  }
+
+  /**
+   * Reads bytes and appends them to the provided builder.
+   *
+   * @param builder
+   *          The builder receiving the bytes.
+   * @param length
+   *          The number of bytes to read.
+   * @throws EOFException
+   *           If the end of file is reached before reading all the bytes.
+   * @throws IOException
+   *           If an error occurs while reading.
+   */
+  final void readFully(ByteStringBuilder builder, int length) throws IOException
+  {
+    int remaining = length;
+    while (remaining > 0)
+    {
+      final int available = positionWindow();
+      if (available <= 0)
+      {
+        throw new EOFException();
+      }
+      final int count = Math.min(available, remaining);
+      builder.appendBytes(window, count);
+      position += count;
+      remaining -= count;
+    }
+  }
+
+  /**
+   * Positions the window on the current position, filling it if necessary.
+   *
+   * @return the number of bytes available in the window from the current position
+   */
+  private int positionWindow() throws IOException
+  {
+    if (position < windowStart || position >= windowStart + window.limit())
+    {
+      if (!fillWindow(position))
+      {
+        return 0;
+      }
+    }
+    window.position((int) (position - windowStart));
+    return window.remaining();
+  }
+
+  /**
+   * Fills the window with the content of the file from the provided position.
+   *
+   * @param fromPosition
+   *          The position from which to fill the window.
+   * @return {@code true} if the window contains the byte at the provided position, {@code false} if the position is
+   *         at the end of file
+   * @throws IOException
+   *           If an error occurs while reading.
+   */
+  abstract boolean fillWindow(long fromPosition) throws IOException;
+
+  /**
+   * Reads the length of the file.
+   *
+   * @return the length of the file
+   * @throws IOException
+   *           If an error occurs while reading.
+   */
+  abstract long readLength() throws IOException;
+
+  /** Input on a memory mapped file: the window is the whole file. */
+  private static final class MappedInput extends LogFileInput
+  {
+    MappedInput(MappedByteBuffer mappedFile)
+    {
+      window = mappedFile.duplicate();
+    }
+
+    @Override
+    boolean fillWindow(long fromPosition)
+    {
+      return false;
+    }
+
+    @Override
+    long readLength()
+    {
+      return window.limit();
+    }
+
+    @Override
+    public void close()
+    {
+      // The mapping is shared: it is released when it is not referenced anymore.
+    }
+
+    @Override
+    public String toString()
+    {
+      return "MappedInput [length=" + window.limit() + ", position=" + getPosition() + "]";
+    }
+  }
+
+  /** Input on a file channel, using positional reads. */
+  private static final class ChannelInput extends LogFileInput
+  {
+    private final FileChannel channel;
+
+    ChannelInput(FileChannel channel)
+    {
+      this.channel = channel;
+      this.window = ByteBuffer.allocate(CHANNEL_BUFFER_SIZE);
+      this.window.limit(0);
+    }
+
+    @Override
+    boolean fillWindow(long fromPosition) throws IOException
+    {
+      window.clear();
+      windowStart = fromPosition;
+      long readPosition = fromPosition;
+      int count;
+      while (window.hasRemaining() && (count = channel.read(window, readPosition)) > 0)
+      {
+        readPosition += count;
+      }
+      window.flip();
+      return window.hasRemaining();
+    }
+
+    @Override
+    long readLength() throws IOException
+    {
+      return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      channel.close();
+    }
+
+    @Override
+    public String toString()
+    {
+      return "ChannelInput [channel=" + channel + ", position=" + getPosition() + "]";
+    }
+  }
+}
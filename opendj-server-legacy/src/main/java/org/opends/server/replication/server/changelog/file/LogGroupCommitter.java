@@ -0,0 +1,204 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.replication.server.changelog.file;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.opends.server.api.DirectoryThread;
+import org.opends.server.replication.server.changelog.api.ChangelogException;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Thread making the records appended to the logs durable by group commit.
+ * <p>
+ * The logs receiving records are collected while the previous batch is being synchronized, then
+ * synchronized together in the next batch: whatever the number of records appended concurrently,
+ * each log is synchronized at most once per batch. Threads which must not go further before their
+ * records are durable, for example before acknowledging them, wait for the end of the next batch.
+ */
+class LogGroupCommitter extends DirectoryThread
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The logs having records appended since the start of the current batch. */
+  @GuardedBy("this")
+  private final Set<Log<?, ?>> logsToSync = new LinkedHashSet<>();
+  /** The number of batches which have been started. */
+  @GuardedBy("this")
+  private long startedBatches;
+  /** The number of batches which have been completed. */
+  @GuardedBy("this")
+  private long completedBatches;
+  /** The first synchronization failure: once a log failed, durability cannot be guaranteed anymore. */
+  @GuardedBy("this")
+  private ChangelogException syncFailure;
+  /** Whether this thread has stopped processing batches. */
+  @GuardedBy("this")
+  private boolean isStopped;
+
+  LogGroupCommitter()
+  {
+    super("Changelog DB group committer");
+  }
+
+  /**
+   * Notifies that records have been appended to the provided log.
+   * <p>
+   * The records will be made durable by the next batch.
+   *
+   * @param log
+   *          The log to which records have been appended.
+   */
+  synchronized void notifyRecordsAppended(final Log<?, ?> log)
+  {
+    if (!isStopped && logsToSync.add(log))
+    {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Waits until the records appended to the provided log are durable.
+   *
+   * @param log
+   *          The log to which records have been appended.
+   * @throws ChangelogException
+   *           If the records could not be synchronized with the file system.
+   */
+  void waitForDurability(final Log<?, ?> log) throws ChangelogException
+  {
+    synchronized (this)
+    {
+      if (!isStopped)
+      {
+        // A batch started earlier may have missed the latest records: wait for the next one
+        final long batch = startedBatches + 1;
+        logsToSync.add(log);
+        notifyAll();
+        try
+        {
+          while (completedBatches < batch && !isStopped)
+          {
+            wait();
+          }
+        }
+        catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+        if (syncFailure != null)
+        {
+          throw new ChangelogException(syncFailure);
+        }
+        if (completedBatches >= batch)
+        {
+          return;
+        }
+      }
+    }
+    // no batch is coming, synchronize from the calling thread
+    log.syncAppendedRecords();
+  }
+
+  @Override
+  public void initiateShutdown()
+  {
+    super.initiateShutdown();
+    synchronized (this)
+    {
+      notifyAll();
+    }
+  }
+
+  @Override
+  public void run()
+  {
+    try
+    {
+      List<Log<?, ?>> batchLogs;
+      while ((batchLogs = startBatch()) != null)
+      {
+        ChangelogException failure = null;
+        for (Log<?, ?> log : batchLogs)
+        {
+          try
+          {
+            log.syncAppendedRecords();
+          }
+          catch (ChangelogException e)
+          {
+            logger.traceException(e);
+            if (failure == null)
+            {
+              failure = e;
+            }
+          }
+        }
+        completeBatch(failure);
+      }
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    finally
+    {
+      synchronized (this)
+      {
+        isStopped = true;
+        logsToSync.clear();
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Waits for logs to synchronize, and starts a new batch with them.
+   *
+   * @return the logs to synchronize in the new batch, or {@code null} if shutdown has been initiated
+   *         and there is nothing left to synchronize
+   */
+  private synchronized List<Log<?, ?>> startBatch() throws InterruptedException
+  {
+    while (logsToSync.isEmpty())
+    {
+      if (isShutdownInitiated())
+      {
+        return null;
+      }
+      wait();
+    }
+    final List<Log<?, ?>> batchLogs = new ArrayList<>(logsToSync);
+    logsToSync.clear();
+    startedBatches++;
+    return batchLogs;
+  }
+
+  private synchronized void completeBatch(final ChangelogException failure)
+  {
+    if (failure != null && syncFailure == null)
+    {
+      syncFailure = failure;
+    }
+    completedBatches = startedBatches;
+    notifyAll();
+  }
+}
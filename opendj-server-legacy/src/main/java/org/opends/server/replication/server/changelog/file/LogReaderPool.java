@@ -15,17 +15,26 @@
  */
 package org.opends.server.replication.server.changelog.file;
 
+import static java.nio.file.StandardOpenOption.*;
+
 import java.io.File;
-import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 
 import org.opends.server.replication.server.changelog.api.ChangelogException;
 import org.opends.server.util.StaticUtils;
 
+import com.forgerock.opendj.util.OperatingSystem;
+
 import static org.opends.messages.ReplicationMessages.*;
 
 /**
  * A Pool of readers to a log file.
-
+ * <p>
+ * Readers of a read-only log file share a memory mapping of the whole file, so that they can binary-search and scan
+ * it without any system call. Readers of a log file which is still written read it with positional reads through
+ * their own buffer.
  *
  * @param <K>
  *          Type of the key of a record, which must be comparable.
@@ -40,6 +49,15 @@ class LogReaderPool<K extends Comparable<K>, V>
 
   private final RecordParser<K, V> parser;
 
+  /**
+   * Indicates whether the file can be memory mapped. Windows does not allow deleting a mapped file, and mappings are
+   * released only when garbage collected, so log files are never mapped on Windows.
+   */
+  private final boolean isMappable;
+
+  /** Memory mapping of the whole file, created by the first reader of a mappable file. */
+  private volatile MappedByteBuffer mappedFile;
+
   /**
    * Creates a pool of readers for provided file.
    *
@@ -47,11 +65,14 @@ class LogReaderPool<K extends Comparable<K>, V>
    *          The file to read.
    * @param parser
    *          The parser to decode the records read.
+   * @param isReadOnly
+   *          {@code true} if the file is never written anymore, {@code false} if records can be appended to it.
    */
-  LogReaderPool(File file, RecordParser<K, V> parser)
+  LogReaderPool(File file, RecordParser<K, V> parser, boolean isReadOnly)
   {
     this.file = file;
     this.parser = parser;
+    this.isMappable = isReadOnly && !OperatingSystem.isWindows();
   }
 
   /**
@@ -83,12 +104,16 @@ class LogReaderPool<K extends Comparable<K>, V>
     StaticUtils.close(reader);
   }
 
-  /** Returns a random access file to read this log. */
+  /** Returns a reader on this log, using the memory mapping of the file if possible. */
   private BlockLogReader<K, V> getReader(File file) throws ChangelogException
   {
     try
     {
-      return BlockLogReader.newReader(file, new RandomAccessFile(file, "r"), parser) ;
+      final MappedByteBuffer mapping = getMappedFile();
+      final LogFileInput input = mapping != null
+          ? LogFileInput.newMappedInput(mapping)
+          : LogFileInput.newChannelInput(FileChannel.open(file.toPath(), READ));
+      return BlockLogReader.newReader(file, input, parser);
     }
     catch (Exception e)
     {
@@ -96,13 +121,45 @@ class LogReaderPool<K extends Comparable<K>, V>
     }
   }
 
+  /** Returns the memory mapping of the file, or {@code null} if the file cannot be mapped. */
+  private MappedByteBuffer getMappedFile() throws Exception
+  {
+    if (!isMappable)
+    {
+      return null;
+    }
+    MappedByteBuffer mapping = mappedFile;
+    if (mapping == null)
+    {
+      synchronized (this)
+      {
+        mapping = mappedFile;
+        if (mapping == null)
+        {
+          try (FileChannel channel = FileChannel.open(file.toPath(), READ))
+          {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+              return null;
+            }
+            // The mapping remains valid after the channel is closed
+            mapping = channel.map(MapMode.READ_ONLY, 0, channel.size());
+          }
+          mappedFile = mapping;
+        }
+      }
+    }
+    return mapping;
+  }
+
   /**
    * Shutdown this pool, releasing all files handles opened
    * on the file.
    */
   void shutdown()
   {
-    // Nothing to do yet as no file handle is kept opened.
+    // The mapping is released once the readers still using it are closed and garbage collected.
+    mappedFile = null;
   }
 
 }
@@ -16,11 +16,10 @@
 package org.opends.server.replication.server.changelog.file;
 
 import java.io.File;
-import java.io.FileDescriptor;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.SyncFailedException;
+import java.nio.channels.FileChannel;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.opends.server.loggers.MeteredStream;
@@ -40,8 +39,8 @@ class LogWriter extends OutputStream
   /** The stream to write data in the file, capable of counting bytes written. */
   private final MeteredStream stream;
 
-  /** The file descriptor on the file. */
-  private final FileDescriptor fileDescriptor;
+  /** The channel on the file, used to force its content to the underlying device. */
+  private final FileChannel channel;
 
   /**
    * Creates a writer on the provided file.
@@ -58,7 +57,7 @@ class LogWriter extends OutputStream
     {
       FileOutputStream fos = new FileOutputStream(file, true);
       this.stream = new MeteredStream(fos, file.length());
-      this.fileDescriptor = fos.getFD();
+      this.channel = fos.getChannel();
     }
     catch (Exception e)
     {
@@ -123,12 +122,15 @@ class LogWriter extends OutputStream
 
   /**
    * Synchronize all modifications to the file to the underlying device.
+   * <p>
+   * Only the content of the file and the metadata needed to read it back are forced,
+   * and this method can be called while other threads are writing to the file.
    *
-   * @throws SyncFailedException
+   * @throws IOException
    *            If synchronization fails.
    */
-  void sync() throws SyncFailedException {
-    fileDescriptor.sync();
+  void sync() throws IOException {
+    channel.force(false);
   }
 
   /** {@inheritDoc} */
@@ -249,6 +249,12 @@ class ReplicationEnvironment implements ChangelogStateProvider
    * It is persisted to file each time it changes and read at server start. */
   private long cnIndexDBLastRotationTime;
 
+  /**
+   * The thread making the records appended to the replica DBs durable, or {@code null} if
+   * durable writes are disabled.
+   */
+  private volatile LogGroupCommitter groupCommitter;
+
   /**
    * Creates the replication environment.
    *
@@ -286,6 +292,64 @@ class ReplicationEnvironment implements ChangelogStateProvider
     }
   }
 
+  /**
+   * Sets whether the records appended to the replica DBs must be made durable.
+   * <p>
+   * When enabled, the records are synchronized with the file system by group commit,
+   * and {@link #waitForDurability(Log)} waits for the synchronization.
+   *
+   * @param durableWrites
+   *          whether the records appended to the replica DBs must be made durable
+   */
+  synchronized void setDurableWrites(final boolean durableWrites)
+  {
+    final LogGroupCommitter oldCommitter = groupCommitter;
+    if (durableWrites && oldCommitter == null && !isShuttingDown.get())
+    {
+      final LogGroupCommitter newCommitter = new LogGroupCommitter();
+      newCommitter.start();
+      groupCommitter = newCommitter;
+    }
+    else if (!durableWrites && oldCommitter != null)
+    {
+      groupCommitter = null;
+      oldCommitter.initiateShutdown();
+    }
+  }
+
+  /**
+   * Notifies that a record has been appended to the provided replica DB log.
+   *
+   * @param log
+   *          The log to which a record has been appended.
+   */
+  void notifyRecordAppended(final Log<CSN, UpdateMsg> log)
+  {
+    final LogGroupCommitter committer = groupCommitter;
+    if (committer != null)
+    {
+      committer.notifyRecordsAppended(log);
+    }
+  }
+
+  /**
+   * Waits until the records appended to the provided replica DB log are durable.
+   * Returns immediately if durable writes are disabled.
+   *
+   * @param log
+   *          The log to which records have been appended.
+   * @throws ChangelogException
+   *           If the records could not be synchronized with the file system.
+   */
+  void waitForDurability(final Log<CSN, UpdateMsg> log) throws ChangelogException
+  {
+    final LogGroupCommitter committer = groupCommitter;
+    if (committer != null)
+    {
+      committer.waitForDurability(log);
+    }
+  }
+
   /**
    * Returns the state of the replication changelog.
    *
@@ -417,6 +481,7 @@ class ReplicationEnvironment implements ChangelogStateProvider
   {
     if (isShuttingDown.compareAndSet(false, true))
     {
+      setDurableWrites(false);
       logsReplicaDB.clear();
       logsCNIndexDB.clear();
     }
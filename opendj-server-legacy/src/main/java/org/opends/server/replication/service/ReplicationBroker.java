@@ -66,6 +66,7 @@ import org.opends.server.replication.protocol.ReplSessionSecurity;
 import org.opends.server.replication.protocol.ReplicationMsg;
 import org.opends.server.replication.protocol.ServerStartMsg;
 import org.opends.server.replication.protocol.Session;
+import org.opends.server.replication.protocol.SessionCompression;
 import org.opends.server.replication.protocol.StartMsg;
 import org.opends.server.replication.protocol.StartSessionMsg;
 import org.opends.server.replication.protocol.StopMsg;
@@ -1120,6 +1121,7 @@ public class ReplicationBroker
        */
       newSession.setProtocolVersion(
           getCompatibleVersion(replServerInfo.getProtocolVersion()));
+      newSession.setCompression(SessionCompression.valueOf(config.getSessionCompression().name()));
 
       if (!isSslEncryption)
       {
@@ -2821,6 +2823,16 @@ public class ReplicationBroker
     return session != null ? session.isEncrypted() : false;
   }
 
+  /**
+   * Returns the compression ratio of the messages sent to the replication server.
+   * @return the compression ratio of the messages sent, 1 if no message has been compressed
+   */
+  public double getSessionCompressionRatio()
+  {
+    final Session session = connectedRS.get().session;
+    return session != null ? session.getCompressionRatio() : 1;
+  }
+
   /**
    * Signals the RS we just entered a new status.
    * @param newStatus The status the local DS just entered
@@ -2674,6 +2674,15 @@ public abstract class ReplicationDomain
     return broker != null && broker.isSessionEncrypted();
   }
 
+  /**
+   * Returns the compression ratio of the messages sent to the replication server.
+   * @return the compression ratio of the messages sent, 1 if no message has been compressed
+   */
+  double getSessionCompressionRatio()
+  {
+    return broker != null ? broker.getSessionCompressionRatio() : 1;
+  }
+
   /**
    * Check if the domain is connected to a ReplicationServer.
    *
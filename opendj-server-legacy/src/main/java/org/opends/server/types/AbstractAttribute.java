@@ -18,7 +18,9 @@ package org.opends.server.types;
 
 import java.util.Collection;
 
+import org.forgerock.opendj.ldap.Assertion;
 import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ConditionResult;
 import org.forgerock.opendj.ldap.DecodeException;
 import org.forgerock.opendj.ldap.schema.AttributeType;
 import org.forgerock.opendj.ldap.schema.MatchingRule;
@@ -83,6 +85,28 @@ public abstract class AbstractAttribute implements Attribute
     return true;
   }
 
+  @Override
+  public ConditionResult matchesAssertion(MatchingRule matchingRule, Assertion assertion)
+  {
+    ConditionResult result = ConditionResult.FALSE;
+    for (ByteString value : this)
+    {
+      try
+      {
+        if (assertion.matches(matchingRule.normalizeAttributeValue(value)).toBoolean())
+        {
+          return ConditionResult.TRUE;
+        }
+      }
+      catch (DecodeException e)
+      {
+        // If we cannot find a definite match, then we should return "undefined".
+        result = ConditionResult.UNDEFINED;
+      }
+    }
+    return result;
+  }
+
   @Override
   public int hashCode()
   {
@@ -135,6 +135,10 @@ public abstract class AbstractOperation
   private long processingStartNanoTime;
   /** The time that processing ended on this operation in nanoseconds. */
   private long processingStopNanoTime;
+  /** The time that this operation was created in nanoseconds. */
+  private final long creationNanoTime = System.nanoTime();
+  /** The time that this operation waited before its processing started in nanoseconds. */
+  private long queueWaitNanoTime = -1;
 
   /** The callbacks to be invoked once a response has been sent. */
   private List<Runnable> postResponseCallbacks;
@@ -579,10 +583,8 @@ public abstract class AbstractOperation
   public final void setProcessingStartTime()
   {
     processingStartTime = System.currentTimeMillis();
-    if(useNanoTime)
-    {
-      processingStartNanoTime = System.nanoTime();
-    }
+    processingStartNanoTime = System.nanoTime();
+    queueWaitNanoTime = processingStartNanoTime - creationNanoTime;
   }
 
   @Override
@@ -621,6 +623,12 @@ public abstract class AbstractOperation
     return -1;
   }
 
+  @Override
+  public final long getQueueWaitNanoTime()
+  {
+    return queueWaitNanoTime;
+  }
+
   @Override
   public final void registerPostResponseCallback(Runnable callback)
   {
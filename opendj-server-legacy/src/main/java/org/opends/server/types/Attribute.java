@@ -20,9 +20,11 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
+import org.forgerock.opendj.ldap.Assertion;
 import org.forgerock.opendj.ldap.AttributeDescription;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ConditionResult;
+import org.forgerock.opendj.ldap.schema.MatchingRule;
 
 /**
  * This class defines a data structure for storing and interacting
@@ -97,6 +99,23 @@ public interface Attribute extends Iterable<ByteString>
    */
   ConditionResult matchesEqualityAssertion(ByteString assertionValue);
 
+  /**
+   * Indicates whether this attribute has any value matching the provided
+   * assertion. Callers matching many attributes against the same assertion
+   * value, such as search filters, can therefore create the assertion once.
+   *
+   * @param matchingRule
+   *          The matching rule which created the assertion, and with which the
+   *          values of this attribute are normalized.
+   * @param assertion
+   *          The assertion to match the values of this attribute against.
+   * @return {@link ConditionResult#TRUE} if at least one value matches the
+   *         assertion, {@link ConditionResult#UNDEFINED} if no value matches
+   *         and a value could not be normalized, or
+   *         {@link ConditionResult#FALSE} otherwise.
+   */
+  ConditionResult matchesAssertion(MatchingRule matchingRule, Assertion assertion);
+
   /**
    * Indicates whether the provided object is an attribute that is
    * equal to this attribute. It will be considered equal if the
@@ -192,6 +192,24 @@ public final class AttributeBuilder implements Iterable<ByteString>
       }
     }
 
+    @Override
+    public ConditionResult matchesAssertion(MatchingRule matchingRule, Assertion assertion)
+    {
+      if (matchingRule != getAttributeType().getEqualityMatchingRule())
+      {
+        return super.matchesAssertion(matchingRule, assertion);
+      }
+      // The values are already normalized with the equality matching rule
+      for (AttributeValue value : values)
+      {
+        if (assertion.matches(value.getNormalizedValue()).toBoolean())
+        {
+          return ConditionResult.TRUE;
+        }
+      }
+      return ConditionResult.FALSE;
+    }
+
     @Override
     public AttributeDescription getAttributeDescription()
     {
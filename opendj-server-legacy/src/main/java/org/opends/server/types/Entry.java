@@ -3342,6 +3342,37 @@ public class Entry
   public static Entry decode(ByteSequenceReader entryBuffer,
                              CompressedSchema compressedSchema)
          throws DirectoryException
+  {
+    return decode(entryBuffer, compressedSchema, null);
+  }
+
+
+
+  /**
+   * Decodes the provided byte array as an entry using the V3
+   * encoding, only keeping the attributes of the provided types.
+   * Skipping the other attributes is much cheaper than decoding
+   * them, which matters when an entry is only decoded to be matched
+   * against a search filter.
+   *
+   * @param  entryBuffer       The byte buffer containing the data to
+   *                           be decoded.
+   * @param  compressedSchema  The compressed schema manager to use
+   *                           when decoding tokenized schema
+   *                           elements.
+   * @param  attributeTypes    The types of the attributes to decode,
+   *                           or {@code null} to decode all the
+   *                           attributes.
+   *
+   * @return  The decoded entry.
+   *
+   * @throws  DirectoryException  If the provided byte array cannot be
+   *                              decoded as an entry.
+   */
+  public static Entry decode(ByteSequenceReader entryBuffer,
+                             CompressedSchema compressedSchema,
+                             Set<AttributeType> attributeTypes)
+         throws DirectoryException
   {
     try
     {
@@ -3400,9 +3431,9 @@ public class Entry
       // Now, we should iterate through the user and operational attributes and
       // decode each one.
       Map<AttributeType, List<Attribute>> userAttributes =
-          decodeAttributes(version, entryBuffer, config);
+          decodeAttributes(version, entryBuffer, config, attributeTypes);
       Map<AttributeType, List<Attribute>> operationalAttributes =
-          decodeAttributes(version, entryBuffer, config);
+          decodeAttributes(version, entryBuffer, config, attributeTypes);
 
 
       // We've got everything that we need, so create and return the entry.
@@ -3523,6 +3554,8 @@ public class Entry
    *                     entry.
    * @param  config  The configuration that may be used to control how
    *                 the entry is encoded.
+   * @param  attributeTypes The types of the attributes to decode, or
+   *                        {@code null} to decode all the attributes.
    *
    * @return  A map of the decoded object classes.
    * @throws  DirectoryException  If a problem occurs while attempting
@@ -3530,7 +3563,7 @@ public class Entry
    */
   private static Map<AttributeType, List<Attribute>>
   decodeAttributes(Byte ver, ByteSequenceReader entryBuffer,
-                   EntryEncodeConfig config) throws DirectoryException
+                   EntryEncodeConfig config, Set<AttributeType> attributeTypes) throws DirectoryException
   {
     // Next is the total number of attributes.  It may be a
     // single byte or multiple bytes.
@@ -3549,7 +3582,11 @@ public class Entry
           entryBuffer.readBERLength();
         }
         // Decode the attribute.
-        Attribute a = config.getCompressedSchema().decodeAttribute(entryBuffer);
+        Attribute a = config.getCompressedSchema().decodeAttribute(entryBuffer, attributeTypes);
+        if (a == null)
+        {
+          continue;
+        }
         AttributeType attrType = a.getAttributeDescription().getAttributeType();
         List<Attribute> attrList = attributes.get(attrType);
         if (attrList == null)
@@ -3575,11 +3612,22 @@ public class Entry
         String name = entryBuffer.readStringUtf8(endPos - startPos);
         entryBuffer.skip(1);
 
-        final AttributeBuilder builder = new AttributeBuilder(name);
+        final AttributeDescription attrDesc = AttributeDescription.valueOf(name);
 
         // Next, we have the number of values.
         int numValues = entryBuffer.readBERLength();
 
+        if (attributeTypes != null && !attributeTypes.contains(attrDesc.getAttributeType()))
+        {
+          for (int j=0; j < numValues; j++)
+          {
+            entryBuffer.skip(entryBuffer.readBERLength());
+          }
+          continue;
+        }
+
+        final AttributeBuilder builder = new AttributeBuilder(attrDesc);
+
         // Next, we have the sequence of length-value pairs.
         for (int j=0; j < numValues; j++)
         {
@@ -555,6 +555,17 @@ public interface Operation extends Runnable
    */
   long getProcessingNanoTime();
 
+  /**
+   * Retrieves the length of time in nanoseconds that this operation
+   * waited between its creation and the start of its processing,
+   * which is mostly spent in the work queue.
+   *
+   * @return  The length of time in nanoseconds that this operation
+   *          waited before being processed, or -1 if its processing
+   *          has not started.
+   */
+  long getQueueWaitNanoTime();
+
   /**
    * Indicates that processing on this operation has completed
    * successfully and that the client should perform any associated
@@ -90,6 +90,16 @@ public final class SearchFilter
   /** The matching rule ID for this search filter. */
   private final String matchingRuleID;
 
+  /**
+   * The assertion of this equality, substring, greater-or-equal or
+   * less-or-equal filter, lazily created on first use. Search filters are
+   * immutable and matched against many entries, so the assertion value is
+   * only normalized once.
+   */
+  private volatile CompiledAssertion compiledAssertion;
+  /** The components of this AND or OR filter, cheapest first, lazily computed. */
+  private volatile SearchFilter[] evaluationOrder;
+
   private SearchFilter(FilterType filterType,
                       Collection<SearchFilter> filterComponents,
                       SearchFilter notComponent,
@@ -2280,7 +2290,10 @@ public final class SearchFilter
         throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), message);
       }
 
-      for (SearchFilter f : filterComponents)
+      // A FALSE component makes the AND filter FALSE, even after an
+      // UNDEFINED one, so the components can be evaluated in any order.
+      ConditionResult andResult = ConditionResult.TRUE;
+      for (SearchFilter f : getEvaluationOrder())
       {
         ConditionResult result =
              f.matchesEntryInternal(completeFilter, entry, depth + 1);
@@ -2304,7 +2317,8 @@ public final class SearchFilter
              "Undefined result for AND component %s in filter " +
              "%s for entry %s", f, completeFilter, entry.getName());
             }
-            return result;
+            andResult = result;
+            break;
           default:
             LocalizableMessage message =
                 ERR_SEARCH_FILTER_INVALID_RESULT_TYPE.
@@ -2313,15 +2327,14 @@ public final class SearchFilter
         }
       }
 
-      // If we have gotten here, then all the components must have
-      // matched.
+      // If we have gotten here, then no component was FALSE.
       if (logger.isTraceEnabled())
       {
         logger.trace(
-            "Returning TRUE for AND component %s in filter %s " +
-            "for entry %s", this, completeFilter, entry.getName());
+            "Returning %s for AND component %s in filter %s " +
+            "for entry %s", andResult, this, completeFilter, entry.getName());
       }
-      return ConditionResult.TRUE;
+      return andResult;
     }
   }
 
@@ -2389,7 +2402,7 @@ public final class SearchFilter
       }
 
       ConditionResult result = ConditionResult.FALSE;
-      for (SearchFilter f : filterComponents)
+      for (SearchFilter f : getEvaluationOrder())
       {
         switch (f.matchesEntryInternal(completeFilter, entry,
                                depth+1))
@@ -2604,7 +2617,11 @@ public final class SearchFilter
     ConditionResult result = ConditionResult.FALSE;
     for (Attribute a : attrs)
     {
-      final ConditionResult cr = a.matchesEqualityAssertion(assertionValue);
+      ConditionResult cr = matchesCompiledAssertion(a);
+      if (cr == null)
+      {
+        cr = a.matchesEqualityAssertion(assertionValue);
+      }
       if (cr == ConditionResult.TRUE)
       {
         if (logger.isTraceEnabled())
@@ -2695,9 +2712,12 @@ public final class SearchFilter
     ConditionResult result = ConditionResult.FALSE;
     for (Attribute a : attrs)
     {
-      switch (a.matchesSubstring(subInitialElement,
-                                 subAnyElements,
-                                 subFinalElement))
+      ConditionResult cr = matchesCompiledAssertion(a);
+      if (cr == null)
+      {
+        cr = a.matchesSubstring(subInitialElement, subAnyElements, subFinalElement);
+      }
+      switch (cr)
       {
         case TRUE:
           if (logger.isTraceEnabled())
@@ -2794,7 +2814,12 @@ public final class SearchFilter
     ConditionResult result = ConditionResult.FALSE;
     for (Attribute a : attrs)
     {
-      switch (a.greaterThanOrEqualTo(assertionValue))
+      ConditionResult cr = matchesCompiledAssertion(a);
+      if (cr == null)
+      {
+        cr = a.greaterThanOrEqualTo(assertionValue);
+      }
+      switch (cr)
       {
         case TRUE:
           if (logger.isTraceEnabled())
@@ -2893,7 +2918,12 @@ public final class SearchFilter
     ConditionResult result = ConditionResult.FALSE;
     for (Attribute a : attrs)
     {
-      switch (a.lessThanOrEqualTo(assertionValue))
+      ConditionResult cr = matchesCompiledAssertion(a);
+      if (cr == null)
+      {
+        cr = a.lessThanOrEqualTo(assertionValue);
+      }
+      switch (cr)
       {
         case TRUE:
           if (logger.isTraceEnabled())
@@ -3298,6 +3328,170 @@ public final class SearchFilter
     return result;
   }
 
+  /**
+   * Matches the provided attribute against the assertion of this filter,
+   * which is only created once.
+   *
+   * @param  a  The attribute to match.
+   *
+   * @return  The result of the match, or {@code null} if the attribute
+   *          must perform the matching itself: virtual attributes may not
+   *          need to compute their values, and attributes of a subtype may
+   *          have a different matching rule.
+   */
+  private ConditionResult matchesCompiledAssertion(Attribute a)
+  {
+    if (a.isVirtual())
+    {
+      return null;
+    }
+    CompiledAssertion compiled = compiledAssertion;
+    if (compiled == null)
+    {
+      compiled = compileAssertion();
+      compiledAssertion = compiled;
+    }
+    if (getMatchingRule(a.getAttributeDescription().getAttributeType()) != compiled.matchingRule)
+    {
+      return null;
+    }
+    if (compiled.assertion == null)
+    {
+      // Same result as the attribute for a missing matching rule or an invalid assertion value
+      return ConditionResult.UNDEFINED;
+    }
+    return a.matchesAssertion(compiled.matchingRule, compiled.assertion);
+  }
+
+  private CompiledAssertion compileAssertion()
+  {
+    final MatchingRule matchingRule = getMatchingRule(getAttributeType());
+    if (matchingRule == null)
+    {
+      return new CompiledAssertion(null, null);
+    }
+    try
+    {
+      switch (filterType)
+      {
+      case EQUALITY:
+        return new CompiledAssertion(matchingRule, matchingRule.getAssertion(assertionValue));
+      case SUBSTRING:
+        return new CompiledAssertion(matchingRule,
+            matchingRule.getSubstringAssertion(subInitialElement, subAnyElements, subFinalElement));
+      case GREATER_OR_EQUAL:
+        return new CompiledAssertion(matchingRule, matchingRule.getGreaterOrEqualAssertion(assertionValue));
+      case LESS_OR_EQUAL:
+        return new CompiledAssertion(matchingRule, matchingRule.getLessOrEqualAssertion(assertionValue));
+      default:
+        throw new IllegalStateException("Unexpected filter type " + filterType);
+      }
+    }
+    catch (DecodeException e)
+    {
+      logger.traceException(e);
+      return new CompiledAssertion(matchingRule, null);
+    }
+  }
+
+  private MatchingRule getMatchingRule(AttributeType attributeType)
+  {
+    switch (filterType)
+    {
+    case EQUALITY:
+      return attributeType.getEqualityMatchingRule();
+    case SUBSTRING:
+      return attributeType.getSubstringMatchingRule();
+    case GREATER_OR_EQUAL:
+    case LESS_OR_EQUAL:
+      return attributeType.getOrderingMatchingRule();
+    default:
+      throw new IllegalStateException("Unexpected filter type " + filterType);
+    }
+  }
+
+  /**
+   * Returns the components of this AND or OR filter, ordered so that the
+   * cheapest ones are evaluated first: their result is more likely to make
+   * the evaluation of the other components unnecessary.
+   */
+  private SearchFilter[] getEvaluationOrder()
+  {
+    SearchFilter[] components = evaluationOrder;
+    if (components == null)
+    {
+      components = filterComponents.toArray(new SearchFilter[filterComponents.size()]);
+      final int[] costs = new int[components.length];
+      for (int i = 0; i < components.length; i++)
+      {
+        costs[i] = components[i].getEvaluationCost(0);
+      }
+      // Stable insertion sort: there are few components
+      for (int i = 1; i < components.length; i++)
+      {
+        final SearchFilter component = components[i];
+        final int cost = costs[i];
+        int j = i - 1;
+        for (; j >= 0 && costs[j] > cost; j--)
+        {
+          components[j + 1] = components[j];
+          costs[j + 1] = costs[j];
+        }
+        components[j + 1] = component;
+        costs[j + 1] = cost;
+      }
+      evaluationOrder = components;
+    }
+    return components;
+  }
+
+  /** Returns an estimate of the cost of matching this filter against an entry. */
+  private int getEvaluationCost(int depth)
+  {
+    switch (filterType)
+    {
+    case PRESENT:
+      return 1;
+    case EQUALITY:
+      return 2;
+    case GREATER_OR_EQUAL:
+    case LESS_OR_EQUAL:
+    case APPROXIMATE_MATCH:
+      return 3;
+    case SUBSTRING:
+      return 4;
+    case EXTENSIBLE_MATCH:
+      return 5;
+    case NOT:
+      return notComponent != null && depth < MAX_NESTED_FILTER_DEPTH ? notComponent.getEvaluationCost(depth + 1) : 1;
+    default:
+      int cost = 1;
+      if (filterComponents != null && depth < MAX_NESTED_FILTER_DEPTH)
+      {
+        for (SearchFilter f : filterComponents)
+        {
+          cost += f.getEvaluationCost(depth + 1);
+        }
+      }
+      return cost;
+    }
+  }
+
+  /** An assertion created once for all the attributes a filter is matched against. */
+  private static final class CompiledAssertion
+  {
+    /** The matching rule of the filter attribute type. */
+    private final MatchingRule matchingRule;
+    /** The assertion, {@code null} if there is no matching rule or the assertion value is invalid. */
+    private final Assertion assertion;
+
+    private CompiledAssertion(MatchingRule matchingRule, Assertion assertion)
+    {
+      this.matchingRule = matchingRule;
+      this.assertion = assertion;
+    }
+  }
+
   private static Schema getSchema()
   {
     return DirectoryServer.getInstance().getServerContext().getSchema();
@@ -0,0 +1,209 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.util;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of direct byte buffers, leased by the client connections only while
+ * they have data in flight.
+ * <p>
+ * Connections return their buffers to the pool as soon as they become idle, so
+ * that the memory used for I/O buffers depends on the number of active
+ * connections, rather than on the number of open connections. Buffers are
+ * pooled by capacity. At most a fixed number of idle buffers of each capacity
+ * are kept: the other ones are left to the garbage collector.
+ */
+@org.opends.server.types.PublicAPI(
+     stability=org.opends.server.types.StabilityLevel.PRIVATE,
+     mayInstantiate=true,
+     mayExtend=false,
+     mayInvoke=true)
+public final class DirectBufferPool
+{
+  /** The idle buffers of a given capacity. */
+  private static final class IdleBuffers
+  {
+    private final ConcurrentLinkedDeque<ByteBuffer> buffers = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+  }
+
+  private final int maxIdleBuffers;
+  private final ConcurrentMap<Integer, IdleBuffers> idleBuffersByCapacity = new ConcurrentHashMap<>();
+  private final LongAdder leasedBuffers = new LongAdder();
+  private final LongAdder leasedBytes = new LongAdder();
+  private final LongAdder allocatedBuffers = new LongAdder();
+
+  /**
+   * Creates a new pool of direct byte buffers.
+   *
+   * @param maxIdleBuffers
+   *          the maximum number of idle buffers of each capacity kept in the
+   *          pool
+   */
+  public DirectBufferPool(int maxIdleBuffers)
+  {
+    this.maxIdleBuffers = maxIdleBuffers;
+  }
+
+  /**
+   * Leases a cleared direct byte buffer, which must be released to this pool
+   * once it is not needed anymore.
+   *
+   * @param capacity
+   *          the capacity of the buffer
+   * @return a cleared direct byte buffer of the provided capacity
+   */
+  public ByteBuffer lease(int capacity)
+  {
+    final IdleBuffers idleBuffers = getIdleBuffersOf(capacity);
+    ByteBuffer buffer = idleBuffers.buffers.pollFirst();
+    if (buffer != null)
+    {
+      idleBuffers.size.decrementAndGet();
+      buffer.clear();
+    }
+    else
+    {
+      buffer = ByteBuffer.allocateDirect(capacity);
+      allocatedBuffers.increment();
+    }
+    leasedBuffers.increment();
+    leasedBytes.add(capacity);
+    return buffer;
+  }
+
+  /**
+   * Returns a buffer leased from this pool. The buffer must not be used
+   * anymore by the caller.
+   *
+   * @param buffer
+   *          the buffer leased from this pool
+   */
+  public void release(ByteBuffer buffer)
+  {
+    final int capacity = buffer.capacity();
+    leasedBuffers.decrement();
+    leasedBytes.add(-capacity);
+
+    final IdleBuffers idleBuffers = getIdleBuffersOf(capacity);
+    if (idleBuffers.size.incrementAndGet() <= maxIdleBuffers)
+    {
+      // Most recently used first, as they are more likely to be in the CPU caches
+      idleBuffers.buffers.offerFirst(buffer);
+    }
+    else
+    {
+      idleBuffers.size.decrementAndGet();
+    }
+  }
+
+  /**
+   * Gives up a buffer leased from this pool without returning it to the pool,
+   * because it may still be in use somewhere. The buffer is left to the garbage
+   * collector.
+   *
+   * @param buffer
+   *          the buffer leased from this pool
+   */
+  public void discard(ByteBuffer buffer)
+  {
+    leasedBuffers.decrement();
+    leasedBytes.add(-buffer.capacity());
+  }
+
+  private IdleBuffers getIdleBuffersOf(int capacity)
+  {
+    final Integer key = capacity;
+    IdleBuffers idleBuffers = idleBuffersByCapacity.get(key);
+    if (idleBuffers == null)
+    {
+      idleBuffers = new IdleBuffers();
+      final IdleBuffers existing = idleBuffersByCapacity.putIfAbsent(key, idleBuffers);
+      if (existing != null)
+      {
+        idleBuffers = existing;
+      }
+    }
+    return idleBuffers;
+  }
+
+  /**
+   * Returns the number of buffers currently leased.
+   *
+   * @return the number of buffers currently leased
+   */
+  public long getLeasedBuffers()
+  {
+    return leasedBuffers.sum();
+  }
+
+  /**
+   * Returns the total capacity of the buffers currently leased.
+   *
+   * @return the total capacity of the buffers currently leased, in bytes
+   */
+  public long getLeasedBytes()
+  {
+    return leasedBytes.sum();
+  }
+
+  /**
+   * Returns the number of idle buffers kept in the pool.
+   *
+   * @return the number of idle buffers kept in the pool
+   */
+  public long getIdleBuffers()
+  {
+    long nbIdleBuffers = 0;
+    for (IdleBuffers idleBuffers : idleBuffersByCapacity.values())
+    {
+      nbIdleBuffers += idleBuffers.size.get();
+    }
+    return nbIdleBuffers;
+  }
+
+  /**
+   * Returns the total capacity of the idle buffers kept in the pool.
+   *
+   * @return the total capacity of the idle buffers kept in the pool, in bytes
+   */
+  public long getIdleBytes()
+  {
+    long idleBytes = 0;
+    for (Map.Entry<Integer, IdleBuffers> entry : idleBuffersByCapacity.entrySet())
+    {
+      idleBytes += (long) entry.getKey() * entry.getValue().size.get();
+    }
+    return idleBytes;
+  }
+
+  /**
+   * Returns the number of buffers allocated since the pool was created.
+   *
+   * @return the number of buffers allocated since the pool was created
+   */
+  public long getAllocatedBuffers()
+  {
+    return allocatedBuffers.sum();
+  }
+}
@@ -13,6 +13,7 @@
  *
  * Copyright 2006-2010 Sun Microsystems, Inc.
  * Portions Copyright 2010-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.util;
 
@@ -364,6 +365,56 @@ public final class ServerConstants
 
 
 
+  /**
+   * The name of the monitor attribute that is used to hold the connection
+   * handler number of buffers currently leased from the
+   * buffer pool.
+   */
+  public static final String ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_LEASED_BUFFERS =
+       "ds-connectionhandler-buffer-pool-leased-buffers";
+
+
+
+  /**
+   * The name of the monitor attribute that is used to hold the connection
+   * handler size in bytes of the buffers currently leased
+   * from the buffer pool.
+   */
+  public static final String ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_LEASED_BYTES =
+       "ds-connectionhandler-buffer-pool-leased-bytes";
+
+
+
+  /**
+   * The name of the monitor attribute that is used to hold the connection
+   * handler number of idle buffers kept in the buffer
+   * pool.
+   */
+  public static final String ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_IDLE_BUFFERS =
+       "ds-connectionhandler-buffer-pool-idle-buffers";
+
+
+
+  /**
+   * The name of the monitor attribute that is used to hold the connection
+   * handler size in bytes of the idle buffers kept in the
+   * buffer pool.
+   */
+  public static final String ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_IDLE_BYTES =
+       "ds-connectionhandler-buffer-pool-idle-bytes";
+
+
+
+  /**
+   * The name of the monitor attribute that is used to hold the connection
+   * handler number of buffers allocated by the buffer
+   * pool.
+   */
+  public static final String ATTR_MONITOR_CONNHANDLER_BUFFER_POOL_ALLOCATED_BUFFERS =
+       "ds-connectionhandler-buffer-pool-allocated-buffers";
+
+
+
   /**
    * The name of the standard attribute that is used to specify the set of
    * public naming contexts (suffixes) for the Directory Server, formatted in
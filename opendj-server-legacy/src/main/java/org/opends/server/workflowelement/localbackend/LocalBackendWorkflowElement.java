@@ -44,6 +44,7 @@ import org.opends.server.core.DirectoryServer;
 import org.opends.server.core.ModifyDNOperation;
 import org.opends.server.core.ModifyOperation;
 import org.opends.server.core.SearchOperation;
+import org.opends.server.monitors.OperationLatencyMonitor;
 import org.opends.server.types.AbstractOperation;
 import org.opends.server.types.AdditionalLogItem;
 import org.opends.server.types.CanceledOperationException;
@@ -740,7 +741,9 @@ public class LocalBackendWorkflowElement
       return false;
     }
 
+    final long startNanoTime = System.nanoTime();
     executeOperation(operation, backend);
+    recordLatency(backend, operation, System.nanoTime() - startNanoTime);
 
     // For subtree search operation we need to go through the subordinate nodes.
     if (operation.getOperationType() == OperationType.SEARCH)
@@ -750,6 +753,19 @@ public class LocalBackendWorkflowElement
     return true;
   }
 
+  /**
+   * Records the time spent by the backend processing the operation, together
+   * with the time the operation waited in the work queue.
+   */
+  private static void recordLatency(LocalBackend<?> backend, Operation operation, long backendNanoTime)
+  {
+    final OperationLatencyMonitor latencyMonitor = backend.getLatencyMonitor();
+    if (latencyMonitor != null)
+    {
+      latencyMonitor.recordOperation(operation.getOperationType(), backendNanoTime, operation.getQueueWaitNanoTime());
+    }
+  }
+
   private static BackendConfigManager getBackendManager()
   {
     return DirectoryServer.getInstance().getServerContext().getBackendConfigManager();
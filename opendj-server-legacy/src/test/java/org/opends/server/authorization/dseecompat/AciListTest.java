@@ -0,0 +1,98 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.authorization.dseecompat.Aci.*;
+import static org.opends.server.util.CollectionUtils.*;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.types.DirectoryException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/** Tests the candidate ACIs compiled by the ACI list. */
+@SuppressWarnings("javadoc")
+public class AciListTest extends DirectoryServerTestCase
+{
+  private static final DN BASE_DN = DN.valueOf("dc=example,dc=com");
+  private static final DN PEOPLE_DN = DN.valueOf("ou=people,dc=example,dc=com");
+
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startFakeServer();
+  }
+
+  @AfterClass
+  public void tearDown() throws DirectoryException
+  {
+    TestCaseUtils.shutdownFakeServer();
+  }
+
+  @Test
+  public void testCandidateAcisAreSharedBySiblingEntries() throws Exception
+  {
+    AciList aciList = new AciList(DN.valueOf("cn=config"));
+    Aci readAci = aci(BASE_DN, "(targetattr=\"*\")(version 3.0; acl \"read\"; "
+        + "allow(read,search) userdn=\"ldap:///anyone\";)");
+    aciList.addAci(BASE_DN, newTreeSet(readAci));
+
+    CandidateAcis candidates = aciList.getCandidateAcis(DN.valueOf("uid=user.1,ou=people,dc=example,dc=com"));
+    assertThat(candidates.getAcis(ACI_READ)).containsExactly(readAci);
+    assertThat(aciList.getCandidateAcis(DN.valueOf("uid=user.2,ou=people,dc=example,dc=com")))
+        .isSameAs(candidates);
+    assertThat(aciList.getCandidateAcis(DN.valueOf("cn=config"))).isSameAs(CandidateAcis.EMPTY);
+
+    // Adding ACIs below compiles new candidate ACIs, closest ACIs first
+    Aci peopleAci = aci(PEOPLE_DN, "(targetattr=\"*\")(version 3.0; acl \"people read\"; "
+        + "allow(read) userdn=\"ldap:///self\";)");
+    aciList.addAci(PEOPLE_DN, newTreeSet(peopleAci));
+    CandidateAcis newCandidates = aciList.getCandidateAcis(DN.valueOf("uid=user.1,ou=people,dc=example,dc=com"));
+    assertThat(newCandidates).isNotSameAs(candidates);
+    assertThat(newCandidates.getAcis(ACI_READ)).containsExactly(peopleAci, readAci);
+    assertThat(aciList.getCandidateAcis(BASE_DN).getAcis(ACI_READ)).containsExactly(readAci);
+  }
+
+  @Test
+  public void testCandidateAcisAreIndexedByRights() throws Exception
+  {
+    AciList aciList = new AciList(DN.valueOf("cn=config"));
+    Aci readAci = aci(BASE_DN, "(targetattr=\"*\")(version 3.0; acl \"read\"; "
+        + "allow(read,search) userdn=\"ldap:///anyone\";)");
+    Aci writeAci = aci(BASE_DN, "(targetattr=\"description\")(version 3.0; acl \"write\"; "
+        + "allow(write) userdn=\"ldap:///self\";)");
+    Aci extOpAci = aci(BASE_DN, "(extop=\"1.3.6.1.4.1.4203.1.11.3\")(version 3.0; acl \"extop\"; "
+        + "allow(read) userdn=\"ldap:///anyone\";)");
+    aciList.addAci(BASE_DN, newTreeSet(readAci, writeAci, extOpAci));
+
+    CandidateAcis candidates = aciList.getCandidateAcis(PEOPLE_DN);
+    assertThat(candidates.getAcis(ACI_READ)).containsExactly(readAci);
+    assertThat(candidates.getAcis(ACI_SEARCH)).containsExactly(readAci);
+    assertThat(candidates.getAcis(ACI_WRITE)).containsExactly(writeAci);
+    assertThat(candidates.getAcis(ACI_ADD)).isEmpty();
+    assertThat(candidates.getAcis(ACI_EXT_OP)).containsOnly(readAci, writeAci, extOpAci);
+  }
+
+  private static Aci aci(DN dn, String aci) throws Exception
+  {
+    return Aci.decode(ByteString.valueOfUtf8(aci), dn);
+  }
+}
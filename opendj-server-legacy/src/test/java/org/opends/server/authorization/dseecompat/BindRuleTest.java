@@ -0,0 +1,97 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.util.ServerConstants.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.protocols.ldap.LDAPControl;
+import org.opends.server.types.Control;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Operation;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class BindRuleTest extends DirectoryServerTestCase
+{
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startFakeServer();
+  }
+
+  @AfterClass
+  public void tearDown() throws DirectoryException
+  {
+    TestCaseUtils.shutdownFakeServer();
+  }
+
+  @Test
+  public void clientOnlyBindRuleIsEvaluatedOncePerOperation() throws Exception
+  {
+    final BindRule bindRule = BindRule.decode("ssf>=\"128\"");
+    final Map<BindRule, EnumEvalResult> results = new ConcurrentHashMap<>();
+    final AciEvalContext evalCtx = mock(AciEvalContext.class);
+    when(evalCtx.getBindRuleResults()).thenReturn(results);
+    when(evalCtx.getCurrentSSF()).thenReturn(256);
+
+    assertThat(bindRule.evaluate(evalCtx)).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(bindRule.evaluate(evalCtx)).isEqualTo(EnumEvalResult.TRUE);
+
+    verify(evalCtx, times(1)).getCurrentSSF();
+    assertThat(results).containsEntry(bindRule, EnumEvalResult.TRUE);
+  }
+
+  @Test
+  public void resourceDependentBindRuleIsAlwaysEvaluated() throws Exception
+  {
+    final BindRule bindRule = BindRule.decode("userdn=\"ldap:///self\" or ssf>=\"128\"");
+    final Map<BindRule, EnumEvalResult> results = new ConcurrentHashMap<>();
+    final AciEvalContext evalCtx = mock(AciEvalContext.class);
+    when(evalCtx.getBindRuleResults()).thenReturn(results);
+    when(evalCtx.getCurrentSSF()).thenReturn(0);
+    when(evalCtx.getClientDN()).thenReturn(DN.valueOf("uid=user.1,dc=example,dc=com"));
+
+    when(evalCtx.getResourceDN()).thenReturn(DN.valueOf("uid=user.1,dc=example,dc=com"));
+    assertThat(bindRule.evaluate(evalCtx)).isEqualTo(EnumEvalResult.TRUE);
+    when(evalCtx.getResourceDN()).thenReturn(DN.valueOf("uid=user.2,dc=example,dc=com"));
+    assertThat(bindRule.evaluate(evalCtx)).isEqualTo(EnumEvalResult.FALSE);
+
+    // only the ssf part does not depend on the entry
+    assertThat(results).hasSize(1).containsValue(EnumEvalResult.FALSE);
+  }
+
+  @Test
+  public void bindRuleResultsAreNotKeptForPersistentSearches() throws Exception
+  {
+    final Operation operation = mock(Operation.class);
+    when(operation.getRequestControls()).thenReturn(
+        Collections.<Control> singletonList(new LDAPControl(OID_PERSISTENT_SEARCH)));
+
+    assertThat(BindRuleResults.getResults(operation, DN.valueOf("uid=user.1,dc=example,dc=com"))).isNull();
+    verify(operation, never()).setAttachment(anyString(), any());
+  }
+}
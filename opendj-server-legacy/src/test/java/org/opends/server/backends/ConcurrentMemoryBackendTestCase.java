@@ -0,0 +1,258 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.forgerock.opendj.ldap.ModificationType.*;
+import static org.forgerock.opendj.ldap.requests.Requests.*;
+import static org.opends.server.TestCaseUtils.*;
+import static org.opends.server.protocols.internal.InternalClientConnection.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.schema.Schema;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.core.BackendConfigManager;
+import org.opends.server.core.DeleteOperation;
+import org.opends.server.core.ModifyOperation;
+import org.opends.server.protocols.internal.InternalSearchOperation;
+import org.opends.server.protocols.internal.Requests;
+import org.opends.server.types.SearchResultEntry;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class ConcurrentMemoryBackendTestCase extends BackendTestCase
+{
+  private static final String BACKEND_ID = "concurrentMemoryTest";
+  private static final DN BASE_DN = DN.valueOf("o=concurrentMemoryTest");
+
+  private ConcurrentMemoryBackend backend;
+
+  @BeforeClass
+  public void startServerAndBackend() throws Exception
+  {
+    TestCaseUtils.startServer();
+
+    final Schema schema = getServerContext().getSchema();
+    backend = new ConcurrentMemoryBackend();
+    backend.setBackendID(BACKEND_ID);
+    backend.setBaseDNs(BASE_DN);
+    backend.setIndexedAttributes(schema.getAttributeType("uid"), schema.getAttributeType("mail"));
+    backend.configureBackend(null, getServerContext());
+    backend.openBackend();
+    getServerContext().getBackendConfigManager().registerLocalBackend(backend);
+  }
+
+  @AfterClass
+  public void removeBackend()
+  {
+    final BackendConfigManager backendConfigManager = getServerContext().getBackendConfigManager();
+    backend.finalizeBackend();
+    backendConfigManager.deregisterLocalBackend(backend);
+  }
+
+  @BeforeMethod
+  public void addEntries() throws Exception
+  {
+    backend.clearMemoryBackend();
+    TestCaseUtils.addEntries(
+        "dn: o=concurrentMemoryTest",
+        "objectClass: top",
+        "objectClass: organization",
+        "o: concurrentMemoryTest",
+        "",
+        "dn: ou=People,o=concurrentMemoryTest",
+        "objectClass: top",
+        "objectClass: organizationalUnit",
+        "ou: People",
+        "",
+        "dn: uid=user.1,ou=People,o=concurrentMemoryTest",
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: user.1",
+        "cn: User 1",
+        "sn: 1",
+        "mail: user.1@example.com",
+        "",
+        "dn: uid=user.2,ou=People,o=concurrentMemoryTest",
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: user.2",
+        "cn: User 2",
+        "sn: 2",
+        "mail: user.2@example.org");
+  }
+
+  @Test
+  public void testSearchReturnsParentsBeforeChildren() throws Exception
+  {
+    assertThat(search("(objectClass=*)")).containsExactly(
+        "o=concurrentMemoryTest",
+        "ou=People,o=concurrentMemoryTest",
+        "uid=user.1,ou=People,o=concurrentMemoryTest",
+        "uid=user.2,ou=People,o=concurrentMemoryTest");
+  }
+
+  @Test
+  public void testIndexedSearches() throws Exception
+  {
+    assertThat(search("(uid=USER.1)")).containsExactly("uid=user.1,ou=People,o=concurrentMemoryTest");
+    assertThat(search("(mail=*@example.org)")).containsExactly("uid=user.2,ou=People,o=concurrentMemoryTest");
+    assertThat(search("(&(uid=user.1)(mail=*@example.org))")).isEmpty();
+    assertThat(search("(|(uid=user.1)(mail=user.2*))")).containsOnly(
+        "uid=user.1,ou=People,o=concurrentMemoryTest",
+        "uid=user.2,ou=People,o=concurrentMemoryTest");
+    assertThat(search("(&(uid=*)(cn=User 2))")).containsExactly("uid=user.2,ou=People,o=concurrentMemoryTest");
+  }
+
+  @Test
+  public void testIndexesFollowModifications() throws Exception
+  {
+    final ModifyOperation modifyOperation = getRootConnection().processModify(
+        newModifyRequest("uid=user.1,ou=People,o=concurrentMemoryTest").addModification(REPLACE, "mail", "u1@test"));
+    assertThat(modifyOperation.getResultCode()).isEqualTo(ResultCode.SUCCESS);
+    assertThat(search("(mail=user.1@example.com)")).isEmpty();
+    assertThat(search("(mail=u1@test)")).containsExactly("uid=user.1,ou=People,o=concurrentMemoryTest");
+
+    final DeleteOperation deleteOperation =
+        getRootConnection().processDelete(DN.valueOf("uid=user.1,ou=People,o=concurrentMemoryTest"));
+    assertThat(deleteOperation.getResultCode()).isEqualTo(ResultCode.SUCCESS);
+    assertThat(search("(mail=u1@test)")).isEmpty();
+    assertThat(search("(uid=*)")).containsExactly("uid=user.2,ou=People,o=concurrentMemoryTest");
+  }
+
+  @Test
+  public void testUnchangedKeysAreFoundDuringModifications() throws Exception
+  {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try
+    {
+      final Future<Void> modifications = executor.submit(new Callable<Void>()
+      {
+        @Override
+        public Void call() throws Exception
+        {
+          for (int i = 0; i < 500; i++)
+          {
+            final ModifyOperation modifyOperation = getRootConnection().processModify(
+                newModifyRequest("uid=user.1,ou=People,o=concurrentMemoryTest")
+                    .addModification(REPLACE, "mail", "user.1." + i + "@example.com"));
+            assertThat(modifyOperation.getResultCode()).isEqualTo(ResultCode.SUCCESS);
+          }
+          return null;
+        }
+      });
+      // the uid does not change, so the entry must never be missed by the searches on it
+      while (!modifications.isDone())
+      {
+        assertThat(search("(uid=user.1)")).containsExactly("uid=user.1,ou=People,o=concurrentMemoryTest");
+        assertThat(search("(mail=user.1*)")).containsExactly("uid=user.1,ou=People,o=concurrentMemoryTest");
+      }
+      modifications.get();
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+    assertThat(search("(mail=user.1.499@example.com)")).containsExactly("uid=user.1,ou=People,o=concurrentMemoryTest");
+    assertThat(search("(mail=user.1.498@example.com)")).isEmpty();
+  }
+
+  @Test
+  public void testCannotDeleteEntryWithChildren() throws Exception
+  {
+    final DeleteOperation deleteOperation =
+        getRootConnection().processDelete(DN.valueOf("ou=People,o=concurrentMemoryTest"));
+    assertThat(deleteOperation.getResultCode()).isEqualTo(ResultCode.NOT_ALLOWED_ON_NONLEAF);
+  }
+
+  @Test
+  public void testConcurrentAdds() throws Exception
+  {
+    final int nbThreads = 8;
+    final int nbEntriesPerThread = 100;
+    final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    try
+    {
+      final List<Future<Void>> futures = new ArrayList<>();
+      for (int t = 0; t < nbThreads; t++)
+      {
+        final int thread = t;
+        futures.add(executor.submit(new Callable<Void>()
+        {
+          @Override
+          public Void call() throws Exception
+          {
+            for (int i = 0; i < nbEntriesPerThread; i++)
+            {
+              final String uid = "thread." + thread + "." + i;
+              TestCaseUtils.addEntry(
+                  "dn: uid=" + uid + ",ou=People,o=concurrentMemoryTest",
+                  "objectClass: top",
+                  "objectClass: person",
+                  "objectClass: organizationalPerson",
+                  "objectClass: inetOrgPerson",
+                  "uid: " + uid,
+                  "cn: " + uid,
+                  "sn: " + uid);
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures)
+      {
+        future.get();
+      }
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+
+    assertThat(backend.getNumberOfChildren(DN.valueOf("ou=People,o=concurrentMemoryTest")))
+        .isEqualTo(2 + nbThreads * nbEntriesPerThread);
+    assertThat(search("(uid=thread.3.42)")).containsExactly("uid=thread.3.42,ou=People,o=concurrentMemoryTest");
+  }
+
+  private List<String> search(String filter) throws Exception
+  {
+    final InternalSearchOperation searchOperation =
+        getRootConnection().processSearch(Requests.newSearchRequest(BASE_DN, SearchScope.WHOLE_SUBTREE, filter));
+    assertThat(searchOperation.getResultCode()).isEqualTo(ResultCode.SUCCESS);
+    final List<String> dns = new ArrayList<>();
+    for (SearchResultEntry entry : searchOperation.getSearchEntries())
+    {
+      dns.add(entry.getName().toString());
+    }
+    return dns;
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.DirectoryServerTestCase;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend", "unit" }, sequential=true)
+public class CompressionCodecTest extends DirectoryServerTestCase
+{
+  @DataProvider
+  public Object[][] codecs()
+  {
+    return new Object[][] { { DeflateCompressionCodec.INSTANCE }, { LZ4CompressionCodec.INSTANCE } };
+  }
+
+  @Test(dataProvider = "codecs")
+  public void testRoundTrip(CompressionCodec codec) throws Exception
+  {
+    final Random random = new Random(0);
+    final byte[][] inputs = { new byte[0], new byte[] { 1 }, entry(42), entry(4242), randomBytes(random, 1000) };
+    for (byte[] data : inputs)
+    {
+      assertThat(roundTrip(codec, data, null)).isEqualTo(data);
+    }
+  }
+
+  @Test(dataProvider = "codecs")
+  public void testRoundTripWithDictionary(CompressionCodec codec) throws Exception
+  {
+    final CompressionDictionary dictionary = new CompressionDictionary(0, trainDictionary());
+    for (int i = 0; i < 100; i++)
+    {
+      final byte[] data = entry(10000 + i);
+      assertThat(roundTrip(codec, data, dictionary)).isEqualTo(data);
+    }
+  }
+
+  @Test(dataProvider = "codecs")
+  public void testDictionaryImprovesCompressionOfSmallEntries(CompressionCodec codec) throws Exception
+  {
+    final CompressionDictionary dictionary = new CompressionDictionary(0, trainDictionary());
+    final byte[] data = entry(123456);
+
+    assertThat(compress(codec, data, dictionary).length()).isLessThan(compress(codec, data, null).length());
+  }
+
+  @Test
+  public void testDeflateIsCompatibleWithPreviousVersions() throws Exception
+  {
+    final byte[] data = entry(7);
+    final ByteArrayOutputStream legacy = new ByteArrayOutputStream();
+    try (DeflaterOutputStream os = new DeflaterOutputStream(legacy))
+    {
+      os.write(data);
+    }
+
+    final ByteStringBuilder output = new ByteStringBuilder();
+    DeflateCompressionCodec.INSTANCE.decompress(legacy.toByteArray(), 0, legacy.size(), null, data.length, output);
+    assertThat(output.toByteArray()).isEqualTo(data);
+    assertThat(compress(DeflateCompressionCodec.INSTANCE, data, null).toByteArray()).isEqualTo(legacy.toByteArray());
+  }
+
+  @Test(dataProvider = "codecs", expectedExceptions = IOException.class)
+  public void testDecompressWithoutDictionaryFails(CompressionCodec codec) throws Exception
+  {
+    final CompressionDictionary dictionary = new CompressionDictionary(0, trainDictionary());
+    final byte[] data = entry(99);
+    final ByteStringBuilder compressed = compress(codec, data, dictionary);
+
+    codec.decompress(compressed.getBackingArray(), 0, compressed.length(), null, data.length, new ByteStringBuilder());
+  }
+
+  @Test
+  public void testTrainerCollectsSamplesOnlyOnce()
+  {
+    final CompressionDictionaryTrainer trainer = new CompressionDictionaryTrainer(4096);
+    final byte[] data = entry(1);
+    int completions = 0;
+    for (int i = 0; i < CompressionDictionaryTrainer.MAX_SAMPLES + 10; i++)
+    {
+      if (trainer.addSample(data, 0, data.length))
+      {
+        completions++;
+      }
+    }
+    assertThat(completions).isEqualTo(1);
+    assertThat(trainer.train().length).isBetween(1, 4096);
+  }
+
+  private static byte[] trainDictionary()
+  {
+    final List<byte[]> samples = new ArrayList<>();
+    for (int i = 0; i < 500; i++)
+    {
+      samples.add(entry(i));
+    }
+    final byte[] dictionary = CompressionDictionaryTrainer.train(samples, 8192);
+    assertThat(dictionary.length).isBetween(1, 8192);
+    return dictionary;
+  }
+
+  private static byte[] roundTrip(CompressionCodec codec, byte[] data, CompressionDictionary dictionary)
+      throws IOException
+  {
+    final ByteStringBuilder compressed = compress(codec, data, dictionary);
+    final ByteStringBuilder output = new ByteStringBuilder();
+    output.appendByte(0xFF);
+    codec.decompress(compressed.getBackingArray(), 0, compressed.length(), dictionary, data.length, output);
+    return output.subSequence(1, output.length()).toByteArray();
+  }
+
+  private static ByteStringBuilder compress(CompressionCodec codec, byte[] data, CompressionDictionary dictionary)
+      throws IOException
+  {
+    final ByteStringBuilder output = new ByteStringBuilder();
+    codec.compress(data, 0, data.length, dictionary, output);
+    return output;
+  }
+
+  private static byte[] entry(int i)
+  {
+    return ("dn: uid=user." + i + ",ou=People,dc=example,dc=com\n"
+        + "objectClass: top\nobjectClass: person\nobjectClass: organizationalPerson\nobjectClass: inetOrgPerson\n"
+        + "uid: user." + i + "\ncn: User " + i + "\nsn: " + i + "\ngivenName: User\n"
+        + "mail: user." + i + "@example.com\ntelephoneNumber: +1 555 " + (1000 + i % 9000) + "\n"
+        + "postalAddress: " + i + " Main Street$Anytown, CA 94000\n")
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] randomBytes(Random random, int length)
+  {
+    final byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+}
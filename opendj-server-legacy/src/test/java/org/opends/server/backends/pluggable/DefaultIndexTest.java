@@ -12,6 +12,7 @@
  * information: "Portions Copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.backends.pluggable;
 
@@ -23,6 +24,7 @@ import static org.opends.server.backends.pluggable.EntryIDSet.*;
 import static org.opends.server.backends.pluggable.State.IndexFlag.*;
 import static org.opends.server.backends.pluggable.Utils.assertIdsEquals;
 
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -98,6 +100,28 @@ public class DefaultIndexTest extends DirectoryServerTestCase
     assertThat(txn.read(index.getName(), valueOfUtf8("key"))).isNull();
   }
 
+  @Test
+  public void testBitmapEncodedIDsAreReadAfterSwitchingToCompactEncoding() {
+    final DefaultIndex bitmapIndex = newIndex("test", 1000, EnumSet.of(TRUSTED, COMPACTED), true);
+    bitmapIndex.afterOpen(txn, false);
+    final long[] ids = new long[100];
+    for (int i = 0; i < ids.length; i++)
+    {
+      ids[i] = i * 3 + 1;
+    }
+    bitmapIndex.update(txn, valueOfUtf8("key"), newDefinedSet(), newDefinedSet(ids));
+    assertThat(getFromDb().byteAt(0)).isEqualTo((byte) 0xFE);
+
+    // same tree, now configured with the compact encoding
+    final DefaultIndex compactIndex = newIndex("test", 1000, EnumSet.of(TRUSTED, COMPACTED), false);
+    compactIndex.afterOpen(txn, false);
+    assertIdsEquals(compactIndex.get(txn, valueOfUtf8("key")), ids);
+
+    compactIndex.update(txn, valueOfUtf8("key"), newDefinedSet(ids[0]), newDefinedSet());
+    assertThat(getFromDb().byteAt(0)).isNotEqualTo((byte) 0xFE);
+    assertIdsEquals(get(), Arrays.copyOfRange(ids, 1, ids.length));
+  }
+
   private void update(EntryIDSet deletedIDSet, EntryIDSet addedIDSet) {
     index.update(txn, valueOfUtf8("key"), deletedIDSet, addedIDSet);
   }
@@ -117,12 +141,19 @@ public class DefaultIndexTest extends DirectoryServerTestCase
 
   private static DefaultIndex newIndex(String name, int indexLimit, EnumSet<IndexFlag> indexFlags)
   {
+    return newIndex(name, indexLimit, indexFlags, false);
+  }
+
+  private static DefaultIndex newIndex(String name, int indexLimit, EnumSet<IndexFlag> indexFlags,
+      boolean bitmapEncoding)
+  {
+    final EntryContainer entryContainer = mock(EntryContainer.class);
+    when(entryContainer.isBitmapIndexEncoding()).thenReturn(bitmapEncoding);
     final State state = mock(State.class);
     when(state.getIndexFlags(any(ReadableTransaction.class), any(TreeName.class))).thenReturn(indexFlags);
     final CryptoSuite cryptoSuite = mock(CryptoSuite.class);
     when(cryptoSuite.isEncrypted()).thenReturn(false);
-    return new DefaultIndex(new TreeName("dc=example,dc=com", name), state, indexLimit, mock(EntryContainer.class),
-        cryptoSuite);
+    return new DefaultIndex(new TreeName("dc=example,dc=com", name), state, indexLimit, entryContainer, cryptoSuite);
   }
 
   static final class DummyWriteableTransaction implements WriteableTransaction {
@@ -290,9 +290,72 @@ public class EntryIDSetTest extends DirectoryServerTestCase
     assertIdsEquals(retained, 1, 3, 5, 7, 9);
   }
 
+  @Test(dataProvider = "codecs")
+  public void testBitmapCodecDecodesLegacyCodecs(EntryIDSetCodec codec)
+  {
+    final long[] ids = range(1, 1000);
+    assertIdsEquals(newEntryIDSetCodecV4(CODEC_V1, true).decode(KEY, codec.encode(newDefinedSet(ids))), ids);
+    assertIdsEquals(newEntryIDSetCodecV4(CODEC_V2, true).decode(KEY, codec.encode(newDefinedSet(ids))), ids);
+  }
+
+  @Test
+  public void testBitmapCodecIsSmallerForLargeSets()
+  {
+    final EntryIDSet set = newDefinedSet(range(1, 100000));
+    final ByteString bitmap = newEntryIDSetCodecV4(CODEC_V2, true).encode(set);
+    assertThat(bitmap.length()).isLessThan(CODEC_V2.encode(set).length() / 100);
+  }
+
+  @Test
+  public void testBitmapOperations()
+  {
+    final EntryIDSetCodec codec = newEntryIDSetCodecV4(CODEC_V2, true);
+    final long[] evens = new long[50000];
+    final long[] thirds = new long[40000];
+    for (int i = 0; i < evens.length; i++)
+    {
+      evens[i] = i * 2L;
+    }
+    for (int i = 0; i < thirds.length; i++)
+    {
+      thirds[i] = i * 3L;
+    }
+
+    final EntryIDSet retained = codec.decode(KEY, codec.encode(newDefinedSet(evens)));
+    retained.retainAll(codec.decode(KEY, codec.encode(newDefinedSet(thirds))));
+    assertThat(retained.size()).isEqualTo(16667);
+    assertThat(retained.contains(id(6))).isTrue();
+    assertThat(retained.contains(id(4))).isFalse();
+
+    retained.removeAll(newDefinedSet(0, 6, 12));
+    assertThat(retained.size()).isEqualTo(16664);
+    assertThat(retained.iterator().next().longValue()).isEqualTo(18);
+
+    retained.addAll(newDefinedSet(1, 7));
+    assertThat(retained.size()).isEqualTo(16666);
+    assertThat(retained.add(id(1))).isFalse();
+    assertThat(retained.remove(id(7))).isTrue();
+    assertIdsEquals(codec.decode(KEY, codec.encode(retained)), retained.toLongArray());
+
+    final EntryIDSet union = newSetFromUnion(Arrays.asList(
+        codec.decode(KEY, codec.encode(newDefinedSet(evens))), newDefinedSet(1, 3, 5)));
+    assertThat(union.size()).isEqualTo(50003);
+    assertThat(union.contains(id(3))).isTrue();
+  }
+
+  private static long[] range(long from, long to)
+  {
+    final long[] ids = new long[(int) (to - from)];
+    for (int i = 0; i < ids.length; i++)
+    {
+      ids[i] = from + i;
+    }
+    return ids;
+  }
+
   @DataProvider(name = "codecs")
   public static Object[][] codecs() {
-     return new Object[][] { { CODEC_V1 }, { CODEC_V2 } };
+     return new Object[][] { { CODEC_V1 }, { CODEC_V2 }, { newEntryIDSetCodecV4(CODEC_V2, true) } };
   }
 
 }
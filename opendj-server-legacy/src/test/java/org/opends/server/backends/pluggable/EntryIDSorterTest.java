@@ -0,0 +1,138 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend", "unit" }, sequential=true)
+public class EntryIDSorterTest extends DirectoryServerTestCase
+{
+  private static final int NB_KEYS = 20000;
+
+  @DataProvider
+  private Object[][] maxInMemoryKeysSizes()
+  {
+    return new Object[][] { { EntryIDSorter.MAX_IN_MEMORY_KEYS_SIZE }, { 1024L } };
+  }
+
+  @Test(dataProvider = "maxInMemoryKeysSizes")
+  public void testFullSort(long maxInMemoryKeysSize) throws Exception
+  {
+    final File tempDir = TestCaseUtils.createTemporaryDirectory("testFullSort");
+    try (final EntryIDSorter sorter = new EntryIDSorter(null, 0, Long.MAX_VALUE, tempDir, maxInMemoryKeysSize))
+    {
+      addShuffledKeys(sorter);
+
+      assertThat(sorter.size()).isEqualTo(NB_KEYS);
+      assertThat(sorter.getEntryIDs(0, NB_KEYS)).isEqualTo(range(0, NB_KEYS));
+    }
+    assertThat(tempDir.list()).isEmpty();
+  }
+
+  @Test
+  public void testSmallestKeys() throws Exception
+  {
+    final File tempDir = TestCaseUtils.createTemporaryDirectory("testSmallestKeys");
+    try (final EntryIDSorter sorter = EntryIDSorter.newSmallestKeysSorter(50, tempDir))
+    {
+      addShuffledKeys(sorter);
+
+      assertThat(sorter.size()).isEqualTo(NB_KEYS);
+      assertThat(sorter.getEntryIDs(40, 10)).isEqualTo(range(40, 50));
+    }
+  }
+
+  @Test
+  public void testKeysAroundTargetAssertion() throws Exception
+  {
+    final File tempDir = TestCaseUtils.createTemporaryDirectory("testKeysAroundTargetAssertion");
+    final ByteString targetAssertion = new ByteStringBuilder().appendInt(1000).toByteString();
+    try (final EntryIDSorter sorter = EntryIDSorter.newAssertionSorter(targetAssertion, 5, 3, tempDir))
+    {
+      addShuffledKeys(sorter);
+
+      assertThat(sorter.size()).isEqualTo(NB_KEYS);
+      assertThat(sorter.getLowerKeyCount()).isEqualTo(1000);
+      assertThat(sorter.getEntryIDs(995, 8)).isEqualTo(range(995, 1003));
+    }
+  }
+
+  @Test
+  public void testLargeWindowIsSelectedFromFullSort() throws Exception
+  {
+    final File tempDir = TestCaseUtils.createTemporaryDirectory("testLargeWindowIsSelectedFromFullSort");
+    final ByteString targetAssertion = new ByteStringBuilder().appendInt(15000).toByteString();
+    final long lowerLimit = EntryIDSorter.MAX_HEAP_KEYS + 1;
+    try (final EntryIDSorter sorter = new EntryIDSorter(targetAssertion, lowerLimit, 1, tempDir, 1024))
+    {
+      addShuffledKeys(sorter);
+
+      assertThat(sorter.getLowerKeyCount()).isEqualTo(15000);
+      assertThat(sorter.getEntryIDs(4999, 10002)).isEqualTo(range(4999, 15001));
+    }
+    assertThat(tempDir.list()).isEmpty();
+  }
+
+  @Test
+  public void testEmptySorter() throws Exception
+  {
+    final File tempDir = TestCaseUtils.createTemporaryDirectory("testEmptySorter");
+    try (final EntryIDSorter sorter = EntryIDSorter.newSmallestKeysSorter(10, tempDir))
+    {
+      assertThat(sorter.size()).isEqualTo(0);
+      assertThat(sorter.getEntryIDs(0, 0)).isEmpty();
+    }
+  }
+
+  /** Adds the keys of the entries 0 to NB_KEYS, whose keys are sorted like their entry IDs. */
+  private static void addShuffledKeys(EntryIDSorter sorter)
+  {
+    final List<Integer> values = new ArrayList<>(NB_KEYS);
+    for (int i = 0; i < NB_KEYS; i++)
+    {
+      values.add(i);
+    }
+    Collections.shuffle(values, new Random(0));
+    for (int value : values)
+    {
+      sorter.add(new ByteStringBuilder().appendInt(value).appendLong(value).toByteString());
+    }
+  }
+
+  private static long[] range(int from, int to)
+  {
+    final long[] entryIDs = new long[to - from];
+    for (int i = 0; i < entryIDs.length; i++)
+    {
+      entryIDs[i] = from + i;
+    }
+    return entryIDs;
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.forgerock.opendj.config.ConfigurationMock.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.util.CollectionUtils.*;
+
+import java.util.Arrays;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.server.config.server.PDBBackendCfg;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.backends.pdb.PDBStorage;
+import org.opends.server.backends.pluggable.spi.AccessMode;
+import org.opends.server.backends.pluggable.spi.ReadOperation;
+import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.backends.pluggable.spi.TreeName;
+import org.opends.server.backends.pluggable.spi.WriteOperation;
+import org.opends.server.backends.pluggable.spi.WriteableTransaction;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.MemoryQuota;
+import org.opends.server.core.ServerContext;
+import org.opends.server.extensions.DiskSpaceMonitor;
+import org.opends.server.types.Entry;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests the batched reads of the records of the entry tree. */
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class ID2EntryTest extends DirectoryServerTestCase
+{
+  private final TreeName id2EntryTreeName = new TreeName("base-dn", "id2entry");
+  private DataConfig plainConfig;
+  private DataConfig compressedConfig;
+  private ID2Entry id2Entry;
+  private PDBStorage storage;
+
+  // FIXME: This is required since PDBStorage is now using
+  // DirectoryServer static method.
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @BeforeMethod
+  public void setUp() throws Exception
+  {
+    ServerContext serverContext = mock(ServerContext.class);
+    when(serverContext.getMemoryQuota()).thenReturn(new MemoryQuota());
+    when(serverContext.getDiskSpaceMonitor()).thenReturn(mock(DiskSpaceMonitor.class));
+
+    storage = new PDBStorage(createBackendCfg(), serverContext);
+    storage.open(AccessMode.READ_WRITE);
+    storage.write(new WriteOperation()
+    {
+      @Override
+      public void run(WriteableTransaction txn) throws Exception
+      {
+        txn.openTree(id2EntryTreeName, true);
+      }
+    });
+
+    plainConfig = new DataConfig.Builder()
+        .compress(false).encode(true).schema(DirectoryServer.getDefaultCompressedSchema()).build();
+    compressedConfig = new DataConfig.Builder()
+        .compress(true).encode(true).schema(DirectoryServer.getDefaultCompressedSchema()).build();
+    id2Entry = new ID2Entry(id2EntryTreeName, plainConfig);
+  }
+
+  @AfterMethod
+  public void tearDown()
+  {
+    storage.close();
+    storage.removeStorageFiles();
+  }
+
+  @Test
+  public void testEntriesAreReturnedInTheOrderOfTheIDs() throws Exception
+  {
+    put(plainConfig, 1, 2, 3, 4, 5, 10, 11, 12, 20, 30);
+
+    final long[] ids = { 2, 3, 4, 11, 12, 30 };
+    final ByteString[] encodedEntries = getEncodedEntries(ids, ids.length, ids.length);
+
+    assertDecodedEntries(ids, encodedEntries);
+  }
+
+  @Test
+  public void testMissingEntriesAreNull() throws Exception
+  {
+    put(plainConfig, 2, 3, 6, 7);
+
+    final long[] ids = { 1, 2, 4, 5, 6, 8, 100 };
+    final ByteString[] encodedEntries = getEncodedEntries(ids, ids.length, ids.length);
+
+    assertThat(encodedEntries[0]).isNull();
+    assertThat(encodedEntries[2]).isNull();
+    assertThat(encodedEntries[3]).isNull();
+    assertThat(encodedEntries[5]).isNull();
+    assertThat(encodedEntries[6]).isNull();
+    assertDecodedEntries(new long[] { 2, 6 }, new ByteString[] { encodedEntries[1], encodedEntries[4] });
+  }
+
+  @Test
+  public void testOnlyTheFirstIDsOfAPartialBatchAreRead() throws Exception
+  {
+    put(plainConfig, 1, 2, 3, 4, 5);
+
+    // the arrays are reused by consecutive batches, the last batch being partial
+    final long[] ids = { 2, 4, 5, 1, 3 };
+    final ByteString[] encodedEntries = getEncodedEntries(ids, 2, 4);
+
+    assertDecodedEntries(new long[] { 2, 4 }, Arrays.copyOf(encodedEntries, 2));
+    assertThat(encodedEntries[2]).isSameAs(ByteString.empty());
+    assertThat(encodedEntries[3]).isSameAs(ByteString.empty());
+  }
+
+  @Test
+  public void testCompressedAndUncompressedEntriesAreReturned() throws Exception
+  {
+    put(plainConfig, 1, 3, 5, 7);
+    put(compressedConfig, 2, 4, 6, 8);
+
+    final long[] ids = { 1, 2, 3, 4, 5, 6, 7, 8 };
+    final ByteString[] encodedEntries = getEncodedEntries(ids, ids.length, ids.length);
+
+    // the compression of the records actually differs
+    assertThat(encodedEntries[1].length()).isLessThan(encodedEntries[0].length());
+    assertDecodedEntries(ids, encodedEntries);
+  }
+
+  private void put(final DataConfig dataConfig, final long... ids) throws Exception
+  {
+    storage.write(new WriteOperation()
+    {
+      @Override
+      public void run(WriteableTransaction txn) throws Exception
+      {
+        for (long id : ids)
+        {
+          id2Entry.put(txn, new EntryID(id), id2Entry.entryToDatabase(entry(id), dataConfig));
+        }
+      }
+    });
+  }
+
+  /** Reads the provided number of IDs into an array of records prefilled with empty values. */
+  private ByteString[] getEncodedEntries(final long[] ids, final int count, final int size) throws Exception
+  {
+    final ByteString[] encodedEntries = new ByteString[size];
+    Arrays.fill(encodedEntries, ByteString.empty());
+    storage.read(new ReadOperation<Void>()
+    {
+      @Override
+      public Void run(ReadableTransaction txn) throws Exception
+      {
+        id2Entry.getEncodedEntries(txn, ids, count, encodedEntries);
+        return null;
+      }
+    });
+    return encodedEntries;
+  }
+
+  private void assertDecodedEntries(long[] ids, ByteString[] encodedEntries) throws Exception
+  {
+    assertThat(encodedEntries).hasSameSizeAs(ids);
+    for (int i = 0; i < ids.length; i++)
+    {
+      final Entry entry = id2Entry.decode(new EntryID(ids[i]), encodedEntries[i]);
+      assertThat(entry).isNotNull();
+      assertThat((Object) entry.getName()).isEqualTo(entry(ids[i]).getName());
+    }
+  }
+
+  private static Entry entry(long id) throws Exception
+  {
+    final char[] description = new char[1000];
+    Arrays.fill(description, 'x');
+    return TestCaseUtils.makeEntry(
+        "dn: cn=user" + id + ",dc=test,dc=com",
+        "objectClass: top",
+        "objectClass: device",
+        "cn: user" + id,
+        "description: " + new String(description));
+  }
+
+  private static PDBBackendCfg createBackendCfg() throws Exception
+  {
+    String homeDirName = "pdb_test";
+    PDBBackendCfg backendCfg = mockCfg(PDBBackendCfg.class);
+
+    when(backendCfg.getBackendId()).thenReturn("persTest" + homeDirName);
+    when(backendCfg.getDBDirectory()).thenReturn(homeDirName);
+    when(backendCfg.getDBDirectoryPermissions()).thenReturn("755");
+    when(backendCfg.getDBCacheSize()).thenReturn(0L);
+    when(backendCfg.getDBCachePercent()).thenReturn(20);
+    when(backendCfg.getBaseDN()).thenReturn(newTreeSet(DN.valueOf("dc=test,dc=com")));
+    when(backendCfg.dn()).thenReturn(DN.valueOf("dc=test,dc=com"));
+    when(backendCfg.listBackendIndexes()).thenReturn(new String[0]);
+    when(backendCfg.listBackendVLVIndexes()).thenReturn(new String[0]);
+
+    return backendCfg;
+  }
+}
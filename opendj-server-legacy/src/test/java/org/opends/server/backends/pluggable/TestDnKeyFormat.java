@@ -22,6 +22,7 @@ import static org.opends.server.util.StaticUtils.*;
 import static org.testng.Assert.*;
 
 import java.io.ByteArrayInputStream;
+import java.util.Collections;
 import java.util.List;
 
 import org.forgerock.opendj.ldap.ByteString;
@@ -478,6 +479,30 @@ public class TestDnKeyFormat extends DirectoryServerTestCase {
     }
   }
 
+  /** Tests that the attributes which are not requested are skipped when decoding an entry. */
+  @Test(dataProvider = "encodeConfigs")
+  public void testEntryPartialDecoding(EntryEncodeConfig config) throws Exception {
+    ensureServerIsUpAndRunning();
+    final AttributeType snType = DirectoryServer.getInstance().getServerContext().getSchema().getAttributeType("sn");
+    final AttributeType cnType = DirectoryServer.getInstance().getServerContext().getSchema().getAttributeType("cn");
+
+    try (final LDIFReader reader = new LDIFReader(new LDIFImportConfig(
+        new ByteArrayInputStream(StaticUtils.getBytes(ldifString)))))
+    {
+      Entry entryBefore;
+      while ((entryBefore = reader.readEntry(false)) != null) {
+        ByteStringBuilder bsb = new ByteStringBuilder();
+        entryBefore.encode(bsb, config);
+        Entry partialEntry = Entry.decode(
+            bsb.asReader(), DirectoryServer.getDefaultCompressedSchema(), Collections.singleton(snType));
+
+        assertEquals(partialEntry.getObjectClasses(), entryBefore.getObjectClasses());
+        assertEquals(partialEntry.getAttribute(snType), entryBefore.getAttribute(snType));
+        assertThat(partialEntry.getAttribute(cnType)).isEmpty();
+      }
+    }
+  }
+
   @DataProvider
   private Object[][] findDnKeyParentData()
   {
@@ -50,6 +50,7 @@ import static org.forgerock.opendj.ldap.requests.Requests.*;
 import static org.opends.server.protocols.internal.InternalClientConnection.*;
 import static org.opends.server.protocols.internal.Requests.*;
 import static org.opends.server.types.NullOutputStream.nullPrintStream;
+import static org.opends.server.util.CollectionUtils.*;
 import static org.opends.server.util.ServerConstants.*;
 import static org.testng.Assert.*;
 
@@ -200,6 +201,111 @@ public class GroupManagerTestCase
     assertTrue(group1Instance.isMember(user5DN));
   }
 
+  /**
+   * Tests that the groups of a member include all the groups nesting its
+   * groups, whether they are static or dynamic, and that they follow the
+   * membership changes.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test
+  public void testGetGroupsOfMemberNested() throws Exception {
+    TestCaseUtils.initializeTestBackend(true);
+    GroupManager groupManager = DirectoryServer.getGroupManager();
+    groupManager.deregisterAllGroups();
+    addNestedGroupTestEntries();
+    DN group1DN = DN.valueOf("cn=group 1,ou=Groups,o=test");
+    DN group2DN = DN.valueOf("cn=group 2,ou=Groups,o=test");
+    DN group3DN = DN.valueOf("cn=group 3,ou=Groups,o=test");
+    DN group4DN = DN.valueOf("cn=group 4,ou=Groups,o=test");
+    Entry user1Entry = DirectoryServer.getEntry(DN.valueOf("uid=user.1,ou=People,o=test"));
+    Entry user3Entry = DirectoryServer.getEntry(DN.valueOf("uid=user.3,ou=People,o=test"));
+    Entry user5Entry = DirectoryServer.getEntry(DN.valueOf("uid=user.5,ou=People,o=test"));
+    Group group1Instance = groupManager.getGroupInstance(group1DN);
+    Group group2Instance = groupManager.getGroupInstance(group2DN);
+    Group group3Instance = groupManager.getGroupInstance(group3DN);
+    Group group4Instance = groupManager.getGroupInstance(group4DN);
+    group1Instance.addNestedGroup(group2DN);
+    group2Instance.addNestedGroup(group3DN);
+    group1Instance.addMember(user1Entry);
+    group3Instance.addMember(user3Entry);
+
+    assertEquals(groupManager.getGroupsOfMember(user1Entry), newHashSet(group1Instance));
+    assertEquals(groupManager.getGroupsOfMember(user3Entry),
+        newHashSet(group1Instance, group2Instance, group3Instance));
+    assertEquals(groupManager.getGroupsOfMember(user5Entry), newHashSet(group4Instance));
+    assertTrue(group1Instance.isMember(user3Entry));
+    assertFalse(group1Instance.isMember(user5Entry));
+
+    // User 5 matches the URL of the dynamic group 4, now nested in group 3
+    group3Instance.addNestedGroup(group4DN);
+    assertEquals(groupManager.getGroupsOfMember(user5Entry),
+        newHashSet(group1Instance, group2Instance, group3Instance, group4Instance));
+    assertTrue(group1Instance.isMember(user5Entry));
+
+    group2Instance.removeNestedGroup(group3DN);
+    assertEquals(groupManager.getGroupsOfMember(user3Entry), newHashSet(group3Instance));
+    assertFalse(group1Instance.isMember(user3Entry));
+    assertFalse(group1Instance.isMember(user5Entry));
+  }
+
+  /**
+   * Tests that the groups of a member follow the members added to and removed
+   * from the static groups, a member remaining in the groups it belongs to
+   * through other groups.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test
+  public void testGetGroupsOfMemberAfterMemberUpdates() throws Exception {
+    TestCaseUtils.initializeTestBackend(true);
+    GroupManager groupManager = DirectoryServer.getGroupManager();
+    groupManager.deregisterAllGroups();
+    addNestedGroupTestEntries();
+    DN group1DN = DN.valueOf("cn=group 1,ou=Groups,o=test");
+    DN group2DN = DN.valueOf("cn=group 2,ou=Groups,o=test");
+    DN group3DN = DN.valueOf("cn=group 3,ou=Groups,o=test");
+    Entry user1Entry = DirectoryServer.getEntry(DN.valueOf("uid=user.1,ou=People,o=test"));
+    Entry user3Entry = DirectoryServer.getEntry(DN.valueOf("uid=user.3,ou=People,o=test"));
+    Group group1Instance = groupManager.getGroupInstance(group1DN);
+    Group group2Instance = groupManager.getGroupInstance(group2DN);
+    Group group3Instance = groupManager.getGroupInstance(group3DN);
+    group1Instance.addNestedGroup(group2DN);
+    group2Instance.addNestedGroup(group3DN);
+    group1Instance.addMember(user1Entry);
+    assertEquals(groupManager.getGroupsOfMember(user1Entry), newHashSet(group1Instance));
+    int indexedMemberCount = groupManager.getIndexedMemberCount();
+
+    group3Instance.addMember(user1Entry);
+    assertEquals(groupManager.getGroupsOfMember(user1Entry),
+        newHashSet(group1Instance, group2Instance, group3Instance));
+    assertTrue(group2Instance.isMember(user1Entry));
+
+    // User 1 remains a direct member of group 1
+    group3Instance.removeMember(user1Entry.getName());
+    assertEquals(groupManager.getGroupsOfMember(user1Entry), newHashSet(group1Instance));
+    assertFalse(group2Instance.isMember(user1Entry));
+    assertTrue(group1Instance.isMember(user1Entry));
+
+    group1Instance.removeMember(user1Entry.getName());
+    assertEquals(groupManager.getGroupsOfMember(user1Entry), newHashSet());
+    assertFalse(group1Instance.isMember(user1Entry));
+    assertEquals(groupManager.getIndexedMemberCount(), indexedMemberCount - 1);
+
+    // Members changed via ldap modify
+    ModifyRequest modifyRequest = newModifyRequest(group2DN)
+        .addModification(ADD, "member", "uid=user.3,ou=People,o=test");
+    assertEquals(getRootConnection().processModify(modifyRequest).getResultCode(), ResultCode.SUCCESS);
+    assertEquals(groupManager.getGroupsOfMember(user3Entry), newHashSet(group1Instance, group2Instance));
+    assertTrue(group1Instance.isMember(user3Entry));
+
+    modifyRequest = newModifyRequest(group2DN)
+        .addModification(DELETE, "member", "uid=user.3,ou=People,o=test");
+    assertEquals(getRootConnection().processModify(modifyRequest).getResultCode(), ResultCode.SUCCESS);
+    assertEquals(groupManager.getGroupsOfMember(user3Entry), newHashSet());
+    assertFalse(group1Instance.isMember(user3Entry));
+  }
+
   /**
    * Invokes membership and nested group APIs using a group instance that has
    * been changed by the group manager via ldap modify.
@@ -0,0 +1,138 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.core;
+
+import static java.util.concurrent.TimeUnit.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.protocols.internal.InternalClientConnection.*;
+import static org.opends.server.protocols.internal.Requests.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.controls.PersistentSearchChangeType;
+import org.opends.server.protocols.internal.InternalSearchOperation;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchResultEntry;
+import org.opends.server.util.TestTimer;
+import org.opends.server.util.TestTimer.CallableVoid;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class PersistentSearchIndexTestCase extends CoreTestCase
+{
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @Test
+  public void testOnlyInterestedSearchesAreNotified() throws Exception
+  {
+    final PersistentSearchIndex index = new PersistentSearchIndex();
+    final PersistentSearch uidSearch = newPersistentSearch("o=test", "(&(objectClass=person)(uid=JDoe))");
+    final PersistentSearch mailSearch = newPersistentSearch("o=test", "(|(mail=*)(telephoneNumber=*))");
+    final PersistentSearch substringSearch = newPersistentSearch("o=test", "(cn=*Smith)");
+    final PersistentSearch otherBaseSearch = newPersistentSearch("ou=other,o=test", "(objectClass=*)");
+    index.add(uidSearch);
+    index.add(mailSearch);
+    index.add(substringSearch);
+    index.add(otherBaseSearch);
+
+    final Entry jdoe = newPerson("jdoe", "John Doe", "Doe");
+    final Entry jsmith = newPerson("jsmith", "John Smith", "Smith", "mail: jsmith@example.com");
+    index.notifyAdd(jdoe);
+    index.notifyAdd(jsmith);
+
+    assertReturnedEntries(uidSearch, jdoe.getName());
+    assertReturnedEntries(mailSearch, jsmith.getName());
+    assertReturnedEntries(substringSearch, jsmith.getName());
+    assertThat(getSearchEntries(otherBaseSearch)).isEmpty();
+  }
+
+  @Test
+  public void testRemovedSearchesAreNotNotified() throws Exception
+  {
+    final PersistentSearchIndex index = new PersistentSearchIndex();
+    final PersistentSearch removedSearch = newPersistentSearch("o=test", "(uid=*)");
+    final PersistentSearch activeSearch = newPersistentSearch("o=test", "(uid=*)");
+    index.add(removedSearch);
+    index.add(activeSearch);
+    index.remove(removedSearch);
+
+    final Entry jdoe = newPerson("jdoe", "John Doe", "Doe");
+    index.notifyDelete(jdoe);
+
+    assertReturnedEntries(activeSearch, jdoe.getName());
+    assertThat(getSearchEntries(removedSearch)).isEmpty();
+  }
+
+  private PersistentSearch newPersistentSearch(String baseDN, String filter) throws Exception
+  {
+    final InternalSearchOperation search = new InternalSearchOperation(getRootConnection(),
+        nextOperationID(), nextMessageID(), newSearchRequest(DN.valueOf(baseDN), SearchScope.WHOLE_SUBTREE, filter));
+    return new PersistentSearch(search, EnumSet.allOf(PersistentSearchChangeType.class), true, false);
+  }
+
+  private Entry newPerson(String uid, String cn, String sn, String... otherLines) throws Exception
+  {
+    final List<String> lines = new ArrayList<>(Arrays.asList(
+        "dn: uid=" + uid + ",o=test",
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: " + uid,
+        "cn: " + cn,
+        "sn: " + sn));
+    lines.addAll(Arrays.asList(otherLines));
+    return TestCaseUtils.makeEntry(lines.toArray(new String[0]));
+  }
+
+  private List<SearchResultEntry> getSearchEntries(PersistentSearch psearch)
+  {
+    return ((InternalSearchOperation) psearch.getSearchOperation()).getSearchEntries();
+  }
+
+  private void assertReturnedEntries(final PersistentSearch psearch, final DN expectedDN) throws Exception
+  {
+    new TestTimer.Builder()
+        .maxSleep(10, SECONDS)
+        .sleepTimes(10, MILLISECONDS)
+        .toTimer()
+        .repeatUntilSuccess(new CallableVoid()
+        {
+          @Override
+          public void call() throws Exception
+          {
+            final List<DN> returnedDNs = new ArrayList<>();
+            for (SearchResultEntry entry : getSearchEntries(psearch))
+            {
+              returnedDNs.add(entry.getName());
+            }
+            assertThat(returnedDNs).containsExactly(expectedDN);
+          }
+        });
+  }
+}
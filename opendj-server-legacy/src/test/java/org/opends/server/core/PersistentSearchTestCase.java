@@ -0,0 +1,229 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.core;
+
+import static java.util.concurrent.TimeUnit.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.protocols.internal.InternalClientConnection.*;
+import static org.opends.server.protocols.internal.Requests.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.controls.PersistentSearchChangeType;
+import org.opends.server.protocols.internal.InternalSearchListener;
+import org.opends.server.protocols.internal.InternalSearchOperation;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchResultEntry;
+import org.opends.server.types.SearchResultReference;
+import org.opends.server.util.TestTimer;
+import org.opends.server.util.TestTimer.CallableVoid;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/** Test the delivery of the notifications of persistent searches to slow clients. */
+@SuppressWarnings("javadoc")
+public class PersistentSearchTestCase extends CoreTestCase
+{
+  /** Released to let the slow clients read their notifications. */
+  private CountDownLatch slowClientsRelease;
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @AfterMethod
+  public void releaseSlowClients()
+  {
+    if (slowClientsRelease != null)
+    {
+      slowClientsRelease.countDown();
+    }
+  }
+
+  @Test
+  public void testSlowClientsDoNotDelayOtherSearches() throws Exception
+  {
+    slowClientsRelease = new CountDownLatch(1);
+    final Entry entry = newEntry("test");
+
+    // More slow clients than dispatchers, each one giving up its blocked writes after a while like the
+    // LDAP connections do: they would hold every dispatcher if they were not evicted after the first one
+    final List<PersistentSearch> slowSearches = new ArrayList<>();
+    for (int i = 0; i < PersistentSearch.NUM_DISPATCHERS + 8; i++)
+    {
+      final PersistentSearch slowSearch = newSlowPersistentSearch(200);
+      slowSearch.setMaxBlockedTime(100);
+      for (int j = 0; j < 100; j++)
+      {
+        slowSearch.notifyAdd(entry);
+      }
+      slowSearches.add(slowSearch);
+    }
+    final PersistentSearch fastSearch = newPersistentSearch(null);
+    fastSearch.notifyAdd(entry);
+
+    assertReturnedEntries(fastSearch, entry.getName());
+    for (PersistentSearch slowSearch : slowSearches)
+    {
+      assertEvicted(slowSearch);
+    }
+  }
+
+  @Test
+  public void testNotificationsAreSentInOrder() throws Exception
+  {
+    final PersistentSearch psearch = newPersistentSearch(null);
+    final List<DN> expectedDNs = new ArrayList<>();
+    for (int i = 0; i < 1000; i++)
+    {
+      final Entry entry = newEntry("test" + i);
+      psearch.notifyAdd(entry);
+      expectedDNs.add(entry.getName());
+    }
+
+    assertReturnedEntries(psearch, expectedDNs.toArray(new DN[0]));
+  }
+
+  @Test
+  public void testBlockedClientIsEvicted() throws Exception
+  {
+    slowClientsRelease = new CountDownLatch(1);
+    final PersistentSearch slowSearch = newSlowPersistentSearch();
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    slowSearch.registerCancellationCallback(new PersistentSearch.CancellationCallback()
+    {
+      @Override
+      public void persistentSearchCancelled(PersistentSearch psearch)
+      {
+        cancelled.countDown();
+      }
+    });
+    slowSearch.setMaxBlockedTime(100);
+
+    slowSearch.notifyAdd(newEntry("test1"));
+    Thread.sleep(500);
+    slowSearch.notifyAdd(newEntry("test2"));
+
+    assertThat(cancelled.await(10, SECONDS)).isTrue();
+    slowClientsRelease.countDown();
+    assertEvicted(slowSearch);
+  }
+
+  private void assertEvicted(final PersistentSearch psearch) throws Exception
+  {
+    new TestTimer.Builder()
+        .maxSleep(10, SECONDS)
+        .sleepTimes(10, MILLISECONDS)
+        .toTimer()
+        .repeatUntilSuccess(new CallableVoid()
+        {
+          @Override
+          public void call() throws Exception
+          {
+            assertThat(psearch.getSearchOperation().getResultCode()).isEqualTo(ResultCode.ADMIN_LIMIT_EXCEEDED);
+          }
+        });
+  }
+
+  /** Returns a persistent search whose client does not read its notifications until released. */
+  private PersistentSearch newSlowPersistentSearch() throws Exception
+  {
+    return newSlowPersistentSearch(Long.MAX_VALUE);
+  }
+
+  /**
+   * Returns a persistent search whose client does not read its notifications until released, each
+   * write being given up after the provided time in milliseconds.
+   */
+  private PersistentSearch newSlowPersistentSearch(final long writeTimeLimit) throws Exception
+  {
+    return newPersistentSearch(new InternalSearchListener()
+    {
+      @Override
+      public void handleInternalSearchEntry(InternalSearchOperation searchOperation, SearchResultEntry searchEntry)
+      {
+        try
+        {
+          slowClientsRelease.await(writeTimeLimit, MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      @Override
+      public void handleInternalSearchReference(InternalSearchOperation searchOperation,
+          SearchResultReference searchReference)
+      {
+        // No references
+      }
+    });
+  }
+
+  private PersistentSearch newPersistentSearch(InternalSearchListener listener) throws Exception
+  {
+    final InternalSearchOperation search = new InternalSearchOperation(getRootConnection(), nextOperationID(),
+        nextMessageID(), newSearchRequest(DN.valueOf("o=test"), SearchScope.WHOLE_SUBTREE, "(objectClass=*)"),
+        listener);
+    return new PersistentSearch(search, EnumSet.allOf(PersistentSearchChangeType.class), true, false);
+  }
+
+  private Entry newEntry(String cn) throws Exception
+  {
+    return TestCaseUtils.makeEntry(
+        "dn: cn=" + cn + ",o=test",
+        "objectClass: top",
+        "objectClass: device",
+        "cn: " + cn);
+  }
+
+  private void assertReturnedEntries(final PersistentSearch psearch, final DN... expectedDNs) throws Exception
+  {
+    new TestTimer.Builder()
+        .maxSleep(10, SECONDS)
+        .sleepTimes(10, MILLISECONDS)
+        .toTimer()
+        .repeatUntilSuccess(new CallableVoid()
+        {
+          @Override
+          public void call() throws Exception
+          {
+            final List<SearchResultEntry> entries =
+                ((InternalSearchOperation) psearch.getSearchOperation()).getSearchEntries();
+            // nothing else is returned once all the entries are returned
+            assertThat(entries).hasSize(expectedDNs.length);
+            final List<DN> returnedDNs = new ArrayList<>();
+            for (SearchResultEntry entry : entries)
+            {
+              returnedDNs.add(entry.getName());
+            }
+            assertThat(returnedDNs).containsExactly(expectedDNs);
+          }
+        });
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.extensions;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Iterator;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.extensions.StaticGroup.CompactDn;
+import org.opends.server.extensions.StaticGroup.MemberSet;
+import org.testng.annotations.Test;
+
+/**
+ * This class defines a set of tests for the inner class StaticGroup.MemberSet.
+ */
+@SuppressWarnings("javadoc")
+public class StaticGroupMemberSetTestCase extends DirectoryServerTestCase
+{
+  @Test
+  public void testAddRemoveUsesNormalizedDNs() throws Exception
+  {
+    MemberSet members = new MemberSet(0);
+    assertThat(members.add(new CompactDn(DN.valueOf("uid=user.1,dc=example,dc=com")))).isTrue();
+    assertThat(members.add(new CompactDn(DN.valueOf("UID=user.1, DC=example,DC=com")))).isFalse();
+    assertThat(members).hasSize(1);
+    assertThat(members.contains(new CompactDn(DN.valueOf("uid=USER.1,dc=example,dc=com")))).isTrue();
+
+    assertThat(members.remove(new CompactDn(DN.valueOf("uid=user.1,dc=EXAMPLE,dc=com")))).isTrue();
+    assertThat(members.remove(new CompactDn(DN.valueOf("uid=user.1,dc=example,dc=com")))).isFalse();
+    assertThat(members).isEmpty();
+  }
+
+  @Test
+  public void testMemoryUsageFollowsMembers() throws Exception
+  {
+    MemberSet members = new MemberSet(100);
+    assertThat(members.getMemoryUsage()).isEqualTo(0);
+
+    CompactDn member = new CompactDn(DN.valueOf("uid=user.0,ou=people,dc=example,dc=com"));
+    members.add(member);
+    assertThat(members.getMemoryUsage()).isEqualTo(member.getMemorySize());
+    members.add(new CompactDn(DN.valueOf("uid=user.0,ou=people,dc=example,dc=com")));
+    assertThat(members.getMemoryUsage()).isEqualTo(member.getMemorySize());
+
+    for (int i = 1; i < 100; i++)
+    {
+      members.add(new CompactDn(DN.valueOf("uid=user." + i + ",ou=people,dc=example,dc=com")));
+    }
+    assertThat(members.getMemoryUsage()).isGreaterThan(100 * member.getMemorySize() / 2);
+
+    for (Iterator<CompactDn> it = members.iterator(); it.hasNext();)
+    {
+      if (!it.next().equals(member))
+      {
+        it.remove();
+      }
+    }
+    assertThat(members).containsOnly(member);
+    assertThat(members.getMemoryUsage()).isEqualTo(member.getMemorySize());
+
+    members.clear();
+    assertThat(members).isEmpty();
+    assertThat(members.getMemoryUsage()).isEqualTo(0);
+  }
+
+  @Test
+  public void testIterationDuringUpdates() throws Exception
+  {
+    MemberSet members = new MemberSet(0);
+    for (int i = 0; i < 1000; i++)
+    {
+      members.add(new CompactDn(DN.valueOf("uid=user." + i + ",dc=example,dc=com")));
+    }
+
+    int count = 0;
+    for (CompactDn member : members)
+    {
+      // The iterator must not fail when the set is concurrently modified
+      if (member.toString().startsWith("uid=user."))
+      {
+        members.remove(member);
+        members.add(new CompactDn(DN.valueOf("uid=new." + count + ",dc=example,dc=com")));
+        count++;
+      }
+    }
+    assertThat(count).isEqualTo(1000);
+    assertThat(members).hasSize(1000);
+    assertThat(members.contains(new CompactDn(DN.valueOf("uid=user.0,dc=example,dc=com")))).isFalse();
+  }
+}
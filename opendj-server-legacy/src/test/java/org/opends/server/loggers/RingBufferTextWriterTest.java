@@ -0,0 +1,215 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.loggers;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.concurrent.TimeUnit.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.server.config.meta.FileBasedAccessLogPublisherCfgDefn.QueueFullPolicy;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.MonitorData;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.FilePermission;
+import org.opends.server.util.TestTimer;
+import org.opends.server.util.TestTimer.CallableVoid;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class RingBufferTextWriterTest extends DirectoryServerTestCase
+{
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startFakeServer();
+  }
+
+  @AfterClass
+  public void tearDown() throws DirectoryException
+  {
+    TestCaseUtils.shutdownFakeServer();
+  }
+
+  @Test
+  public void testRecordsAreWrittenInOrder() throws Exception
+  {
+    final File logFile = newLogFile();
+    final MultifileTextWriter mfWriter = newMultifileTextWriter(logFile);
+    final RingBufferTextWriter writer = new RingBufferTextWriter("Test Ring Buffer", 4, QueueFullPolicy.BLOCK, mfWriter);
+
+    final char[] largeRecord = new char[100 * 1024];
+    Arrays.fill(largeRecord, 'x');
+    final List<String> records = new ArrayList<>();
+    for (int i = 0; i < 100; i++)
+    {
+      records.add("conn=" + i + " op=0 msgID=1 SEARCH REQ base=\"ou=\u00e9t\u00e9\u20ac\ud83d\ude00\"");
+    }
+    records.add(new String(largeRecord));
+    records.add("last");
+
+    for (String record : records)
+    {
+      writer.writeRecord(new StringBuilder(record));
+    }
+    writer.shutdown();
+
+    assertThat(Files.readAllLines(logFile.toPath(), UTF_8)).isEqualTo(records);
+  }
+
+  @Test
+  public void testRecordsOfConcurrentThreadsAreWrittenInOrder() throws Exception
+  {
+    final File logFile = newLogFile();
+    final RingBufferTextWriter writer =
+        new RingBufferTextWriter("Test Ring Buffer Concurrent", 16, QueueFullPolicy.BLOCK,
+            newMultifileTextWriter(logFile));
+
+    final int nbThreads = 8;
+    final int nbRecordsPerThread = 2000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < nbThreads; t++)
+    {
+      final int threadNumber = t;
+      final Thread thread = new Thread(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            start.await();
+          }
+          catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+            return;
+          }
+          for (int i = 0; i < nbRecordsPerThread; i++)
+          {
+            writer.writeRecord(new StringBuilder("thread=").append(threadNumber).append(" seq=").append(i));
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+    writer.shutdown();
+
+    // Each thread's records are written in the order it wrote them, whatever the interleaving
+    final int[] nextSequences = new int[nbThreads];
+    final List<String> lines = Files.readAllLines(logFile.toPath(), UTF_8);
+    assertThat(lines).hasSize(nbThreads * nbRecordsPerThread);
+    for (String line : lines)
+    {
+      final String[] fields = line.split(" ");
+      final int threadNumber = Integer.parseInt(fields[0].substring("thread=".length()));
+      assertThat(fields[1]).isEqualTo("seq=" + nextSequences[threadNumber]);
+      nextSequences[threadNumber]++;
+    }
+  }
+
+  @Test
+  public void testRecordsAreDroppedWhenTheQueueIsFull() throws Exception
+  {
+    final File logFile = newLogFile();
+    final MultifileTextWriter mfWriter = newMultifileTextWriter(logFile);
+    final String name = "Test Ring Buffer Drop";
+    final RingBufferTextWriter writer = new RingBufferTextWriter(name, 4, QueueFullPolicy.DROP, mfWriter);
+
+    final List<String> records = new ArrayList<>();
+    // Holding the lock of the file writer blocks the writer thread, once it has taken the first record
+    synchronized (mfWriter)
+    {
+      writer.writeRecord(new StringBuilder("first"));
+      records.add("first");
+      new TestTimer.Builder()
+          .maxSleep(10, SECONDS)
+          .sleepTimes(10, MILLISECONDS)
+          .toTimer()
+          .repeatUntilSuccess(new CallableVoid()
+          {
+            @Override
+            public void call() throws Exception
+            {
+              assertThat(getMonitorValue(name, "ds-mon-queued-records")).isEqualTo(0);
+            }
+          });
+
+      for (int i = 0; i < 7; i++)
+      {
+        writer.writeRecord(new StringBuilder("record=" + i));
+        if (i < 4)
+        {
+          records.add("record=" + i);
+        }
+      }
+      assertThat(getMonitorValue(name, "ds-mon-queued-records")).isEqualTo(4);
+      assertThat(getMonitorValue(name, "ds-mon-dropped-records")).isEqualTo(3);
+    }
+    writer.shutdown();
+
+    assertThat(Files.readAllLines(logFile.toPath(), UTF_8)).isEqualTo(records);
+  }
+
+  private static File newLogFile() throws Exception
+  {
+    final File logFile = File.createTempFile("ring-buffer", ".log");
+    logFile.deleteOnExit();
+    return logFile;
+  }
+
+  private static MultifileTextWriter newMultifileTextWriter(File logFile) throws Exception
+  {
+    return new MultifileTextWriter("Multifile Text Writer for test", 5,
+        new TimeStampNaming(logFile), FilePermission.decodeUNIXMode("640"),
+        new LogPublisherErrorHandler(DN.valueOf("cn=test")), "UTF-8", false, false, 0);
+  }
+
+  private static long getMonitorValue(String monitorName, String attributeName) throws Exception
+  {
+    final MonitorData monitorData =
+        DirectoryServer.getMonitorProviders().get(toLowerCase(monitorName)).getMonitorData();
+    for (Attribute attribute : monitorData)
+    {
+      if (attribute.getAttributeDescription().getNameOrOID().equalsIgnoreCase(attributeName))
+      {
+        return Long.valueOf(attribute.iterator().next().toString());
+      }
+    }
+    throw new AssertionError("Missing monitor attribute " + attributeName);
+  }
+}
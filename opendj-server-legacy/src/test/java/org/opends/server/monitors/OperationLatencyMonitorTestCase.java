@@ -0,0 +1,83 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.monitors;
+
+import static java.util.concurrent.TimeUnit.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.OperationType;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class OperationLatencyMonitorTestCase extends GenericMonitorTestCase
+{
+  public OperationLatencyMonitorTestCase()
+  {
+    super(null);
+  }
+
+  @Override
+  protected MonitorProvider<?> getMonitorInstance()
+  {
+    return new OperationLatencyMonitor("Test Latency");
+  }
+
+  @Test
+  public void testLastWindowIsReported()
+  {
+    final OperationLatencyMonitor monitor = new OperationLatencyMonitor("Test Latency");
+    for (int i = 1; i <= 100; i++)
+    {
+      monitor.recordOperation(OperationType.SEARCH, MILLISECONDS.toNanos(i), MICROSECONDS.toNanos(5));
+    }
+    monitor.recordOperation(OperationType.ADD, MILLISECONDS.toNanos(3), -1);
+
+    // nothing is reported before the window is closed
+    assertThat(getValue(monitor.getMonitorData(), "ds-mon-search-etime-count")).isNull();
+
+    monitor.run();
+    MonitorData data = monitor.getMonitorData();
+    assertThat(getValue(data, "ds-mon-search-etime-count")).isEqualTo(100);
+    assertThat(getValue(data, "ds-mon-search-etime-p50")).isBetween(49500L, 50500L);
+    assertThat(getValue(data, "ds-mon-search-etime-p99")).isBetween(98500L, 99500L);
+    assertThat(getValue(data, "ds-mon-search-etime-max")).isBetween(100000L, 101000L);
+    assertThat(getValue(data, "ds-mon-search-queue-wait-max")).isBetween(5L, 6L);
+    assertThat(getValue(data, "ds-mon-add-etime-count")).isEqualTo(1);
+    assertThat(getValue(data, "ds-mon-add-queue-wait-count")).isNull();
+    assertThat(getValue(data, "ds-mon-bind-etime-count")).isNull();
+
+    // the next window starts empty
+    monitor.run();
+    data = monitor.getMonitorData();
+    assertThat(getValue(data, "ds-mon-search-etime-count")).isEqualTo(0);
+  }
+
+  private Long getValue(MonitorData data, String attributeName)
+  {
+    for (Attribute attribute : data)
+    {
+      if (attribute.getAttributeDescription().getNameOrOID().equalsIgnoreCase(attributeName))
+      {
+        return Long.valueOf(attribute.iterator().next().toString());
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.protocols.http;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit" }, sequential = true)
+public class PrometheusEndpointTestCase extends DirectoryServerTestCase
+{
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @Test
+  public void testOnlyNumericValuesAreExposed()
+  {
+    final MonitorData first = new MonitorData();
+    first.add("ds-mon-search-etime-p99", 1234L);
+    first.add("ds-mon-search-etime-mean", 12.5d);
+    first.add("isPrivate", true);
+    first.add("version", "4.0.0");
+    first.add("startTime", new Date());
+    first.add("baseDN", Arrays.asList("1", "2"));
+    final MonitorData second = new MonitorData();
+    second.add("ds-mon-search-etime-p99", 42);
+
+    final StringBuilder buffer = new StringBuilder();
+    PrometheusEndpoint.appendMetrics(
+        Arrays.asList(newMonitorProvider("Backend \"a\"", first), newMonitorProvider("Backend b", second)), buffer);
+
+    assertThat(buffer.toString()).isEqualTo(
+        "# TYPE opendj_ds_mon_search_etime_mean unknown\n"
+        + "opendj_ds_mon_search_etime_mean{monitor=\"Backend \\\"a\\\"\"} 12.5\n"
+        + "# TYPE opendj_ds_mon_search_etime_p99 unknown\n"
+        + "opendj_ds_mon_search_etime_p99{monitor=\"Backend \\\"a\\\"\"} 1234\n"
+        + "opendj_ds_mon_search_etime_p99{monitor=\"Backend b\"} 42\n"
+        + "# TYPE opendj_isPrivate unknown\n"
+        + "opendj_isPrivate{monitor=\"Backend \\\"a\\\"\"} 1\n"
+        + "# EOF\n");
+  }
+
+  private MonitorProvider<MonitorProviderCfg> newMonitorProvider(final String name, final MonitorData monitorData)
+  {
+    return new MonitorProvider<MonitorProviderCfg>()
+    {
+      @Override
+      public String getMonitorInstanceName()
+      {
+        return name;
+      }
+
+      @Override
+      public MonitorData getMonitorData()
+      {
+        return monitorData;
+      }
+    };
+  }
+}
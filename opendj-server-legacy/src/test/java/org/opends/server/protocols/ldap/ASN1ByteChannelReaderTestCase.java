@@ -13,15 +13,27 @@
  *
  * Copyright 2006-2009 Sun Microsystems, Inc.
  * Portions Copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Open Identity Platform Community.
  */
 package org.opends.server.protocols.ldap;
 
+import static org.assertj.core.api.Assertions.*;
+
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 
+import org.forgerock.opendj.io.ASN1;
 import org.forgerock.opendj.io.ASN1Reader;
+import org.forgerock.opendj.io.ASN1Writer;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.util.DirectBufferPool;
 import org.testng.annotations.Test;
 
 /** Test class for ASN1ByteChannelReader. */
@@ -288,4 +300,71 @@ public class ASN1ByteChannelReaderTestCase extends ASN1ReaderTestCase
   {
     super.testSkipElementIncompleteRead();
   }
+
+  /**
+   * Tests that a partial element survives the release of the pooled channel
+   * buffer between two reads.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test
+  public void testReleaseBufferWithPartialElement() throws Exception
+  {
+    final ByteStringBuilder bytes = new ByteStringBuilder();
+    final ASN1Writer writer = ASN1.getWriter(bytes);
+    writer.writeOctetString("hello world");
+    writer.close();
+    final byte[] b = bytes.toByteArray();
+
+    final Deque<byte[]> chunks = new ArrayDeque<>();
+    chunks.add(Arrays.copyOfRange(b, 0, 5));
+    final ReadableByteChannel channel = new ReadableByteChannel()
+    {
+      @Override
+      public boolean isOpen()
+      {
+        return true;
+      }
+
+      @Override
+      public void close()
+      {
+        // Nothing to do.
+      }
+
+      @Override
+      public int read(ByteBuffer dst)
+      {
+        final byte[] chunk = chunks.poll();
+        if (chunk == null)
+        {
+          return 0;
+        }
+        dst.put(chunk);
+        return chunk.length;
+      }
+    };
+
+    final DirectBufferPool pool = new DirectBufferPool(1);
+    final ASN1ByteChannelReader reader = new ASN1ByteChannelReader(channel, 64, 0, pool);
+    assertThat(reader.processChannelData()).isEqualTo(5);
+    assertThat(reader.elementAvailable()).isFalse();
+    assertThat(reader.processChannelData()).isEqualTo(0);
+    assertThat(pool.getLeasedBuffers()).isEqualTo(1);
+
+    reader.releaseBuffer();
+    assertThat(pool.getLeasedBuffers()).isEqualTo(0);
+    assertThat(pool.getIdleBuffers()).isEqualTo(1);
+    assertThat(reader.hasRemainingData()).isTrue();
+
+    chunks.add(Arrays.copyOfRange(b, 5, b.length));
+    assertThat(reader.processChannelData()).isEqualTo(b.length - 5);
+    assertThat(reader.elementAvailable()).isTrue();
+    assertThat(reader.readOctetStringAsString()).isEqualTo("hello world");
+
+    reader.releaseBuffer();
+    assertThat(reader.hasRemainingData()).isFalse();
+    assertThat(pool.getLeasedBuffers()).isEqualTo(0);
+    assertThat(pool.getAllocatedBuffers()).isEqualTo(1);
+  }
 }
@@ -25,6 +25,7 @@ import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.config.server.ConfigurationChangeListener;
 import org.forgerock.opendj.server.config.meta.ReplicationDomainCfgDefn.AssuredType;
 import org.forgerock.opendj.server.config.meta.ReplicationDomainCfgDefn.IsolationPolicy;
+import org.forgerock.opendj.server.config.meta.ReplicationDomainCfgDefn.SessionCompression;
 import org.forgerock.opendj.server.config.server.ExternalChangelogDomainCfg;
 import org.forgerock.opendj.server.config.server.ReplicationDomainCfg;
 
@@ -64,6 +65,7 @@ public class DomainFakeCfg implements ReplicationDomainCfg
   private ExternalChangelogDomainCfg eclCfg =
     new ExternalChangelogDomainFakeCfg(true, null, null);
   private int windowSize = 100;
+  private int initializationWindowSize = 100;
 
   /**
    * Creates a new Domain with the provided information
@@ -164,6 +166,12 @@ public class DomainFakeCfg implements ReplicationDomainCfg
   @Override
   public InetAddress getSourceAddress() { return null; }
 
+  @Override
+  public SessionCompression getSessionCompression()
+  {
+    return SessionCompression.NONE;
+  }
+
   /** {@inheritDoc} */
   @Override
   public int getServerId()
@@ -278,7 +286,12 @@ public class DomainFakeCfg implements ReplicationDomainCfg
   @Override
   public int getInitializationWindowSize()
   {
-    return 100;
+    return initializationWindowSize;
+  }
+
+  public void setInitializationWindowSize(int initializationWindowSize)
+  {
+    this.initializationWindowSize = initializationWindowSize;
   }
 
   /**
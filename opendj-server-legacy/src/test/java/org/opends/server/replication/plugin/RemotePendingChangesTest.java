@@ -0,0 +1,164 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.replication.plugin;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.protocols.internal.InternalClientConnection.*;
+
+import java.util.Collections;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSN;
+import org.opends.server.replication.common.ServerState;
+import org.opends.server.replication.protocol.DeleteMsg;
+import org.opends.server.replication.protocol.LDAPUpdateMsg;
+import org.opends.server.replication.protocol.ModifyDNMsg;
+import org.opends.server.replication.protocol.ModifyMsg;
+import org.opends.server.types.Modification;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Test the dependencies computed between the remote changes being replayed. */
+@SuppressWarnings("javadoc")
+public class RemotePendingChangesTest extends ReplicationTestCase
+{
+  private static final String BASE_DN = "ou=dependencies,dc=example,dc=com";
+
+  private RemotePendingChanges pendingChanges;
+  private int nextCSN;
+
+  @BeforeMethod
+  public void createPendingChanges()
+  {
+    pendingChanges = new RemotePendingChanges(new ServerState());
+    nextCSN = 1;
+  }
+
+  @Test
+  public void testChangesOnDifferentEntriesAreIndependent() throws Exception
+  {
+    final LDAPUpdateMsg modify1 = inProgress(modifyMsg("cn=user1," + BASE_DN));
+    final LDAPUpdateMsg modify2 = inProgress(modifyMsg("cn=user2," + BASE_DN));
+    final LDAPUpdateMsg delete3 = inProgress(deleteMsg("cn=user3," + BASE_DN));
+
+    assertThat(hasDependencies(modify1)).isFalse();
+    assertThat(hasDependencies(modify2)).isFalse();
+    assertThat(hasDependencies(delete3)).isFalse();
+    assertThat(pendingChanges.changesInProgressSize()).isEqualTo(3);
+    assertThat(pendingChanges.getDependentChangesSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void testModifyIsReleasedWhenPreviousModifyIsCommitted() throws Exception
+  {
+    final LDAPUpdateMsg modify1 = inProgress(modifyMsg("cn=user1," + BASE_DN));
+    final LDAPUpdateMsg modify2 = inProgress(modifyMsg("cn=user1," + BASE_DN));
+
+    assertThat(hasDependencies(modify1)).isFalse();
+    assertThat(hasDependencies(modify2)).isTrue();
+    assertThat(pendingChanges.getDependentChangesSize()).isEqualTo(1);
+    assertThat(pendingChanges.getNextUpdate()).isNull();
+
+    pendingChanges.commit(modify1.getCSN());
+    assertThat(pendingChanges.getNextUpdate()).isSameAs(modify2);
+    assertThat(pendingChanges.getDependentChangesSize()).isEqualTo(0);
+    assertThat(hasDependencies(modify2)).isFalse();
+  }
+
+  @Test
+  public void testDeleteIsReleasedWhenAllDeletesOfChildrenAreCommitted() throws Exception
+  {
+    final LDAPUpdateMsg deleteChild1 = inProgress(deleteMsg("cn=child1,ou=parent," + BASE_DN));
+    final LDAPUpdateMsg deleteChild2 = inProgress(deleteMsg("cn=grandchild,cn=child2,ou=parent," + BASE_DN));
+    final LDAPUpdateMsg unrelatedModify = inProgress(modifyMsg("cn=other," + BASE_DN));
+    final LDAPUpdateMsg deleteParent = inProgress(deleteMsg("ou=parent," + BASE_DN));
+
+    assertThat(hasDependencies(deleteParent)).isTrue();
+
+    pendingChanges.commit(deleteChild2.getCSN());
+    pendingChanges.commit(unrelatedModify.getCSN());
+    assertThat(pendingChanges.getNextUpdate()).isNull();
+
+    pendingChanges.commit(deleteChild1.getCSN());
+    assertThat(pendingChanges.getNextUpdate()).isSameAs(deleteParent);
+    assertThat(pendingChanges.getNextUpdate()).isNull();
+  }
+
+  @Test
+  public void testModifyDependsOnModifyDNToItsDN() throws Exception
+  {
+    final LDAPUpdateMsg modifyDN = inProgress(new ModifyDNMsg(DN.valueOf("cn=old," + BASE_DN),
+        csn(), "uid", null, true, null, "cn=new"));
+    final LDAPUpdateMsg modifyOld = inProgress(modifyMsg("cn=old," + BASE_DN));
+    final LDAPUpdateMsg modifyNew = inProgress(modifyMsg("cn=new," + BASE_DN));
+
+    assertThat(hasDependencies(modifyOld)).isFalse();
+    assertThat(hasDependencies(modifyNew)).isTrue();
+
+    pendingChanges.commit(modifyDN.getCSN());
+    assertThat(pendingChanges.getNextUpdate()).isSameAs(modifyNew);
+  }
+
+  @Test
+  public void testOlderChangesDoNotDependOnNewerChanges() throws Exception
+  {
+    final LDAPUpdateMsg deleteChild = inProgress(deleteMsg("cn=child,ou=parent," + BASE_DN));
+    inProgress(deleteMsg("ou=parent," + BASE_DN));
+
+    assertThat(hasDependencies(deleteChild)).isFalse();
+  }
+
+  @Test
+  public void testUnmarkedChangeReleasesItsDependents() throws Exception
+  {
+    final LDAPUpdateMsg modify1 = inProgress(modifyMsg("cn=user1," + BASE_DN));
+    final LDAPUpdateMsg modify2 = inProgress(modifyMsg("cn=user1," + BASE_DN));
+    assertThat(hasDependencies(modify2)).isTrue();
+
+    pendingChanges.unmarkInProgress(modify1);
+    assertThat(pendingChanges.changesInProgressSize()).isEqualTo(1);
+    assertThat(pendingChanges.getNextUpdate()).isSameAs(modify2);
+    assertThat(hasDependencies(modify2)).isFalse();
+  }
+
+  private LDAPUpdateMsg inProgress(LDAPUpdateMsg msg)
+  {
+    assertThat(pendingChanges.putRemoteUpdate(msg)).isTrue();
+    pendingChanges.markInProgress(msg);
+    return msg;
+  }
+
+  private boolean hasDependencies(LDAPUpdateMsg msg) throws Exception
+  {
+    return pendingChanges.checkDependencies(msg.createOperation(getRootConnection()), msg);
+  }
+
+  private LDAPUpdateMsg deleteMsg(String dn) throws Exception
+  {
+    return new DeleteMsg(DN.valueOf(dn), csn(), "uid");
+  }
+
+  private LDAPUpdateMsg modifyMsg(String dn) throws Exception
+  {
+    return new ModifyMsg(csn(), DN.valueOf(dn), Collections.<Modification> emptyList(), "uid");
+  }
+
+  private CSN csn()
+  {
+    return new CSN(nextCSN++, 0, 1);
+  }
+}
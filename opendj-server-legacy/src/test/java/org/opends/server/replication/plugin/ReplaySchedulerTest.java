@@ -0,0 +1,221 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.replication.plugin;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.TestCaseUtils.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.MonitorData;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSN;
+import org.opends.server.replication.protocol.DeleteMsg;
+import org.opends.server.types.Attribute;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Test the dispatching of the updates to replay onto the queues of the replay threads. */
+@SuppressWarnings("javadoc")
+public class ReplaySchedulerTest extends ReplicationTestCase
+{
+  private DN baseDN;
+  private LDAPReplicationDomain domain;
+  private int nextCSN;
+
+  @BeforeMethod
+  public void setUpLocal() throws Exception
+  {
+    baseDN = DN.valueOf(TEST_ROOT_DN_STRING);
+    TestCaseUtils.initializeTestBackend(true);
+
+    // the domain is not started, so its listener thread is considered shut down
+    final DomainFakeCfg conf = new DomainFakeCfg(baseDN, 1, new TreeSet<String>());
+    domain = MultimasterReplication.createNewDomain(conf, new TestSynchronousReplayQueue());
+    nextCSN = 1;
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception
+  {
+    MultimasterReplication.deleteDomain(baseDN);
+  }
+
+  @Test
+  public void testUpdatesOfAnEntryAreQueuedInOrder() throws Exception
+  {
+    final ReplayScheduler scheduler = new ReplayScheduler();
+    scheduler.setNumberOfQueues(4);
+
+    final List<UpdateToReplay> updates = new ArrayList<>();
+    for (int i = 0; i < 100; i++)
+    {
+      final UpdateToReplay update = updateToReplay("cn=user" + (i % 10) + "," + TEST_ROOT_DN_STRING);
+      assertThat(scheduler.offer(update, 1, TimeUnit.SECONDS)).isTrue();
+      updates.add(update);
+    }
+
+    assertUpdatesOfEachEntryInOneQueueInOrder(scheduler.getQueues(), updates);
+  }
+
+  @Test
+  public void testRedistributionKeepsOrder() throws Exception
+  {
+    final ReplayScheduler scheduler = new ReplayScheduler();
+    final List<UpdateToReplay> updates = new ArrayList<>();
+    for (int i = 0; i < 100; i++)
+    {
+      final UpdateToReplay update = updateToReplay("cn=user" + (i % 10) + "," + TEST_ROOT_DN_STRING);
+      assertThat(scheduler.offer(update, 1, TimeUnit.SECONDS)).isTrue();
+      updates.add(update);
+    }
+    assertThat(scheduler.getQueues()).hasSize(1);
+
+    scheduler.setNumberOfQueues(4);
+
+    final List<BlockingQueue<UpdateToReplay>> queues = scheduler.getQueues();
+    assertThat(queues).hasSize(4);
+    int nbQueued = 0;
+    for (BlockingQueue<UpdateToReplay> queue : queues)
+    {
+      nbQueued += queue.size();
+    }
+    assertThat(nbQueued).isEqualTo(updates.size());
+    assertUpdatesOfEachEntryInOneQueueInOrder(queues, updates);
+  }
+
+  @Test
+  public void testFullDomainOnlyBlocksItself() throws Exception
+  {
+    final ReplayScheduler scheduler = new ReplayScheduler();
+    scheduler.setNumberOfQueues(4);
+    for (int i = 0; i < ReplayScheduler.MAX_QUEUED_UPDATES_PER_DOMAIN; i++)
+    {
+      assertThat(scheduler.offer(updateToReplay("cn=user" + i + "," + TEST_ROOT_DN_STRING), 1, TimeUnit.SECONDS))
+          .isTrue();
+    }
+    final UpdateToReplay blockedUpdate = updateToReplay("cn=blocked," + TEST_ROOT_DN_STRING);
+    assertThat(scheduler.offer(blockedUpdate, 10, TimeUnit.MILLISECONDS)).isFalse();
+
+    // the updates of another domain are still queued, whatever their queue
+    final LDAPReplicationDomain otherDomain = mock(LDAPReplicationDomain.class);
+    when(otherDomain.getBaseDN()).thenReturn(DN.valueOf("dc=other"));
+    for (int i = 0; i < 100; i++)
+    {
+      final UpdateToReplay update =
+          new UpdateToReplay(new DeleteMsg(DN.valueOf("cn=user" + i + ",dc=other"), csn(), "uid"), otherDomain);
+      assertThat(scheduler.offer(update, 10, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    // taking an update of the full domain from its queue lets it queue another one
+    scheduler.dequeued(takeUpdateOf(scheduler, domain));
+    assertThat(scheduler.offer(blockedUpdate, 1, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private UpdateToReplay takeUpdateOf(ReplayScheduler scheduler, LDAPReplicationDomain replicationDomain)
+  {
+    for (BlockingQueue<UpdateToReplay> queue : scheduler.getQueues())
+    {
+      for (UpdateToReplay update : queue)
+      {
+        if (update.getReplicationDomain() == replicationDomain && queue.remove(update))
+        {
+          return update;
+        }
+      }
+    }
+    throw new AssertionError("No update of " + replicationDomain.getBaseDN() + " is queued");
+  }
+
+  @Test
+  public void testUpdateNotQueuedOnShutdownIsNotLeftInProgress() throws Exception
+  {
+    final DeleteMsg delete = new DeleteMsg(DN.valueOf("cn=user," + TEST_ROOT_DN_STRING), csn(), "uid");
+
+    assertThat(domain.processUpdate(delete)).isFalse();
+
+    assertThat(getMonitorValue("changes-in-progress-size")).isEqualTo("0");
+    assertThat(getMonitorValue("replay-queue-size")).isEqualTo("0");
+  }
+
+  private void assertUpdatesOfEachEntryInOneQueueInOrder(List<BlockingQueue<UpdateToReplay>> queues,
+      List<UpdateToReplay> updates)
+  {
+    final Map<DN, List<UpdateToReplay>> expected = groupByDN(updates);
+    final Map<DN, List<UpdateToReplay>> actual = new HashMap<>();
+    for (BlockingQueue<UpdateToReplay> queue : queues)
+    {
+      final Map<DN, List<UpdateToReplay>> updatesOfQueue = groupByDN(new ArrayList<>(queue));
+      for (DN dn : updatesOfQueue.keySet())
+      {
+        assertThat(actual).as("updates of " + dn + " are in several queues").doesNotContainKey(dn);
+      }
+      actual.putAll(updatesOfQueue);
+    }
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  private Map<DN, List<UpdateToReplay>> groupByDN(List<UpdateToReplay> updates)
+  {
+    final Map<DN, List<UpdateToReplay>> results = new HashMap<>();
+    for (UpdateToReplay update : updates)
+    {
+      final DN dn = update.getUpdateMessage().getDN();
+      List<UpdateToReplay> updatesOfDN = results.get(dn);
+      if (updatesOfDN == null)
+      {
+        updatesOfDN = new ArrayList<>();
+        results.put(dn, updatesOfDN);
+      }
+      updatesOfDN.add(update);
+    }
+    return results;
+  }
+
+  private String getMonitorValue(String attributeName)
+  {
+    final MonitorData monitorData = new MonitorData();
+    domain.addAdditionalMonitoring(monitorData);
+    for (Attribute attribute : monitorData)
+    {
+      if (attribute.getAttributeDescription().getAttributeType().getNameOrOID().equals(attributeName))
+      {
+        return attribute.iterator().next().toString();
+      }
+    }
+    return null;
+  }
+
+  private UpdateToReplay updateToReplay(String dn) throws Exception
+  {
+    return new UpdateToReplay(new DeleteMsg(DN.valueOf(dn), csn(), "uid"), domain);
+  }
+
+  private CSN csn()
+  {
+    return new CSN(nextCSN++, 0, 201);
+  }
+}
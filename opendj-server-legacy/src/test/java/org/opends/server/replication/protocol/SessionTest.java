@@ -0,0 +1,247 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.replication.protocol;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.replication.protocol.ProtocolVersion.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.util.StaticUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** Test the messages exchanged on replication sessions. */
+@SuppressWarnings("javadoc")
+public class SessionTest extends ReplicationTestCase
+{
+  private Session sender;
+  private Session receiver;
+  private final List<Session> stalledSessions = new ArrayList<>();
+
+  @BeforeMethod
+  public void openSessions() throws Exception
+  {
+    Session[] sessions = openSessions(0);
+    sender = sessions[0];
+    receiver = sessions[1];
+  }
+
+  /** Opens a sender and a receiver sessions, with small socket buffers if a buffer size is provided. */
+  private Session[] openSessions(int bufferSize) throws Exception
+  {
+    try (ServerSocket serverSocket = new ServerSocket())
+    {
+      if (bufferSize > 0)
+      {
+        serverSocket.setReceiveBufferSize(bufferSize);
+      }
+      serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1);
+      Socket senderSocket = new Socket();
+      if (bufferSize > 0)
+      {
+        senderSocket.setSendBufferSize(bufferSize);
+      }
+      senderSocket.connect(serverSocket.getLocalSocketAddress());
+      Socket receiverSocket = serverSocket.accept();
+      receiverSocket.setSoTimeout(10000);
+      return new Session[] { newUnencryptedSession(senderSocket), newUnencryptedSession(receiverSocket) };
+    }
+  }
+
+  private Session newUnencryptedSession(Socket socket) throws Exception
+  {
+    SSLSocket secureSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(
+        socket, socket.getInetAddress().getHostName(), socket.getPort(), false);
+    Session session = new Session(socket, secureSocket);
+    session.stopEncryption();
+    return session;
+  }
+
+  @AfterMethod
+  public void closeSessions()
+  {
+    StaticUtils.close(sender, receiver);
+    // Closing the receivers first makes the writes blocked on the senders fail
+    for (int i = stalledSessions.size() - 1; i >= 0; i--)
+    {
+      StaticUtils.close(stalledSessions.get(i));
+    }
+    stalledSessions.clear();
+  }
+
+  @DataProvider
+  public Object[][] compressions()
+  {
+    return new Object[][] {
+      { SessionCompression.NONE },
+      { SessionCompression.DEFLATE },
+      { SessionCompression.DEFLATE_WITH_DICTIONARY },
+    };
+  }
+
+  @Test(dataProvider = "compressions")
+  public void testCompressedMessagesAreReceived(SessionCompression compression) throws Exception
+  {
+    sender.setCompression(compression);
+    assertThat(sender.getCompression()).isEqualTo(compression);
+
+    byte[] smallEntry = "dn: cn=small\n".getBytes(StandardCharsets.UTF_8);
+    byte[] largeEntry = newLdif(100);
+    sender.publish(new EntryMsg(1, 2, smallEntry, 1));
+    sender.publish(new EntryMsg(1, 2, largeEntry, 2));
+
+    assertThat(((EntryMsg) receiver.receive()).getEntryBytes()).isEqualTo(smallEntry);
+    assertThat(((EntryMsg) receiver.receive()).getEntryBytes()).isEqualTo(largeEntry);
+    if (compression == SessionCompression.NONE)
+    {
+      assertThat(sender.getCompressionRatio()).isEqualTo(1);
+    }
+    else
+    {
+      assertThat(sender.getCompressionRatio()).isGreaterThan(2);
+    }
+  }
+
+  @Test
+  public void testNoCompressionWithOlderProtocol() throws Exception
+  {
+    sender.setProtocolVersion(REPLICATION_PROTOCOL_V8);
+    receiver.setProtocolVersion(REPLICATION_PROTOCOL_V8);
+    sender.setCompression(SessionCompression.DEFLATE);
+    assertThat(sender.getCompression()).isEqualTo(SessionCompression.NONE);
+
+    byte[] largeEntry = newLdif(100);
+    sender.publish(new EntryMsg(1, 2, largeEntry, 1));
+
+    assertThat(((EntryMsg) receiver.receive()).getEntryBytes()).isEqualTo(largeEntry);
+    assertThat(sender.getCompressionRatio()).isEqualTo(1);
+  }
+
+  @Test
+  public void testAsyncPublishedMessagesAreReceivedInOrder() throws Exception
+  {
+    sender.startAsyncPublish();
+
+    for (int i = 0; i < 2000; i++)
+    {
+      sender.publish(new EntryMsg(1, 2, ("dn: cn=entry" + i + "\n").getBytes(StandardCharsets.UTF_8), i));
+    }
+
+    for (int i = 0; i < 2000; i++)
+    {
+      EntryMsg msg = (EntryMsg) receiver.receive();
+      assertThat(msg.getMsgId()).isEqualTo(i);
+      assertThat(msg.getEntryBytes()).isEqualTo(("dn: cn=entry" + i + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testStalledPeersDoNotBlockOtherSessions() throws Exception
+  {
+    Session.configureSessionWriters(2, 200);
+    try
+    {
+      // More stalled peers than session writers, so that they hold every session writer until their writes time out
+      int nbStalledPeers = 8;
+      byte[] largeEntry = newLdif(1000);
+      for (int i = 0; i < nbStalledPeers; i++)
+      {
+        // The receiver of each pair never reads
+        Session[] sessions = openSessions(4096);
+        stalledSessions.add(sessions[0]);
+        stalledSessions.add(sessions[1]);
+        sessions[0].startAsyncPublish();
+        for (int j = 0; j < 10; j++)
+        {
+          sessions[0].publish(new EntryMsg(1, 2, largeEntry, j));
+        }
+      }
+
+      sender.startAsyncPublish();
+      sender.publish(new EntryMsg(1, 2, largeEntry, 1));
+
+      assertThat(((EntryMsg) receiver.receive()).getEntryBytes()).isEqualTo(largeEntry);
+      for (int i = 0; i < stalledSessions.size(); i += 2)
+      {
+        assertThat(stalledSessions.get(i).closeInitiated()).isTrue();
+      }
+      assertThat(sender.closeInitiated()).isFalse();
+    }
+    finally
+    {
+      Session.configureSessionWriters(Session.DEFAULT_SESSION_WRITERS, Session.DEFAULT_WRITE_TIMEOUT);
+    }
+  }
+
+  @Test
+  public void testSlowPeersAreNotClosed() throws Exception
+  {
+    Session.configureSessionWriters(Session.DEFAULT_SESSION_WRITERS, 500);
+    try
+    {
+      Session[] sessions = openSessions(4096);
+      stalledSessions.add(sessions[0]);
+      stalledSessions.add(sessions[1]);
+      sessions[0].startAsyncPublish();
+      byte[] largeEntry = newLdif(1000);
+      for (int i = 0; i < 5; i++)
+      {
+        sessions[0].publish(new EntryMsg(1, 2, largeEntry, i));
+      }
+
+      // The whole write lasts longer than the write timeout, but keeps making progress
+      for (int i = 0; i < 5; i++)
+      {
+        Thread.sleep(200);
+        assertThat(((EntryMsg) sessions[1].receive()).getEntryBytes()).isEqualTo(largeEntry);
+      }
+      assertThat(sessions[0].closeInitiated()).isFalse();
+    }
+    finally
+    {
+      Session.configureSessionWriters(Session.DEFAULT_SESSION_WRITERS, Session.DEFAULT_WRITE_TIMEOUT);
+    }
+  }
+
+  private byte[] newLdif(int nbEntries)
+  {
+    StringBuilder ldif = new StringBuilder();
+    for (int i = 0; i < nbEntries; i++)
+    {
+      ldif.append("dn: uid=user.").append(i).append(",ou=People,dc=example,dc=com\n")
+          .append("objectClass: top\nobjectClass: person\nobjectClass: organizationalPerson\n")
+          .append("objectClass: inetOrgPerson\n")
+          .append("uid: user.").append(i).append('\n')
+          .append("cn: User ").append(i).append('\n')
+          .append("sn: ").append(i).append('\n')
+          .append("mail: user.").append(i).append("@example.com\n\n");
+    }
+    return ldif.toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
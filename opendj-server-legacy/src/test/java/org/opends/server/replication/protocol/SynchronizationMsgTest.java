@@ -331,6 +331,59 @@ public class SynchronizationMsgTest extends ReplicationTestCase
     assertEquals(msg.isSubtreeDelete(), updateMsg.isSubtreeDelete());
   }
 
+  /**
+   * Test that the encoded forms of an update message are computed once and
+   * shared, and that a decoded message keeps the bytes it was decoded from.
+   */
+  @Test
+  public void updateMsgEncodedOnce() throws Exception
+  {
+    CSN csn = new CSN(TimeThread.getTime(), 123, 45);
+    DeleteMsg msg = new DeleteMsg(DN.valueOf("dc=test,dc=com"), csn, "uniqueid");
+    byte[] bytes = msg.getBytes();
+    Assertions.assertThat(msg.getBytes()).isSameAs(bytes);
+    Assertions.assertThat(msg.getBytes(REPLICATION_PROTOCOL_V1)).isSameAs(msg.getBytes(REPLICATION_PROTOCOL_V1));
+    Assertions.assertThat(msg.getBytes(REPLICATION_PROTOCOL_V3)).isSameAs(msg.getBytes(REPLICATION_PROTOCOL_V2));
+
+    DeleteMsg generatedMsg = (DeleteMsg) ReplicationMsg.generateMsg(bytes, getCurrentVersion());
+    Assertions.assertThat(generatedMsg.getBytes()).isSameAs(bytes);
+
+    generatedMsg.setInitiatorsName("johnny h");
+    Assertions.assertThat(generatedMsg.getBytes()).isNotSameAs(bytes);
+    DeleteMsg renamedMsg = (DeleteMsg) ReplicationMsg.generateMsg(generatedMsg.getBytes(), getCurrentVersion());
+    assertEquals(renamedMsg.getInitiatorsName(), "johnny h");
+  }
+
+  /**
+   * Test that changing the assured flags of an encoded update message discards
+   * its cached encoded forms.
+   */
+  @Test
+  public void updateMsgReencodedAfterAssuredChange() throws Exception
+  {
+    CSN csn = new CSN(TimeThread.getTime(), 123, 45);
+    DeleteMsg msg = new DeleteMsg(DN.valueOf("dc=test,dc=com"), csn, "uniqueid");
+    byte[] bytes = msg.getBytes();
+    byte[] bytesV1 = msg.getBytes(REPLICATION_PROTOCOL_V1);
+    byte[] bytesV23 = msg.getBytes(REPLICATION_PROTOCOL_V3);
+
+    msg.setAssured(true);
+    msg.setAssuredMode(AssuredMode.SAFE_READ_MODE);
+    msg.setSafeDataLevel((byte) 3);
+    Assertions.assertThat(msg.getBytes()).isNotEqualTo(bytes);
+    Assertions.assertThat(msg.getBytes(REPLICATION_PROTOCOL_V1)).isNotEqualTo(bytesV1);
+    Assertions.assertThat(msg.getBytes(REPLICATION_PROTOCOL_V3)).isNotEqualTo(bytesV23);
+
+    DeleteMsg generatedMsg = (DeleteMsg) ReplicationMsg.generateMsg(msg.getBytes(), getCurrentVersion());
+    assertTrue(generatedMsg.isAssured());
+    assertEquals(generatedMsg.getAssuredMode(), AssuredMode.SAFE_READ_MODE);
+    assertEquals(generatedMsg.getSafeDataLevel(), 3);
+
+    DeleteMsg generatedMsgV1 = (DeleteMsg) ReplicationMsg.generateMsg(
+        msg.getBytes(REPLICATION_PROTOCOL_V1), REPLICATION_PROTOCOL_V1);
+    assertTrue(generatedMsgV1.isAssured());
+  }
+
   @DataProvider(name = "createModifyDnData")
   public Object[][] createModifyDnData() {
 
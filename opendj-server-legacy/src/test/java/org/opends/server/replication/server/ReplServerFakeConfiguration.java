@@ -24,6 +24,7 @@ import org.forgerock.opendj.config.Configuration;
 import org.forgerock.opendj.config.server.ConfigurationChangeListener;
 import org.forgerock.opendj.config.server.ServerManagedObject;
 import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.server.config.meta.ReplicationServerCfgDefn.SessionCompression;
 import org.forgerock.opendj.server.config.server.ReplicationServerCfg;
 
 /**
@@ -60,6 +61,7 @@ public class ReplServerFakeConfiguration implements ReplicationServerCfg
   /** The monitoring publisher period. */
   private long monitoringPeriod = 3000;
   private boolean computeChangenumber;
+  private boolean changelogDurableWrites;
 
   /** Constructor without group id, assured info and weight. */
   public ReplServerFakeConfiguration(
@@ -276,4 +278,21 @@ public class ReplServerFakeConfiguration implements ReplicationServerCfg
   {
     this.confidentialityEnabled = confidentialityEnabled;
   }
+
+  @Override
+  public boolean isChangelogDurableWrites()
+  {
+    return changelogDurableWrites;
+  }
+
+  public void setChangelogDurableWrites(boolean changelogDurableWrites)
+  {
+    this.changelogDurableWrites = changelogDurableWrites;
+  }
+
+  @Override
+  public SessionCompression getSessionCompression()
+  {
+    return SessionCompression.NONE;
+  }
 }
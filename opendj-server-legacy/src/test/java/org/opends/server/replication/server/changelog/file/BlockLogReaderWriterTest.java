@@ -25,6 +25,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -251,6 +255,42 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
     }
   }
 
+  @Test(dataProvider="recordsData")
+  public void testWriteThenReadMappedFile(int blockSize, int expectedSizeOfFile,
+      List<Record<Integer, Integer>> records) throws Exception
+  {
+    writeRecords(blockSize, records);
+
+    try (BlockLogReader<Integer, Integer> reader = newMappedReader(blockSize))
+    {
+      for (int i = 0; i < records.size(); i++)
+      {
+         Record<Integer, Integer> record = reader.readRecord();
+         assertThat(record).isEqualTo(records.get(i));
+      }
+      assertThat(reader.readRecord()).isNull();
+      assertThat(reader.getFilePosition()).isEqualTo(expectedSizeOfFile);
+    }
+  }
+
+  @Test(dataProvider = "recordsForSeek")
+  public void testSeekToRecordInMappedFile(int blockSize, List<Record<Integer, Integer>> records, int key,
+      KeyMatchingStrategy matchingStrategy, PositionStrategy positionStrategy, Record<Integer, Integer> expectedRecord,
+      boolean shouldBeFound) throws Exception
+  {
+    writeRecords(blockSize, records);
+
+    try (BlockLogReader<Integer, Integer> reader = newMappedReader(blockSize))
+    {
+      Pair<Boolean, Record<Integer, Integer>> result = reader.seekToRecord(key, matchingStrategy, positionStrategy);
+
+      final SoftAssertions softly = new SoftAssertions();
+      softly.assertThat(result.getFirst()).isEqualTo(shouldBeFound);
+      softly.assertThat(result.getSecond()).isEqualTo(expectedRecord);
+      softly.assertAll();
+    }
+  }
+
   @Test
   public void testGetClosestBlockStartBeforeOrAtPosition() throws Exception
   {
@@ -518,9 +558,19 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
         RECORD_PARSER, blockSize);
   }
 
+  private BlockLogReader<Integer, Integer> newMappedReader(int blockSize) throws IOException
+  {
+    try (FileChannel channel = FileChannel.open(TEST_FILE.toPath(), StandardOpenOption.READ))
+    {
+      final MappedByteBuffer mappedFile = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      return BlockLogReader.newReaderForTests(TEST_FILE, LogFileInput.newMappedInput(mappedFile),
+          RECORD_PARSER, blockSize);
+    }
+  }
+
   private BlockLogReader<Integer, Integer> newReaderWithNullFile(int blockSize) throws FileNotFoundException
   {
-    return BlockLogReader.newReaderForTests(null, null, RECORD_PARSER, blockSize);
+    return BlockLogReader.newReaderForTests(null, (RandomAccessFile) null, RECORD_PARSER, blockSize);
   }
 
   /** Helper to build a list of records. */
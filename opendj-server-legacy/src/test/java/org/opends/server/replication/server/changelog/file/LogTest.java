@@ -22,6 +22,7 @@ import static org.opends.server.replication.server.changelog.api.DBCursor.Positi
 import static org.opends.server.replication.server.changelog.file.LogFileTest.*;
 
 import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.opends.server.DirectoryServerTestCase;
 import org.opends.server.TestCaseUtils;
@@ -499,6 +500,75 @@ public class LogTest extends DirectoryServerTestCase
     }
   }
 
+  @Test
+  public void testGroupCommitWithConcurrentAppends() throws Exception
+  {
+    final LogGroupCommitter committer = new LogGroupCommitter();
+    committer.start();
+    try (final Log<String, String> log = openLog(LogFileTest.RECORD_PARSER))
+    {
+      final int nbThreads = 4;
+      final Thread[] threads = new Thread[nbThreads];
+      final ChangelogException[] failures = new ChangelogException[nbThreads];
+      final AtomicInteger nextKey = new AtomicInteger(11);
+      for (int t = 0; t < nbThreads; t++)
+      {
+        final int threadIndex = t;
+        threads[t] = new Thread()
+        {
+          @Override
+          public void run()
+          {
+            try
+            {
+              for (int i = 0; i < 20; i++)
+              {
+                synchronized (log)
+                {
+                  // keys must be appended in ascending order
+                  log.append(Record.from(String.format("key%03d", nextKey.getAndIncrement()), "value"));
+                }
+                committer.notifyRecordsAppended(log);
+                committer.waitForDurability(log);
+              }
+            }
+            catch (ChangelogException e)
+            {
+              failures[threadIndex] = e;
+            }
+          }
+        };
+        threads[t].start();
+      }
+      for (Thread thread : threads)
+      {
+        thread.join();
+      }
+      assertThat(failures).containsOnly((ChangelogException) null);
+    }
+    finally
+    {
+      committer.initiateShutdown();
+      committer.join();
+    }
+  }
+
+  @Test
+  public void testWaitForDurabilityAfterGroupCommitterShutdown() throws Exception
+  {
+    final LogGroupCommitter committer = new LogGroupCommitter();
+    committer.start();
+    committer.initiateShutdown();
+    committer.join();
+
+    try (final Log<String, String> log = openLog(LogFileTest.RECORD_PARSER))
+    {
+      log.append(Record.from("key011", "value11"));
+      // synchronizes from the calling thread instead of hanging
+      committer.waitForDurability(log);
+    }
+  }
+
   private void advanceCursorUpTo(DBCursor<Record<String, String>> cursor, int fromIndex, int endIndex)
       throws Exception
   {
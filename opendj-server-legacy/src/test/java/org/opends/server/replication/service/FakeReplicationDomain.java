@@ -97,6 +97,11 @@ public class FakeReplicationDomain extends ReplicationDomain
     this.exportedEntryCount = exportedEntryCount;
   }
 
+  public void setInitializationWindowSize(int initializationWindowSize)
+  {
+    ((DomainFakeCfg) config).setInitializationWindowSize(initializationWindowSize);
+  }
+
   @Override
   public long countEntries() throws DirectoryException
   {
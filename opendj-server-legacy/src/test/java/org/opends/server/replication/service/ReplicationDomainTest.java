@@ -366,6 +366,50 @@ public class ReplicationDomainTest extends ReplicationTestCase
     }
   }
 
+  /**
+   * Test that a ReplicationDomain is able to export and import its database
+   * when the exporter keeps waiting for the importer acknowledgments.
+   */
+  @Test(enabled=true)
+  public void exportAndImportWithSmallInitializationWindow() throws Exception
+  {
+    final int ENTRYCOUNT=5000;
+    DN testService = DN.valueOf("o=test");
+    ReplicationServer replServer = null;
+    int replServerID = 11;
+    FakeReplicationDomain domain1 = null;
+    FakeReplicationDomain domain2 = null;
+
+    try
+    {
+      int replServerPort = TestCaseUtils.findFreePort();
+
+      replServer = createReplicationServer(replServerID, replServerPort,
+          "exportAndImportSmallWindow", 100);
+      SortedSet<String> servers = newTreeSet("localhost:" + replServerPort);
+
+      // the export spans many EntryMsgs, the importer acknowledges every 2 of them
+      String exportedData = buildExportedData(ENTRYCOUNT);
+      domain1 = new FakeReplicationDomain(
+          testService, 1, servers, 0, exportedData, null, ENTRYCOUNT);
+
+      StringBuilder importedData = new StringBuilder();
+      domain2 = new FakeReplicationDomain(
+          testService, 2, servers, 0, null, importedData, 0);
+      domain2.setInitializationWindowSize(4);
+
+      domain2.initializeFromRemote(1, NO_INIT_TASK);
+
+      waitEndExport(exportedData, importedData);
+      assertExportSucessful(domain1, domain2, exportedData, importedData);
+    }
+    finally
+    {
+      disable(domain1, domain2);
+      remove(replServer);
+    }
+  }
+
   private boolean initializeFromRemote(ReplicationDomain domain) throws DirectoryException
   {
     for (DSInfo remoteDS : domain.getReplicaInfos().values())
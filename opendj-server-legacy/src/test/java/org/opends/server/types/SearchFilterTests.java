@@ -418,6 +418,46 @@ public class SearchFilterTests extends DirectoryServerTestCase {
     runMatchTest(ldifEntry, filterStr, expectMatch);
   }
 
+  @DataProvider
+  public Object[][] undefinedMatchesParams() {
+    return new Object[][]{
+            // the assertion value is not a valid integer
+            {"(uidNumber=abc)", false},
+            {"(!(uidNumber=abc))", false},
+            // a FALSE component makes an AND filter FALSE, whatever its position
+            {"(!(&(uidNumber=abc)(cn=other)))", true},
+            {"(!(&(cn=other)(uidNumber=abc)))", true},
+            {"(!(&(uidNumber=abc)(cn=test)))", false},
+            {"(|(uidNumber=abc)(cn=test))", true},
+            {"(!(|(uidNumber=abc)(cn=other)))", false},
+    };
+  }
+
+  @Test(dataProvider = "undefinedMatchesParams")
+  public void testUndefinedMatches(String filterStr, boolean expectMatch) throws Exception {
+    Entry entry = TestCaseUtils.makeEntry(
+          "dn: cn=test,dc=example,dc=com",
+          "objectclass: top",
+          "objectclass: extensibleObject",
+          "cn: test",
+          "uidNumber: 42");
+    runSingleMatchTest(entry, filterStr, expectMatch);
+  }
+
+  @Test
+  public void testFilterIsReusedAcrossEntries() throws Exception {
+    final SearchFilter filter = SearchFilter.createFilterFromString("(&(cn=*Smith*)(sn>=M)(givenName=John))");
+    Entry johnSmith = TestCaseUtils.entryFromLdifString(makeSimpleLdif("John", "Smith"));
+    Entry johnAdams = TestCaseUtils.entryFromLdifString(makeSimpleLdif("John", "Adams"));
+    Entry janeSmith = TestCaseUtils.entryFromLdifString(makeSimpleLdif("Jane", "Smith"));
+
+    for (int i = 0; i < 2; i++) {
+      assertTrue(filter.matchesEntry(johnSmith));
+      assertFalse(filter.matchesEntry(johnAdams));
+      assertFalse(filter.matchesEntry(janeSmith));
+    }
+  }
+
   private void runMatchTest(String ldifEntry, String filterStr, boolean expectMatch) throws Exception {
     Entry entry = TestCaseUtils.entryFromLdifString(ldifEntry);
 
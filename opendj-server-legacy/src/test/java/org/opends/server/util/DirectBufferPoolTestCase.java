@@ -0,0 +1,70 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.opends.server.util;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class DirectBufferPoolTestCase extends UtilTestCase
+{
+  @Test
+  public void testReleasedBuffersAreReused()
+  {
+    final DirectBufferPool pool = new DirectBufferPool(2);
+    final ByteBuffer buffer = pool.lease(1024);
+    assertThat(buffer.isDirect()).isTrue();
+    assertThat(buffer.capacity()).isEqualTo(1024);
+    assertThat(pool.getLeasedBuffers()).isEqualTo(1);
+    assertThat(pool.getLeasedBytes()).isEqualTo(1024);
+
+    buffer.put((byte) 1).flip();
+    pool.release(buffer);
+    assertThat(pool.getLeasedBuffers()).isEqualTo(0);
+    assertThat(pool.getIdleBuffers()).isEqualTo(1);
+    assertThat(pool.getIdleBytes()).isEqualTo(1024);
+
+    final ByteBuffer reused = pool.lease(1024);
+    assertThat(reused).isSameAs(buffer);
+    assertThat(reused.position()).isEqualTo(0);
+    assertThat(reused.remaining()).isEqualTo(1024);
+    assertThat(pool.lease(2048).capacity()).isEqualTo(2048);
+    assertThat(pool.getAllocatedBuffers()).isEqualTo(2);
+    assertThat(pool.getIdleBuffers()).isEqualTo(0);
+  }
+
+  @Test
+  public void testIdleBuffersAreBounded()
+  {
+    final DirectBufferPool pool = new DirectBufferPool(2);
+    final ByteBuffer[] buffers = { pool.lease(512), pool.lease(512), pool.lease(512) };
+    for (ByteBuffer buffer : buffers)
+    {
+      pool.release(buffer);
+    }
+    assertThat(pool.getLeasedBuffers()).isEqualTo(0);
+    assertThat(pool.getIdleBuffers()).isEqualTo(2);
+    assertThat(pool.getIdleBytes()).isEqualTo(1024);
+
+    pool.discard(pool.lease(512));
+    assertThat(pool.getLeasedBuffers()).isEqualTo(0);
+    assertThat(pool.getIdleBuffers()).isEqualTo(1);
+    assertThat(pool.getAllocatedBuffers()).isEqualTo(3);
+  }
+}